@@ -0,0 +1,85 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays the request shapes captured by order-service in their recorded order, starting over
+ * when the capture runs out. Offsets keep increasing across passes so recorded pacing continues
+ * seamlessly.
+ */
+public class CapturedTraffic implements ShapeSource {
+
+    private final Path file;
+    private final List<RequestShape> shapes;
+    private final long passMillis;
+    private int position;
+    private long passOffset;
+
+    public CapturedTraffic(Path file, ObjectMapper objectMapper) throws IOException {
+        this.file = file;
+        this.shapes = new ArrayList<>();
+        long first = -1;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                long t = node.path("t").asLong();
+                if (first < 0) {
+                    first = t;
+                }
+                Map<String, String> query = new LinkedHashMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = node.path("query").fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> parameter = it.next();
+                    query.put(parameter.getKey(), parameter.getValue().asText());
+                }
+                List<Integer> items = null;
+                if (node.path("items").isArray()) {
+                    items = new ArrayList<>();
+                    for (JsonNode quantity : node.path("items")) {
+                        items.add(quantity.asInt(1));
+                    }
+                }
+                shapes.add(new RequestShape(t - first, node.path("method").asText(), node.path("route").asText(),
+                        query, items));
+            }
+        }
+        if (shapes.isEmpty()) {
+            throw new IOException("Capture " + file + " contains no requests");
+        }
+        shapes.sort((a, b) -> Long.compare(a.getOffsetMillis(), b.getOffsetMillis()));
+        long last = shapes.get(shapes.size() - 1).getOffsetMillis();
+        // keep the average gap between the end of one pass and the start of the next
+        this.passMillis = last + Math.max(1, last / shapes.size());
+    }
+
+    @Override
+    public RequestShape next() {
+        if (position == shapes.size()) {
+            position = 0;
+            passOffset += passMillis;
+        }
+        RequestShape shape = shapes.get(position++);
+        return new RequestShape(shape.getOffsetMillis() + passOffset, shape.getMethod(), shape.getRoute(),
+                shape.getQuery(), shape.getItemQuantities());
+    }
+
+    @Override
+    public String describe() {
+        return "capture:" + file.getFileName() + " (" + shapes.size() + " requests)";
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of every request bucketed by the second of the run it was due in, so the p99 can be
+ * followed as the target warms up instead of being folded into one figure for the whole run.
+ */
+public class LatencyTimeline {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Histogram[] seconds;
+    private volatile long startNanos;
+
+    public LatencyTimeline(Duration length) {
+        seconds = new Histogram[(int) Math.max(1, length.toSeconds())];
+        for (int i = 0; i < seconds.length; i++) {
+            seconds[i] = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 2);
+        }
+    }
+
+    void start(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    void record(long dueNanos, long completedNanos) {
+        int second = (int) TimeUnit.NANOSECONDS.toSeconds(dueNanos - startNanos);
+        if (second >= 0 && second < seconds.length) {
+            seconds[second].recordValue(Math.min(MAX_TRACKABLE_MICROS,
+                    TimeUnit.NANOSECONDS.toMicros(completedNanos - dueNanos)));
+        }
+    }
+
+    /**
+     * p99 of each second in microseconds; -1 for a second without completed requests.
+     */
+    public List<Long> p99Micros() {
+        List<Long> p99s = new ArrayList<>(seconds.length);
+        for (Histogram second : seconds) {
+            p99s.add(second.getTotalCount() == 0 ? -1 : second.getValueAtPercentile(99));
+        }
+        return p99s;
+    }
+
+    /**
+     * The steady p99: the median per-second p99 over the last third of the run.
+     */
+    public static long steadyP99Micros(List<Long> p99s) {
+        List<Long> tail = new ArrayList<>(p99s.subList(p99s.size() - Math.max(1, p99s.size() / 3), p99s.size()));
+        tail.removeIf(p99 -> p99 < 0);
+        if (tail.isEmpty()) {
+            return -1;
+        }
+        tail.sort(null);
+        return tail.get(tail.size() / 2);
+    }
+
+    /**
+     * The first second from which no later second's p99 exceeds the steady p99 by more than
+     * {@code tolerance}, or -1 if even the last one does.
+     */
+    public static int secondsToSteady(List<Long> p99s, double tolerance) {
+        long steady = steadyP99Micros(p99s);
+        if (steady < 0) {
+            return -1;
+        }
+        long limit = (long) (steady * (1 + tolerance));
+        int settled = p99s.size();
+        while (settled > 0 && p99s.get(settled - 1) <= limit) {
+            settled--;
+        }
+        return settled == p99s.size() ? -1 : settled;
+    }
+}
@@ -0,0 +1,169 @@
+package com.ecommerce.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: request i is due at a fixed point in time that does not depend on how fast
+ * earlier requests completed, and every request is sent asynchronously. A slow server therefore
+ * builds up outstanding requests instead of quietly lowering the offered rate, and latency is
+ * measured from the due time rather than the send time.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private final Scenario scenario;
+    private final ShapeSource source;
+    private final RequestFactory requestFactory;
+    private final HttpClient client;
+    private final ScheduledExecutorService streamCloser = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sse-closer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private LatencyTimeline timeline;
+
+    public LoadGenerator(Scenario scenario, ShapeSource source, RequestFactory requestFactory) {
+        this.scenario = scenario;
+        this.source = source;
+        this.requestFactory = requestFactory;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newCachedThreadPool(r -> {
+                    Thread thread = new Thread(r, "load-client");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    /**
+     * Also records every request, warm-up included, by the second it was due in.
+     */
+    public LoadGenerator withTimeline(LatencyTimeline timeline) {
+        this.timeline = timeline;
+        return this;
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / scenario.getRate());
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + scenario.getWarmup().toNanos();
+        long end = measureFrom + scenario.getDuration().toNanos();
+        Instant startedAt = Instant.now();
+        if (timeline != null) {
+            timeline.start(start);
+        }
+        log.info("Offering {} for {} (+{} warm-up) to {} from {}", describeRate(), scenario.getDuration(),
+                scenario.getWarmup(), scenario.getBaseUrl(), source.describe());
+
+        long sent = 0;
+        for (long i = 0; ; i++) {
+            RequestShape shape = source.next();
+            long due = start + (scenario.getPacing() == Scenario.Pacing.RECORDED
+                    ? (long) (TimeUnit.MILLISECONDS.toNanos(shape.getOffsetMillis()) / scenario.getSpeed())
+                    : i * intervalNanos);
+            if (due >= end) {
+                break;
+            }
+            sleepUntil(due);
+            boolean measured = due >= measureFrom;
+            RequestFactory.Prepared prepared = requestFactory.prepare(shape);
+            OperationStats operation = measured ? stats.computeIfAbsent(prepared.operation(), o -> new OperationStats()) : null;
+            if (inFlight.get() >= scenario.getMaxInFlight()) {
+                // waiting for a free slot would be exactly the coordinated omission this avoids
+                if (operation != null) {
+                    operation.recordDropped();
+                }
+                continue;
+            }
+            send(prepared, due, operation);
+            sent++;
+        }
+
+        long drainDeadline = System.nanoTime() + scenario.getRequestTimeout().toNanos() + scenario.getStreamHold().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        streamCloser.shutdownNow();
+        log.info("Sent {} requests; {} still outstanding at the end", sent, inFlight.get());
+        return LoadTestReport.from(scenario, source.describe(), startedAt, stats, inFlight.get());
+    }
+
+    private void send(RequestFactory.Prepared prepared, long due, OperationStats operation) {
+        inFlight.incrementAndGet();
+        long sentAt = System.nanoTime();
+        if (prepared.stream()) {
+            // the stream's latency is the time to its headers; it is then held open and closed
+            client.sendAsync(prepared.request(), HttpResponse.BodyHandlers.ofInputStream())
+                    .whenComplete((response, failure) -> {
+                        complete(operation, due, sentAt, response == null ? -1 : response.statusCode(), failure);
+                        if (response != null) {
+                            streamCloser.schedule(() -> close(response.body()), scenario.getStreamHold().toMillis(),
+                                    TimeUnit.MILLISECONDS);
+                        }
+                    });
+            return;
+        }
+        client.sendAsync(prepared.request(), HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, failure) -> {
+                    int status = response == null ? -1 : response.statusCode();
+                    complete(operation, due, sentAt, status, failure);
+                    if (prepared.create() && (status == 201 || status == 202)) {
+                        requestFactory.onCreated(prepared.customerId(), response.body());
+                    }
+                });
+    }
+
+    private void complete(OperationStats operation, long due, long sentAt, int status, Throwable failure) {
+        long completed = System.nanoTime();
+        inFlight.decrementAndGet();
+        if (timeline != null) {
+            timeline.record(due, completed);
+        }
+        if (operation == null) {
+            return;
+        }
+        if (failure != null) {
+            operation.recordFailure(due, completed);
+        } else {
+            operation.record(due, sentAt, completed, status);
+        }
+    }
+
+    private String describeRate() {
+        return scenario.getPacing() == Scenario.Pacing.RECORDED
+                ? "recorded pacing x" + scenario.getSpeed()
+                : scenario.getRate() + " req/s";
+    }
+
+    private static void close(InputStream body) {
+        try {
+            body.close();
+        } catch (Exception ignored) {
+            // the server may already have ended the stream
+        }
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <pre>
+ * run     &lt;scenario.json&gt; [report.json]        offer load and write the report
+ * compare &lt;baseline.json&gt; &lt;candidate.json&gt; [allowed-regression, default 0.10]
+ *                                           print the comparison, exit 1 on a regression
+ * startup &lt;scenario.json&gt; &lt;report.json&gt; [steady-tolerance, default 0.20] -- &lt;command...&gt;
+ *                                           launch the service, measure time to ready and to a steady p99
+ * </pre>
+ */
+@Slf4j
+public final class LoadTestApplication {
+
+    private LoadTestApplication() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            usage();
+            return;
+        }
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        switch (args[0]) {
+            case "run" -> run(objectMapper, Path.of(args[1]), args.length > 2 ? Path.of(args[2]) : null);
+            case "compare" -> {
+                ReportComparison comparison = new ReportComparison(objectMapper,
+                        args.length > 3 ? Double.parseDouble(args[3]) : 0.10);
+                ObjectNode result = comparison.compare(objectMapper.readTree(Path.of(args[1]).toFile()),
+                        objectMapper.readTree(Path.of(args[2]).toFile()));
+                System.out.println(objectMapper.writeValueAsString(result));
+                System.exit(comparison.isRegressed() ? 1 : 0);
+            }
+            case "startup" -> startup(objectMapper, args);
+            default -> usage();
+        }
+    }
+
+    private static void startup(ObjectMapper objectMapper, String[] args) throws Exception {
+        int separator = Arrays.asList(args).indexOf("--");
+        if (separator < 3 || separator == args.length - 1) {
+            usage();
+            return;
+        }
+        Path scenarioFile = Path.of(args[1]);
+        Scenario scenario = readScenario(objectMapper, scenarioFile);
+        double tolerance = separator > 3 ? Double.parseDouble(args[3]) : 0.20;
+        List<String> command = List.of(args).subList(separator + 1, args.length);
+        StartupReport report = new StartupProbe(scenario, source(objectMapper, scenarioFile, scenario),
+                new RequestFactory(scenario, objectMapper), command, tolerance).run();
+        Files.writeString(Path.of(args[2]), objectMapper.writeValueAsString(report));
+        log.info("Ready after {} ms, p99 steady after {} ms; wrote {}",
+                report.getTimeToReadyMillis(), report.getTimeToSteadyP99Millis(), args[2]);
+    }
+
+    private static ShapeSource source(ObjectMapper objectMapper, Path scenarioFile, Scenario scenario) throws IOException {
+        return scenario.getCapture() == null || scenario.getCapture().isBlank()
+                ? new SyntheticMix(scenario.getMix(), scenario.getSeed())
+                : new CapturedTraffic(scenarioFile.resolveSibling(scenario.getCapture()), objectMapper);
+    }
+
+    private static void run(ObjectMapper objectMapper, Path scenarioFile, Path reportFile) throws Exception {
+        Scenario scenario = readScenario(objectMapper, scenarioFile);
+        LoadTestReport report = new LoadGenerator(scenario, source(objectMapper, scenarioFile, scenario),
+                new RequestFactory(scenario, objectMapper)).run();
+        String json = objectMapper.writeValueAsString(report);
+        if (reportFile != null) {
+            Files.writeString(reportFile, json);
+            log.info("Wrote {}", reportFile);
+        } else {
+            System.out.println(json);
+        }
+        if (report.getDropped() > 0 || report.getOutstandingAtEnd() > 0) {
+            log.warn("{} requests were dropped and {} never completed: the generator or target saturated, "
+                    + "so the percentiles understate the real latency", report.getDropped(), report.getOutstandingAtEnd());
+        }
+    }
+
+    private static Scenario readScenario(ObjectMapper objectMapper, Path file) throws Exception {
+        // durations are ISO-8601 strings; bind them by hand to stay free of the JSR-310 module
+        ObjectNode tree = (ObjectNode) objectMapper.readTree(file.toFile());
+        Scenario scenario = new Scenario();
+        for (String field : new String[]{"warmup", "duration", "requestTimeout", "streamHold"}) {
+            if (tree.hasNonNull(field)) {
+                Duration value = Duration.parse(tree.remove(field).asText());
+                switch (field) {
+                    case "warmup" -> scenario.setWarmup(value);
+                    case "duration" -> scenario.setDuration(value);
+                    case "requestTimeout" -> scenario.setRequestTimeout(value);
+                    default -> scenario.setStreamHold(value);
+                }
+            }
+        }
+        return objectMapper.readerForUpdating(scenario).readValue(tree);
+    }
+
+    private static void usage() {
+        System.err.println("usage: run <scenario.json> [report.json] | compare <baseline.json> <candidate.json> [allowed-regression]"
+                + " | startup <scenario.json> <report.json> [steady-tolerance] -- <command...>");
+    }
+}
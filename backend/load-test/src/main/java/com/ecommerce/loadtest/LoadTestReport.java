@@ -0,0 +1,120 @@
+package com.ecommerce.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Machine-readable result of one run. Percentiles are in microseconds; each operation also
+ * carries its full compressed HdrHistogram so runs can be re-analysed or merged later.
+ */
+@Value
+@Builder
+public class LoadTestReport {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    int schemaVersion;
+    String scenario;
+    String target;
+    String source;
+    String pacing;
+    double offeredRate;
+    long warmupSeconds;
+    long durationSeconds;
+    String startedAt;
+    String finishedAt;
+    long requests;
+    long errors;
+    long dropped;
+    long outstandingAtEnd;
+    double achievedRate;
+    Map<String, Operation> operations;
+
+    @Value
+    @Builder
+    public static class Operation {
+        long count;
+        long errors;
+        long dropped;
+        double achievedRate;
+        Map<Integer, Long> statuses;
+        Map<String, Double> latencyMicros;
+        Map<String, Double> serviceTimeMicros;
+        String latencyHistogram;
+    }
+
+    static LoadTestReport from(Scenario scenario, String source, Instant startedAt,
+                               Map<String, OperationStats> stats, long outstanding) {
+        double seconds = Math.max(1, scenario.getDuration().toSeconds());
+        Map<String, Operation> operations = new TreeMap<>();
+        long requests = 0;
+        long errors = 0;
+        long dropped = 0;
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            long count = operation.getLatency().getTotalCount();
+            requests += count;
+            errors += operation.getErrors();
+            dropped += operation.getDropped();
+            operations.put(entry.getKey(), Operation.builder()
+                    .count(count)
+                    .errors(operation.getErrors())
+                    .dropped(operation.getDropped())
+                    .achievedRate(count / seconds)
+                    .statuses(operation.getStatuses())
+                    .latencyMicros(percentiles(operation.getLatency()))
+                    .serviceTimeMicros(percentiles(operation.getServiceTime()))
+                    .latencyHistogram(encode(operation.getLatency()))
+                    .build());
+        }
+        return LoadTestReport.builder()
+                .schemaVersion(SCHEMA_VERSION)
+                .scenario(scenario.getName())
+                .target(scenario.getBaseUrl())
+                .source(source)
+                .pacing(scenario.getPacing().name())
+                .offeredRate(scenario.getPacing() == Scenario.Pacing.CONSTANT ? scenario.getRate() : 0)
+                .warmupSeconds(scenario.getWarmup().toSeconds())
+                .durationSeconds(scenario.getDuration().toSeconds())
+                .startedAt(startedAt.toString())
+                .finishedAt(Instant.now().toString())
+                .requests(requests)
+                .errors(errors)
+                .dropped(dropped)
+                .outstandingAtEnd(outstanding)
+                .achievedRate(requests / seconds)
+                .operations(operations)
+                .build();
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        if (histogram.getTotalCount() == 0) {
+            return values;
+        }
+        values.put("p50", (double) histogram.getValueAtPercentile(50));
+        values.put("p90", (double) histogram.getValueAtPercentile(90));
+        values.put("p99", (double) histogram.getValueAtPercentile(99));
+        values.put("p99.9", (double) histogram.getValueAtPercentile(99.9));
+        values.put("max", (double) histogram.getMaxValue());
+        values.put("mean", histogram.getMean());
+        return values;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[length];
+        buffer.flip();
+        buffer.get(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements for one operation. {@link #latency} runs from the intended send time of the
+ * schedule, so a stalled server is charged for every request that should have gone out while it
+ * stalled; {@link #serviceTime} runs from the actual send and is kept for comparison only.
+ */
+public class OperationStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Histogram latency = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    public void record(long intendedNanos, long sentNanos, long completedNanos, int status) {
+        latency.recordValue(Math.min(MAX_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos)));
+        serviceTime.recordValue(Math.min(MAX_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos)));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (status >= 500 || status == 429) {
+            errors.increment();
+        }
+    }
+
+    public void recordFailure(long intendedNanos, long completedNanos) {
+        latency.recordValue(Math.min(MAX_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos)));
+        errors.increment();
+        statuses.computeIfAbsent(0, s -> new LongAdder()).increment();
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public Histogram getServiceTime() {
+        return serviceTime;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Response status counts; 0 stands for requests that got no response at all.
+     */
+    public Map<Integer, Long> getStatuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
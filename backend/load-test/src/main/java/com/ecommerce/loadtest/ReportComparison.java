@@ -0,0 +1,75 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Compares two reports operation by operation. A percentile regresses when the candidate is
+ * slower than the baseline by more than the allowed fraction; error and drop counts regress when
+ * they grow at all.
+ */
+public class ReportComparison {
+
+    private static final String[] PERCENTILES = {"p50", "p90", "p99", "p99.9"};
+
+    private final ObjectMapper objectMapper;
+    private final double allowedRegression;
+    private boolean regressed;
+
+    public ReportComparison(ObjectMapper objectMapper, double allowedRegression) {
+        this.objectMapper = objectMapper;
+        this.allowedRegression = allowedRegression;
+    }
+
+    public ObjectNode compare(JsonNode baseline, JsonNode candidate) {
+        if (baseline.path("schemaVersion").asInt() != candidate.path("schemaVersion").asInt()) {
+            throw new IllegalArgumentException("Reports use different schema versions");
+        }
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("allowedRegression", allowedRegression);
+        ObjectNode operations = result.putObject("operations");
+        for (Iterator<Map.Entry<String, JsonNode>> it = candidate.path("operations").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            JsonNode before = baseline.path("operations").path(entry.getKey());
+            if (before.isMissingNode()) {
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            ObjectNode operation = operations.putObject(entry.getKey());
+            for (String percentile : PERCENTILES) {
+                double was = before.path("latencyMicros").path(percentile).asDouble();
+                double is = after.path("latencyMicros").path(percentile).asDouble();
+                if (was <= 0) {
+                    continue;
+                }
+                double change = (is - was) / was;
+                ObjectNode value = operation.putObject(percentile);
+                value.put("baseline", was);
+                value.put("candidate", is);
+                value.put("change", change);
+                if (change > allowedRegression) {
+                    value.put("regressed", true);
+                    regressed = true;
+                }
+            }
+            for (String counter : new String[]{"errors", "dropped"}) {
+                long was = before.path(counter).asLong();
+                long is = after.path(counter).asLong();
+                operation.putObject(counter).put("baseline", was).put("candidate", is);
+                if (is > was) {
+                    regressed = true;
+                }
+            }
+        }
+        result.put("regressed", regressed);
+        return result;
+    }
+
+    public boolean isRegressed() {
+        return regressed;
+    }
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Turns shapes into concrete requests against the target: synthetic customers and products,
+ * and order ids taken from orders this run has already created, so reads and streams hit rows
+ * that exist and belong to the calling customer.
+ */
+public class RequestFactory {
+
+    static final String CUSTOMER_HEADER = "X-Load-Test-Customer";
+    private static final int KNOWN_ORDERS = 10_000;
+    private static final BigDecimal UNIT_PRICE = new BigDecimal("9.99");
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final ObjectMapper objectMapper;
+    private final Random random;
+    private final UUID[] customers;
+    private final UUID[] products;
+    private final AtomicReferenceArray<KnownOrder> knownOrders = new AtomicReferenceArray<>(KNOWN_ORDERS);
+    private final AtomicLong created = new AtomicLong();
+
+    public RequestFactory(Scenario scenario, ObjectMapper objectMapper) {
+        this.baseUrl = scenario.getBaseUrl().replaceAll("/+$", "");
+        this.requestTimeout = scenario.getRequestTimeout();
+        this.objectMapper = objectMapper;
+        this.random = new Random(scenario.getSeed());
+        this.customers = syntheticIds(scenario.getCustomers(), 0x10adL);
+        this.products = syntheticIds(scenario.getProducts(), 0x9d0dL);
+    }
+
+    public Prepared prepare(RequestShape shape) {
+        KnownOrder order = shape.getRoute().contains("{id}") ? randomKnownOrder() : null;
+        UUID customerId = order != null ? order.customerId() : customers[random.nextInt(customers.length)];
+        String path = order != null ? shape.getRoute().replace("{id}", order.orderId().toString()) : shape.getRoute();
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path + queryString(shape.getQuery())))
+                .timeout(requestTimeout)
+                .header(CUSTOMER_HEADER, customerId.toString());
+        boolean create = "POST".equals(shape.getMethod()) && "/api/orders".equals(shape.getRoute());
+        if (create) {
+            builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(orderBody(shape.getItemQuantities())));
+        } else {
+            builder.method(shape.getMethod(), HttpRequest.BodyPublishers.noBody());
+        }
+        boolean stream = shape.getRoute().endsWith("/stream");
+        if (stream) {
+            builder.header("Accept", "text/event-stream");
+        }
+        return new Prepared(builder.build(), shape.operation(), customerId, create, stream);
+    }
+
+    /**
+     * Remembers the order a successful create returned, so later shapes can reference it.
+     */
+    public void onCreated(UUID customerId, byte[] responseBody) {
+        try {
+            JsonNode id = objectMapper.readTree(responseBody).path("id");
+            if (id.isTextual()) {
+                long slot = created.getAndIncrement() % KNOWN_ORDERS;
+                knownOrders.set((int) slot, new KnownOrder(UUID.fromString(id.asText()), customerId));
+            }
+        } catch (IOException | IllegalArgumentException ignored) {
+            // an unparseable body only means this order is not reused
+        }
+    }
+
+    private KnownOrder randomKnownOrder() {
+        long count = Math.min(created.get(), KNOWN_ORDERS);
+        if (count == 0) {
+            return new KnownOrder(UUID.randomUUID(), customers[random.nextInt(customers.length)]);
+        }
+        KnownOrder order = knownOrders.get(random.nextInt((int) count));
+        return order != null ? order : new KnownOrder(UUID.randomUUID(), customers[random.nextInt(customers.length)]);
+    }
+
+    private byte[] orderBody(List<Integer> quantities) {
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode items = body.putArray("items");
+        for (int quantity : quantities == null || quantities.isEmpty() ? List.of(1) : quantities) {
+            items.addObject()
+                    .put("productId", products[random.nextInt(products.length)].toString())
+                    .put("quantity", quantity)
+                    .put("unitPrice", UNIT_PRICE);
+        }
+        body.put("shippingAddress", "1 Load Test Way");
+        body.put("paymentMethodId", "pm_load_test");
+        body.put("idempotencyKey", UUID.randomUUID().toString());
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String queryString(Map<String, String> query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner("&", "?", "");
+        for (Map.Entry<String, String> parameter : query.entrySet()) {
+            String value = parameter.getValue();
+            if ("*".equals(value)) {
+                // the capture dropped the value; only time bounds can be synthesized meaningfully
+                value = switch (parameter.getKey()) {
+                    case "from" -> Instant.now().minus(Duration.ofDays(30)).toString();
+                    case "to" -> Instant.now().toString();
+                    default -> null;
+                };
+            }
+            if (value != null) {
+                joiner.add(parameter.getKey() + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return joiner.length() == 1 ? "" : joiner.toString();
+    }
+
+    private static UUID[] syntheticIds(int count, long namespace) {
+        UUID[] ids = new UUID[Math.max(1, count)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = new UUID(namespace << 48 | 0x4000L, 0x8000000000000000L | i);
+        }
+        return ids;
+    }
+
+    public record Prepared(HttpRequest request, String operation, UUID customerId, boolean create, boolean stream) {
+    }
+
+    private record KnownOrder(UUID orderId, UUID customerId) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.loadtest;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What to send, without any concrete identifiers: those are filled in by {@link RequestFactory}.
+ */
+@Value
+public class RequestShape {
+    /** arrival offset from the start of the run, used by {@link Scenario.Pacing#RECORDED} */
+    long offsetMillis;
+    String method;
+    String route;
+    Map<String, String> query;
+    List<Integer> itemQuantities;
+
+    public String operation() {
+        return method + " " + route;
+    }
+}
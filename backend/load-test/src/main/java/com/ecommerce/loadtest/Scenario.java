@@ -0,0 +1,46 @@
+package com.ecommerce.loadtest;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One load-test run, read from a JSON file. Durations use ISO-8601 ("PT60S").
+ */
+@Data
+public class Scenario {
+
+    public enum Pacing {
+        /** one request every 1/rate seconds */
+        CONSTANT,
+        /** the recorded inter-arrival times of the capture, divided by {@link #speed} */
+        RECORDED
+    }
+
+    private String name = "orders";
+    private String baseUrl = "http://localhost:8080";
+    /** requests per second for {@link Pacing#CONSTANT} */
+    private double rate = 100;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    /** arrivals beyond this many outstanding requests are counted as dropped instead of sent */
+    private int maxInFlight = 2000;
+    private Pacing pacing = Pacing.CONSTANT;
+    private double speed = 1.0;
+    /** JSON-lines file written by order-service's TrafficCaptureFilter; empty means use {@link #mix} */
+    private String capture;
+    /** weights per operation when no capture is given */
+    private Map<String, Integer> mix = new LinkedHashMap<>(Map.of(
+            "POST /api/orders", 2,
+            "GET /api/orders", 5,
+            "GET /api/orders/{id}", 5,
+            "GET /api/orders/{id}/status/stream", 1));
+    private int customers = 10_000;
+    private int products = 1_000;
+    /** how long an SSE subscription is held open after its headers arrive */
+    private Duration streamHold = Duration.ofSeconds(5);
+    private long seed = 42;
+}
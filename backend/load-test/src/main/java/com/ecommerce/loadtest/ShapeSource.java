@@ -0,0 +1,11 @@
+package com.ecommerce.loadtest;
+
+/**
+ * An endless sequence of request shapes. Called from the single scheduling thread only.
+ */
+public interface ShapeSource {
+
+    RequestShape next();
+
+    String describe();
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launches the service, waits for its readiness probe and then offers the scenario's load from
+ * the first second, with no warm-up excluded. Reports how long the process took to report ready
+ * and how long until the p99 of each second stayed near its steady value, both measured from
+ * the launch. Run once per variant (warm-up or CDS archive on and off) to get before and after.
+ */
+@Slf4j
+public class StartupProbe {
+
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(5);
+
+    private final Scenario scenario;
+    private final ShapeSource source;
+    private final RequestFactory requestFactory;
+    private final List<String> command;
+    private final double steadyTolerance;
+
+    public StartupProbe(Scenario scenario, ShapeSource source, RequestFactory requestFactory,
+                        List<String> command, double steadyTolerance) {
+        this.scenario = scenario;
+        this.source = source;
+        this.requestFactory = requestFactory;
+        this.command = command;
+        this.steadyTolerance = steadyTolerance;
+    }
+
+    public StartupReport run() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(scenario.getBaseUrl() + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        try {
+            while (!isReady(client, readiness)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The service exited with " + process.exitValue() + " before it was ready");
+                }
+                if (System.nanoTime() - launched > READY_TIMEOUT.toNanos()) {
+                    throw new IllegalStateException("The service was not ready within " + READY_TIMEOUT);
+                }
+                Thread.sleep(20);
+            }
+            long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched);
+            log.info("Ready {} ms after launch", readyMillis);
+
+            scenario.setWarmup(Duration.ZERO);
+            LatencyTimeline timeline = new LatencyTimeline(scenario.getDuration());
+            LoadTestReport load = new LoadGenerator(scenario, source, requestFactory).withTimeline(timeline).run();
+            List<Long> p99s = timeline.p99Micros();
+            int steadySecond = LatencyTimeline.secondsToSteady(p99s, steadyTolerance);
+            long steadyMillis = steadySecond < 0 ? -1
+                    : TimeUnit.NANOSECONDS.toMillis(timeline.getStartNanos() - launched) + steadySecond * 1000L;
+            log.info("p99 steady at {} us from {} ms after launch", LatencyTimeline.steadyP99Micros(p99s), steadyMillis);
+            return StartupReport.builder()
+                    .scenario(scenario.getName())
+                    .command(String.join(" ", command))
+                    .timeToReadyMillis(readyMillis)
+                    .timeToSteadyP99Millis(steadyMillis)
+                    .steadyP99Micros(LatencyTimeline.steadyP99Micros(p99s))
+                    .steadyTolerance(steadyTolerance)
+                    .p99MicrosBySecond(p99s)
+                    .load(load)
+                    .build();
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static boolean isReady(HttpClient client, HttpRequest readiness) throws InterruptedException {
+        try {
+            return client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            // not listening yet
+            return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Result of one {@code startup} run. Times are from the moment the service process was launched;
+ * {@code timeToSteadyP99Millis} is -1 when the p99 had not settled by the end of the load.
+ */
+@Value
+@Builder
+public class StartupReport {
+
+    String scenario;
+    String command;
+    long timeToReadyMillis;
+    long timeToSteadyP99Millis;
+    long steadyP99Micros;
+    double steadyTolerance;
+    List<Long> p99MicrosBySecond;
+    LoadTestReport load;
+}
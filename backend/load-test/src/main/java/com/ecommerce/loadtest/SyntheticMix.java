@@ -0,0 +1,54 @@
+package com.ecommerce.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Picks operations by weight and gives orders one to five items.
+ */
+public class SyntheticMix implements ShapeSource {
+
+    private final String[] operations;
+    private final int[] cumulativeWeights;
+    private final Random random;
+
+    public SyntheticMix(Map<String, Integer> weights, long seed) {
+        this.operations = new String[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            total += entry.getValue();
+            operations[i] = entry.getKey();
+            cumulativeWeights[i++] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Scenario mix needs at least one positive weight");
+        }
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public RequestShape next() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (pick >= cumulativeWeights[index]) {
+            index++;
+        }
+        String[] parts = operations[index].split(" ", 2);
+        boolean create = "POST".equals(parts[0]) && "/api/orders".equals(parts[1]);
+        List<Integer> items = create
+                ? random.ints(1 + random.nextInt(5), 1, 4).boxed().toList()
+                : null;
+        Map<String, String> query = "/api/orders".equals(parts[1]) && !create
+                ? Map.of("page", "0", "size", "20")
+                : Map.of();
+        return new RequestShape(0, parts[0], parts[1], query, items);
+    }
+
+    @Override
+    public String describe() {
+        return "mix" + List.of(operations);
+    }
+}
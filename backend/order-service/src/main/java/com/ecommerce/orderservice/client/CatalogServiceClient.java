@@ -0,0 +1,23 @@
+package com.ecommerce.orderservice.client;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public interface CatalogServiceClient {
+
+    /**
+     * Streams the current price of every product to the sink and returns the catalog version
+     * the snapshot was taken at.
+     */
+    long streamPriceSnapshot(PriceSink sink);
+
+    /**
+     * Number of products in the catalog, used to size the index before a snapshot is streamed.
+     */
+    int productCount();
+
+    @FunctionalInterface
+    interface PriceSink {
+        void accept(UUID productId, BigDecimal price, long version);
+    }
+}
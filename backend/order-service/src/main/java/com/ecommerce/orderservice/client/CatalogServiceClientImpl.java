@@ -0,0 +1,18 @@
+package com.ecommerce.orderservice.client;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class CatalogServiceClientImpl implements CatalogServiceClient {
+    @Override
+    public long streamPriceSnapshot(PriceSink sink) {
+        // Placeholder - integrate with actual catalog service
+        return 0L;
+    }
+
+    @Override
+    public int productCount() {
+        // Placeholder - integrate with actual catalog service
+        return 0;
+    }
+}
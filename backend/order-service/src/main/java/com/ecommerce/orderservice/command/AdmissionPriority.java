@@ -0,0 +1,35 @@
+package com.ecommerce.orderservice.command;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+public enum AdmissionPriority {
+    HIGH,
+    NORMAL,
+    LOW;
+
+    /**
+     * Premium customers and retries the server has verified (the idempotency key is already
+     * held in the idempotency store, so the retry is a cheap replay) are HIGH; bulk integrator
+     * traffic is LOW; everyone else is NORMAL. Nothing the client sends raises its priority
+     * on its own.
+     */
+    public static AdmissionPriority of(Authentication authentication, boolean verifiedRetry) {
+        if (verifiedRetry) {
+            return HIGH;
+        }
+        if (authentication == null) {
+            return LOW;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if ("ROLE_PREMIUM".equals(name) || "TIER_PREMIUM".equals(name)) {
+                return HIGH;
+            }
+            if ("ROLE_INTEGRATOR".equals(name) || "TIER_INTEGRATOR".equals(name)) {
+                return LOW;
+            }
+        }
+        return NORMAL;
+    }
+}
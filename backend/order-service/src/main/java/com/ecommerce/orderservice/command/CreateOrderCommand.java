@@ -1,8 +1,10 @@
 package com.ecommerce.orderservice.command;
 
+import com.ecommerce.orderservice.request.OrderItemRequest;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,8 +12,9 @@ import java.util.UUID;
 @Builder
 public class CreateOrderCommand {
     private UUID customerId;
-    private List<?> items;
+    private List<OrderItemRequest> items;
     private String shippingAddress;
     private String paymentMethodId;
     private String idempotencyKey;
+    private Instant deadline;
 }
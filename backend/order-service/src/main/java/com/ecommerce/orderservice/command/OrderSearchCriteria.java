@@ -0,0 +1,18 @@
+package com.ecommerce.orderservice.command;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+@Value
+@Builder(toBuilder = true)
+public class OrderSearchCriteria {
+    Set<String> statuses;
+    UUID productId;
+    Instant from;
+    Instant to;
+    int limit;
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.orderservice.command;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Value
+@Builder
+public class RevenueReportCriteria {
+    UUID reportId;
+    Instant from;
+    Instant to;
+    List<String> statuses;
+    int productLimit;
+    boolean parallel;
+}
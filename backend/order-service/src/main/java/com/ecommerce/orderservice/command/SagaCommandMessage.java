@@ -0,0 +1,26 @@
+package com.ecommerce.orderservice.command;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaCommandMessage {
+
+    public enum Type {
+        RESERVE_INVENTORY,
+        RELEASE_INVENTORY,
+        AUTHORIZE_PAYMENT,
+        VOID_PAYMENT
+    }
+
+    private UUID orderId;
+    private UUID customerId;
+    private Type type;
+    private BigDecimal amount;
+}
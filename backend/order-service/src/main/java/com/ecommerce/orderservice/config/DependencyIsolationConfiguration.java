@@ -0,0 +1,92 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.support.DependencyCallExecutor;
+import com.ecommerce.orderservice.support.LatencyTracker;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class DependencyIsolationConfiguration {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+    private final boolean hedgingEnabled;
+    private final Duration minHedgeDelay;
+    // deliberately not a bean: a ScheduledExecutorService bean replaces Boot's TaskScheduler,
+    // and every @Scheduled job would then run on (and delay) the hedge timers
+    private final ScheduledExecutorService hedgeScheduler =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("dependency-hedge-"));
+
+    public DependencyIsolationConfiguration(CircuitBreakerRegistry circuitBreakerRegistry,
+                                            BulkheadRegistry bulkheadRegistry,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${order.dependencies.hedging.enabled:true}") boolean hedgingEnabled,
+                                            @Value("${order.dependencies.hedging.min-delay:50ms}") Duration minHedgeDelay) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+        this.hedgingEnabled = hedgingEnabled;
+        this.minHedgeDelay = minHedgeDelay;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public DependencyCallExecutor inventoryCallExecutor(
+            @Value("${order.dependencies.inventory.timeout:3s}") Duration timeout,
+            @Value("${order.dependencies.inventory.pool-size:20}") int poolSize) {
+        return dependencyCallExecutor("inventory-service", timeout, poolSize);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public DependencyCallExecutor customerCallExecutor(
+            @Value("${order.dependencies.customer.timeout:2s}") Duration timeout,
+            @Value("${order.dependencies.customer.pool-size:20}") int poolSize) {
+        return dependencyCallExecutor("customer-service", timeout, poolSize);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public DependencyCallExecutor paymentCallExecutor(
+            @Value("${order.dependencies.payment.timeout:3s}") Duration timeout,
+            @Value("${order.dependencies.payment.pool-size:20}") int poolSize) {
+        return dependencyCallExecutor("payment-service", timeout, poolSize);
+    }
+
+    @PreDestroy
+    public void shutdownHedgeScheduler() {
+        hedgeScheduler.shutdownNow();
+    }
+
+    private DependencyCallExecutor dependencyCallExecutor(String name, Duration timeout, int poolSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(poolSize * 2), new CustomizableThreadFactory(name + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        LatencyTracker latencyTracker = new LatencyTracker(1024, 0.95, TimeUnit.SECONDS.toNanos(1));
+        Gauge.builder("order.dependency.latency.p95", latencyTracker,
+                        tracker -> Math.max(0, tracker.percentileNanos()) / 1_000_000.0)
+                .tag("dependency", name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        return new DependencyCallExecutor(name,
+                circuitBreakerRegistry.circuitBreaker(name),
+                bulkheadRegistry.bulkhead(name),
+                executor, hedgeScheduler, latencyTracker,
+                timeout, minHedgeDelay, hedgingEnabled);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.support.RepositoryMethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+@Configuration
+public class JdbcInstrumentationConfiguration {
+
+    /**
+     * Tags every Spring Data repository proxy so JDBC statements can be attributed to the
+     * repository method that issued them (see {@code SlowQueryProfiler}).
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMethodTaggingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                                    proxyFactory.addAdvice(0,
+                                            new RepositoryMethodInterceptor(information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
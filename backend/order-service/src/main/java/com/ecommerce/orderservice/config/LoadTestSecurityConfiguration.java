@@ -0,0 +1,53 @@
+package com.ecommerce.orderservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationProvider;
+import org.springframework.security.web.authentication.preauth.RequestHeaderAuthenticationFilter;
+
+/**
+ * Lets the load-test harness act as any customer by sending the customer id in
+ * {@value #CUSTOMER_HEADER}. Only active with the loadtest profile and an explicit opt-in, since it
+ * trusts the header unconditionally.
+ */
+@Configuration
+@Profile("loadtest")
+@ConditionalOnProperty(prefix = "order.loadtest", name = "header-authentication", havingValue = "true")
+@Slf4j
+public class LoadTestSecurityConfiguration {
+
+    public static final String CUSTOMER_HEADER = "X-Load-Test-Customer";
+
+    @Bean
+    public SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+        log.warn("Load-test header authentication is enabled: {} is trusted without verification", CUSTOMER_HEADER);
+        PreAuthenticatedAuthenticationProvider provider = new PreAuthenticatedAuthenticationProvider();
+        provider.setPreAuthenticatedUserDetailsService(token -> User.withUsername(token.getName())
+                .password("")
+                .roles("CUSTOMER", "ADMIN")
+                .build());
+
+        RequestHeaderAuthenticationFilter headerFilter = new RequestHeaderAuthenticationFilter();
+        headerFilter.setPrincipalRequestHeader(CUSTOMER_HEADER);
+        headerFilter.setExceptionIfHeaderMissing(false);
+        headerFilter.setAuthenticationManager(new ProviderManager(provider));
+
+        return http
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilter(headerFilter)
+                .authorizeHttpRequests(requests -> requests
+                        .requestMatchers("/actuator/**").permitAll()
+                        .anyRequest().authenticated())
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.dto.OrderDto;
+import com.ecommerce.orderservice.dto.OrderPageDto;
+import com.ecommerce.orderservice.mapper.OrderJsonWriter;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link OrderDto} and {@link OrderPageDto} straight to the response stream through
+ * {@link OrderJsonWriter}, skipping Jackson's bean introspection. Generator buffers come from
+ * Jackson's recycler pool. Write-only: request bodies still go through the default converter.
+ */
+public class OrderJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final JsonFactory jsonFactory;
+
+    public OrderJsonHttpMessageConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return OrderDto.class == clazz || OrderPageDto.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Order responses are write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(
+                StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            if (body instanceof OrderPageDto page) {
+                OrderJsonWriter.writePage(json, page);
+            } else {
+                OrderJsonWriter.writeOrder(json, (OrderDto) body);
+            }
+        }
+    }
+}
@@ -1,20 +1,24 @@
 package com.ecommerce.orderservice.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.bulkhead.BulkheadConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.retry.RetryConfig;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
+@EnableConfigurationProperties(RateLimitProperties.class)
 @Slf4j
 public class PerformanceConfiguration {
 
@@ -26,7 +30,8 @@ public class PerformanceConfiguration {
         executor.setMaxPoolSize(50);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("order-processing-");
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // OrderAdmissionScheduler bounds concurrency upstream; never run overflow on request threads.
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         executor.initialize();
         return executor;
     }
@@ -43,6 +48,16 @@ public class PerformanceConfiguration {
         return executor;
     }
 
+    @Bean
+    public OrderJsonHttpMessageConverter orderJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        return new OrderJsonHttpMessageConverter(objectMapper.getFactory());
+    }
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
     @Bean
     public CircuitBreakerConfig orderCreationCircuitBreakerConfig() {
         return CircuitBreakerConfig.custom()
@@ -0,0 +1,28 @@
+package com.ecommerce.orderservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "order.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled;
+    private String defaultTier = "standard";
+    /**
+     * How long a node may hold leased tokens before returning to Redis for a fresh lease.
+     */
+    private Duration leaseTtl = Duration.ofSeconds(1);
+    private Map<String, Tier> tiers = new LinkedHashMap<>();
+
+    @Data
+    public static class Tier {
+        private long capacity = 20;
+        private double refillPerSecond = 5;
+        private long leaseSize = 2;
+    }
+}
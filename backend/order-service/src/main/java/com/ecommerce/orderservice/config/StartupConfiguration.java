@@ -0,0 +1,54 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.controller.OrderController;
+import com.ecommerce.orderservice.service.HighPerformanceOrderService;
+import com.ecommerce.orderservice.service.OrderAdmissionScheduler;
+import com.ecommerce.orderservice.service.OrderFactory;
+import com.ecommerce.orderservice.support.IdempotencyStore;
+import com.ecommerce.orderservice.support.PriceIndex;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.Set;
+
+@Configuration
+public class StartupConfiguration {
+
+    private static final Set<Class<?>> HOT_PATH_TYPES = Set.of(
+            DataSource.class,
+            OrderController.class,
+            OrderAdmissionScheduler.class,
+            HighPerformanceOrderService.class,
+            OrderFactory.class,
+            IdempotencyStore.class,
+            PriceIndex.class);
+
+    /**
+     * With spring.main.lazy-initialization the request path would pay for bean creation on the
+     * first order, and listener/scheduler beans would never be registered at all.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerOrderPathFilter() {
+        return (beanName, beanDefinition, beanType) -> {
+            for (Class<?> hotType : HOT_PATH_TYPES) {
+                if (hotType.isAssignableFrom(beanType)) {
+                    return true;
+                }
+            }
+            for (Method method : ClassUtils.getUserClass(beanType).getDeclaredMethods()) {
+                if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, KafkaListener.class)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.orderservice.controller;
+
+import com.ecommerce.orderservice.command.OrderSearchCriteria;
+import com.ecommerce.orderservice.command.RevenueReportCriteria;
+import com.ecommerce.orderservice.dto.OrderSearchResultDto;
+import com.ecommerce.orderservice.dto.RevenueReportDto;
+import com.ecommerce.orderservice.exception.ReportAbortedException;
+import com.ecommerce.orderservice.service.AdminOrderSearchService;
+import com.ecommerce.orderservice.service.RevenueReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+@Validated
+@SecurityRequirement(name = "bearer-key")
+@RequiredArgsConstructor
+public class AdminOrderController {
+
+    private final AdminOrderSearchService searchService;
+    private final RevenueReportService reportService;
+
+    @GetMapping("/search")
+    @Operation(summary = "Search orders by status, product and creation time")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OrderSearchResultDto> search(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "50") @Min(0) @Max(500) int limit) {
+
+        OrderSearchCriteria criteria = OrderSearchCriteria.builder()
+                .statuses(status == null ? null : new HashSet<>(status))
+                .productId(productId)
+                .from(from)
+                .to(to)
+                .limit(limit)
+                .build();
+        return ResponseEntity.ok(searchService.search(criteria));
+    }
+
+    @GetMapping("/reports/revenue")
+    @Operation(summary = "Revenue by product and by hour for orders created in [from, to)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RevenueReportDto> revenueReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(10000) int productLimit,
+            @RequestParam(defaultValue = "true") boolean parallel,
+            @RequestParam(required = false) UUID reportId) {
+
+        RevenueReportCriteria criteria = RevenueReportCriteria.builder()
+                .reportId(reportId)
+                .from(from)
+                .to(to)
+                .statuses(status)
+                .productLimit(productLimit)
+                .parallel(parallel)
+                .build();
+        try {
+            return ResponseEntity.ok(reportService.run(criteria));
+        } catch (ReportAbortedException e) {
+            return switch (e.getReason()) {
+                case INVALID_RANGE -> ResponseEntity.badRequest().build();
+                case BUSY -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30").build();
+                case DUPLICATE_ID, CANCELLED -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+                case TIMED_OUT -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                case MEMORY_LIMIT -> ResponseEntity.unprocessableEntity().build();
+            };
+        }
+    }
+
+    @DeleteMapping("/reports/{reportId}")
+    @Operation(summary = "Cancel a running report")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> cancelReport(@PathVariable UUID reportId) {
+        return reportService.cancel(reportId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.orderservice.controller;
+
+import com.ecommerce.orderservice.dto.AggregateDriftReport;
+import com.ecommerce.orderservice.support.AggregateConsistencyChecker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "aggregatedrift")
+@RequiredArgsConstructor
+public class AggregateDriftEndpoint {
+
+    private final AggregateConsistencyChecker consistencyChecker;
+
+    @ReadOperation
+    public AggregateDriftReport check() {
+        return consistencyChecker.check();
+    }
+
+    @WriteOperation
+    public AggregateDriftReport repair() {
+        return consistencyChecker.repair();
+    }
+}
@@ -1,21 +1,35 @@
 package com.ecommerce.orderservice.controller;
 
+import com.ecommerce.orderservice.command.AdmissionPriority;
 import com.ecommerce.orderservice.command.CreateOrderCommand;
+import com.ecommerce.orderservice.dto.CustomerOrderSummaryDto;
 import com.ecommerce.orderservice.dto.OrderDto;
+import com.ecommerce.orderservice.dto.OrderPageDto;
+import com.ecommerce.orderservice.exception.AdmissionRejectedException;
 import com.ecommerce.orderservice.mapper.OrderMapper;
 import com.ecommerce.orderservice.request.CreateOrderRequest;
+import com.ecommerce.orderservice.result.RateLimitDecision;
 import com.ecommerce.orderservice.service.HighPerformanceOrderService;
+import com.ecommerce.orderservice.service.OrderAdmissionScheduler;
 import com.ecommerce.orderservice.service.OrderQueryService;
+import com.ecommerce.orderservice.support.CustomerOrderAggregator;
+import com.ecommerce.orderservice.support.CustomerTotalsProjection;
+import com.ecommerce.orderservice.support.CustomerRateLimiter;
+import com.ecommerce.orderservice.support.ReadYourWritesTracker;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,8 +40,10 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -37,9 +53,16 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final long DEFAULT_REQUEST_TIMEOUT_MILLIS = 5_000L;
+
     private final HighPerformanceOrderService orderService;
     private final OrderQueryService queryService;
     private final MeterRegistry meterRegistry;
+    private final CustomerRateLimiter rateLimiter;
+    private final OrderAdmissionScheduler admissionScheduler;
+    private final CustomerOrderAggregator aggregator;
+    private final ObjectProvider<CustomerTotalsProjection> journalTotals;
+    private final ReadYourWritesTracker readYourWritesTracker;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -47,9 +70,22 @@ public class OrderController {
     @PreAuthorize("hasRole('CUSTOMER')")
     public CompletableFuture<ResponseEntity<OrderDto>> createOrder(
             @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = "X-Request-Timeout", required = false) Long requestTimeoutMillis,
+            @RequestHeader(value = "X-Retry-Attempt", required = false) Integer retryAttempt,
             Authentication authentication) {
 
+        RateLimitDecision rateLimit = rateLimiter.tryAcquire(authentication);
+        if (!rateLimit.isAllowed()) {
+            meterRegistry.counter("order.rate_limited").increment();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(Math.max(1, (rateLimit.getRetryAfterMillis() + 999) / 1000)))
+                    .build());
+        }
+
         Timer.Sample sample = Timer.start(meterRegistry);
+        Instant deadline = Instant.now().plusMillis(
+                requestTimeoutMillis != null ? requestTimeoutMillis : DEFAULT_REQUEST_TIMEOUT_MILLIS);
 
         CreateOrderCommand command = CreateOrderCommand.builder()
                 .customerId(UUID.fromString(authentication.getName()))
@@ -57,9 +93,13 @@ public class OrderController {
                 .shippingAddress(request.getShippingAddress())
                 .paymentMethodId(request.getPaymentMethodId())
                 .idempotencyKey(request.getIdempotencyKey())
+                .deadline(deadline)
                 .build();
+        // the header only tells us a lookup is worth doing; the store decides whether it is a retry
+        boolean verifiedRetry = retryAttempt != null && retryAttempt > 0 && orderService.isKnownRetry(command);
+        AdmissionPriority priority = AdmissionPriority.of(authentication, verifiedRetry);
 
-        return orderService.createOrderAsync(command)
+        return admissionScheduler.submit(priority, deadline, () -> orderService.createOrderAsync(command))
                 .thenApply(result -> {
                     sample.stop(Timer.builder("order.creation.duration")
                             .tag("status", result.isSuccess() ? "success" : "failure")
@@ -67,12 +107,24 @@ public class OrderController {
 
                     if (result.isSuccess()) {
                         OrderDto orderDto = OrderMapper.toDto(result.getOrder());
-                        return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
+                        HttpStatus status = result.isAccepted() ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+                        return ResponseEntity.status(status)
+                                .header(HttpHeaders.SET_COOKIE, readYourWritesTracker.writeMarker().toString())
+                                .body(orderDto);
                     } else {
                         throw new IllegalStateException(result.getErrorMessage());
                     }
                 })
                 .exceptionally(throwable -> {
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    if (cause instanceof AdmissionRejectedException) {
+                        sample.stop(Timer.builder("order.creation.duration")
+                                .tag("status", "shed")
+                                .register(meterRegistry));
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .<OrderDto>build();
+                    }
                     log.error("Failed to create order for customer: {}", command.getCustomerId(), throwable);
                     sample.stop(Timer.builder("order.creation.duration")
                             .tag("status", "error")
@@ -81,63 +133,32 @@ public class OrderController {
                 });
     }
 
-    @GetMapping("/{orderId}")
-    @Operation(summary = "Get order by ID")
-    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
-    @org.springframework.cache.annotation.Cacheable(value = "orders", key = "#orderId")
-    public ResponseEntity<OrderDto> getOrder(
-            @PathVariable @Valid @NotNull UUID orderId,
-            Authentication authentication) {
-
-        OrderDto order = queryService.getOrderById(orderId, authentication);
-        return ResponseEntity.ok(order);
-    }
-
-    @GetMapping("/{orderId}/status/stream")
-    @Operation(summary = "Stream order status updates")
-    @PreAuthorize("hasRole('CUSTOMER')")
-    public SseEmitter streamOrderStatus(@PathVariable UUID orderId) {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        orderService.subscribeToOrderUpdates(orderId, emitter);
-        return emitter;
-    }
-
-    @GetMapping
-    @Operation(summary = "Get customer orders with pagination")
+    @GetMapping("/summary")
+    @Operation(summary = "Get order counts and spend for the current customer")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<Page<OrderDto>> getCustomerOrders(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDirection,
-            Authentication authentication) {
-
+    public ResponseEntity<CustomerOrderSummaryDto> getCustomerSummary(Authentication authentication) {
         UUID customerId = UUID.fromString(authentication.getName());
-        Pageable pageable = PageRequest.of(page, size,
-                Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
-
-        Page<OrderDto> orders = queryService.getOrdersByCustomerId(customerId, pageable);
-        return ResponseEntity.ok(orders);
-    }}
-
-    return orderService.createOrderAsync(command).thenApply(result->{sample.stop(Timer.builder("order.creation.duration").tag("status",result.isSuccess()?"success":"failure").register(meterRegistry));
-
-    if(result.isSuccess()){
-
-    OrderDto orderDto = OrderMapper
-            .toDto(result.getOrder());return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
-    }else{throw new IllegalStateException(result.getErrorMessage());}}).exceptionally(throwable->{log.error("Failed to create order for customer: {}",command.getCustomerId(),throwable);sample.stop(Timer.builder("order.creation.duration").tag("status","error").register(meterRegistry));throw new IllegalStateException("Failed to create order",throwable);});}
+        CustomerTotalsProjection totals = journalTotals.getIfAvailable();
+        if (totals != null && totals.servesSummaries()) {
+            // a customer the journal has never seen has no orders there yet
+            return ResponseEntity.ok(totals.summary(customerId).orElseGet(() -> aggregator.summary(customerId)));
+        }
+        return ResponseEntity.ok(aggregator.summary(customerId));
+    }
 
     @GetMapping("/{orderId}")
     @Operation(summary = "Get order by ID")
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
-    @org.springframework.cache.annotation.Cacheable(value = "orders", key = "#orderId")
     public ResponseEntity<OrderDto> getOrder(
             @PathVariable @Valid @NotNull UUID orderId,
             Authentication authentication) {
 
         OrderDto order = queryService.getOrderById(orderId, authentication);
-        return ResponseEntity.ok(order);
+        // a matching If-None-Match turns this into a 304 before the body is written
+        return ResponseEntity.ok()
+                .eTag(Long.toString(order.getVersion()))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(order);
     }
 
     @GetMapping("/{orderId}/status/stream")
@@ -152,18 +173,30 @@ public class OrderController {
     @GetMapping
     @Operation(summary = "Get customer orders with pagination")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<Page<OrderDto>> getCustomerOrders(
+    public ResponseEntity<OrderPageDto> getCustomerOrders(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
             Authentication authentication) {
 
         UUID customerId = UUID.fromString(authentication.getName());
-        Pageable pageable = PageRequest.of(page, size,
-                Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
-
-        Page<OrderDto> orders = queryService.getOrdersByCustomerId(customerId, pageable);
-        return ResponseEntity.ok(orders);
+        try {
+            Pageable pageable = PageRequest.of(page, size,
+                    Sort.by(Sort.Direction.fromString(sortDirection), sortBy));
+
+            Page<OrderDto> orders = from == null && to == null
+                    ? queryService.getOrdersByCustomerId(customerId, pageable)
+                    : queryService.getOrdersByCustomerId(customerId,
+                            from != null ? from : Instant.EPOCH,
+                            to != null ? to : Instant.now(),
+                            pageable);
+            return ResponseEntity.ok(OrderPageDto.of(orders));
+        } catch (IllegalArgumentException e) {
+            // unknown sort direction, or a sort the archived range cannot serve
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.ecommerce.orderservice.controller;
+
+import com.ecommerce.orderservice.dto.JournalReplayReport;
+import com.ecommerce.orderservice.support.OrderEventJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "orderjournal")
+@ConditionalOnProperty(prefix = "order.journal", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OrderJournalEndpoint {
+
+    private final OrderEventJournal journal;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return journal.status();
+    }
+
+    @WriteOperation
+    public JournalReplayReport rebuild() {
+        return journal.rebuild();
+    }
+}
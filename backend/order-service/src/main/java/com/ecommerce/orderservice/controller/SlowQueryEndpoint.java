@@ -0,0 +1,29 @@
+package com.ecommerce.orderservice.controller;
+
+import com.ecommerce.orderservice.dto.SlowQuerySnapshot;
+import com.ecommerce.orderservice.support.SlowQueryProfiler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryProfiler slowQueryProfiler;
+
+    @ReadOperation
+    public List<SlowQuerySnapshot> slowQueries() {
+        return slowQueryProfiler.snapshots();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryProfiler.clear();
+    }
+}
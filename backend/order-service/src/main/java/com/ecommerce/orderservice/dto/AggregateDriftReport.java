@@ -0,0 +1,30 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Value
+@Builder
+public class AggregateDriftReport {
+    Instant checkedAt;
+    long elapsedMillis;
+    long rowsCompared;
+    long driftCount;
+    long repairedCount;
+    List<Drift> drifts;
+
+    @Value
+    public static class Drift {
+        UUID customerId;
+        String status;
+        long expectedCount;
+        long actualCount;
+        BigDecimal expectedAmount;
+        BigDecimal actualAmount;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+public class CatalogPriceChange {
+    private UUID productId;
+    private BigDecimal price;
+    private long version;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+@Value
+@Builder
+public class CustomerOrderSummaryDto {
+    UUID customerId;
+    Map<String, StatusTotals> byStatus;
+    long totalOrders;
+    BigDecimal lifetimeSpend;
+
+    @Value
+    public static class StatusTotals {
+        long count;
+        BigDecimal amount;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+@Value
+@Builder
+public class JournalReplayReport {
+    Instant completedAt;
+    int partitions;
+    List<String> projections;
+    long records;
+    long elapsedMillis;
+    long recordsPerSecond;
+}
@@ -17,4 +17,5 @@ public class OrderDto {
     private String status;
     private BigDecimal totalAmount;
     private Instant createdAt;
+    private long version;
 }
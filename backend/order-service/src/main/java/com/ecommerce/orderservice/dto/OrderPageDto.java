@@ -0,0 +1,22 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.Value;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Page envelope for order listings; carries only what clients page with instead of the
+ * full Spring Data {@link Page} metadata.
+ */
+@Value
+public class OrderPageDto {
+    List<OrderDto> content;
+    int page;
+    int size;
+    long totalElements;
+
+    public static OrderPageDto of(Page<OrderDto> page) {
+        return new OrderPageDto(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements());
+    }
+}
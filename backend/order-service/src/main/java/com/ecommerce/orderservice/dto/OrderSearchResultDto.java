@@ -0,0 +1,23 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Value
+@Builder
+public class OrderSearchResultDto {
+    long total;
+    String source;
+    List<Hit> hits;
+
+    @Value
+    public static class Hit {
+        UUID orderId;
+        String status;
+        Instant createdAt;
+    }
+}
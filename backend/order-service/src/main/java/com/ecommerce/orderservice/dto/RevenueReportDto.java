@@ -0,0 +1,39 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Value
+@Builder
+public class RevenueReportDto {
+    UUID reportId;
+    Instant from;
+    Instant to;
+    List<String> statuses;
+    int workers;
+    long rowsScanned;
+    long elapsedMillis;
+    BigDecimal totalRevenue;
+    long distinctProducts;
+    List<ProductRevenue> byProduct;
+    List<HourRevenue> byHour;
+
+    @Value
+    public static class ProductRevenue {
+        UUID productId;
+        BigDecimal revenue;
+        long units;
+    }
+
+    @Value
+    public static class HourRevenue {
+        Instant hour;
+        BigDecimal revenue;
+        long items;
+    }
+}
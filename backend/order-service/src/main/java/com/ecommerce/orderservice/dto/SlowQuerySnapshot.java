@@ -0,0 +1,19 @@
+package com.ecommerce.orderservice.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+@Value
+@Builder(toBuilder = true)
+public class SlowQuerySnapshot {
+    Instant capturedAt;
+    String repositoryMethod;
+    String sql;
+    List<String> parameterShapes;
+    long elapsedMillis;
+    boolean success;
+    String explainPlan;
+}
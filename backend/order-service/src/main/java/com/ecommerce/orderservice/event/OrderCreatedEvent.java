@@ -0,0 +1,34 @@
+package com.ecommerce.orderservice.event;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Value
+public class OrderCreatedEvent {
+    UUID orderId;
+    UUID customerId;
+    String status;
+    BigDecimal totalAmount;
+    Instant createdAt;
+    List<UUID> productIds;
+
+    /**
+     * Publish inside the transaction that inserts the order: the aggregate outbox writes its
+     * delta before that transaction commits.
+     */
+    public static OrderCreatedEvent of(Order order) {
+        List<UUID> productIds = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            productIds.add(item.getProductId());
+        }
+        return new OrderCreatedEvent(order.getId(), order.getCustomerId(), order.getStatus(),
+                order.getTotalAmount(), order.getCreatedAt(), productIds);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.orderservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Order lifecycle event as carried on the shared order events topic, keyed by order id so the
+ * events of one order stay in order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventMessage {
+
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED
+    }
+
+    private Type type;
+    private UUID orderId;
+    private UUID customerId;
+    private String status;
+    private String previousStatus;
+    private BigDecimal totalAmount;
+    private Instant createdAt;
+    private List<UUID> productIds;
+
+    public static OrderEventMessage of(OrderCreatedEvent event) {
+        return new OrderEventMessage(Type.CREATED, event.getOrderId(), event.getCustomerId(), event.getStatus(),
+                null, event.getTotalAmount(), event.getCreatedAt(), event.getProductIds());
+    }
+
+    public static OrderEventMessage of(OrderStatusChangedEvent event) {
+        return new OrderEventMessage(Type.STATUS_CHANGED, event.getOrderId(), event.getCustomerId(),
+                event.getNewStatus(), event.getPreviousStatus(), event.getTotalAmount(), null, null);
+    }
+}
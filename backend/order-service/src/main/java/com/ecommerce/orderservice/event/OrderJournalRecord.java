@@ -0,0 +1,32 @@
+package com.ecommerce.orderservice.event;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * One entry of the order event journal. {@code sequence} is assigned by the journal and is
+ * dense within a partition.
+ */
+@Value
+public class OrderJournalRecord {
+
+    public enum Type {
+        ORDER_CREATED,
+        STATUS_CHANGED
+    }
+
+    long sequence;
+    Type type;
+    UUID orderId;
+    UUID customerId;
+    long timestampMillis;
+    long amountMinorUnits;
+    String previousStatus;
+    String status;
+
+    public OrderJournalRecord withSequence(long assigned) {
+        return new OrderJournalRecord(assigned, type, orderId, customerId, timestampMillis,
+                amountMinorUnits, previousStatus, status);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.orderservice.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Value
+public class OrderStatusChangedEvent {
+    UUID orderId;
+    UUID customerId;
+    String previousStatus;
+    String newStatus;
+    BigDecimal totalAmount;
+}
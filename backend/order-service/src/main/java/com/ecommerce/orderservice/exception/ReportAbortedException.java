@@ -0,0 +1,24 @@
+package com.ecommerce.orderservice.exception;
+
+public class ReportAbortedException extends RuntimeException {
+
+    public enum Reason {
+        INVALID_RANGE,
+        BUSY,
+        DUPLICATE_ID,
+        CANCELLED,
+        TIMED_OUT,
+        MEMORY_LIMIT
+    }
+
+    private final Reason reason;
+
+    public ReportAbortedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.orderservice.mapper;
+
+import com.ecommerce.orderservice.dto.OrderDto;
+import com.ecommerce.orderservice.dto.OrderItemDto;
+import com.ecommerce.orderservice.dto.OrderPageDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hand-written streaming serialization for the order read/write responses. Produces the same
+ * JSON the reflective ObjectMapper would (ISO-8601 instants, plain decimals, UUID strings).
+ */
+public final class OrderJsonWriter {
+
+    private OrderJsonWriter() {
+    }
+
+    public static void writeOrder(JsonGenerator json, OrderDto order) throws IOException {
+        json.writeStartObject();
+        writeUuid(json, "id", order.getId());
+        writeUuid(json, "customerId", order.getCustomerId());
+        json.writeFieldName("items");
+        writeItems(json, order.getItems());
+        writeString(json, "status", order.getStatus());
+        writeDecimal(json, "totalAmount", order.getTotalAmount());
+        writeInstant(json, "createdAt", order.getCreatedAt());
+        json.writeNumberField("version", order.getVersion());
+        json.writeEndObject();
+    }
+
+    public static void writePage(JsonGenerator json, OrderPageDto page) throws IOException {
+        json.writeStartObject();
+        json.writeArrayFieldStart("content");
+        for (OrderDto order : page.getContent()) {
+            writeOrder(json, order);
+        }
+        json.writeEndArray();
+        json.writeNumberField("page", page.getPage());
+        json.writeNumberField("size", page.getSize());
+        json.writeNumberField("totalElements", page.getTotalElements());
+        json.writeEndObject();
+    }
+
+    private static void writeItems(JsonGenerator json, List<OrderItemDto> items) throws IOException {
+        if (items == null) {
+            json.writeNull();
+            return;
+        }
+        json.writeStartArray();
+        for (OrderItemDto item : items) {
+            json.writeStartObject();
+            writeUuid(json, "productId", item.getProductId());
+            json.writeNumberField("quantity", item.getQuantity());
+            writeDecimal(json, "unitPrice", item.getUnitPrice());
+            writeDecimal(json, "totalPrice", item.getTotalPrice());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeUuid(JsonGenerator json, String field, UUID value) throws IOException {
+        writeString(json, field, value == null ? null : value.toString());
+    }
+
+    private static void writeInstant(JsonGenerator json, String field, Instant value) throws IOException {
+        writeString(json, field, value == null ? null : value.toString());
+    }
+
+    private static void writeString(JsonGenerator json, String field, String value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeStringField(field, value);
+        }
+    }
+
+    private static void writeDecimal(JsonGenerator json, String field, BigDecimal value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+}
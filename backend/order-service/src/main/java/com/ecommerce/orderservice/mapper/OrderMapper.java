@@ -1,15 +1,58 @@
 package com.ecommerce.orderservice.mapper;
 
 import com.ecommerce.orderservice.dto.OrderDto;
+import com.ecommerce.orderservice.dto.OrderItemDto;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
 import com.ecommerce.orderservice.result.OrderResult;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public final class OrderMapper {
+
+    private OrderMapper() {
+    }
+
     public static OrderDto toDto(Object order) {
-        // Minimal placeholder mapping
-        return OrderDto.builder().build();
+        if (order instanceof OrderDto dto) {
+            return dto;
+        }
+        if (order instanceof Order entity) {
+            return toDto(entity);
+        }
+        throw new IllegalArgumentException("Cannot map " + (order == null ? "null" : order.getClass()) + " to OrderDto");
+    }
+
+    public static OrderDto toDto(Order order) {
+        return OrderDto.builder()
+                .id(order.getId())
+                .customerId(order.getCustomerId())
+                .items(toItemDtos(order.getItems()))
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .createdAt(order.getCreatedAt())
+                .version(order.getVersion())
+                .build();
     }
 
     public static OrderResult toResult(Object order) {
         return OrderResult.success(order);
     }
+
+    private static List<OrderItemDto> toItemDtos(List<OrderItem> items) {
+        if (items == null) {
+            return List.of();
+        }
+        List<OrderItemDto> dtos = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            dtos.add(OrderItemDto.builder()
+                    .productId(item.getProductId())
+                    .quantity(item.getQuantity())
+                    .unitPrice(item.getUnitPrice())
+                    .totalPrice(item.getTotalPrice())
+                    .build());
+        }
+        return dtos;
+    }
 }
@@ -0,0 +1,27 @@
+package com.ecommerce.orderservice.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Monetary amounts in the order pipeline are carried as {@code long} minor units at a fixed
+ * currency scale and only converted to {@link BigDecimal} at the persistence/API boundary.
+ */
+public final class Money {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more decimals than the currency scale
+     *                             or does not fit in a {@code long}
+     */
+    public static long toMinorUnits(BigDecimal amount, int scale) {
+        return amount.movePointRight(scale).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits, int scale) {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+}
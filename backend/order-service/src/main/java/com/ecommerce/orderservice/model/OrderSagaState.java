@@ -0,0 +1,70 @@
+package com.ecommerce.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "order_sagas")
+public class OrderSagaState implements Persistable<UUID> {
+
+    @Id
+    private UUID orderId;
+
+    @Column(nullable = false)
+    private UUID customerId;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false)
+    private OrderSagaStep step;
+
+    @Column(nullable = false)
+    private long deadlineAt;
+
+    private BigDecimal totalAmount;
+
+    @Version
+    private int version;
+
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newEntity = true;
+
+    @Override
+    @JsonIgnore
+    public UUID getId() {
+        return orderId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.orderservice.model;
+
+public enum OrderSagaStep {
+    RESERVING_INVENTORY,
+    AUTHORIZING_PAYMENT,
+    CONFIRMED,
+    CANCELLED;
+
+    public boolean isTerminal() {
+        return this == CONFIRMED || this == CANCELLED;
+    }
+}
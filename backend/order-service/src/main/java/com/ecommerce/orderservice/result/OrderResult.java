@@ -11,12 +11,17 @@ public class OrderResult<T> {
     private boolean success;
     private T order;
     private String errorMessage;
+    private boolean accepted;
 
     public static <T> OrderResult<T> success(T order) {
-        return new OrderResult<>(true, order, null);
+        return new OrderResult<>(true, order, null, false);
+    }
+
+    public static <T> OrderResult<T> accepted(T order) {
+        return new OrderResult<>(true, order, null, true);
     }
 
     public static <T> OrderResult<T> failure(String message) {
-        return new OrderResult<>(false, null, message);
+        return new OrderResult<>(false, null, message, false);
     }
 }
@@ -0,0 +1,20 @@
+package com.ecommerce.orderservice.result;
+
+import lombok.Value;
+
+@Value
+public class RateLimitDecision {
+
+    private static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0L);
+
+    boolean allowed;
+    long retryAfterMillis;
+
+    public static RateLimitDecision allowed() {
+        return ALLOWED;
+    }
+
+    public static RateLimitDecision rejected(long retryAfterMillis) {
+        return new RateLimitDecision(false, retryAfterMillis);
+    }
+}
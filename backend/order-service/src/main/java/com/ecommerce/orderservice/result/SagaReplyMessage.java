@@ -0,0 +1,18 @@
+package com.ecommerce.orderservice.result;
+
+import com.ecommerce.orderservice.command.SagaCommandMessage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SagaReplyMessage {
+    private UUID orderId;
+    private SagaCommandMessage.Type type;
+    private boolean success;
+    private String reason;
+}
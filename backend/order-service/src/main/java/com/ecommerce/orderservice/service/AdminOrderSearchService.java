@@ -0,0 +1,300 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.OrderSearchCriteria;
+import com.ecommerce.orderservice.dto.OrderSearchResultDto;
+import com.ecommerce.orderservice.event.OrderEventMessage;
+import com.ecommerce.orderservice.support.OrderSearchIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Admin search over orders. Orders created within {@code order.search.window} are answered
+ * from an in-memory {@link OrderSearchIndex} kept current from the shared order events topic
+ * and rebuilt from the database on a schedule; anything older, or any query while the index is
+ * unavailable, goes to the database, and a range spanning both is answered from both. The index trails the database by the topic's consumer lag;
+ * an event that failed to publish is only picked up by the next rebuild.
+ */
+@Service
+@Slf4j
+public class AdminOrderSearchService implements ConsumerSeekAware {
+
+    private static final String LOAD_RECENT = """
+            SELECT o.id, o.status, o.created_at, i.product_id
+            FROM orders o LEFT JOIN order_items i ON i.order_id = o.id
+            WHERE o.created_at >= ?
+            ORDER BY o.created_at, o.id""";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final JdbcTemplate searchJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration window;
+    private final int maxOrders;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile OrderSearchIndex index;
+    private List<Consumer<OrderSearchIndex>> pendingDuringRebuild;
+
+    public AdminOrderSearchService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper, Clock clock, MeterRegistry meterRegistry,
+                                   @Value("${order.search.window:30d}") Duration window,
+                                   @Value("${order.search.max-orders:10000000}") int maxOrders,
+                                   @Value("${order.search.fetch-size:5000}") int fetchSize,
+                                   @Value("${order.search.database-timeout:10s}") Duration databaseTimeout) {
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.searchJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.searchJdbcTemplate.setQueryTimeout((int) databaseTimeout.toSeconds());
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.window = window;
+        this.maxOrders = maxOrders;
+        Gauge.builder("order.search.indexed_orders", this, s -> s.index == null ? 0 : s.index.size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * A range reaching back past the index window, including one with no {@code from}, is split:
+     * the index answers the window and the database counts, and backfills hits from, the rest.
+     */
+    public OrderSearchResultDto search(OrderSearchCriteria criteria) {
+        OrderSearchIndex current = index;
+        if (current == null || current.isOverflowed()
+                || criteria.getTo() != null && !criteria.getTo().isAfter(current.getCoverageStart())) {
+            return searchDatabase(criteria);
+        }
+        if (criteria.getFrom() != null && !criteria.getFrom().isBefore(current.getCoverageStart())) {
+            return searchIndex(current, criteria);
+        }
+        OrderSearchResultDto recent = searchIndex(current,
+                criteria.toBuilder().from(current.getCoverageStart()).build());
+        OrderSearchResultDto older = searchDatabase(criteria.toBuilder()
+                .to(current.getCoverageStart())
+                .limit(criteria.getLimit() - recent.getHits().size())
+                .build());
+        List<OrderSearchResultDto.Hit> hits = new ArrayList<>(recent.getHits());
+        hits.addAll(older.getHits());
+        return OrderSearchResultDto.builder()
+                .total(recent.getTotal() + older.getTotal())
+                .source("index+database")
+                .hits(hits)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        CompletableFuture.runAsync(this::rebuild)
+                .exceptionally(e -> {
+                    log.error("Initial order search index build failed; searches use the database", e);
+                    return null;
+                });
+    }
+
+    @Scheduled(cron = "${order.search.rebuild-cron:0 0 4 * * *}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        OrderSearchIndex fresh = new OrderSearchIndex(clock.instant().minus(window), maxOrders);
+        try {
+            load(fresh);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // events that raced the load; add/updateStatus are idempotent
+            pendingDuringRebuild.forEach(update -> update.accept(fresh));
+            pendingDuringRebuild = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Order search index rebuilt with {} orders in {} ms{}", fresh.size(),
+                (System.nanoTime() - started) / 1_000_000,
+                fresh.isOverflowed() ? " (capacity reached, searches fall back to the database)" : "");
+    }
+
+    /**
+     * Every instance consumes the whole topic under its own group, so each index sees the orders
+     * created and updated on all instances, not only its own. The group is named after
+     * {@code order.node-id} so a restart rejoins it instead of leaving one behind.
+     */
+    @KafkaListener(topics = "${order.events.topic:order.events}",
+            groupId = "${spring.application.name}-search-${order.node-id:${HOSTNAME:local}}")
+    public void onOrderEvent(String payload) throws JsonProcessingException {
+        OrderEventMessage event = objectMapper.readValue(payload, OrderEventMessage.class);
+        switch (event.getType()) {
+            case CREATED -> apply(target -> target.add(event.getOrderId(), event.getStatus(), event.getCreatedAt(),
+                    event.getProductIds() == null ? List.of() : event.getProductIds()));
+            case STATUS_CHANGED -> apply(target -> target.updateStatus(event.getOrderId(), event.getStatus()));
+        }
+    }
+
+    /**
+     * The index is rebuilt from the database on startup, so events committed before this
+     * instance stopped would only replay stale statuses over it; start from the end instead.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    private void apply(Consumer<OrderSearchIndex> update) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                update.accept(index);
+            }
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load(OrderSearchIndex target) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            OrderLoader loader = new OrderLoader(target);
+            // Postgres only streams with a fetch size inside a transaction
+            streamingJdbcTemplate.query(LOAD_RECENT, rs -> {
+                loader.row(rs.getObject("id", UUID.class), rs.getString("status"),
+                        rs.getTimestamp("created_at").toInstant(), rs.getObject("product_id", UUID.class));
+            }, Timestamp.from(target.getCoverageStart()));
+            loader.flush();
+        });
+    }
+
+    private OrderSearchResultDto searchIndex(OrderSearchIndex current, OrderSearchCriteria criteria) {
+        OrderSearchIndex.Result result;
+        lock.readLock().lock();
+        try {
+            result = current.search(criteria.getStatuses(), criteria.getProductId(),
+                    criteria.getFrom(), criteria.getTo(), criteria.getLimit());
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<OrderSearchResultDto.Hit> hits = new ArrayList<>(result.getHits().size());
+        for (OrderSearchIndex.Hit hit : result.getHits()) {
+            hits.add(new OrderSearchResultDto.Hit(hit.getOrderId(), hit.getStatus(), hit.getCreatedAt()));
+        }
+        return OrderSearchResultDto.builder().total(result.getTotal()).source("index").hits(hits).build();
+    }
+
+    private OrderSearchResultDto searchDatabase(OrderSearchCriteria criteria) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (criteria.getStatuses() != null && !criteria.getStatuses().isEmpty()) {
+            where.append(" AND o.status IN (")
+                    .append(String.join(", ", Collections.nCopies(criteria.getStatuses().size(), "?")))
+                    .append(')');
+            args.addAll(criteria.getStatuses());
+        }
+        if (criteria.getProductId() != null) {
+            where.append(" AND EXISTS (SELECT 1 FROM order_items i WHERE i.order_id = o.id AND i.product_id = ?)");
+            args.add(criteria.getProductId());
+        }
+        if (criteria.getFrom() != null) {
+            where.append(" AND o.created_at >= ?");
+            args.add(Timestamp.from(criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            where.append(" AND o.created_at < ?");
+            args.add(Timestamp.from(criteria.getTo()));
+        }
+        return readOnlyTransaction.execute(status -> {
+            Long total = searchJdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders o" + where, Long.class, args.toArray());
+            List<Object> pageArgs = new ArrayList<>(args);
+            pageArgs.add(criteria.getLimit());
+            List<OrderSearchResultDto.Hit> hits = searchJdbcTemplate.query(
+                    "SELECT o.id, o.status, o.created_at FROM orders o" + where
+                            + " ORDER BY o.created_at DESC LIMIT ?",
+                    (rs, rowNum) -> new OrderSearchResultDto.Hit(rs.getObject("id", UUID.class),
+                            rs.getString("status"), rs.getTimestamp("created_at").toInstant()),
+                    pageArgs.toArray());
+            return OrderSearchResultDto.builder()
+                    .total(total == null ? 0 : total)
+                    .source("database")
+                    .hits(hits)
+                    .build();
+        });
+    }
+
+    /**
+     * Folds the one-row-per-item join back into one index entry per order.
+     */
+    private static final class OrderLoader {
+        private final OrderSearchIndex target;
+        private UUID orderId;
+        private String status;
+        private Instant createdAt;
+        private final List<UUID> productIds = new ArrayList<>();
+
+        OrderLoader(OrderSearchIndex target) {
+            this.target = target;
+        }
+
+        void row(UUID id, String rowStatus, Instant rowCreatedAt, UUID productId) {
+            if (!id.equals(orderId)) {
+                flush();
+                orderId = id;
+                status = rowStatus;
+                createdAt = rowCreatedAt;
+            }
+            if (productId != null) {
+                productIds.add(productId);
+            }
+        }
+
+        void flush() {
+            if (orderId != null) {
+                target.add(orderId, status, createdAt, productIds);
+                productIds.clear();
+                orderId = null;
+            }
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.ecommerce.orderservice.service;
 
 import com.ecommerce.orderservice.command.CreateOrderCommand;
+import com.ecommerce.orderservice.event.OrderCreatedEvent;
+import com.ecommerce.orderservice.event.OrderStatusChangedEvent;
 import com.ecommerce.orderservice.model.Order;
 import com.ecommerce.orderservice.result.OrderResult;
 import com.ecommerce.orderservice.result.ValidationResult;
 import com.ecommerce.orderservice.exception.OrderNotFoundException;
-import com.ecommerce.orderservice.support.DistributedCache;
+import com.ecommerce.orderservice.support.DependencyCallExecutor;
+import com.ecommerce.orderservice.support.IdempotencyRecord;
+import com.ecommerce.orderservice.support.IdempotencyStore;
 import com.ecommerce.orderservice.support.MetricsCollector;
+import com.ecommerce.orderservice.support.OrderStageEvent;
+import com.ecommerce.orderservice.support.ReadYourWritesTracker;
+import com.ecommerce.orderservice.support.ReplicaRoutingContext;
+import com.ecommerce.orderservice.validator.OrderValidator;
 import com.ecommerce.orderservice.client.InventoryServiceClient;
 import com.ecommerce.orderservice.client.PaymentServiceClient;
 import com.ecommerce.orderservice.client.CustomerServiceClient;
@@ -15,16 +23,26 @@ import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
 
@@ -34,14 +52,24 @@ import java.util.concurrent.*;
 @RequiredArgsConstructor
 public class HighPerformanceOrderService {
 
+    private static final Duration DEFAULT_REQUEST_BUDGET = Duration.ofSeconds(5);
+    private static final Duration PERSISTENCE_RESERVE = Duration.ofMillis(500);
+
     private final OrderRepository orderRepository;
-    private final DistributedCache distributedCache;
+    private final IdempotencyStore idempotencyStore;
     private final MetricsCollector metricsCollector;
     private final OrderValidator orderValidator;
     private final OrderFactory orderFactory;
     private final InventoryServiceClient inventoryClient;
     private final PaymentServiceClient paymentClient;
     private final CustomerServiceClient customerClient;
+    private final DependencyCallExecutor inventoryCallExecutor;
+    private final DependencyCallExecutor customerCallExecutor;
+    private final DependencyCallExecutor paymentCallExecutor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final ObjectProvider<OrderSagaOrchestrator> sagaOrchestrator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     private final ConcurrentHashMap<UUID, SseEmitter> orderSubscriptions = new ConcurrentHashMap<>();
 
     @Async("orderProcessingExecutor")
@@ -52,68 +80,192 @@ public class HighPerformanceOrderService {
         log.info("Processing order creation for customer: {}", command.getCustomerId());
 
         return CompletableFuture.supplyAsync(() -> {
-            String cacheKey = generateIdempotencyKey(command);
-            OrderResult cachedResult = distributedCache.get(cacheKey, OrderResult.class);
-            if (cachedResult != null) {
-                log.info("Returning cached order result for key: {}", cacheKey);
-                metricsCollector.incrementCounter("order.cache.hit");
-                return cachedResult;
+            String idempotencyKey = generateIdempotencyKey(command);
+            long requestHash = requestFingerprint(command);
+            if (idempotencyKey != null) {
+                IdempotencyRecord existing;
+                try {
+                    existing = OrderStageEvent.record("idempotency.lookup", command.getCustomerId(),
+                            () -> idempotencyStore.putIfAbsent(idempotencyKey, IdempotencyRecord.inProgress(requestHash)));
+                } catch (RuntimeException e) {
+                    // fails open like the result cache this store replaced: an outage must not stop checkout
+                    log.warn("Idempotency store unavailable, creating order without duplicate protection: {}",
+                            idempotencyKey, e);
+                    metricsCollector.incrementCounter("order.idempotency.unavailable");
+                    return createOrder(command, null, requestHash);
+                }
+                if (existing != null) {
+                    return replayIdempotentRequest(idempotencyKey, existing, requestHash);
+                }
             }
+            return createOrder(command, idempotencyKey, requestHash);
+        });
+    }
 
-            CompletableFuture<ValidationResult> validation = validateOrderAsync(command);
+    /**
+     * Creates the order for a request whose idempotency key, if any, has been claimed. Once the
+     * order is saved the request counts as succeeded: the key is never released after that point,
+     * so a failure in a later step cannot invite a retry that creates the order twice.
+     */
+    private OrderResult createOrder(CreateOrderCommand command, String idempotencyKey, long requestHash) {
+        OrderSagaOrchestrator saga = sagaOrchestrator.getIfAvailable();
+        if (saga != null) {
+            return acceptOrder(saga, command, idempotencyKey, requestHash);
+        }
 
-            try {
-                ValidationResult validationResult = validation.get(5, TimeUnit.SECONDS);
-                if (!validationResult.isValid()) {
-                    log.warn("Order validation failed: {}", validationResult.getErrors());
-                    return OrderResult.failure(validationResult.getErrors().toString());
-                }
+        Duration validationBudget = remainingBudget(command).minus(PERSISTENCE_RESERVE);
+        CompletableFuture<ValidationResult> validation = validateOrderAsync(command, validationBudget);
 
-                Order order = orderFactory.createOptimizedOrder(command);
-                Order savedOrder = saveOrderWithRetry(order);
-                publishOrderCreatedEventAsync(savedOrder);
+        Order savedOrder;
+        try {
+            ValidationResult validationResult = validation.get(
+                    Math.max(0, validationBudget.toMillis()), TimeUnit.MILLISECONDS);
+            if (!validationResult.isValid()) {
+                log.warn("Order validation failed: {}", validationResult.getErrors());
+                releaseIdempotencyKey(idempotencyKey);
+                return OrderResult.failure(validationResult.getErrors().toString());
+            }
 
-                OrderResult result = OrderResult.success(savedOrder);
-                distributedCache.put(cacheKey, result, Duration.ofMinutes(10));
+            Order order = OrderStageEvent.record("factory", command.getCustomerId(),
+                    () -> orderFactory.createOptimizedOrder(command));
+            savedOrder = OrderStageEvent.record("save", command.getCustomerId(),
+                    () -> saveOrderWithRetry(order));
+        } catch (TimeoutException e) {
+            log.error("Order validation timed out for customer: {}", command.getCustomerId());
+            metricsCollector.incrementCounter("order.validation.timeout");
+            releaseIdempotencyKey(idempotencyKey);
+            return OrderResult.failure("Order validation timed out");
+        } catch (Exception e) {
+            log.error("Failed to create order for customer: {}", command.getCustomerId(), e);
+            metricsCollector.incrementCounter("order.creation.error");
+            releaseIdempotencyKey(idempotencyKey);
+            return OrderResult.failure("Order creation failed: " + e.getMessage());
+        }
 
-                metricsCollector.incrementCounter("order.created.success");
-                log.info("Order created successfully: {}", savedOrder.getId());
+        onOrderSaved(savedOrder, idempotencyKey, requestHash);
+        OrderStageEvent.record("publish", command.getCustomerId(),
+                () -> publishOrderCreatedEventAsync(savedOrder));
+        metricsCollector.incrementCounter("order.created.success");
+        log.info("Order created successfully: {}", savedOrder.getId());
+        return OrderResult.success(savedOrder);
+    }
 
-                return result;
+    /**
+     * The saga reserves inventory and authorizes payment itself, but has no customer step, so the
+     * customer is still checked before the order is accepted.
+     */
+    private OrderResult acceptOrder(OrderSagaOrchestrator saga, CreateOrderCommand command,
+                                    String idempotencyKey, long requestHash) {
+        Duration validationBudget = remainingBudget(command).minus(PERSISTENCE_RESERVE);
+        Order savedOrder;
+        try {
+            boolean validCustomer = validateCustomerAsync(command, validationBudget)
+                    .get(Math.max(0, validationBudget.toMillis()), TimeUnit.MILLISECONDS);
+            if (!validCustomer) {
+                List<String> errors = List.of("Invalid customer");
+                log.warn("Order validation failed: {}", errors);
+                releaseIdempotencyKey(idempotencyKey);
+                return OrderResult.failure(errors.toString());
+            }
+            savedOrder = saga.start(orderFactory.createOptimizedOrder(command));
+        } catch (TimeoutException e) {
+            log.error("Order validation timed out for customer: {}", command.getCustomerId());
+            metricsCollector.incrementCounter("order.validation.timeout");
+            releaseIdempotencyKey(idempotencyKey);
+            return OrderResult.failure("Order validation timed out");
+        } catch (Exception e) {
+            log.error("Failed to accept order for customer: {}", command.getCustomerId(), e);
+            metricsCollector.incrementCounter("order.creation.error");
+            releaseIdempotencyKey(idempotencyKey);
+            return OrderResult.failure("Order creation failed: " + e.getMessage());
+        }
+        onOrderSaved(savedOrder, idempotencyKey, requestHash);
+        metricsCollector.incrementCounter("order.accepted");
+        log.info("Order accepted for asynchronous placement: {}", savedOrder.getId());
+        return OrderResult.accepted(savedOrder);
+    }
 
-            } catch (TimeoutException e) {
-                log.error("Order validation timed out for customer: {}", command.getCustomerId());
-                metricsCollector.incrementCounter("order.validation.timeout");
-                return OrderResult.failure("Order validation timed out");
-            } catch (Exception e) {
-                log.error("Failed to create order for customer: {}", command.getCustomerId(), e);
-                metricsCollector.incrementCounter("order.creation.error");
-                return OrderResult.failure("Order creation failed: " + e.getMessage());
+    private void onOrderSaved(Order savedOrder, String idempotencyKey, long requestHash) {
+        if (idempotencyKey != null) {
+            try {
+                idempotencyStore.complete(idempotencyKey,
+                        IdempotencyRecord.completed(savedOrder.getId(), requestHash));
+            } catch (RuntimeException e) {
+                // the key stays IN_PROGRESS until its TTL, so retries are refused rather than duplicated
+                log.warn("Failed to complete idempotency key {} for order {}", idempotencyKey, savedOrder.getId(), e);
+                metricsCollector.incrementCounter("order.idempotency.complete_error");
             }
-        });
+        }
+        try {
+            readYourWritesTracker.recordWrite(savedOrder.getCustomerId());
+        } catch (RuntimeException e) {
+            log.error("Post-save processing failed for order: {}", savedOrder.getId(), e);
+            metricsCollector.incrementCounter("order.created.post_save_error");
+        }
     }
 
-    private CompletableFuture<ValidationResult> validateOrderAsync(CreateOrderCommand command) {
-        CompletableFuture<Boolean> inventoryCheck = CompletableFuture
-                .supplyAsync(() -> inventoryClient.checkAvailability(command.getItems()))
-                .orTimeout(3, TimeUnit.SECONDS)
-                .exceptionally(throwable -> {
-                    log.warn("Inventory check failed, assuming available", throwable);
-                    return true;
-                });
+    private OrderResult replayIdempotentRequest(String idempotencyKey, IdempotencyRecord record, long requestHash) {
+        if (!record.matches(requestHash)) {
+            log.warn("Idempotency key reused with a different payload: {}", idempotencyKey);
+            metricsCollector.incrementCounter("order.idempotency.conflict");
+            return OrderResult.failure("Idempotency key was already used for a different request");
+        }
+        if (record.getStatus() == IdempotencyRecord.Status.IN_PROGRESS) {
+            metricsCollector.incrementCounter("order.idempotency.in_progress");
+            return OrderResult.failure("An order with this idempotency key is still being processed");
+        }
+        log.info("Replaying order result for idempotency key: {}", idempotencyKey);
+        metricsCollector.incrementCounter("order.idempotency.replay");
+        return orderRepository.findByOrderId(record.getOrderId())
+                .map(OrderResult::success)
+                .orElseGet(() -> OrderResult.failure("Order not found: " + record.getOrderId()));
+    }
+
+    private void releaseIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return;
+        }
+        try {
+            idempotencyStore.release(idempotencyKey);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release idempotency key: {}", idempotencyKey, e);
+        }
+    }
+
+    private Duration remainingBudget(CreateOrderCommand command) {
+        Instant now = Instant.now();
+        Instant deadline = now.plus(DEFAULT_REQUEST_BUDGET);
+        if (command.getDeadline() != null && command.getDeadline().isBefore(deadline)) {
+            deadline = command.getDeadline();
+        }
+        return Duration.between(now, deadline);
+    }
 
-        CompletableFuture<Boolean> customerCheck = CompletableFuture
-                .supplyAsync(() -> customerClient.validateCustomer(command.getCustomerId()))
-                .orTimeout(2, TimeUnit.SECONDS)
+    private CompletableFuture<Boolean> validateCustomerAsync(CreateOrderCommand command, Duration budget) {
+        return customerCallExecutor
+                .call(() -> OrderStageEvent.record("validation.customer", command.getCustomerId(),
+                        () -> customerClient.validateCustomer(command.getCustomerId())), budget)
                 .exceptionally(throwable -> {
                     log.warn("Customer validation failed", throwable);
                     return false;
                 });
+    }
+
+    private CompletableFuture<ValidationResult> validateOrderAsync(CreateOrderCommand command, Duration budget) {
+        CompletableFuture<Boolean> inventoryCheck = inventoryCallExecutor
+                .call(() -> OrderStageEvent.record("validation.inventory", command.getCustomerId(),
+                        () -> inventoryClient.checkAvailability(command.getItems())), budget)
+                .exceptionally(throwable -> {
+                    log.warn("Inventory check failed, assuming available", throwable);
+                    return true;
+                });
 
-        CompletableFuture<Boolean> paymentCheck = CompletableFuture
-                .supplyAsync(() -> paymentClient.validatePaymentMethod(
-                        command.getCustomerId(), command.getPaymentMethodId()))
-                .orTimeout(3, TimeUnit.SECONDS)
+        CompletableFuture<Boolean> customerCheck = validateCustomerAsync(command, budget);
+
+        CompletableFuture<Boolean> paymentCheck = paymentCallExecutor
+                .call(() -> OrderStageEvent.record("validation.payment", command.getCustomerId(),
+                        () -> paymentClient.validatePaymentMethod(
+                                command.getCustomerId(), command.getPaymentMethodId())), budget)
                 .exceptionally(throwable -> {
                     log.warn("Payment method validation failed", throwable);
                     return false;
@@ -141,7 +293,11 @@ public class HighPerformanceOrderService {
 
     private Order saveOrderWithRetry(Order order) {
         try {
-            return orderRepository.save(order);
+            return transactionTemplate.execute(status -> {
+                Order saved = orderRepository.save(order);
+                eventPublisher.publishEvent(OrderCreatedEvent.of(saved));
+                return saved;
+            });
         } catch (ObjectOptimisticLockingFailureException e) {
             log.warn("Optimistic locking failure, retrying order save: {}", order.getId());
             metricsCollector.incrementCounter("order.save.retry");
@@ -164,6 +320,7 @@ public class HighPerformanceOrderService {
         }
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void subscribeToOrderUpdates(UUID orderId, SseEmitter emitter) {
         orderSubscriptions.put(orderId, emitter);
 
@@ -183,7 +340,8 @@ public class HighPerformanceOrderService {
         });
 
         try {
-            Order order = orderRepository.findById(orderId)
+            Order order = orderRepository.findByOrderId(orderId)
+                    .or(() -> ReplicaRoutingContext.onPrimary(() -> orderRepository.findByOrderId(orderId)))
                     .orElseThrow(() -> new OrderNotFoundException(orderId));
             emitter.send(SseEmitter.event()
                     .name("order-status")
@@ -195,6 +353,43 @@ public class HighPerformanceOrderService {
         }
     }
 
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        SseEmitter emitter = orderSubscriptions.get(event.getOrderId());
+        if (emitter == null) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("order-status")
+                    .data("{\"status\":\"" + event.getNewStatus() + "\"}")
+                    .id(UUID.randomUUID().toString()));
+        } catch (IOException e) {
+            log.warn("Failed to push order status update: {}", event.getOrderId(), e);
+            orderSubscriptions.remove(event.getOrderId());
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Whether the command retries a request whose idempotency key the store already holds.
+     * A store outage counts as "not a retry" so the caller keeps its normal priority.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean isKnownRetry(CreateOrderCommand command) {
+        String idempotencyKey = generateIdempotencyKey(command);
+        if (idempotencyKey == null) {
+            return false;
+        }
+        try {
+            return idempotencyStore.get(idempotencyKey) != null;
+        } catch (RuntimeException e) {
+            log.warn("Idempotency lookup failed for key: {}", idempotencyKey, e);
+            return false;
+        }
+    }
+
     public CompletableFuture<OrderResult> createOrderFallback(CreateOrderCommand command, Exception ex) {
         log.warn("Order creation circuit breaker activated for customer: {}", command.getCustomerId(), ex);
         metricsCollector.incrementCounter("order.circuit_breaker.activated");
@@ -203,8 +398,25 @@ public class HighPerformanceOrderService {
     }
 
     private String generateIdempotencyKey(CreateOrderCommand command) {
+        if (command.getIdempotencyKey() == null) {
+            return null;
+        }
         return String.format("order:create:%s:%s",
                 command.getCustomerId(),
                 command.getIdempotencyKey());
     }
+
+    private long requestFingerprint(CreateOrderCommand command) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(command.getItems()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(command.getShippingAddress()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(command.getPaymentMethodId()).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
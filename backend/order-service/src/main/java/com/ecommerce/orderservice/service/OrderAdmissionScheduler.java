@@ -0,0 +1,185 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.AdmissionPriority;
+import com.ecommerce.orderservice.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of order creation. At most {@code max-concurrent} orders are in
+ * flight; the rest wait in one bounded queue per priority class and are released by smooth
+ * weighted round-robin, so HIGH traffic keeps flowing while LOW traffic is shed first. Work
+ * whose deadline has passed by the time it would be admitted is dropped instead of run.
+ */
+@Component
+@Slf4j
+public class OrderAdmissionScheduler {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrent;
+    private final Map<AdmissionPriority, ClassQueue> queues = new EnumMap<>(AdmissionPriority.class);
+    private int inFlight;
+
+    public OrderAdmissionScheduler(MeterRegistry meterRegistry,
+                                   @Value("${order.admission.max-concurrent:50}") int maxConcurrent,
+                                   @Value("${order.admission.high.weight:6}") int highWeight,
+                                   @Value("${order.admission.high.queue-capacity:200}") int highCapacity,
+                                   @Value("${order.admission.normal.weight:3}") int normalWeight,
+                                   @Value("${order.admission.normal.queue-capacity:100}") int normalCapacity,
+                                   @Value("${order.admission.low.weight:1}") int lowWeight,
+                                   @Value("${order.admission.low.queue-capacity:25}") int lowCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrent = maxConcurrent;
+        queues.put(AdmissionPriority.HIGH, new ClassQueue(highWeight, highCapacity));
+        queues.put(AdmissionPriority.NORMAL, new ClassQueue(normalWeight, normalCapacity));
+        queues.put(AdmissionPriority.LOW, new ClassQueue(lowWeight, lowCapacity));
+        queues.forEach((priority, queue) -> meterRegistry.gauge("order.admission.queue_depth",
+                Tags.of("priority", priority.name()), queue,
+                q -> q.pending.size()));
+    }
+
+    public <T> CompletableFuture<T> submit(AdmissionPriority priority, Instant deadline,
+                                           Supplier<CompletableFuture<T>> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Ticket<T> ticket = new Ticket<>(priority, deadline, work, result, System.nanoTime());
+        synchronized (this) {
+            if (inFlight < maxConcurrent && allQueuesEmpty()) {
+                inFlight++;
+            } else {
+                ClassQueue queue = queues.get(priority);
+                if (queue.pending.size() >= queue.capacity) {
+                    shed(ticket, "queue_full");
+                    return result;
+                }
+                queue.pending.add(ticket);
+                return result;
+            }
+        }
+        start(ticket);
+        return result;
+    }
+
+    private void start(Ticket<?> ticket) {
+        Timer.builder("order.admission.queue_time")
+                .tag("priority", ticket.priority.name())
+                .register(meterRegistry)
+                .record(System.nanoTime() - ticket.enqueuedAt, TimeUnit.NANOSECONDS);
+        ticket.run().whenComplete((value, error) -> release());
+    }
+
+    private void release() {
+        Ticket<?> next;
+        synchronized (this) {
+            while (true) {
+                next = pollNext();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+                if (next.deadline != null && next.deadline.isBefore(Instant.now())) {
+                    shed(next, "deadline_expired");
+                    continue;
+                }
+                break;
+            }
+        }
+        start(next);
+    }
+
+    /**
+     * Smooth weighted round-robin over the non-empty classes.
+     */
+    private Ticket<?> pollNext() {
+        ClassQueue selected = null;
+        int totalWeight = 0;
+        for (ClassQueue queue : queues.values()) {
+            if (queue.pending.isEmpty()) {
+                continue;
+            }
+            queue.current += queue.weight;
+            totalWeight += queue.weight;
+            if (selected == null || queue.current > selected.current) {
+                selected = queue;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        selected.current -= totalWeight;
+        return selected.pending.poll();
+    }
+
+    private boolean allQueuesEmpty() {
+        for (ClassQueue queue : queues.values()) {
+            if (!queue.pending.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void shed(Ticket<?> ticket, String reason) {
+        meterRegistry.counter("order.admission.shed",
+                "priority", ticket.priority.name(), "reason", reason).increment();
+        log.debug("Shedding {} order request: {}", ticket.priority, reason);
+        ticket.result.completeExceptionally(new AdmissionRejectedException(
+                "Order request not admitted (" + reason + ")"));
+    }
+
+    private static final class ClassQueue {
+        private final int weight;
+        private final int capacity;
+        private final ArrayDeque<Ticket<?>> pending = new ArrayDeque<>();
+        private int current;
+
+        ClassQueue(int weight, int capacity) {
+            this.weight = weight;
+            this.capacity = capacity;
+        }
+    }
+
+    private static final class Ticket<T> {
+        private final AdmissionPriority priority;
+        private final Instant deadline;
+        private final Supplier<CompletableFuture<T>> work;
+        private final CompletableFuture<T> result;
+        private final long enqueuedAt;
+
+        Ticket(AdmissionPriority priority, Instant deadline, Supplier<CompletableFuture<T>> work,
+               CompletableFuture<T> result, long enqueuedAt) {
+            this.priority = priority;
+            this.deadline = deadline;
+            this.work = work;
+            this.result = result;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        CompletableFuture<T> run() {
+            CompletableFuture<T> started;
+            try {
+                started = work.get();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            return started.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+    }
+}
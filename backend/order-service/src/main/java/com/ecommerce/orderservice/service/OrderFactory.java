@@ -1,66 +1,124 @@
 package com.ecommerce.orderservice.service;
 
 import com.ecommerce.orderservice.command.CreateOrderCommand;
+import com.ecommerce.orderservice.exception.OrderCreationException;
+import com.ecommerce.orderservice.model.Money;
 import com.ecommerce.orderservice.model.Order;
 import com.ecommerce.orderservice.model.OrderItem;
 import com.ecommerce.orderservice.request.OrderItemRequest;
-import lombok.RequiredArgsConstructor;
+import com.ecommerce.orderservice.support.PriceIndex;
+import com.ecommerce.orderservice.support.TimeOrderedUuid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 public class OrderFactory {
 
+    private static final int CURRENCY_SCALE = Money.DEFAULT_SCALE;
+
     private final Clock clock;
+    private final PriceIndex priceIndex;
+    private final boolean serverPricing;
+
+    public OrderFactory(Clock clock, PriceIndex priceIndex,
+                        @Value("${order.pricing.enabled:false}") boolean serverPricing) {
+        this.clock = clock;
+        this.priceIndex = priceIndex;
+        this.serverPricing = serverPricing;
+    }
 
     public Order createOptimizedOrder(CreateOrderCommand command) {
-        List<OrderItem> orderItems = ((List<?>) command.getItems()).stream()
-                .map(item -> (OrderItemRequest) item)
-                .map(this::createOrderItem)
-                .collect(Collectors.toList());
+        List<OrderItemRequest> itemRequests = command.getItems();
+        if (itemRequests == null || itemRequests.isEmpty()) {
+            throw new OrderCreationException("Order must contain at least one item");
+        }
+
+        int itemCount = itemRequests.size();
+        UUID[] productIds = new UUID[itemCount];
+        long[] unitPrices = new long[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            OrderItemRequest itemRequest = itemRequests.get(i);
+            productIds[i] = parseProductId(itemRequest.getProductId(), i);
+            if (!serverPricing) {
+                unitPrices[i] = unitPriceMinorUnits(itemRequest, i);
+            }
+        }
+        Long priceVersion = serverPricing ? priceFromIndex(productIds, unitPrices) : null;
 
-        BigDecimal totalAmount = calculateTotalAmount(orderItems);
+        Instant now = clock.instant();
+        long epochMilli = now.toEpochMilli();
+        List<OrderItem> orderItems = new ArrayList<>(itemCount);
+        long totalMinorUnits = 0L;
+        for (int i = 0; i < itemCount; i++) {
+            int quantity = itemRequests.get(i).getQuantity();
+            if (quantity <= 0) {
+                throw new OrderCreationException("Invalid quantity for item " + i + ": " + quantity);
+            }
+            try {
+                long lineMinorUnits = Math.multiplyExact(unitPrices[i], quantity);
+                totalMinorUnits = Math.addExact(totalMinorUnits, lineMinorUnits);
+                orderItems.add(OrderItem.builder()
+                        .id(TimeOrderedUuid.next(epochMilli))
+                        .productId(productIds[i])
+                        .quantity(quantity)
+                        .unitPrice(Money.toBigDecimal(unitPrices[i], CURRENCY_SCALE))
+                        .totalPrice(Money.toBigDecimal(lineMinorUnits, CURRENCY_SCALE))
+                        .build());
+            } catch (ArithmeticException e) {
+                throw new OrderCreationException("Order total overflow at item " + i, e);
+            }
+        }
 
         return Order.builder()
-                .id(UUID.randomUUID())
+                .id(TimeOrderedUuid.next(epochMilli))
                 .customerId(command.getCustomerId())
                 .items(orderItems)
                 .status("PENDING")
-                .totalAmount(totalAmount)
+                .totalAmount(Money.toBigDecimal(totalMinorUnits, CURRENCY_SCALE))
+                .priceVersion(priceVersion)
                 .shippingAddress(command.getShippingAddress())
-                .createdAt(clock.instant())
+                .createdAt(now)
                 .version(0L)
                 .build();
     }
 
-    private OrderItem createOrderItem(OrderItemRequest itemRequest) {
-        return OrderItem.builder()
-                .productId(UUID.fromString(itemRequest.getProductId()))
-                .quantity(itemRequest.getQuantity())
-                .unitPrice(itemRequest.getUnitPrice())
-                .totalPrice(itemRequest.getUnitPrice().multiply(
-                        BigDecimal.valueOf(itemRequest.getQuantity())))
-                .build();
+    private long priceFromIndex(UUID[] productIds, long[] unitPrices) {
+        try {
+            return priceIndex.priceAll(productIds, unitPrices);
+        } catch (PriceIndex.UnknownProductException e) {
+            throw new OrderCreationException("Unknown product for item " + e.getIndex()
+                    + ": " + productIds[e.getIndex()], e);
+        }
     }
 
-    private BigDecimal calculateTotalAmount(List<OrderItem> items) {
-        return items.stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private long unitPriceMinorUnits(OrderItemRequest itemRequest, int index) {
+        BigDecimal unitPrice = itemRequest.getUnitPrice();
+        if (unitPrice == null || unitPrice.signum() < 0) {
+            throw new OrderCreationException("Invalid unit price for item " + index + ": " + unitPrice);
+        }
+        try {
+            return Money.toMinorUnits(unitPrice, CURRENCY_SCALE);
+        } catch (ArithmeticException e) {
+            throw new OrderCreationException("Unit price for item " + index
+                    + " exceeds currency precision: " + unitPrice, e);
+        }
     }
 
-}
-
-    private BigDecimal calculateTotalAmount(List<OrderItem> items) {
-        return items.stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private UUID parseProductId(String productId, int index) {
+        if (productId == null) {
+            throw new OrderCreationException("Missing product id for item " + index);
+        }
+        try {
+            return UUID.fromString(productId);
+        } catch (IllegalArgumentException e) {
+            throw new OrderCreationException("Invalid product id for item " + index + ": " + productId, e);
+        }
     }
 }
@@ -5,10 +5,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public interface OrderQueryService {
     OrderDto getOrderById(UUID orderId, Authentication authentication);
 
     Page<OrderDto> getOrdersByCustomerId(UUID customerId, Pageable pageable);
+
+    Page<OrderDto> getOrdersByCustomerId(UUID customerId, Instant from, Instant to, Pageable pageable);
 }
@@ -1,49 +1,138 @@
 package com.ecommerce.orderservice.service;
 
 import com.ecommerce.orderservice.dto.OrderDto;
+import com.ecommerce.orderservice.mapper.OrderMapper;
 import com.ecommerce.orderservice.model.Order;
-import lombok.RequiredArgsConstructor;
+import com.ecommerce.orderservice.support.OrderArchive;
+import com.ecommerce.orderservice.support.ReadYourWritesTracker;
+import com.ecommerce.orderservice.support.ReplicaRoutingContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Service
-@RequiredArgsConstructor
 public class OrderQueryServiceImpl implements OrderQueryService {
 
     private final OrderRepository orderRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final TransactionTemplate readOnlyTransaction;
+    private final OrderArchive orderArchive;
+
+    public OrderQueryServiceImpl(OrderRepository orderRepository, ReadYourWritesTracker readYourWritesTracker,
+                                 PlatformTransactionManager transactionManager, OrderArchive orderArchive) {
+        this.orderRepository = orderRepository;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.orderArchive = orderArchive;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     @Override
     public OrderDto getOrderById(UUID orderId, Authentication authentication) {
-        Order order = orderRepository.findById(orderId)
+        Order order = readYourWritesTracker.read(customerIdOf(authentication), () -> orderRepository.findByOrderId(orderId))
+                .or(() -> ReplicaRoutingContext.onPrimary(() -> orderRepository.findByOrderId(orderId)))
+                .or(() -> orderArchive.findById(orderId))
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
-        return OrderDto.builder()
-                .id(order.getId())
-                .customerId(order.getCustomerId())
-                .status(order.getStatus())
-                .totalAmount(order.getTotalAmount())
-                .createdAt(order.getCreatedAt())
-                .build();
+        return OrderMapper.toDto(order);
     }
 
     @Override
     public Page<OrderDto> getOrdersByCustomerId(UUID customerId, Pageable pageable) {
-        Page<Order> orders = orderRepository.findByCustomerIdOrderByCreatedAtDesc(customerId, pageable);
-        List<OrderDto> dtos = orders.getContent().stream()
-                .map(order -> OrderDto.builder()
-                        .id(order.getId())
-                        .customerId(order.getCustomerId())
-                        .status(order.getStatus())
-                        .totalAmount(order.getTotalAmount())
-                        .createdAt(order.getCreatedAt())
-                        .build())
-                .collect(Collectors.toList());
-        return new PageImpl<>(dtos, pageable, orders.getTotalElements());
+        if (!orderArchive.isEmpty()) {
+            return getOrdersByCustomerId(customerId, Instant.EPOCH, Instant.now(), pageable);
+        }
+        return readYourWritesTracker.read(customerId, () -> toDtoPage(
+                () -> orderRepository.findByCustomerIdOrderByCreatedAtDesc(customerId, pageable)));
+    }
+
+    /**
+     * Every archived order was created before the archive horizon, so database rows at or after
+     * it come first and are paged in the database. Older database rows (orders not yet in a
+     * terminal status, or left behind by an interrupted archival run) are merged with the
+     * archived ones, reading only as many of each as the requested page reaches; where an order
+     * is in both, the database copy wins. The merge only knows created_at order, so any other
+     * sort is rejected once the range reaches into the archive.
+     */
+    @Override
+    public Page<OrderDto> getOrdersByCustomerId(UUID customerId, Instant from, Instant to, Pageable pageable) {
+        Instant archivedThrough = orderArchive.archivedThrough();
+        // segments keep created_at in millis: everything archived is strictly before the horizon
+        Instant horizon = archivedThrough == null ? null : archivedThrough.truncatedTo(ChronoUnit.MILLIS).plusMillis(1);
+        if (horizon == null || !from.isBefore(horizon)) {
+            return readYourWritesTracker.read(customerId, () -> toDtoPage(
+                    () -> orderRepository.findByCustomerIdAndCreatedAtRange(customerId, from, to, pageable)));
+        }
+        requireNewestFirst(pageable.getSort());
+        Instant split = to.isBefore(horizon) ? to : horizon;
+        return readYourWritesTracker.read(customerId, () -> readOnlyTransaction.execute(status -> {
+            Page<Order> recent = split.isBefore(to)
+                    ? orderRepository.findByCustomerIdAndCreatedAtRange(customerId, split, to, pageable)
+                    : Page.empty(pageable);
+            // below the horizon the database only holds unfinished orders and leftovers, so their ids are few
+            Set<UUID> olderInDatabase = new HashSet<>(
+                    orderRepository.findIdsByCustomerIdAndCreatedAtRange(customerId, from, split));
+            long archivedOnly = orderArchive.countByCustomerId(customerId, from, split)
+                    - olderInDatabase.stream().filter(orderArchive::contains).count();
+
+            List<Order> content = new ArrayList<>(recent.getContent());
+            int wanted = pageable.getPageSize() - content.size();
+            if (wanted > 0) {
+                long olderOffset = Math.max(0, pageable.getOffset() - recent.getTotalElements());
+                content.addAll(olderOrders(customerId, from, split, olderOffset, wanted, olderInDatabase));
+            }
+            return new PageImpl<>(content.stream().map(OrderMapper::toDto).toList(),
+                    pageable, recent.getTotalElements() + olderInDatabase.size() + archivedOnly);
+        }));
+    }
+
+    private List<Order> olderOrders(UUID customerId, Instant from, Instant to, long offset, int size,
+                                    Set<UUID> inDatabase) {
+        int needed = Math.toIntExact(offset + size);
+        List<Order> merged = new ArrayList<>();
+        if (!inDatabase.isEmpty()) {
+            merged.addAll(orderRepository.findByCustomerIdAndCreatedAtRange(customerId, from, to,
+                    PageRequest.of(0, needed)).getContent());
+        }
+        merged.addAll(orderArchive.findByCustomerId(customerId, from, to, needed, inDatabase));
+        merged.sort(Comparator.comparing(Order::getCreatedAt).reversed());
+        return merged.subList((int) Math.min(offset, merged.size()), Math.min(needed, merged.size()));
+    }
+
+    private static void requireNewestFirst(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!order.getProperty().equals("createdAt") || order.isAscending()) {
+                throw new IllegalArgumentException(
+                        "Orders older than the archive horizon can only be sorted by createdAt descending");
+            }
+        }
+    }
+
+    // items are lazy, so the page is mapped inside the same read-only transaction that loaded it
+    private Page<OrderDto> toDtoPage(Supplier<Page<Order>> query) {
+        return readOnlyTransaction.execute(status -> query.get().map(OrderMapper::toDto));
+    }
+
+    private UUID customerIdOf(Authentication authentication) {
+        try {
+            return authentication == null ? null : UUID.fromString(authentication.getName());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
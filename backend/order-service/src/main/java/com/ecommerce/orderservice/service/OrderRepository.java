@@ -1,6 +1,8 @@
 package com.ecommerce.orderservice.service;
 
 import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.support.TimeOrderedUuid;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -28,9 +31,79 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             @Param("customerId") UUID customerId,
             @Param("status") String status);
 
+    // bulk updates bypass @Version, so bump it here: the order's ETag is its version
     @Modifying
-    @Query("UPDATE Order o SET o.status = :status WHERE o.id = :orderId")
+    @Query("UPDATE Order o SET o.status = :status, o.version = o.version + 1 WHERE o.id = :orderId")
     int updateOrderStatus(
             @Param("orderId") UUID orderId,
             @Param("status") String status);
+
+    // Range-bounded variants: the created_at predicate lets Postgres prune monthly partitions.
+
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId "
+            + "AND o.createdAt >= :from AND o.createdAt < :to ORDER BY o.createdAt DESC")
+    Page<Order> findByCustomerIdAndCreatedAtRange(
+            @Param("customerId") UUID customerId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.customerId = :customerId "
+            + "AND o.createdAt >= :from AND o.createdAt < :to")
+    List<UUID> findIdsByCustomerIdAndCreatedAtRange(
+            @Param("customerId") UUID customerId,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId AND o.status = :status "
+            + "AND o.createdAt >= :from AND o.createdAt < :to")
+    List<Order> findByCustomerIdAndStatusAndCreatedAtRange(
+            @Param("customerId") UUID customerId,
+            @Param("status") String status,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    @Override
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findById(UUID orderId);
+
+    @EntityGraph(attributePaths = "items")
+    @Query("SELECT o FROM Order o WHERE o.id = :orderId AND o.createdAt >= :from AND o.createdAt < :to")
+    Optional<Order> findByIdAndCreatedAtRange(
+            @Param("orderId") UUID orderId,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.status = :status, o.version = o.version + 1 "
+            + "WHERE o.id = :orderId AND o.createdAt >= :from AND o.createdAt < :to")
+    int updateOrderStatusInCreatedAtRange(
+            @Param("orderId") UUID orderId,
+            @Param("status") String status,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    /**
+     * Looks an order up by id, narrowing to a single partition when the id is a UUIDv7
+     * whose timestamp is the order's creation millisecond.
+     */
+    default Optional<Order> findByOrderId(UUID orderId) {
+        long createdAtMilli = TimeOrderedUuid.epochMilli(orderId);
+        if (createdAtMilli < 0) {
+            return findById(orderId);
+        }
+        Instant from = Instant.ofEpochMilli(createdAtMilli);
+        return findByIdAndCreatedAtRange(orderId, from, from.plusMillis(1));
+    }
+
+    @Transactional
+    default int updateOrderStatusById(UUID orderId, String status) {
+        long createdAtMilli = TimeOrderedUuid.epochMilli(orderId);
+        if (createdAtMilli < 0) {
+            return updateOrderStatus(orderId, status);
+        }
+        Instant from = Instant.ofEpochMilli(createdAtMilli);
+        return updateOrderStatusInCreatedAtRange(orderId, status, from, from.plusMillis(1));
+    }
 }
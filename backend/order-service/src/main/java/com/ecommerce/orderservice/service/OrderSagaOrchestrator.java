@@ -0,0 +1,296 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.SagaCommandMessage;
+import com.ecommerce.orderservice.event.OrderCreatedEvent;
+import com.ecommerce.orderservice.event.OrderStatusChangedEvent;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderSagaState;
+import com.ecommerce.orderservice.model.OrderSagaStep;
+import com.ecommerce.orderservice.result.SagaReplyMessage;
+import com.ecommerce.orderservice.support.MetricsCollector;
+import com.ecommerce.orderservice.support.TimingWheel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Drives asynchronous order placement: reserve inventory, authorize payment, confirm.
+ * Commands go out on per-service Kafka topics and replies come back on a shared reply topic;
+ * failures and step timeouts trigger compensating commands and cancel the order.
+ */
+@Service
+@ConditionalOnProperty(prefix = "order.saga", name = "enabled", havingValue = "true")
+@Slf4j
+public class OrderSagaOrchestrator {
+
+    private static final String STATUS_PENDING = "PENDING";
+    private static final String STATUS_CONFIRMED = "CONFIRMED";
+    private static final String STATUS_CANCELLED = "CANCELLED";
+
+    private final OrderSagaStateRepository sagaRepository;
+    private final OrderRepository orderRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MetricsCollector metricsCollector;
+    private final TimingWheel timeouts;
+    private final TaskExecutor sagaExecutor;
+    private final Duration stepTimeout;
+    private final String inventoryCommandTopic;
+    private final String paymentCommandTopic;
+
+    public OrderSagaOrchestrator(OrderSagaStateRepository sagaRepository,
+                                 OrderRepository orderRepository,
+                                 KafkaTemplate<String, String> kafkaTemplate,
+                                 ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher,
+                                 TransactionTemplate transactionTemplate,
+                                 MetricsCollector metricsCollector,
+                                 @Qualifier("eventProcessingExecutor") TaskExecutor timeoutExecutor,
+                                 @Value("${order.saga.step-timeout:30s}") Duration stepTimeout,
+                                 @Value("${order.saga.inventory-command-topic:order-saga.inventory-commands}") String inventoryCommandTopic,
+                                 @Value("${order.saga.payment-command-topic:order-saga.payment-commands}") String paymentCommandTopic) {
+        this.sagaRepository = sagaRepository;
+        this.orderRepository = orderRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.metricsCollector = metricsCollector;
+        this.stepTimeout = stepTimeout;
+        this.inventoryCommandTopic = inventoryCommandTopic;
+        this.paymentCommandTopic = paymentCommandTopic;
+        this.sagaExecutor = timeoutExecutor;
+        this.timeouts = new TimingWheel("order-saga-timeouts", 100, 1024,
+                orderId -> timeoutExecutor.execute(() -> onTimeout(orderId)));
+    }
+
+    /**
+     * Persists the order as PENDING together with its saga state and sends the first command.
+     */
+    public Order start(Order order) {
+        long deadline = nextDeadline();
+        Order savedOrder = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            sagaRepository.save(OrderSagaState.builder()
+                    .orderId(saved.getId())
+                    .customerId(saved.getCustomerId())
+                    .step(OrderSagaStep.RESERVING_INVENTORY)
+                    .deadlineAt(deadline)
+                    .totalAmount(saved.getTotalAmount())
+                    .build());
+            eventPublisher.publishEvent(OrderCreatedEvent.of(saved));
+            return saved;
+        });
+        timeouts.schedule(savedOrder.getId(), deadline);
+        send(new SagaCommandMessage(savedOrder.getId(), savedOrder.getCustomerId(),
+                SagaCommandMessage.Type.RESERVE_INVENTORY, savedOrder.getTotalAmount()));
+        metricsCollector.incrementCounter("order.saga.started");
+        return savedOrder;
+    }
+
+    @KafkaListener(topics = "${order.saga.reply-topic:order-saga.replies}",
+            groupId = "${spring.application.name}-saga")
+    public void onReply(String payload) throws JsonProcessingException {
+        SagaReplyMessage reply = objectMapper.readValue(payload, SagaReplyMessage.class);
+        List<SagaCommandMessage> outbound = transactionTemplate.execute(status -> handleReply(reply));
+        dispatch(outbound);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInFlightSagas() {
+        List<OrderSagaState> inFlight = sagaRepository.findByStepIn(
+                EnumSet.of(OrderSagaStep.RESERVING_INVENTORY, OrderSagaStep.AUTHORIZING_PAYMENT));
+        inFlight.forEach(state -> timeouts.schedule(state.getOrderId(), state.getDeadlineAt()));
+        if (!inFlight.isEmpty()) {
+            log.info("Rescheduled timeouts for {} in-flight order sagas", inFlight.size());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        timeouts.close();
+    }
+
+    private List<SagaCommandMessage> handleReply(SagaReplyMessage reply) {
+        List<SagaCommandMessage> outbound = new ArrayList<>();
+        OrderSagaState state = sagaRepository.findById(reply.getOrderId()).orElse(null);
+        if (state == null || state.getStep().isTerminal()) {
+            log.debug("Ignoring saga reply for unknown or finished order: {}", reply.getOrderId());
+            return outbound;
+        }
+
+        switch (state.getStep()) {
+            case RESERVING_INVENTORY -> {
+                if (reply.getType() != SagaCommandMessage.Type.RESERVE_INVENTORY) {
+                    return outbound;
+                }
+                if (reply.isSuccess()) {
+                    state.setStep(OrderSagaStep.AUTHORIZING_PAYMENT);
+                    state.setDeadlineAt(nextDeadline());
+                    timeouts.schedule(state.getOrderId(), state.getDeadlineAt());
+                    Order order = orderRepository.findByOrderId(state.getOrderId()).orElseThrow();
+                    outbound.add(new SagaCommandMessage(state.getOrderId(), state.getCustomerId(),
+                            SagaCommandMessage.Type.AUTHORIZE_PAYMENT, order.getTotalAmount()));
+                } else {
+                    cancel(state, "inventory reservation failed: " + reply.getReason());
+                }
+            }
+            case AUTHORIZING_PAYMENT -> {
+                if (reply.getType() != SagaCommandMessage.Type.AUTHORIZE_PAYMENT) {
+                    return outbound;
+                }
+                if (reply.isSuccess()) {
+                    state.setStep(OrderSagaStep.CONFIRMED);
+                    changeOrderStatus(state, STATUS_CONFIRMED);
+                    metricsCollector.incrementCounter("order.saga.confirmed");
+                } else {
+                    outbound.add(compensation(state, SagaCommandMessage.Type.RELEASE_INVENTORY));
+                    cancel(state, "payment authorization failed: " + reply.getReason());
+                }
+            }
+            default -> {
+            }
+        }
+        sagaRepository.save(state);
+        return outbound;
+    }
+
+    private void onTimeout(UUID orderId) {
+        abort(orderId, null);
+    }
+
+    /**
+     * Compensates and cancels a saga that cannot make progress: either its step deadline passed
+     * ({@code failedStep == null}) or the command for {@code failedStep} could not be published.
+     */
+    private void abort(UUID orderId, OrderSagaStep failedStep) {
+        try {
+            List<SagaCommandMessage> outbound = transactionTemplate.execute(status -> {
+                List<SagaCommandMessage> commands = new ArrayList<>();
+                OrderSagaState state = sagaRepository.findById(orderId).orElse(null);
+                if (state == null || state.getStep().isTerminal()) {
+                    return commands;
+                }
+                if (failedStep == null && state.getDeadlineAt() > System.currentTimeMillis()) {
+                    // Step advanced since this timeout was scheduled.
+                    timeouts.schedule(orderId, state.getDeadlineAt());
+                    return commands;
+                }
+                if (failedStep != null && state.getStep() != failedStep) {
+                    return commands;
+                }
+                if (state.getStep() == OrderSagaStep.AUTHORIZING_PAYMENT) {
+                    commands.add(compensation(state, SagaCommandMessage.Type.VOID_PAYMENT));
+                }
+                commands.add(compensation(state, SagaCommandMessage.Type.RELEASE_INVENTORY));
+                cancel(state, failedStep == null
+                        ? "timed out in step " + state.getStep()
+                        : "could not publish the command for step " + state.getStep());
+                sagaRepository.save(state);
+                metricsCollector.incrementCounter(failedStep == null ? "order.saga.timeout" : "order.saga.send_failed");
+                return commands;
+            });
+            dispatch(outbound);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.debug("Saga {} changed concurrently with its abort, rechecking", orderId);
+            timeouts.schedule(orderId, System.currentTimeMillis());
+        }
+    }
+
+    private void cancel(OrderSagaState state, String reason) {
+        log.warn("Cancelling order {}: {}", state.getOrderId(), reason);
+        state.setStep(OrderSagaStep.CANCELLED);
+        changeOrderStatus(state, STATUS_CANCELLED);
+        metricsCollector.incrementCounter("order.saga.cancelled");
+    }
+
+    private void changeOrderStatus(OrderSagaState state, String newStatus) {
+        if (orderRepository.updateOrderStatusById(state.getOrderId(), newStatus) > 0) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(state.getOrderId(), state.getCustomerId(),
+                    STATUS_PENDING, newStatus, state.getTotalAmount()));
+        }
+    }
+
+    private SagaCommandMessage compensation(OrderSagaState state, SagaCommandMessage.Type type) {
+        return new SagaCommandMessage(state.getOrderId(), state.getCustomerId(), type, null);
+    }
+
+    private void dispatch(List<SagaCommandMessage> outbound) {
+        if (outbound == null) {
+            return;
+        }
+        outbound.forEach(this::send);
+    }
+
+    private void send(SagaCommandMessage command) {
+        String topic = switch (command.getType()) {
+            case RESERVE_INVENTORY, RELEASE_INVENTORY -> inventoryCommandTopic;
+            case AUTHORIZE_PAYMENT, VOID_PAYMENT -> paymentCommandTopic;
+        };
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(command);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize saga command " + command.getType(), e);
+        }
+        try {
+            kafkaTemplate.send(topic, command.getOrderId().toString(), payload)
+                    .whenComplete((result, failure) -> {
+                        if (failure != null) {
+                            onSendFailed(command, payload, failure);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // send() itself throws when metadata cannot be fetched within max.block.ms
+            onSendFailed(command, payload, e);
+        }
+    }
+
+    /**
+     * The producer has already exhausted its own retries here. A forward command that never went
+     * out would otherwise leave the saga waiting for its timeout, so it is aborted right away; a
+     * lost compensation cannot itself be compensated and is logged in full for reconciliation.
+     */
+    private void onSendFailed(SagaCommandMessage command, String payload, Throwable failure) {
+        switch (command.getType()) {
+            case RESERVE_INVENTORY, AUTHORIZE_PAYMENT -> {
+                log.error("Failed to publish saga command {} for order {}, cancelling",
+                        command.getType(), command.getOrderId(), failure);
+                OrderSagaStep step = command.getType() == SagaCommandMessage.Type.RESERVE_INVENTORY
+                        ? OrderSagaStep.RESERVING_INVENTORY
+                        : OrderSagaStep.AUTHORIZING_PAYMENT;
+                // off the producer's network thread, which must not block on the database
+                sagaExecutor.execute(() -> abort(command.getOrderId(), step));
+            }
+            case RELEASE_INVENTORY, VOID_PAYMENT -> {
+                log.error("Failed to publish saga compensation, reconcile manually: {}", payload, failure);
+                metricsCollector.incrementCounter("order.saga.compensation_send_failed");
+            }
+        }
+    }
+
+    private long nextDeadline() {
+        return System.currentTimeMillis() + stepTimeout.toMillis();
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.OrderSagaStep;
+import com.ecommerce.orderservice.model.OrderSagaState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderSagaStateRepository extends JpaRepository<OrderSagaState, UUID> {
+
+    List<OrderSagaState> findByStepIn(Collection<OrderSagaStep> steps);
+}
@@ -0,0 +1,448 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.RevenueReportCriteria;
+import com.ecommerce.orderservice.dto.RevenueReportDto;
+import com.ecommerce.orderservice.exception.ReportAbortedException;
+import com.ecommerce.orderservice.exception.ReportAbortedException.Reason;
+import com.ecommerce.orderservice.model.Money;
+import com.ecommerce.orderservice.support.OrderArchive;
+import com.ecommerce.orderservice.support.OrderSegment;
+import com.ecommerce.orderservice.support.RevenueAccumulator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Revenue by product and by hour over a created_at range. Item rows are streamed from a
+ * server-side cursor into fixed-size primitive chunks; each full chunk is handed to a
+ * ForkJoinPool worker that folds it into a {@link RevenueAccumulator} no other worker is using,
+ * and the accumulators are merged once the cursor is drained. Free chunks circulate through a
+ * bounded queue, so the cursor never runs more than {@code parallelism * 2} chunks ahead of the
+ * workers. Orders already moved to the {@link OrderArchive} are read from its segments after the
+ * cursor; an order left in both places by an interrupted archival run is counted once.
+ */
+@Service
+@Slf4j
+public class RevenueReportService {
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int CHECK_EVERY_ROWS = 4096;
+
+    private static final String SELECT_ITEMS = """
+            SELECT i.product_id,
+                   CAST(ROUND(i.total_price * %d) AS BIGINT) AS amount_minor,
+                   i.quantity,
+                   CAST(FLOOR(EXTRACT(EPOCH FROM o.created_at) * 1000) AS BIGINT) AS created_at_milli,
+                   o.id
+            FROM orders o JOIN order_items i ON i.order_id = o.id
+            WHERE o.created_at >= ? AND o.created_at < ? AND o.status IN (%s)""";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final OrderArchive orderArchive;
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final int chunkRows;
+    private final Duration maxRange;
+    private final Duration timeout;
+    private final long maxMemoryBytes;
+    private final List<String> defaultStatuses;
+    private final Semaphore concurrentReports;
+    private final ConcurrentHashMap<UUID, RunningReport> running = new ConcurrentHashMap<>();
+
+    public RevenueReportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                OrderArchive orderArchive,
+                                @Value("${order.reporting.parallelism:4}") int parallelism,
+                                @Value("${order.reporting.chunk-rows:8192}") int chunkRows,
+                                @Value("${order.reporting.fetch-size:10000}") int fetchSize,
+                                @Value("${order.reporting.max-range:366d}") Duration maxRange,
+                                @Value("${order.reporting.timeout:5m}") Duration timeout,
+                                @Value("${order.reporting.max-memory:256MB}") DataSize maxMemory,
+                                @Value("${order.reporting.max-concurrent:2}") int maxConcurrent,
+                                @Value("${order.reporting.statuses:CONFIRMED}") List<String> defaultStatuses) {
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.orderArchive = orderArchive;
+        this.pool = new ForkJoinPool(parallelism);
+        this.parallelism = parallelism;
+        this.chunkRows = chunkRows;
+        this.maxRange = maxRange;
+        this.timeout = timeout;
+        this.maxMemoryBytes = maxMemory.toBytes();
+        this.defaultStatuses = defaultStatuses;
+        this.concurrentReports = new Semaphore(maxConcurrent);
+    }
+
+    public RevenueReportDto run(RevenueReportCriteria criteria) {
+        Instant from = criteria.getFrom();
+        Instant to = criteria.getTo();
+        if (from == null || to == null || !to.isAfter(from) || Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new ReportAbortedException(Reason.INVALID_RANGE,
+                    "Report range must be non-empty and at most " + maxRange);
+        }
+        if (!concurrentReports.tryAcquire()) {
+            throw new ReportAbortedException(Reason.BUSY, "Too many reports running");
+        }
+        UUID reportId = criteria.getReportId() != null ? criteria.getReportId() : UUID.randomUUID();
+        long fromHour = Math.floorDiv(from.toEpochMilli(), HOUR_MILLIS);
+        int hours = (int) (Math.floorDiv(to.toEpochMilli() - 1, HOUR_MILLIS) - fromHour + 1);
+        int workers = criteria.isParallel() ? parallelism : 1;
+        RunningReport report = new RunningReport(System.nanoTime() + timeout.toNanos(), hours, workers);
+        try {
+            if (running.putIfAbsent(reportId, report) != null) {
+                throw new ReportAbortedException(Reason.DUPLICATE_ID, "Report " + reportId + " is already running");
+            }
+            try {
+                List<String> statuses = criteria.getStatuses() == null || criteria.getStatuses().isEmpty()
+                        ? defaultStatuses
+                        : criteria.getStatuses();
+                long started = System.nanoTime();
+                RevenueAccumulator totals = readOnlyTransaction.execute(status ->
+                        scan(report, statuses, from, to, fromHour, criteria.isParallel()));
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                log.info("Revenue report {} over [{}, {}) scanned {} rows with {} workers in {} ms",
+                        reportId, from, to, totals.rows(), workers, elapsedMillis);
+                return toDto(reportId, criteria, statuses, totals, fromHour, workers, elapsedMillis);
+            } finally {
+                running.remove(reportId, report);
+            }
+        } finally {
+            concurrentReports.release();
+        }
+    }
+
+    public boolean cancel(UUID reportId) {
+        RunningReport report = running.get(reportId);
+        if (report == null) {
+            return false;
+        }
+        report.abort(new ReportAbortedException(Reason.CANCELLED, "Report " + reportId + " was cancelled"));
+        return true;
+    }
+
+    @PreDestroy
+    public void close() {
+        running.values().forEach(report ->
+                report.abort(new ReportAbortedException(Reason.CANCELLED, "Service is shutting down")));
+        pool.shutdownNow();
+    }
+
+    private RevenueAccumulator scan(RunningReport report, List<String> statuses, Instant from, Instant to,
+                                    long fromHour, boolean parallel) {
+        String sql = String.format(SELECT_ITEMS, pow10(Money.DEFAULT_SCALE),
+                String.join(", ", Collections.nCopies(statuses.size(), "?")));
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.from(from));
+        args.add(Timestamp.from(to));
+        args.addAll(statuses);
+
+        RevenueAccumulator single = parallel ? null : report.newAccumulator();
+        Chunk[] current = {parallel ? report.takeChunk(chunkRows) : null};
+        long[] rows = {0};
+        OrderSegment.ItemVisitor sink = (productHi, productLo, amount, quantity, createdAtMilli) -> {
+            if (++rows[0] % CHECK_EVERY_ROWS == 0) {
+                report.checkActive();
+                if (!parallel) {
+                    report.checkMemory();
+                }
+            }
+            int hour = (int) (Math.floorDiv(createdAtMilli, HOUR_MILLIS) - fromHour);
+            if (!parallel) {
+                single.add(productHi, productLo, amount, quantity, hour);
+                return;
+            }
+            Chunk chunk = current[0];
+            chunk.add(productHi, productLo, amount, quantity, hour);
+            if (chunk.size == chunk.capacity()) {
+                submit(report, chunk);
+                current[0] = report.takeChunk(chunkRows);
+            }
+        };
+
+        Instant archivedThrough = orderArchive.archivedThrough();
+        long archivedThroughMilli = archivedThrough == null ? Long.MIN_VALUE : archivedThrough.toEpochMilli();
+        streamingJdbcTemplate.query(sql, rs -> {
+            long createdAtMilli = rs.getLong(4);
+            // only rows as old as the archive can also be in it; those are counted from the segments
+            if (createdAtMilli <= archivedThroughMilli && orderArchive.contains(rs.getObject(5, UUID.class))) {
+                return;
+            }
+            UUID productId = rs.getObject(1, UUID.class);
+            sink.visit(productId.getMostSignificantBits(), productId.getLeastSignificantBits(), rs.getLong(2),
+                    rs.getInt(3), createdAtMilli);
+        }, args.toArray());
+        if (archivedThrough != null && !from.isAfter(archivedThrough)) {
+            orderArchive.forEachItem(from, to, statuses, sink);
+        }
+
+        if (!parallel) {
+            report.checkActive();
+            return single;
+        }
+        if (current[0].size > 0) {
+            submit(report, current[0]);
+        } else {
+            report.returnChunk(current[0]);
+        }
+        report.awaitWorkers();
+        report.checkActive();
+
+        RevenueAccumulator merged = null;
+        for (RevenueAccumulator accumulator : report.accumulators) {
+            if (merged == null) {
+                merged = accumulator;
+            } else {
+                merged.merge(accumulator);
+            }
+        }
+        return merged != null ? merged : report.newAccumulator();
+    }
+
+    private void submit(RunningReport report, Chunk chunk) {
+        report.checkActive();
+        report.inFlight.acquireUninterruptibly();
+        pool.execute(() -> {
+            try {
+                if (report.failure.get() == null) {
+                    RevenueAccumulator accumulator = report.borrowAccumulator();
+                    try {
+                        for (int i = 0; i < chunk.size; i++) {
+                            accumulator.add(chunk.productHi[i], chunk.productLo[i], chunk.amount[i],
+                                    chunk.quantity[i], chunk.hour[i]);
+                        }
+                    } finally {
+                        report.releaseAccumulator(accumulator);
+                    }
+                    report.checkMemory();
+                }
+            } catch (RuntimeException e) {
+                report.abort(e);
+            } finally {
+                report.returnChunk(chunk);
+                report.inFlight.release();
+            }
+        });
+    }
+
+    private RevenueReportDto toDto(UUID reportId, RevenueReportCriteria criteria, List<String> statuses,
+                                   RevenueAccumulator totals, long fromHour, int workers, long elapsedMillis) {
+        List<Integer> slots = new ArrayList<>(totals.productCount());
+        for (int slot = 0; slot < totals.slots(); slot++) {
+            if (totals.isOccupied(slot)) {
+                slots.add(slot);
+            }
+        }
+        slots.sort(Comparator.comparingLong(totals::productRevenue).reversed());
+        List<RevenueReportDto.ProductRevenue> byProduct = new ArrayList<>();
+        for (int slot : slots.subList(0, Math.min(criteria.getProductLimit(), slots.size()))) {
+            byProduct.add(new RevenueReportDto.ProductRevenue(
+                    new UUID(totals.productIdHi(slot), totals.productIdLo(slot)),
+                    Money.toBigDecimal(totals.productRevenue(slot), Money.DEFAULT_SCALE),
+                    totals.productUnits(slot)));
+        }
+
+        long totalRevenue = 0;
+        List<RevenueReportDto.HourRevenue> byHour = new ArrayList<>();
+        for (int hour = 0; hour < totals.hours(); hour++) {
+            totalRevenue += totals.hourRevenue(hour);
+            if (totals.hourItems(hour) > 0) {
+                byHour.add(new RevenueReportDto.HourRevenue(Instant.ofEpochMilli((fromHour + hour) * HOUR_MILLIS),
+                        Money.toBigDecimal(totals.hourRevenue(hour), Money.DEFAULT_SCALE), totals.hourItems(hour)));
+            }
+        }
+
+        return RevenueReportDto.builder()
+                .reportId(reportId)
+                .from(criteria.getFrom())
+                .to(criteria.getTo())
+                .statuses(statuses)
+                .workers(workers)
+                .rowsScanned(totals.rows())
+                .elapsedMillis(elapsedMillis)
+                .totalRevenue(Money.toBigDecimal(totalRevenue, Money.DEFAULT_SCALE))
+                .distinctProducts(totals.productCount())
+                .byProduct(byProduct)
+                .byHour(byHour)
+                .build();
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    /**
+     * Column-wise rows of one unit of work.
+     */
+    private static final class Chunk {
+        private final long[] productHi;
+        private final long[] productLo;
+        private final long[] amount;
+        private final int[] quantity;
+        private final int[] hour;
+        private int size;
+
+        Chunk(int rows) {
+            productHi = new long[rows];
+            productLo = new long[rows];
+            amount = new long[rows];
+            quantity = new int[rows];
+            hour = new int[rows];
+        }
+
+        int capacity() {
+            return amount.length;
+        }
+
+        void add(long hi, long lo, long amountMinorUnits, int itemQuantity, int hourOffset) {
+            productHi[size] = hi;
+            productLo[size] = lo;
+            amount[size] = amountMinorUnits;
+            quantity[size] = itemQuantity;
+            hour[size] = hourOffset;
+            size++;
+        }
+
+        static long bytes(int rows) {
+            return (long) rows * (3 * Long.BYTES + 2 * Integer.BYTES);
+        }
+    }
+
+    private final class RunningReport {
+        private final long deadlineNanos;
+        private final int hours;
+        private final int maxChunks;
+        private final BlockingQueue<Chunk> freeChunks;
+        private final Semaphore inFlight;
+        private final List<RevenueAccumulator> accumulators = new CopyOnWriteArrayList<>();
+        private final Queue<RevenueAccumulator> idleAccumulators = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        private volatile int allocatedChunks;
+
+        RunningReport(long deadlineNanos, int hours, int workers) {
+            this.deadlineNanos = deadlineNanos;
+            this.hours = hours;
+            this.maxChunks = workers * 2;
+            this.freeChunks = new ArrayBlockingQueue<>(maxChunks);
+            this.inFlight = new Semaphore(maxChunks);
+        }
+
+        RevenueAccumulator newAccumulator() {
+            RevenueAccumulator accumulator = new RevenueAccumulator(hours);
+            accumulators.add(accumulator);
+            return accumulator;
+        }
+
+        /**
+         * Hands a worker an accumulator nobody else is folding into. At most {@code parallelism}
+         * chunks are folded at once, so no more accumulators than that are ever created, and
+         * they belong to the report rather than to the pool's threads.
+         */
+        RevenueAccumulator borrowAccumulator() {
+            RevenueAccumulator accumulator = idleAccumulators.poll();
+            return accumulator != null ? accumulator : newAccumulator();
+        }
+
+        void releaseAccumulator(RevenueAccumulator accumulator) {
+            idleAccumulators.offer(accumulator);
+        }
+
+        /**
+         * Reuses a chunk a worker has finished with, allocating up to the in-flight limit. Called
+         * from the cursor thread only.
+         */
+        Chunk takeChunk(int rows) {
+            Chunk chunk = freeChunks.poll();
+            if (chunk == null && allocatedChunks < maxChunks) {
+                allocatedChunks++;
+                return new Chunk(rows);
+            }
+            while (chunk == null) {
+                checkActive();
+                try {
+                    chunk = freeChunks.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ReportAbortedException(Reason.CANCELLED, "Report thread was interrupted");
+                }
+            }
+            chunk.size = 0;
+            return chunk;
+        }
+
+        void returnChunk(Chunk chunk) {
+            freeChunks.offer(chunk);
+        }
+
+        void awaitWorkers() {
+            try {
+                while (!inFlight.tryAcquire(maxChunks, 100, TimeUnit.MILLISECONDS)) {
+                    checkDeadline();
+                }
+                inFlight.release(maxChunks);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReportAbortedException(Reason.CANCELLED, "Report thread was interrupted");
+            }
+        }
+
+        void checkActive() {
+            RuntimeException cause = failure.get();
+            if (cause != null) {
+                throw cause;
+            }
+            checkDeadline();
+        }
+
+        void checkMemory() {
+            long bytes = allocatedChunks * Chunk.bytes(chunkRows);
+            for (RevenueAccumulator accumulator : accumulators) {
+                bytes += accumulator.estimatedBytes();
+            }
+            if (bytes > maxMemoryBytes) {
+                throw new ReportAbortedException(Reason.MEMORY_LIMIT,
+                        "Report needs more than " + maxMemoryBytes + " bytes; narrow the range or statuses");
+            }
+        }
+
+        void abort(RuntimeException cause) {
+            failure.compareAndSet(null, cause);
+        }
+
+        private void checkDeadline() {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                abort(new ReportAbortedException(Reason.TIMED_OUT, "Report exceeded " + timeout));
+                throw failure.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.dto.AggregateDriftReport;
+import com.ecommerce.orderservice.model.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recomputes customer aggregates from the orders table and compares them with
+ * customer_order_aggregates, optionally repairing confirmed drift. The customer id space is
+ * split into slices by leading byte and each slice is recomputed on its own connection.
+ */
+@Component
+@Slf4j
+public class AggregateConsistencyChecker {
+
+    private static final int SLICES = 16;
+    private static final int MAX_REPORTED_DRIFTS = 100;
+
+    private static final String RECOMPUTE = """
+            SELECT customer_id, status, COUNT(*) AS order_count, COALESCE(SUM(total_amount), 0) AS total_amount
+            FROM orders WHERE customer_id >= ? %s
+            GROUP BY customer_id, status""";
+
+    private static final String STORED = """
+            SELECT customer_id, status, order_count, total_amount FROM customer_order_aggregates
+            WHERE customer_id >= ? %s""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerOrderAggregator aggregator;
+    private final OrderArchive orderArchive;
+    private final MeterRegistry meterRegistry;
+    private final int parallelism;
+    private final boolean autoRepair;
+    private final AtomicLong lastDriftCount = new AtomicLong();
+
+    public AggregateConsistencyChecker(JdbcTemplate jdbcTemplate, CustomerOrderAggregator aggregator,
+                                       OrderArchive orderArchive, MeterRegistry meterRegistry,
+                                       @Value("${order.aggregates.check-parallelism:4}") int parallelism,
+                                       @Value("${order.aggregates.auto-repair:false}") boolean autoRepair) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.aggregator = aggregator;
+        this.orderArchive = orderArchive;
+        this.meterRegistry = meterRegistry;
+        this.parallelism = parallelism;
+        this.autoRepair = autoRepair;
+        meterRegistry.gauge("order.aggregates.drift", lastDriftCount);
+    }
+
+    @Scheduled(cron = "${order.aggregates.check-cron:-}")
+    public void scheduledCheck() {
+        AggregateDriftReport report = autoRepair ? repair() : check();
+        if (report.getDriftCount() > 0) {
+            log.warn("Customer aggregates drifted on {} rows ({} repaired), e.g. {}",
+                    report.getDriftCount(), report.getRepairedCount(), report.getDrifts().get(0));
+        }
+    }
+
+    /**
+     * Rows whose orders change while the check runs can show transient drift; use
+     * {@link #repair()} rather than acting on a single report.
+     */
+    public AggregateDriftReport check() {
+        long started = System.nanoTime();
+        Scan scan = scan();
+        return report(scan, 0, started);
+    }
+
+    /**
+     * Checks twice and repairs only the drift both passes agree on, which excludes rows that
+     * were merely in flight. Each repair is queued as a corrective delta (expected minus stored)
+     * through the aggregate outbox, so it adds to rather than overwrites concurrent updates.
+     */
+    public AggregateDriftReport repair() {
+        long started = System.nanoTime();
+        Scan first = scan();
+        if (first.drifts().isEmpty()) {
+            return report(first, 0, started);
+        }
+        Scan second = scan();
+        Set<AggregateDriftReport.Drift> confirmed = new HashSet<>(first.drifts());
+        long repaired = 0;
+        for (AggregateDriftReport.Drift drift : second.drifts()) {
+            if (confirmed.contains(drift)) {
+                aggregator.enqueueCorrection(drift.getCustomerId(), drift.getStatus(),
+                        drift.getExpectedCount() - drift.getActualCount(),
+                        drift.getExpectedAmount().subtract(drift.getActualAmount()));
+                repaired++;
+            }
+        }
+        aggregator.flush();
+        if (repaired > 0) {
+            log.info("Queued corrections for {} drifted customer aggregate rows", repaired);
+            meterRegistry.counter("order.aggregates.repaired").increment(repaired);
+        }
+        return report(second, repaired, started);
+    }
+
+    private Scan scan() {
+        aggregator.flush();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Map<Key, Totals>> archived = archivedTotalsBySlice();
+            List<CompletableFuture<SliceResult>> slices = new ArrayList<>(SLICES);
+            for (int i = 0; i < SLICES; i++) {
+                UUID lower = sliceBound(i);
+                UUID upper = i + 1 < SLICES ? sliceBound(i + 1) : null;
+                Map<Key, Totals> sliceArchived = archived.get(i);
+                slices.add(CompletableFuture.supplyAsync(() -> compareSlice(lower, upper, sliceArchived), executor));
+            }
+            long rows = 0;
+            List<AggregateDriftReport.Drift> drifts = new ArrayList<>();
+            for (CompletableFuture<SliceResult> slice : slices) {
+                SliceResult result = slice.join();
+                rows += result.rows();
+                drifts.addAll(result.drifts());
+            }
+            lastDriftCount.set(drifts.size());
+            return new Scan(rows, drifts);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static AggregateDriftReport report(Scan scan, long repaired, long started) {
+        return AggregateDriftReport.builder()
+                .checkedAt(Instant.now())
+                .elapsedMillis((System.nanoTime() - started) / 1_000_000)
+                .rowsCompared(scan.rows())
+                .driftCount(scan.drifts().size())
+                .repairedCount(repaired)
+                .drifts(scan.drifts().subList(0, Math.min(MAX_REPORTED_DRIFTS, scan.drifts().size())))
+                .build();
+    }
+
+    private SliceResult compareSlice(UUID lower, UUID upper, Map<Key, Totals> archived) {
+        Map<Key, Totals> expected = load(RECOMPUTE, lower, upper);
+        archived.forEach((key, totals) -> expected.merge(key, totals, Totals::plus));
+        Map<Key, Totals> actual = load(STORED, lower, upper);
+
+        Set<Key> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+        List<AggregateDriftReport.Drift> drifts = new ArrayList<>();
+        for (Key key : keys) {
+            Totals want = expected.getOrDefault(key, Totals.ZERO);
+            Totals have = actual.getOrDefault(key, Totals.ZERO);
+            if (want.count() != have.count() || want.amount().compareTo(have.amount()) != 0) {
+                drifts.add(new AggregateDriftReport.Drift(key.customerId(), key.status(),
+                        want.count(), have.count(), want.amount(), have.amount()));
+            }
+        }
+        return new SliceResult(keys.size(), drifts);
+    }
+
+    private Map<Key, Totals> load(String sql, UUID lower, UUID upper) {
+        Map<Key, Totals> totals = new HashMap<>();
+        RowCallbackHandler collector = rs -> totals.put(
+                new Key(rs.getObject("customer_id", UUID.class), rs.getString("status")),
+                new Totals(rs.getLong("order_count"), rs.getBigDecimal("total_amount")));
+        if (upper == null) {
+            jdbcTemplate.query(sql.formatted(""), collector, lower);
+        } else {
+            jdbcTemplate.query(sql.formatted("AND customer_id < ?"), collector, lower, upper);
+        }
+        return totals;
+    }
+
+    // archived orders no longer exist in the orders table but are still counted in the aggregates
+    private List<Map<Key, Totals>> archivedTotalsBySlice() {
+        List<Map<Key, Totals>> bySlice = new ArrayList<>(SLICES);
+        for (int i = 0; i < SLICES; i++) {
+            bySlice.add(new HashMap<>());
+        }
+        // a repair must not subtract orders another instance archived since our last scan
+        orderArchive.refresh();
+        orderArchive.forEachTotal((customerId, status, amountMinorUnits) -> {
+            int slice = (int) ((customerId.getMostSignificantBits() >>> 56) / (256 / SLICES));
+            bySlice.get(slice).merge(new Key(customerId, status),
+                    new Totals(1, Money.toBigDecimal(amountMinorUnits, Money.DEFAULT_SCALE)), Totals::plus);
+        });
+        return bySlice;
+    }
+
+    // Postgres orders uuids bytewise, so slicing on the leading byte yields contiguous index ranges.
+    private static UUID sliceBound(int slice) {
+        long leadingByte = (256L / SLICES) * slice;
+        return new UUID(leadingByte << 56, 0L);
+    }
+
+    private record Key(UUID customerId, String status) {
+    }
+
+    private record Totals(long count, BigDecimal amount) {
+        static final Totals ZERO = new Totals(0, BigDecimal.ZERO);
+
+        Totals plus(Totals other) {
+            return new Totals(count + other.count, amount.add(other.amount));
+        }
+    }
+
+    private record SliceResult(long rows, List<AggregateDriftReport.Drift> drifts) {
+    }
+
+    private record Scan(long rows, List<AggregateDriftReport.Drift> drifts) {
+    }
+}
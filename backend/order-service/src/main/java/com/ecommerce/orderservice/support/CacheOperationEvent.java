@@ -0,0 +1,69 @@
+package com.ecommerce.orderservice.support;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * JFR event covering one round trip to a shared store: the idempotency store, the rate
+ * limiter's Redis lease and the distributed cache.
+ */
+@Name("com.ecommerce.order.CacheOperation")
+@Label("Shared Store Operation")
+@Category({"Ecommerce", "Cache"})
+@Description("Duration of a single idempotency, rate limit or cache round trip")
+@Threshold("10 ms")
+@StackTrace(false)
+public class CacheOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Key")
+    String key;
+
+    @Label("Hit")
+    boolean hit;
+
+    @Label("Failed")
+    boolean failed;
+
+    public static <T> T record(String operation, String key, Supplier<T> body, Predicate<T> hit) {
+        CacheOperationEvent event = new CacheOperationEvent();
+        event.begin();
+        T result = null;
+        boolean failed = true;
+        try {
+            result = body.get();
+            failed = false;
+            return result;
+        } finally {
+            event.complete(operation, key, !failed && hit.test(result), failed);
+        }
+    }
+
+    public static void record(String operation, String key, Runnable body) {
+        record(operation, key, () -> {
+            body.run();
+            return null;
+        }, result -> false);
+    }
+
+    void complete(String operation, String key, boolean hit, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.key = key;
+            this.hit = hit;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
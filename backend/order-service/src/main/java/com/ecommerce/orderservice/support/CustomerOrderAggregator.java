@@ -0,0 +1,183 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.dto.CustomerOrderSummaryDto;
+import com.ecommerce.orderservice.event.OrderCreatedEvent;
+import com.ecommerce.orderservice.event.OrderStatusChangedEvent;
+import com.ecommerce.orderservice.model.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Maintains customer_order_aggregates from order events. Each event writes signed delta rows to
+ * an outbox table inside the transaction that changed the order, so a delta exists exactly when
+ * its order change committed. A scheduled flush claims outbox rows and folds them into one
+ * batched additive upsert in a single transaction: a crash or an ambiguous commit either applies
+ * and removes the rows or leaves both untouched, and SKIP LOCKED lets every instance drain
+ * disjoint rows concurrently. Both tables are created by
+ * {@code db/aggregates/customer_order_aggregates.sql}.
+ */
+@Component
+@Slf4j
+public class CustomerOrderAggregator {
+
+    private static final String INSERT_DELTA = """
+            INSERT INTO customer_order_aggregate_deltas (customer_id, status, order_count, total_amount)
+            VALUES (?, ?, ?, ?)""";
+
+    private static final String CLAIM_DELTAS = """
+            DELETE FROM customer_order_aggregate_deltas WHERE id IN (
+                SELECT id FROM customer_order_aggregate_deltas ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING customer_id, status, order_count, total_amount""";
+
+    private static final String UPSERT = """
+            INSERT INTO customer_order_aggregates (customer_id, status, order_count, total_amount)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (customer_id, status) DO UPDATE SET
+                order_count = customer_order_aggregates.order_count + EXCLUDED.order_count,
+                total_amount = customer_order_aggregates.total_amount + EXCLUDED.total_amount""";
+
+    private static final String SELECT_CUSTOMER = """
+            SELECT status, order_count, total_amount FROM customer_order_aggregates WHERE customer_id = ?""";
+
+    private static final String STATUS_CANCELLED = "CANCELLED";
+
+    // a stable row order keeps concurrent flushes from different instances deadlock-free
+    private static final Comparator<Key> ROW_ORDER = Comparator.comparing(Key::customerId).thenComparing(Key::status);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushBatchSize;
+
+    public CustomerOrderAggregator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   @Value("${order.aggregates.flush-batch-size:5000}") int flushBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        enqueue(delta(event.getCustomerId(), event.getStatus(), 1, event.getTotalAmount()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        BigDecimal amount = event.getTotalAmount() == null ? BigDecimal.ZERO : event.getTotalAmount();
+        enqueue(delta(event.getCustomerId(), event.getPreviousStatus(), -1, amount.negate()),
+                delta(event.getCustomerId(), event.getNewStatus(), 1, amount));
+    }
+
+    /**
+     * Queues a correction computed by the consistency checker; it is applied by the next flush
+     * like any other delta.
+     */
+    public void enqueueCorrection(UUID customerId, String status, long count, BigDecimal amount) {
+        enqueue(delta(customerId, status, count, amount));
+    }
+
+    public CustomerOrderSummaryDto summary(UUID customerId) {
+        Map<String, CustomerOrderSummaryDto.StatusTotals> byStatus = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_CUSTOMER, rs -> {
+            byStatus.put(rs.getString("status"), new CustomerOrderSummaryDto.StatusTotals(
+                    rs.getLong("order_count"), rs.getBigDecimal("total_amount")));
+        }, customerId);
+
+        long totalOrders = 0;
+        BigDecimal lifetimeSpend = Money.toBigDecimal(0, Money.DEFAULT_SCALE);
+        for (Map.Entry<String, CustomerOrderSummaryDto.StatusTotals> entry : byStatus.entrySet()) {
+            totalOrders += entry.getValue().getCount();
+            if (!STATUS_CANCELLED.equals(entry.getKey())) {
+                lifetimeSpend = lifetimeSpend.add(entry.getValue().getAmount());
+            }
+        }
+        return CustomerOrderSummaryDto.builder()
+                .customerId(customerId)
+                .byStatus(byStatus)
+                .totalOrders(totalOrders)
+                .lifetimeSpend(lifetimeSpend)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${order.aggregates.flush-interval:1s}")
+    public void flush() {
+        try {
+            Integer claimed;
+            do {
+                claimed = transactionTemplate.execute(status -> applyBatch());
+            } while (claimed != null && claimed == flushBatchSize);
+        } catch (RuntimeException e) {
+            // the transaction rolled back, so the claimed deltas are still in the outbox
+            log.warn("Failed to flush customer aggregate deltas, will retry", e);
+        }
+    }
+
+    private int applyBatch() {
+        Map<Key, Delta> merged = new TreeMap<>(ROW_ORDER);
+        int[] claimed = {0};
+        jdbcTemplate.query(CLAIM_DELTAS, rs -> {
+            claimed[0]++;
+            Delta delta = merged.computeIfAbsent(
+                    new Key(rs.getObject("customer_id", UUID.class), rs.getString("status")), key -> new Delta());
+            delta.count += rs.getLong("order_count");
+            delta.amount += minorUnits(rs.getBigDecimal("total_amount"));
+        }, flushBatchSize);
+
+        List<Object[]> batch = new ArrayList<>(merged.size());
+        merged.forEach((key, delta) -> {
+            if (delta.count != 0 || delta.amount != 0) {
+                batch.add(new Object[]{key.customerId(), key.status(), delta.count,
+                        Money.toBigDecimal(delta.amount, Money.DEFAULT_SCALE)});
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT, batch);
+        }
+        return claimed[0];
+    }
+
+    private void enqueue(Object[]... deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.length);
+        for (Object[] delta : deltas) {
+            if (delta != null) {
+                rows.add(delta);
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DELTA, rows);
+        }
+    }
+
+    private static Object[] delta(UUID customerId, String status, long count, BigDecimal amount) {
+        if (customerId == null || status == null) {
+            return null;
+        }
+        return new Object[]{customerId, status, count, amount == null ? BigDecimal.ZERO : amount};
+    }
+
+    private static long minorUnits(BigDecimal amount) {
+        return amount == null ? 0L : Money.toMinorUnits(amount, Money.DEFAULT_SCALE);
+    }
+
+    private record Key(UUID customerId, String status) {
+    }
+
+    private static final class Delta {
+        private long count;
+        private long amount;
+    }
+}
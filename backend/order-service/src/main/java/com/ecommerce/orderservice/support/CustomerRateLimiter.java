@@ -0,0 +1,151 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.config.RateLimitProperties;
+import com.ecommerce.orderservice.result.RateLimitDecision;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-customer token bucket whose authoritative state lives in Redis. Each node leases
+ * tokens from the bucket in small chunks and spends them locally with a CAS, so only one
+ * request per chunk pays for a Redis round trip. Leased tokens that are not used before the
+ * lease expires are dropped, which can only under-admit.
+ */
+@Component
+@Slf4j
+public class CustomerRateLimiter {
+
+    private static final String TIER_AUTHORITY_PREFIX = "TIER_";
+
+    private static final RedisScript<List> LEASE = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local refill_per_ms = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = time[1] * 1000 + math.floor(time[2] / 1000)
+            local state = redis.call('HMGET', KEYS[1], 't', 'ts')
+            local tokens = tonumber(state[1]) or capacity
+            local ts = tonumber(state[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_per_ms)
+            local granted = math.min(requested, math.floor(tokens))
+            tokens = tokens - granted
+            redis.call('HSET', KEYS[1], 't', tostring(tokens), 'ts', now)
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refill_per_ms) + 1000)
+            local retry_after = 0
+            if granted == 0 then
+                retry_after = math.ceil((1 - tokens) / refill_per_ms)
+            end
+            return {granted, retry_after}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitProperties properties;
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+
+    public CustomerRateLimiter(StringRedisTemplate redisTemplate, RateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    public RateLimitDecision tryAcquire(Authentication authentication) {
+        if (!properties.isEnabled()) {
+            return RateLimitDecision.allowed();
+        }
+        String tierName = tierOf(authentication);
+        RateLimitProperties.Tier tier = properties.getTiers().get(tierName);
+        if (tier == null) {
+            return RateLimitDecision.allowed();
+        }
+        String key = "ratelimit:order:" + tierName + ":" + authentication.getName();
+
+        Lease lease = leases.computeIfAbsent(key, k -> new Lease());
+        if (lease.tryTake()) {
+            return RateLimitDecision.allowed();
+        }
+        synchronized (lease) {
+            if (lease.tryTake()) {
+                return RateLimitDecision.allowed();
+            }
+            long now = System.currentTimeMillis();
+            if (lease.retryAfter > now) {
+                return RateLimitDecision.rejected(lease.retryAfter - now);
+            }
+            return renewLease(key, tier, lease, now);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.rate-limit.lease-ttl:PT1S}")
+    public void expireLeases() {
+        long now = System.currentTimeMillis();
+        leases.values().removeIf(lease -> lease.expiresAt <= now && lease.retryAfter <= now);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RateLimitDecision renewLease(String key, RateLimitProperties.Tier tier, Lease lease, long now) {
+        try {
+            List<Long> result = CacheOperationEvent.record("rateLimit.lease", key,
+                    () -> redisTemplate.execute(LEASE, List.of(key),
+                            String.valueOf(tier.getCapacity()),
+                            String.valueOf(tier.getRefillPerSecond() / 1000.0),
+                            String.valueOf(Math.max(1, tier.getLeaseSize()))),
+                    granted -> granted != null && !granted.isEmpty() && granted.get(0) > 0);
+            long granted = result.get(0);
+            if (granted == 0) {
+                long retryAfter = Math.max(1, result.get(1));
+                lease.retryAfter = now + retryAfter;
+                return RateLimitDecision.rejected(retryAfter);
+            }
+            lease.grant(granted - 1, now + properties.getLeaseTtl().toMillis());
+            return RateLimitDecision.allowed();
+        } catch (Exception e) {
+            log.warn("Rate limiter unavailable, allowing request for key: {}", key, e);
+            return RateLimitDecision.allowed();
+        }
+    }
+
+    private String tierOf(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name != null && name.startsWith(TIER_AUTHORITY_PREFIX)) {
+                return name.substring(TIER_AUTHORITY_PREFIX.length()).toLowerCase(Locale.ROOT);
+            }
+        }
+        return properties.getDefaultTier();
+    }
+
+    private static final class Lease {
+        private final AtomicLong tokens = new AtomicLong();
+        private volatile long expiresAt;
+        private volatile long retryAfter;
+
+        boolean tryTake() {
+            if (expiresAt <= System.currentTimeMillis()) {
+                return false;
+            }
+            long available;
+            do {
+                available = tokens.get();
+                if (available <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(available, available - 1));
+            return true;
+        }
+
+        void grant(long count, long expiresAt) {
+            tokens.set(count);
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.dto.CustomerOrderSummaryDto;
+import com.ecommerce.orderservice.event.OrderJournalRecord;
+import com.ecommerce.orderservice.model.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-customer order count and amount by status, the journal-side counterpart of
+ * customer_order_aggregates. Totals are replaced rather than mutated, so a reader always sees
+ * a count and amount that belong together. With {@code order.journal.serve-summaries} the
+ * customer summary endpoint reads from here instead of the database; that is only correct once
+ * the journal holds every order's history, i.e. the events topic retains everything since the
+ * first order or the journal has been enabled from the start.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.journal", name = "enabled", havingValue = "true")
+public class CustomerTotalsProjection implements JournalProjection<Map<UUID, Map<String, CustomerTotalsProjection.Totals>>> {
+
+    private static final String STATUS_CANCELLED = "CANCELLED";
+
+    private final Map<Integer, Map<UUID, Map<String, Totals>>> partitions = new ConcurrentHashMap<>();
+    private final boolean servesSummaries;
+
+    public CustomerTotalsProjection(@Value("${order.journal.serve-summaries:false}") boolean servesSummaries) {
+        this.servesSummaries = servesSummaries;
+    }
+
+    @Override
+    public String name() {
+        return "customer-totals";
+    }
+
+    @Override
+    public Map<UUID, Map<String, Totals>> newState() {
+        return new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void apply(Map<UUID, Map<String, Totals>> state, OrderJournalRecord record) {
+        Map<String, Totals> byStatus = state.computeIfAbsent(record.getCustomerId(), id -> new ConcurrentHashMap<>());
+        if (record.getType() == OrderJournalRecord.Type.STATUS_CHANGED && record.getPreviousStatus() != null) {
+            byStatus.merge(record.getPreviousStatus(), new Totals(-1, -record.getAmountMinorUnits()), Totals::plus);
+        }
+        byStatus.merge(record.getStatus(), new Totals(1, record.getAmountMinorUnits()), Totals::plus);
+    }
+
+    @Override
+    public void install(int partition, Map<UUID, Map<String, Totals>> state) {
+        partitions.put(partition, state);
+    }
+
+    @Override
+    public void writeSnapshot(Map<UUID, Map<String, Totals>> state, DataOutput out) throws IOException {
+        out.writeInt(state.size());
+        for (Map.Entry<UUID, Map<String, Totals>> customer : state.entrySet()) {
+            out.writeLong(customer.getKey().getMostSignificantBits());
+            out.writeLong(customer.getKey().getLeastSignificantBits());
+            out.writeShort(customer.getValue().size());
+            for (Map.Entry<String, Totals> status : customer.getValue().entrySet()) {
+                out.writeUTF(status.getKey());
+                out.writeLong(status.getValue().count());
+                out.writeLong(status.getValue().amountMinorUnits());
+            }
+        }
+    }
+
+    @Override
+    public Map<UUID, Map<String, Totals>> readSnapshot(DataInput in) throws IOException {
+        int customers = in.readInt();
+        Map<UUID, Map<String, Totals>> state = new ConcurrentHashMap<>(customers * 4 / 3 + 1);
+        Map<String, String> statuses = new ConcurrentHashMap<>();
+        for (int i = 0; i < customers; i++) {
+            UUID customerId = new UUID(in.readLong(), in.readLong());
+            int count = in.readShort();
+            Map<String, Totals> byStatus = new ConcurrentHashMap<>(count * 4 / 3 + 1);
+            for (int j = 0; j < count; j++) {
+                byStatus.put(statuses.computeIfAbsent(in.readUTF(), s -> s), new Totals(in.readLong(), in.readLong()));
+            }
+            state.put(customerId, byStatus);
+        }
+        return state;
+    }
+
+    public boolean servesSummaries() {
+        return servesSummaries;
+    }
+
+    public Optional<CustomerOrderSummaryDto> summary(UUID customerId) {
+        for (Map<UUID, Map<String, Totals>> state : partitions.values()) {
+            Map<String, Totals> totals = state.get(customerId);
+            if (totals != null) {
+                return Optional.of(toSummary(customerId, totals));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static CustomerOrderSummaryDto toSummary(UUID customerId, Map<String, Totals> totals) {
+        Map<String, CustomerOrderSummaryDto.StatusTotals> byStatus = new LinkedHashMap<>();
+        long totalOrders = 0;
+        long lifetimeSpend = 0;
+        for (Map.Entry<String, Totals> entry : totals.entrySet()) {
+            Totals value = entry.getValue();
+            if (value.count() == 0 && value.amountMinorUnits() == 0) {
+                continue;
+            }
+            byStatus.put(entry.getKey(), new CustomerOrderSummaryDto.StatusTotals(value.count(),
+                    Money.toBigDecimal(value.amountMinorUnits(), Money.DEFAULT_SCALE)));
+            totalOrders += value.count();
+            if (!STATUS_CANCELLED.equals(entry.getKey())) {
+                lifetimeSpend += value.amountMinorUnits();
+            }
+        }
+        BigDecimal spend = Money.toBigDecimal(lifetimeSpend, Money.DEFAULT_SCALE);
+        return CustomerOrderSummaryDto.builder()
+                .customerId(customerId)
+                .byStatus(byStatus)
+                .totalOrders(totalOrders)
+                .lifetimeSpend(spend)
+                .build();
+    }
+
+    public record Totals(long count, long amountMinorUnits) {
+
+        Totals plus(Totals other) {
+            return new Totals(count + other.count, amountMinorUnits + other.amountMinorUnits);
+        }
+    }
+}
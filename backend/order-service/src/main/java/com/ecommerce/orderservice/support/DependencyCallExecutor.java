@@ -0,0 +1,141 @@
+package com.ecommerce.orderservice.support;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Calls a single downstream dependency with its own circuit breaker, bulkhead and thread pool,
+ * bounded by the caller's remaining latency budget. When the first attempt has not returned
+ * after the dependency's observed p95, a second (hedged) attempt is fired and the first
+ * result wins.
+ */
+@Slf4j
+public class DependencyCallExecutor {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService hedgeScheduler;
+    private final LatencyTracker latencyTracker;
+    private final Duration maxTimeout;
+    private final Duration minHedgeDelay;
+    private final boolean hedgingEnabled;
+
+    public DependencyCallExecutor(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                                  ExecutorService executor, ScheduledExecutorService hedgeScheduler,
+                                  LatencyTracker latencyTracker, Duration maxTimeout,
+                                  Duration minHedgeDelay, boolean hedgingEnabled) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.executor = executor;
+        this.hedgeScheduler = hedgeScheduler;
+        this.latencyTracker = latencyTracker;
+        this.maxTimeout = maxTimeout;
+        this.minHedgeDelay = minHedgeDelay;
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
+    public <T> CompletableFuture<T> call(Supplier<T> call, Duration remainingBudget) {
+        long timeoutNanos = Math.min(maxTimeout.toNanos(), remainingBudget.toNanos());
+        if (timeoutNanos <= 0) {
+            return CompletableFuture.failedFuture(
+                    new TimeoutException("No latency budget left for " + name));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(
+                    CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pendingAttempts = new AtomicInteger(1);
+        attempt(call, result, pendingAttempts);
+
+        Future<?> hedgeTimer = null;
+        long observedNanos = latencyTracker.percentileNanos();
+        long hedgeDelayNanos = Math.max(minHedgeDelay.toNanos(), observedNanos);
+        if (hedgingEnabled && observedNanos > 0 && hedgeDelayNanos < timeoutNanos) {
+            hedgeTimer = hedgeScheduler.schedule(() -> {
+                if (!result.isDone()) {
+                    pendingAttempts.incrementAndGet();
+                    log.debug("Hedging call to {} after {}ms", name, TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos));
+                    attempt(call, result, pendingAttempts);
+                }
+            }, hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        Future<?> timer = hedgeTimer;
+        result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                .whenComplete((value, error) -> {
+                    long elapsed = System.nanoTime() - start;
+                    if (error == null) {
+                        circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+                    } else {
+                        circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, error);
+                    }
+                    // Losing attempts are left to finish so their bulkhead permits are released.
+                    if (timer != null) {
+                        timer.cancel(false);
+                    }
+                });
+        return result;
+    }
+
+    private <T> void attempt(Supplier<T> call, CompletableFuture<T> result, AtomicInteger pendingAttempts) {
+        if (!bulkhead.tryAcquirePermission()) {
+            failAttempt(result, pendingAttempts, BulkheadFullException.createBulkheadFullException(bulkhead));
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    T value = call.get();
+                    latencyTracker.record(System.nanoTime() - start);
+                    result.complete(value);
+                } catch (Exception e) {
+                    failAttempt(result, pendingAttempts, e);
+                } finally {
+                    bulkhead.onComplete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.onComplete();
+            failAttempt(result, pendingAttempts, e);
+        }
+    }
+
+    private static void failAttempt(CompletableFuture<?> result, AtomicInteger pendingAttempts, Throwable error) {
+        if (pendingAttempts.decrementAndGet() == 0) {
+            result.completeExceptionally(error);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -18,41 +18,57 @@ public class DistributedCache {
     private final ObjectMapper objectMapper;
 
     public <T> T get(String key, Class<T> type) {
+        CacheOperationEvent event = new CacheOperationEvent();
+        event.begin();
         try {
             Object value = redisTemplate.opsForValue().get(key);
+            event.complete("get", key, value != null, false);
             if (value == null) {
                 return null;
             }
             return objectMapper.convertValue(value, type);
         } catch (Exception e) {
+            event.complete("get", key, false, true);
             log.warn("Cache get failed for key: {}", key, e);
             return null;
         }
     }
 
     public void put(String key, Object value, Duration ttl) {
+        CacheOperationEvent event = new CacheOperationEvent();
+        event.begin();
         try {
             redisTemplate.opsForValue().set(key, value, ttl);
+            event.complete("put", key, false, false);
         } catch (Exception e) {
+            event.complete("put", key, false, true);
             log.warn("Cache put failed for key: {}", key, e);
         }
     }
 
     public void evict(String key) {
+        CacheOperationEvent event = new CacheOperationEvent();
+        event.begin();
         try {
             redisTemplate.delete(key);
+            event.complete("evict", key, false, false);
         } catch (Exception e) {
+            event.complete("evict", key, false, true);
             log.warn("Cache eviction failed for key: {}", key, e);
         }
     }
 
     public void evictPattern(String pattern) {
+        CacheOperationEvent event = new CacheOperationEvent();
+        event.begin();
         try {
             Set<String> keys = redisTemplate.keys(pattern);
             if (keys != null && !keys.isEmpty()) {
                 redisTemplate.delete(keys);
             }
+            event.complete("evictPattern", pattern, false, false);
         } catch (Exception e) {
+            event.complete("evictPattern", pattern, false, true);
             log.warn("Cache pattern eviction failed for pattern: {}", pattern, e);
         }
     }
@@ -0,0 +1,197 @@
+package com.ecommerce.orderservice.support;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Node-local idempotency store backed by a memory-mapped, open-addressed table of
+ * fixed 64-byte slots. Keys are not stored, only two independent 64-bit hashes of them.
+ * Only suitable when retries for a customer are routed to the same instance.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.idempotency", name = "store", havingValue = "file")
+@Slf4j
+public class FileIdempotencyStore implements IdempotencyStore {
+
+    private static final int SLOT_SIZE = 64;
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    private static final byte EMPTY = 0;
+    private static final byte LIVE = 1;
+    private static final byte TOMBSTONE = 2;
+
+    private static final int STATE = 0;
+    private static final int STATUS = 1;
+    private static final int KEY_HASH = 8;
+    private static final int KEY_CHECK = 16;
+    private static final int ORDER_MSB = 24;
+    private static final int ORDER_LSB = 32;
+    private static final int REQUEST_HASH = 40;
+    private static final int CREATED_AT = 48;
+    private static final int EXPIRES_AT = 56;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long CHECK_SEED = 0x9e3779b97f4a7c15L;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final Duration ttl;
+
+    public FileIdempotencyStore(@Value("${order.idempotency.file.path:data/idempotency.tbl}") Path path,
+                                @Value("${order.idempotency.file.capacity:2097152}") int requestedCapacity,
+                                @Value("${order.idempotency.ttl:PT10M}") Duration ttl) {
+        this.capacity = Math.min(MAX_CAPACITY, Integer.highestOneBit(Math.max(2, requestedCapacity - 1) << 1));
+        this.ttl = ttl;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * SLOT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open idempotency table: " + path, e);
+        }
+        log.info("Idempotency file store mapped {} slots at {}", capacity, path);
+    }
+
+    @Override
+    public synchronized IdempotencyRecord putIfAbsent(String key, IdempotencyRecord record) {
+        long keyHash = hash(key, FNV_OFFSET);
+        long keyCheck = hash(key, CHECK_SEED);
+        long now = System.currentTimeMillis();
+        int mask = capacity - 1;
+        int home = (int) (keyHash & mask);
+        int reusable = -1;
+
+        for (int probe = 0; probe < capacity; probe++) {
+            int slot = (home + probe) & mask;
+            int offset = slot * SLOT_SIZE;
+            byte state = buffer.get(offset + STATE);
+            if (state == EMPTY) {
+                write(reusable >= 0 ? reusable : slot, keyHash, keyCheck, record, now);
+                return null;
+            }
+            boolean expired = buffer.getLong(offset + EXPIRES_AT) <= now;
+            if (state == LIVE && !expired && sameKey(offset, keyHash, keyCheck)) {
+                return read(offset);
+            }
+            if (reusable < 0 && (state == TOMBSTONE || expired)) {
+                reusable = slot;
+            }
+        }
+        if (reusable >= 0) {
+            write(reusable, keyHash, keyCheck, record, now);
+            return null;
+        }
+        throw new IllegalStateException("Idempotency file store is full");
+    }
+
+    @Override
+    public synchronized IdempotencyRecord get(String key) {
+        int slot = find(hash(key, FNV_OFFSET), hash(key, CHECK_SEED));
+        if (slot < 0 || buffer.getLong(slot * SLOT_SIZE + EXPIRES_AT) <= System.currentTimeMillis()) {
+            return null;
+        }
+        return read(slot * SLOT_SIZE);
+    }
+
+    @Override
+    public synchronized void complete(String key, IdempotencyRecord record) {
+        long keyHash = hash(key, FNV_OFFSET);
+        long keyCheck = hash(key, CHECK_SEED);
+        int slot = find(keyHash, keyCheck);
+        if (slot >= 0) {
+            write(slot, keyHash, keyCheck, record, System.currentTimeMillis());
+        } else {
+            putIfAbsent(key, record);
+        }
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        int slot = find(hash(key, FNV_OFFSET), hash(key, CHECK_SEED));
+        if (slot >= 0) {
+            buffer.put(slot * SLOT_SIZE + STATE, TOMBSTONE);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private int find(long keyHash, long keyCheck) {
+        int mask = capacity - 1;
+        int home = (int) (keyHash & mask);
+        for (int probe = 0; probe < capacity; probe++) {
+            int slot = (home + probe) & mask;
+            int offset = slot * SLOT_SIZE;
+            byte state = buffer.get(offset + STATE);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == LIVE && sameKey(offset, keyHash, keyCheck)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean sameKey(int offset, long keyHash, long keyCheck) {
+        return buffer.getLong(offset + KEY_HASH) == keyHash && buffer.getLong(offset + KEY_CHECK) == keyCheck;
+    }
+
+    private void write(int slot, long keyHash, long keyCheck, IdempotencyRecord record, long now) {
+        int offset = slot * SLOT_SIZE;
+        UUID orderId = record.getOrderId();
+        buffer.put(offset + STATUS, (byte) record.getStatus().ordinal());
+        buffer.putLong(offset + KEY_HASH, keyHash);
+        buffer.putLong(offset + KEY_CHECK, keyCheck);
+        buffer.putLong(offset + ORDER_MSB, orderId == null ? 0L : orderId.getMostSignificantBits());
+        buffer.putLong(offset + ORDER_LSB, orderId == null ? 0L : orderId.getLeastSignificantBits());
+        buffer.putLong(offset + REQUEST_HASH, record.getRequestHash());
+        buffer.putLong(offset + CREATED_AT, record.getCreatedAtEpochMilli());
+        buffer.putLong(offset + EXPIRES_AT, now + ttl.toMillis());
+        buffer.put(offset + STATE, LIVE);
+    }
+
+    private IdempotencyRecord read(int offset) {
+        long msb = buffer.getLong(offset + ORDER_MSB);
+        long lsb = buffer.getLong(offset + ORDER_LSB);
+        return new IdempotencyRecord(
+                IdempotencyRecord.Status.values()[buffer.get(offset + STATUS)],
+                msb == 0L && lsb == 0L ? null : new UUID(msb, lsb),
+                buffer.getLong(offset + REQUEST_HASH),
+                buffer.getLong(offset + CREATED_AT));
+    }
+
+    private static long hash(String key, long seed) {
+        long h = seed;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.orderservice.support;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Owns the single on-demand JFR recording started through the flightrecorder actuator endpoint.
+ */
+@Component
+@Slf4j
+public class FlightRecordingManager implements DisposableBean {
+
+    private final Path dumpDirectory;
+    private final Duration stageThreshold;
+    private final Duration cacheThreshold;
+    private final Duration maxAge;
+    private Recording recording;
+
+    public FlightRecordingManager(@Value("${order.jfr.dump-directory:${java.io.tmpdir}/order-service-jfr}") Path dumpDirectory,
+                                  @Value("${order.jfr.stage-threshold:20ms}") Duration stageThreshold,
+                                  @Value("${order.jfr.cache-threshold:10ms}") Duration cacheThreshold,
+                                  @Value("${order.jfr.max-age:15m}") Duration maxAge) {
+        this.dumpDirectory = dumpDirectory;
+        this.stageThreshold = stageThreshold;
+        this.cacheThreshold = cacheThreshold;
+        this.maxAge = maxAge;
+    }
+
+    public synchronized Map<String, Object> start(String settings, Duration stageThresholdOverride) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return status();
+        }
+        try {
+            Configuration configuration = Configuration.getConfiguration(settings != null ? settings : "default");
+            recording = new Recording(configuration);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings, e);
+        }
+        recording.setName("order-service");
+        recording.setMaxAge(maxAge);
+        recording.setToDisk(true);
+        recording.enable(OrderStageEvent.class)
+                .withThreshold(stageThresholdOverride != null ? stageThresholdOverride : stageThreshold);
+        recording.enable(CacheOperationEvent.class).withThreshold(cacheThreshold);
+        recording.start();
+        log.info("Started JFR recording {} with settings {}", recording.getId(), configuration.getName());
+        return status();
+    }
+
+    public synchronized Path dump() {
+        if (recording == null) {
+            throw new IllegalStateException("No JFR recording has been started");
+        }
+        try {
+            Files.createDirectories(dumpDirectory);
+            Path target = dumpDirectory.resolve("order-service-" + Instant.now().toEpochMilli() + ".jfr");
+            recording.dump(target);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to dump JFR recording", e);
+        }
+    }
+
+    public synchronized Map<String, Object> stop() {
+        if (recording != null) {
+            recording.stop();
+            recording.close();
+            log.info("Stopped JFR recording {}", recording.getId());
+            recording = null;
+        }
+        return status();
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("id", recording.getId());
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("size", recording.getSize());
+        return status;
+    }
+
+    @Override
+    public void destroy() {
+        stop();
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.orderservice.support;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+@Value
+public class IdempotencyRecord {
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    Status status;
+    UUID orderId;
+    long requestHash;
+    long createdAtEpochMilli;
+
+    public static IdempotencyRecord inProgress(long requestHash) {
+        return new IdempotencyRecord(Status.IN_PROGRESS, null, requestHash, System.currentTimeMillis());
+    }
+
+    public static IdempotencyRecord completed(UUID orderId, long requestHash) {
+        return new IdempotencyRecord(Status.COMPLETED, orderId, requestHash, System.currentTimeMillis());
+    }
+
+    public boolean matches(long otherRequestHash) {
+        return requestHash == otherRequestHash;
+    }
+}
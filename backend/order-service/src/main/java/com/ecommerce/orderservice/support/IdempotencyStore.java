@@ -0,0 +1,20 @@
+package com.ecommerce.orderservice.support;
+
+public interface IdempotencyStore {
+
+    /**
+     * Atomically claims the key with the given record.
+     *
+     * @return the record already held for the key, or {@code null} if the claim succeeded
+     */
+    IdempotencyRecord putIfAbsent(String key, IdempotencyRecord record);
+
+    /**
+     * @return the live record held for the key, or {@code null} if there is none
+     */
+    IdempotencyRecord get(String key);
+
+    void complete(String key, IdempotencyRecord record);
+
+    void release(String key);
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.orderservice.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Postgres-backed idempotency store. The table is UNLOGGED: it skips the WAL, so it is
+ * cheap to write but truncated after a crash, which only widens the replay window.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.idempotency", name = "store", havingValue = "postgres")
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final String CREATE_TABLE = """
+            CREATE UNLOGGED TABLE IF NOT EXISTS order_idempotency (
+                idempotency_key VARCHAR(255) PRIMARY KEY,
+                status SMALLINT NOT NULL,
+                order_id UUID,
+                request_hash BIGINT NOT NULL,
+                created_at TIMESTAMPTZ NOT NULL,
+                expires_at TIMESTAMPTZ NOT NULL
+            )""";
+
+    private static final String INSERT = """
+            INSERT INTO order_idempotency (idempotency_key, status, order_id, request_hash, created_at, expires_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (idempotency_key) DO NOTHING""";
+
+    private static final String TAKE_OVER_EXPIRED = """
+            UPDATE order_idempotency
+            SET status = ?, order_id = ?, request_hash = ?, created_at = ?, expires_at = ?
+            WHERE idempotency_key = ? AND expires_at <= ?""";
+
+    private static final String SELECT_LIVE = """
+            SELECT status, order_id, request_hash, created_at FROM order_idempotency
+            WHERE idempotency_key = ? AND expires_at > ?""";
+
+    private static final String UPSERT = """
+            INSERT INTO order_idempotency (idempotency_key, status, order_id, request_hash, created_at, expires_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (idempotency_key) DO UPDATE SET
+                status = EXCLUDED.status,
+                order_id = EXCLUDED.order_id,
+                request_hash = EXCLUDED.request_hash,
+                created_at = EXCLUDED.created_at,
+                expires_at = EXCLUDED.expires_at""";
+
+    private static final RowMapper<IdempotencyRecord> RECORD_MAPPER = (rs, rowNum) -> new IdempotencyRecord(
+            IdempotencyRecord.Status.values()[rs.getShort("status")],
+            rs.getObject("order_id", UUID.class),
+            rs.getLong("request_hash"),
+            rs.getTimestamp("created_at").getTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                @Value("${order.idempotency.ttl:PT10M}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        jdbcTemplate.execute(CREATE_TABLE);
+    }
+
+    @Override
+    public IdempotencyRecord putIfAbsent(String key, IdempotencyRecord record) {
+        return CacheOperationEvent.record("idempotency.putIfAbsent", key,
+                () -> claim(key, record), existing -> existing != null);
+    }
+
+    private IdempotencyRecord claim(String key, IdempotencyRecord record) {
+        Instant now = Instant.now();
+        if (jdbcTemplate.update(INSERT, insertArgs(key, record, now)) == 1) {
+            return null;
+        }
+        List<IdempotencyRecord> existing = jdbcTemplate.query(SELECT_LIVE, RECORD_MAPPER, key, Timestamp.from(now));
+        if (!existing.isEmpty()) {
+            return existing.get(0);
+        }
+        int claimed = jdbcTemplate.update(TAKE_OVER_EXPIRED,
+                record.getStatus().ordinal(), record.getOrderId(), record.getRequestHash(),
+                new Timestamp(record.getCreatedAtEpochMilli()), Timestamp.from(now.plus(ttl)),
+                key, Timestamp.from(now));
+        if (claimed == 1) {
+            return null;
+        }
+        existing = jdbcTemplate.query(SELECT_LIVE, RECORD_MAPPER, key, Timestamp.from(now));
+        return existing.isEmpty() ? null : existing.get(0);
+    }
+
+    @Override
+    public IdempotencyRecord get(String key) {
+        List<IdempotencyRecord> existing = CacheOperationEvent.record("idempotency.get", key,
+                () -> jdbcTemplate.query(SELECT_LIVE, RECORD_MAPPER, key, Timestamp.from(Instant.now())),
+                records -> !records.isEmpty());
+        return existing.isEmpty() ? null : existing.get(0);
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        CacheOperationEvent.record("idempotency.complete", key,
+                () -> jdbcTemplate.update(UPSERT, insertArgs(key, record, Instant.now())), updated -> false);
+    }
+
+    @Override
+    public void release(String key) {
+        try {
+            CacheOperationEvent.record("idempotency.release", key,
+                    () -> jdbcTemplate.update("DELETE FROM order_idempotency WHERE idempotency_key = ?", key),
+                    deleted -> false);
+        } catch (Exception e) {
+            log.warn("Idempotency release failed for key: {}", key, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval:PT1M}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM order_idempotency WHERE expires_at <= ?",
+                Timestamp.from(Instant.now()));
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    private Object[] insertArgs(String key, IdempotencyRecord record, Instant now) {
+        return new Object[]{
+                key,
+                record.getStatus().ordinal(),
+                record.getOrderId(),
+                record.getRequestHash(),
+                new Timestamp(record.getCreatedAtEpochMilli()),
+                Timestamp.from(now.plus(ttl))
+        };
+    }
+}
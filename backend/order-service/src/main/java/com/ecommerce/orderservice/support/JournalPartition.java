@@ -0,0 +1,222 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.event.OrderJournalRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The journal of one customer partition: an ordered list of segments, of which only the last is
+ * written to, plus the projection states derived from it. Every mutation happens under
+ * {@link #lock}, which also makes projection updates single-threaded per partition.
+ */
+final class JournalPartition {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    final ReentrantLock lock = new ReentrantLock();
+
+    private final int id;
+    private final Path directory;
+    private final int segmentBytes;
+    private final List<JournalSegment> segments = new ArrayList<>();
+    private final ArrayDeque<PendingSync> pendingSyncs = new ArrayDeque<>();
+    private JournalSegment active;
+    private long durableSequence;
+    private volatile Object[] states;
+
+    private JournalPartition(int id, Path directory, int segmentBytes) {
+        this.id = id;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    static JournalPartition open(int id, Path directory, int segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        JournalPartition partition = new JournalPartition(id, directory, segmentBytes);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        long expected = 0;
+        for (Path file : files) {
+            long base = Long.parseLong(file.getFileName().toString().replace(SEGMENT_SUFFIX, ""));
+            if (base != expected) {
+                throw new IOException("Journal partition " + id + " is missing records " + expected + " to " + base);
+            }
+            JournalSegment segment = JournalSegment.open(file, base, segmentBytes);
+            partition.segments.add(segment);
+            expected = segment.getNextSequence();
+        }
+        if (partition.segments.isEmpty()) {
+            partition.segments.add(JournalSegment.open(partition.segmentPath(0), 0, segmentBytes));
+        }
+        partition.active = partition.segments.get(partition.segments.size() - 1);
+        partition.durableSequence = partition.active.getNextSequence();
+        return partition;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    Object[] getStates() {
+        return states;
+    }
+
+    void setStates(Object[] states) {
+        this.states = states;
+    }
+
+    /**
+     * Sequence the next append will get. Caller holds the lock.
+     */
+    long nextSequence() {
+        return active.getNextSequence();
+    }
+
+    /**
+     * Appends a record already stamped with {@link #nextSequence()} and returns a future that
+     * completes once a sync has made it durable. Caller holds the lock.
+     */
+    CompletableFuture<Long> append(OrderJournalRecord record) throws IOException {
+        if (!active.append(record)) {
+            roll();
+            if (!active.append(record)) {
+                throw new IllegalArgumentException("Journal record larger than a segment");
+            }
+        }
+        CompletableFuture<Long> durable = new CompletableFuture<>();
+        pendingSyncs.add(new PendingSync(record.getSequence(), durable));
+        return durable;
+    }
+
+    /**
+     * Group commit: one msync covers everything appended since the previous one, then every
+     * waiter it covered is released. Returns the number of records made durable.
+     */
+    long sync() {
+        JournalSegment segment;
+        long target;
+        lock.lock();
+        try {
+            target = active.getNextSequence();
+            if (target == durableSequence) {
+                return 0;
+            }
+            segment = active;
+        } finally {
+            lock.unlock();
+        }
+
+        RuntimeException failure = null;
+        try {
+            segment.force();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        List<PendingSync> released = new ArrayList<>();
+        long synced;
+        lock.lock();
+        try {
+            synced = failure == null ? Math.max(0, target - durableSequence) : 0;
+            if (failure == null) {
+                durableSequence = Math.max(durableSequence, target);
+            }
+            while (!pendingSyncs.isEmpty() && pendingSyncs.peek().sequence() < target) {
+                released.add(pendingSyncs.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PendingSync pending : released) {
+            if (failure == null) {
+                pending.future().complete(pending.sequence());
+            } else {
+                pending.future().completeExceptionally(failure);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return synced;
+    }
+
+    /**
+     * Visits records with sequence in [from, to) in order. {@code to} must have been read under
+     * the lock; the scan itself runs without it.
+     */
+    long read(long from, long to, Consumer<OrderJournalRecord> consumer) {
+        List<JournalSegment> snapshot;
+        lock.lock();
+        try {
+            snapshot = List.copyOf(segments);
+        } finally {
+            lock.unlock();
+        }
+        long visited = 0;
+        for (JournalSegment segment : snapshot) {
+            if (segment.getBaseSequence() < to && segment.getNextSequence() > from) {
+                visited += segment.read(from, to, consumer);
+            }
+        }
+        return visited;
+    }
+
+    long recordCount() {
+        lock.lock();
+        try {
+            return active.getNextSequence();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long sizeBytes() {
+        lock.lock();
+        try {
+            return segments.stream().mapToLong(JournalSegment::sizeBytes).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        // the sealed segment is synced here so sync() only ever has to look at the active one
+        active.force();
+        durableSequence = active.getNextSequence();
+        List<PendingSync> released = new ArrayList<>();
+        while (!pendingSyncs.isEmpty()) {
+            released.add(pendingSyncs.poll());
+        }
+        long base = active.getNextSequence();
+        active = JournalSegment.open(segmentPath(base), base, segmentBytes);
+        segments.add(active);
+        released.forEach(pending -> pending.future().complete(pending.sequence()));
+    }
+
+    private Path segmentPath(long baseSequence) {
+        return directory.resolve(String.format("%020d%s", baseSequence, SEGMENT_SUFFIX));
+    }
+
+    private record PendingSync(long sequence, CompletableFuture<Long> future) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.event.OrderJournalRecord;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A read model derived from the order journal. The journal keeps one state object per customer
+ * partition and applies records to it from one thread at a time, so states need no write
+ * locking of their own; they must still tolerate concurrent reads from request threads.
+ */
+public interface JournalProjection<S> {
+
+    String name();
+
+    S newState();
+
+    void apply(S state, OrderJournalRecord record);
+
+    /**
+     * Called whenever a partition switches to a new state: after startup recovery and after a
+     * rebuild. Queries should read from the states installed here.
+     */
+    void install(int partition, S state);
+
+    void writeSnapshot(S state, DataOutput out) throws IOException;
+
+    S readSnapshot(DataInput in) throws IOException;
+}
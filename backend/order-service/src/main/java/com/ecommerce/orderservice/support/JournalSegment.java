@@ -0,0 +1,195 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.event.OrderJournalRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped journal file of fixed capacity. Records are laid out back to back as
+ *
+ * <pre>
+ * int  body length
+ * int  CRC32 of the body
+ * body sequence, type, order id, customer id, timestamp, amount, status, previous status
+ * </pre>
+ *
+ * On open the segment is scanned up to the first record whose length, checksum or sequence does
+ * not fit; that is where the next append goes, which discards a record torn by a crash. Readers
+ * walk records by sequence number and never rely on what lies past the last one.
+ */
+final class JournalSegment {
+
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int FIXED_BODY_BYTES = Long.BYTES + 1 + 4 * Long.BYTES + Long.BYTES + Long.BYTES;
+    private static final OrderJournalRecord.Type[] TYPES = OrderJournalRecord.Type.values();
+    // a handful of distinct statuses, shared so projections do not hold one copy per order
+    private static final ConcurrentHashMap<String, String> STATUS_NAMES = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final long baseSequence;
+    private final MappedByteBuffer buffer;
+    private int end;
+    private long nextSequence;
+
+    private JournalSegment(Path path, long baseSequence, MappedByteBuffer buffer) {
+        this.path = path;
+        this.baseSequence = baseSequence;
+        this.buffer = buffer;
+        this.nextSequence = baseSequence;
+    }
+
+    static JournalSegment open(Path path, long baseSequence, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // mapping past the end grows the file sparsely, so a fresh segment costs no disk up front
+            long size = Math.max(channel.size(), capacity);
+            JournalSegment segment = new JournalSegment(path, baseSequence,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segment.recover();
+            return segment;
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getBaseSequence() {
+        return baseSequence;
+    }
+
+    long getNextSequence() {
+        return nextSequence;
+    }
+
+    int sizeBytes() {
+        return end;
+    }
+
+    /**
+     * Writes the record at the end of the segment; returns false when it does not fit. The caller
+     * owns the partition lock.
+     */
+    boolean append(OrderJournalRecord record) {
+        byte[] status = utf(record.getStatus());
+        byte[] previousStatus = utf(record.getPreviousStatus());
+        int bodyLength = FIXED_BODY_BYTES + 2 * Short.BYTES + status.length + previousStatus.length;
+        if (end + RECORD_HEADER_BYTES + bodyLength + RECORD_HEADER_BYTES > buffer.capacity()) {
+            return false;
+        }
+        if (record.getSequence() != nextSequence) {
+            throw new IllegalStateException("Journal sequence gap in " + path + ": expected " + nextSequence
+                    + ", got " + record.getSequence());
+        }
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        body.putLong(record.getSequence());
+        body.put((byte) record.getType().ordinal());
+        body.putLong(record.getOrderId().getMostSignificantBits());
+        body.putLong(record.getOrderId().getLeastSignificantBits());
+        body.putLong(record.getCustomerId().getMostSignificantBits());
+        body.putLong(record.getCustomerId().getLeastSignificantBits());
+        body.putLong(record.getTimestampMillis());
+        body.putLong(record.getAmountMinorUnits());
+        putUtf(body, record.getStatus(), status);
+        putUtf(body, record.getPreviousStatus(), previousStatus);
+
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        buffer.put(end + RECORD_HEADER_BYTES, body.array());
+        buffer.putInt(end + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(end, bodyLength);
+        end += RECORD_HEADER_BYTES + bodyLength;
+        nextSequence++;
+        return true;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Visits records with sequence in [from, to). Records below {@code to} were written under the
+     * partition lock before the caller read {@code to}, so no lock is needed here.
+     */
+    long read(long from, long to, Consumer<OrderJournalRecord> consumer) {
+        long limit = Math.min(to, nextSequence);
+        long visited = 0;
+        int position = 0;
+        for (long sequence = baseSequence; sequence < limit; sequence++) {
+            int bodyLength = buffer.getInt(position);
+            if (sequence >= from) {
+                consumer.accept(decode(position + RECORD_HEADER_BYTES));
+                visited++;
+            }
+            position += RECORD_HEADER_BYTES + bodyLength;
+        }
+        return visited;
+    }
+
+    private void recover() {
+        int position = 0;
+        long expected = baseSequence;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int bodyLength = buffer.getInt(position);
+            if (bodyLength < FIXED_BODY_BYTES || position + RECORD_HEADER_BYTES + bodyLength > buffer.capacity()) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(position + RECORD_HEADER_BYTES, bodyLength));
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)
+                    || buffer.getLong(position + RECORD_HEADER_BYTES) != expected) {
+                break;
+            }
+            expected++;
+            position += RECORD_HEADER_BYTES + bodyLength;
+        }
+        end = position;
+        nextSequence = expected;
+    }
+
+    private OrderJournalRecord decode(int position) {
+        long sequence = buffer.getLong(position);
+        OrderJournalRecord.Type type = TYPES[buffer.get(position + Long.BYTES)];
+        int fields = position + Long.BYTES + 1;
+        UUID orderId = new UUID(buffer.getLong(fields), buffer.getLong(fields + 8));
+        UUID customerId = new UUID(buffer.getLong(fields + 16), buffer.getLong(fields + 24));
+        long timestamp = buffer.getLong(fields + 32);
+        long amount = buffer.getLong(fields + 40);
+        int strings = position + FIXED_BODY_BYTES;
+        short statusLength = buffer.getShort(strings);
+        String status = readUtf(strings + Short.BYTES, statusLength);
+        int previous = strings + Short.BYTES + Math.max(statusLength, 0);
+        String previousStatus = readUtf(previous + Short.BYTES, buffer.getShort(previous));
+        return new OrderJournalRecord(sequence, type, orderId, customerId, timestamp, amount, previousStatus, status);
+    }
+
+    private String readUtf(int position, short length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf = new byte[length];
+        buffer.get(position, utf);
+        String value = new String(utf, StandardCharsets.UTF_8);
+        return STATUS_NAMES.computeIfAbsent(value, v -> v);
+    }
+
+    private static byte[] utf(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putUtf(ByteBuffer body, String value, byte[] utf) {
+        body.putShort(value == null ? -1 : (short) utf.length);
+        body.put(utf);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.orderservice.support;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding window of recent call latencies. Percentiles are recomputed at most once per
+ * refresh interval so callers on the hot path only read a cached value.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private final long refreshNanos;
+    private final double percentile;
+    private volatile long cachedNanos = -1L;
+    private volatile long cachedAt;
+
+    public LatencyTracker(int windowSize, double percentile, long refreshNanos) {
+        int size = Integer.highestOneBit(Math.max(16, windowSize - 1) << 1);
+        this.samples = new long[size];
+        this.mask = size - 1;
+        this.percentile = percentile;
+        this.refreshNanos = refreshNanos;
+    }
+
+    public void record(long latencyNanos) {
+        samples[(int) (cursor.getAndIncrement() & mask)] = latencyNanos;
+    }
+
+    /**
+     * @return the tracked percentile in nanoseconds, or {@code -1} until enough samples exist
+     */
+    public long percentileNanos() {
+        long now = System.nanoTime();
+        if (now - cachedAt > refreshNanos) {
+            cachedNanos = compute();
+            cachedAt = now;
+        }
+        return cachedNanos;
+    }
+
+    private long compute() {
+        int count = (int) Math.min(cursor.get(), samples.length);
+        if (count < 16) {
+            return -1L;
+        }
+        long[] snapshot = Arrays.copyOf(samples, count);
+        Arrays.sort(snapshot);
+        return snapshot[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+    }
+}
@@ -0,0 +1,280 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Moves orders in a terminal status older than {@code order.archive.after} out of Postgres into
+ * {@link OrderArchive} segments. Each batch is written and fsynced before its rows are deleted;
+ * a crash in between leaves the orders in both places, the database copy wins on reads, and the
+ * next run deletes them without archiving them again. On shared storage rows are deleted only
+ * after two {@code order.archive.refresh-interval}s, once other replicas have opened the new
+ * segment. A Postgres advisory lock lets only one instance run at a time. Without shared storage
+ * this instance also takes the archive's local-owner lock for its lifetime and refuses to start
+ * if another instance holds it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.archive", name = "enabled", havingValue = "true")
+@Slf4j
+public class OrderArchivalJob {
+
+    private static final String SELECT_CANDIDATES = """
+            SELECT id FROM orders WHERE status IN (%s) AND created_at < ?
+            ORDER BY created_at LIMIT ?""";
+
+    private static final String SELECT_ORDERS = """
+            SELECT id, customer_id, status, total_amount, price_version, shipping_address, created_at, version
+            FROM orders WHERE id = ANY(?)""";
+
+    private static final String SELECT_ITEMS = """
+            SELECT id, order_id, product_id, quantity, unit_price, total_price
+            FROM order_items WHERE order_id = ANY(?)""";
+
+    private static final String ROW_BYTES = """
+            SELECT (SELECT COALESCE(SUM(pg_column_size(o.*)), 0) FROM orders o WHERE o.id = ANY(?))
+                 + (SELECT COALESCE(SUM(pg_column_size(i.*)), 0) FROM order_items i WHERE i.order_id = ANY(?))""";
+
+    static final long RUN_LOCK = 0x4f52_4441_5243L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderArchive archive;
+    private final Clock clock;
+    private final Duration after;
+    private final List<String> statuses;
+    private final int batchSize;
+    private final Duration refreshInterval;
+    private Connection ownerConnection;
+
+    public OrderArchivalJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            OrderArchive archive, Clock clock,
+                            @Value("${order.archive.after:90d}") Duration after,
+                            @Value("${order.archive.statuses:CONFIRMED,CANCELLED}") List<String> statuses,
+                            @Value("${order.archive.batch-size:100000}") int batchSize,
+                            @Value("${order.archive.refresh-interval:10s}") Duration refreshInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.archive = archive;
+        this.clock = clock;
+        this.after = after;
+        this.statuses = statuses;
+        this.batchSize = batchSize;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @PostConstruct
+    public void claimLocalArchive() throws SQLException {
+        if (archive.isSharedStorage()) {
+            return;
+        }
+        Connection connection = DataSourceUtils.getConnection(jdbcTemplate.getDataSource());
+        if (!tryAdvisoryLock(connection, OrderArchive.LOCAL_OWNER_LOCK)) {
+            DataSourceUtils.releaseConnection(connection, jdbcTemplate.getDataSource());
+            throw new IllegalStateException("Another instance already archives orders to local disk; "
+                    + "set order.archive.shared-storage=true with a shared directory or run one replica");
+        }
+        ownerConnection = connection;
+    }
+
+    @PreDestroy
+    public void releaseLocalArchive() {
+        if (ownerConnection == null) {
+            return;
+        }
+        // the pool keeps the session open, so the lock has to be released explicitly
+        try {
+            advisoryUnlock(ownerConnection, OrderArchive.LOCAL_OWNER_LOCK);
+        } catch (SQLException e) {
+            log.warn("Failed to release the local archive lock", e);
+        } finally {
+            DataSourceUtils.releaseConnection(ownerConnection, jdbcTemplate.getDataSource());
+            ownerConnection = null;
+        }
+    }
+
+    @Scheduled(cron = "${order.archive.cron:0 45 2 * * *}", zone = "UTC")
+    public void archive() {
+        // session-level lock on a connection held for the whole run
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!tryAdvisoryLock(connection, RUN_LOCK)) {
+                log.info("Order archival is already running on another instance");
+                return null;
+            }
+            try {
+                archiveAll();
+            } finally {
+                advisoryUnlock(connection, RUN_LOCK);
+            }
+            return null;
+        });
+    }
+
+    private void archiveAll() {
+        try {
+            // only the run lock holder writes segments, so any temp file is a crashed run's
+            archive.deleteIncompleteSegments();
+        } catch (IOException e) {
+            log.warn("Failed to delete incomplete order segments", e);
+        }
+        Instant cutoff = clock.instant().minus(after);
+        String candidates = String.format(SELECT_CANDIDATES, String.join(", ", Collections.nCopies(statuses.size(), "?")));
+        List<Object> args = new ArrayList<>(statuses);
+        args.add(Timestamp.from(cutoff));
+        args.add(batchSize);
+
+        int archived = 0;
+        List<UUID> ids;
+        do {
+            ids = jdbcTemplate.queryForList(candidates, UUID.class, args.toArray());
+            if (!ids.isEmpty()) {
+                archiveBatch(ids);
+                archived += ids.size();
+            }
+        } while (ids.size() == batchSize);
+        if (archived > 0) {
+            log.info("Archived {} orders created before {}", archived, cutoff);
+        }
+    }
+
+    private static void advisoryUnlock(Connection connection, long key) throws SQLException {
+        try (PreparedStatement unlock = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            unlock.setLong(1, key);
+            unlock.execute();
+        }
+    }
+
+    private static boolean tryAdvisoryLock(Connection connection, long key) throws SQLException {
+        try (PreparedStatement lock = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            lock.setLong(1, key);
+            try (ResultSet rs = lock.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void archiveBatch(List<UUID> candidates) {
+        // left behind by a run that crashed between writing the segment and deleting the rows
+        Map<Boolean, List<UUID>> byArchived = candidates.stream().collect(Collectors.partitioningBy(archive::contains));
+        List<UUID> alreadyArchived = byArchived.get(true);
+        if (!alreadyArchived.isEmpty()) {
+            deleteRows(alreadyArchived);
+            log.info("Deleted {} orders that an earlier run had already archived", alreadyArchived.size());
+        }
+        List<UUID> ids = byArchived.get(false);
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Order> orders = loadOrders(ids);
+        Long rowBytes = jdbcTemplate.query(ROW_BYTES, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+        }, rs -> rs.next() ? rs.getLong(1) : 0L);
+
+        Path segment;
+        long segmentBytes;
+        try {
+            segment = archive.newSegmentPath();
+            OrderSegmentWriter.write(segment, orders);
+            segmentBytes = Files.size(segment);
+            archive.register(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write order segment", e);
+        }
+
+        awaitReplicaRefresh();
+        deleteRows(ids);
+        log.info("Archived {} orders into {}: {} bytes of row data -> {} bytes on disk ({}x)",
+                orders.size(), segment.getFileName(), rowBytes, segmentBytes,
+                segmentBytes == 0 ? 0 : String.format("%.1f", (double) rowBytes / segmentBytes));
+    }
+
+    /**
+     * On shared storage the other replicas only see a new segment after their next refresh, so
+     * keep the rows in Postgres until they have had the chance to pick it up.
+     */
+    private void awaitReplicaRefresh() {
+        if (!archive.isSharedStorage() || refreshInterval.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(refreshInterval.multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted before deleting archived orders", e);
+        }
+    }
+
+    private void deleteRows(List<UUID> ids) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM order_items WHERE order_id = ANY(?)", idArray(ids));
+            jdbcTemplate.update("DELETE FROM orders WHERE id = ANY(?)", idArray(ids));
+        });
+    }
+
+    private List<Order> loadOrders(List<UUID> ids) {
+        Map<UUID, Order> orders = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_ORDERS, idArray(ids), rs -> {
+            Order order = Order.builder()
+                    .id(rs.getObject("id", UUID.class))
+                    .customerId(rs.getObject("customer_id", UUID.class))
+                    .items(new ArrayList<>())
+                    .status(rs.getString("status"))
+                    .totalAmount(rs.getBigDecimal("total_amount"))
+                    .priceVersion(rs.getObject("price_version", Long.class))
+                    .shippingAddress(rs.getString("shipping_address"))
+                    .createdAt(rs.getTimestamp("created_at").toInstant())
+                    .version(rs.getLong("version"))
+                    .build();
+            orders.put(order.getId(), order);
+        });
+        jdbcTemplate.query(SELECT_ITEMS, idArray(ids), rs -> {
+            Order order = orders.get(rs.getObject("order_id", UUID.class));
+            if (order != null) {
+                order.getItems().add(OrderItem.builder()
+                        .id(rs.getObject("id", UUID.class))
+                        .productId(rs.getObject("product_id", UUID.class))
+                        .quantity(rs.getInt("quantity"))
+                        .unitPrice(rs.getBigDecimal("unit_price"))
+                        .totalPrice(rs.getBigDecimal("total_price"))
+                        .build());
+            }
+        });
+        return new ArrayList<>(orders.values());
+    }
+
+    private static PreparedStatementSetter idArray(List<UUID> ids) {
+        return ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+    }
+}
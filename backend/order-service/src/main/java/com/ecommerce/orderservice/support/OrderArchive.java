@@ -0,0 +1,281 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.model.Order;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The set of archived order segments under {@code order.archive.directory}. Segments are
+ * immutable; the archival job only ever adds new ones. Every instance serves reads from this
+ * directory, so it must be shared or replicated storage mounted on all replicas
+ * ({@code order.archive.shared-storage=true}). With plain local disk only the archiving instance
+ * can see archived orders, so any other instance refuses to start while one is archiving.
+ */
+@Component
+@Slf4j
+public class OrderArchive {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final long MISS_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Session advisory lock held for its lifetime by the instance archiving to local disk.
+     */
+    static final long LOCAL_OWNER_LOCK = 0x4f52_4441L;
+
+    private static final String LOCAL_OWNER_HELD = """
+            SELECT EXISTS (SELECT 1 FROM pg_locks WHERE locktype = 'advisory' AND granted
+                AND database = (SELECT oid FROM pg_database WHERE datname = current_database())
+                AND classid = 0 AND objid = ? AND objsubid = 1)""";
+
+    private final Path directory;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean sharedStorage;
+    private final CopyOnWriteArrayList<OrderSegment> segments = new CopyOnWriteArrayList<>();
+    private final Set<String> openedFiles = ConcurrentHashMap.newKeySet();
+    private volatile long lastRefreshNanos;
+
+    public OrderArchive(@Value("${order.archive.directory:data/archive}") Path directory,
+                        @Value("${order.archive.shared-storage:false}") boolean sharedStorage,
+                        JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.sharedStorage = sharedStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("order.archive.segments", segments, List::size).register(meterRegistry);
+        Gauge.builder("order.archive.orders", this, a -> a.segments.stream().mapToLong(OrderSegment::getOrderCount).sum())
+                .register(meterRegistry);
+        Gauge.builder("order.archive.bytes", this, a -> a.segments.stream().mapToLong(OrderSegment::sizeBytes).sum())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void openSegments() throws IOException {
+        if (!sharedStorage && localOwnerRunning()) {
+            throw new IllegalStateException("Another instance archives orders to its local disk, so this one could "
+                    + "not read them; set order.archive.shared-storage=true with a shared directory or run one replica");
+        }
+        if (!sharedStorage) {
+            // on shared storage another instance may be writing one right now; the job cleans up instead
+            deleteIncompleteSegments();
+        }
+        refresh();
+        log.info("Opened {} archived order segments from {}", segments.size(), directory);
+    }
+
+    /**
+     * Opens segments other instances have added to the directory since the last scan. Runs on a
+     * schedule, before aggregate checks and when a lookup by id misses; returns how many it added.
+     */
+    @Scheduled(fixedDelayString = "${order.archive.refresh-interval:10s}",
+            initialDelayString = "${order.archive.refresh-interval:10s}")
+    public synchronized int refresh() {
+        lastRefreshNanos = System.nanoTime();
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int added = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SEGMENT_SUFFIX) || openedFiles.contains(name)) {
+                    continue;
+                }
+                try {
+                    segments.add(OrderSegment.open(file));
+                    openedFiles.add(name);
+                    added++;
+                } catch (IOException | RuntimeException e) {
+                    log.error("Skipping unreadable order segment {}", file, e);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to scan {} for new order segments", directory, e);
+        }
+        if (added > 0) {
+            log.debug("Opened {} new order segments from {}", added, directory);
+        }
+        return added;
+    }
+
+    /**
+     * Removes segment files a crashed writer left half-written. Callers must be the only writer.
+     */
+    public void deleteIncompleteSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX + ".tmp")).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    public boolean isSharedStorage() {
+        return sharedStorage;
+    }
+
+    private boolean localOwnerRunning() {
+        try {
+            return Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCAL_OWNER_HELD, Boolean.class, LOCAL_OWNER_LOCK));
+        } catch (DataAccessException e) {
+            log.warn("Could not check for an instance archiving to local disk", e);
+            return false;
+        }
+    }
+
+    public Path newSegmentPath() throws IOException {
+        Files.createDirectories(directory);
+        return directory.resolve("orders-" + TimeOrderedUuid.next(System.currentTimeMillis()) + SEGMENT_SUFFIX);
+    }
+
+    public synchronized void register(Path segmentFile) throws IOException {
+        if (openedFiles.add(segmentFile.getFileName().toString())) {
+            segments.add(OrderSegment.open(segmentFile));
+        }
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Newest created_at held by any segment, or null when nothing has been archived.
+     */
+    public Instant archivedThrough() {
+        return segments.stream().map(OrderSegment::getMaxCreatedAt).max(Comparator.naturalOrder()).orElse(null);
+    }
+
+    public boolean contains(UUID orderId) {
+        long createdAtMilli = TimeOrderedUuid.epochMilli(orderId);
+        for (OrderSegment segment : segments) {
+            if ((createdAtMilli < 0 || segment.overlaps(createdAtMilli, createdAtMilli + 1)) && segment.contains(orderId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Optional<Order> findById(UUID orderId) {
+        long createdAtMilli = TimeOrderedUuid.epochMilli(orderId);
+        for (OrderSegment segment : segments) {
+            if (createdAtMilli >= 0 && !segment.overlaps(createdAtMilli, createdAtMilli + 1)) {
+                continue;
+            }
+            Optional<Order> order = segment.findById(orderId);
+            if (order.isPresent()) {
+                return order;
+            }
+        }
+        // the segment may have been written by another instance since our last scan
+        if (System.nanoTime() - lastRefreshNanos > MISS_REFRESH_NANOS && refresh() > 0) {
+            return findById(orderId);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Archived orders of one customer created in [from, to), newest first.
+     */
+    public List<Order> findByCustomerId(UUID customerId, Instant from, Instant to) {
+        long fromMilli = from.toEpochMilli();
+        long toMilli = to.toEpochMilli();
+        List<Order> orders = new ArrayList<>();
+        for (OrderSegment segment : segments) {
+            if (segment.overlaps(fromMilli, toMilli) && segment.mayContainCustomer(customerId)) {
+                orders.addAll(segment.findByCustomer(customerId, fromMilli, toMilli));
+            }
+        }
+        orders.sort(Comparator.comparing(Order::getCreatedAt).reversed());
+        return orders;
+    }
+
+    /**
+     * The newest {@code limit} archived orders of one customer created in [from, to), skipping
+     * {@code excluded} ids. Segments are read newest first and the walk stops once the next
+     * segment ends before the oldest order kept, so deep history is only read for deep pages.
+     */
+    public List<Order> findByCustomerId(UUID customerId, Instant from, Instant to, int limit, Set<UUID> excluded) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        long fromMilli = from.toEpochMilli();
+        long toMilli = to.toEpochMilli();
+        Comparator<Order> newestFirst = Comparator.comparing(Order::getCreatedAt).reversed();
+        List<OrderSegment> candidates = segments.stream()
+                .filter(segment -> segment.overlaps(fromMilli, toMilli) && segment.mayContainCustomer(customerId))
+                .sorted(Comparator.comparing(OrderSegment::getMaxCreatedAt).reversed())
+                .toList();
+        List<Order> orders = new ArrayList<>();
+        for (OrderSegment segment : candidates) {
+            if (orders.size() >= limit && segment.getMaxCreatedAt().isBefore(orders.get(limit - 1).getCreatedAt())) {
+                break;
+            }
+            for (Order order : segment.findByCustomer(customerId, fromMilli, toMilli)) {
+                if (!excluded.contains(order.getId())) {
+                    orders.add(order);
+                }
+            }
+            orders.sort(newestFirst);
+            if (orders.size() > limit) {
+                orders.subList(limit, orders.size()).clear();
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Number of archived orders of one customer created in [from, to), counted in place.
+     */
+    public long countByCustomerId(UUID customerId, Instant from, Instant to) {
+        long fromMilli = from.toEpochMilli();
+        long toMilli = to.toEpochMilli();
+        long count = 0;
+        for (OrderSegment segment : segments) {
+            if (segment.overlaps(fromMilli, toMilli) && segment.mayContainCustomer(customerId)) {
+                count += segment.countByCustomer(customerId, fromMilli, toMilli);
+            }
+        }
+        return count;
+    }
+
+    public void forEachItem(Instant from, Instant to, Collection<String> statuses, OrderSegment.ItemVisitor visitor) {
+        long fromMilli = from.toEpochMilli();
+        long toMilli = to.toEpochMilli();
+        for (OrderSegment segment : segments) {
+            if (segment.overlaps(fromMilli, toMilli)) {
+                segment.forEachItem(fromMilli, toMilli, statuses, visitor);
+            }
+        }
+    }
+
+    public void forEachTotal(OrderSegment.TotalsVisitor visitor) {
+        for (OrderSegment segment : segments) {
+            segment.forEachTotal(visitor);
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.dto.JournalReplayReport;
+import com.ecommerce.orderservice.event.OrderEventMessage;
+import com.ecommerce.orderservice.event.OrderJournalRecord;
+import com.ecommerce.orderservice.model.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of order lifecycle events, split into customer partitions so that all
+ * events of one customer stay in order and partitions can be replayed in parallel.
+ *
+ * <p>Appends write into the active memory-mapped segment of their partition and return a future
+ * that completes once a background thread has msynced the segment; one msync per partition per
+ * {@code order.journal.sync-interval} covers every append in between. Projections are updated
+ * on append, snapshotted periodically together with the sequence they cover, and on startup
+ * each partition restores its newest snapshot and replays only the records after it.
+ *
+ * <p>Events come from the shared order events topic, so every instance journals the orders of
+ * all instances. The journal itself lives on this instance's disk: each instance keeps its own
+ * copy, consumed under a group named after {@code order.journal.node-id}, and that id has to stay
+ * paired with the same directory across restarts. Events the topic redelivers after a crash
+ * are recognised by {@link OrderStatusProjection} and skipped.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.journal", name = "enabled", havingValue = "true")
+@Slf4j
+public class OrderEventJournal implements DisposableBean {
+
+    private static final long SNAPSHOT_MAGIC = 0x4F524A534E415031L; // "ORJSNAP1"
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private final Path directory;
+    private final Path snapshotDirectory;
+    private final int partitionCount;
+    private final int segmentBytes;
+    private final int replayParallelism;
+    private final Duration syncInterval;
+    private final Clock clock;
+    private final List<JournalProjection<Object>> projections;
+    private final int statusProjection;
+    private final ObjectMapper objectMapper;
+    private final Timer syncTimer;
+    private final DistributionSummary syncBatch;
+    private JournalPartition[] partitions;
+    private long[] snapshotSequences;
+    private volatile boolean running;
+    private Thread syncThread;
+
+    @SuppressWarnings("unchecked")
+    public OrderEventJournal(@Value("${order.journal.directory:data/journal}") Path directory,
+                             @Value("${order.journal.partitions:16}") int partitionCount,
+                             @Value("${order.journal.segment-bytes:67108864}") int segmentBytes,
+                             @Value("${order.journal.replay-parallelism:4}") int replayParallelism,
+                             @Value("${order.journal.sync-interval:2ms}") Duration syncInterval,
+                             Clock clock, List<JournalProjection<?>> projections, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.snapshotDirectory = directory.resolve("snapshots");
+        this.partitionCount = partitionCount;
+        this.segmentBytes = segmentBytes;
+        this.replayParallelism = replayParallelism;
+        this.syncInterval = syncInterval;
+        this.clock = clock;
+        this.projections = projections.stream().map(p -> (JournalProjection<Object>) p).toList();
+        this.statusProjection = this.projections.indexOf(this.projections.stream()
+                .filter(OrderStatusProjection.class::isInstance).findFirst().orElse(null));
+        this.objectMapper = objectMapper;
+        this.syncTimer = Timer.builder("order.journal.sync").register(meterRegistry);
+        this.syncBatch = DistributionSummary.builder("order.journal.sync.records").register(meterRegistry);
+        Gauge.builder("order.journal.records", this, j -> j.totals()[0]).register(meterRegistry);
+        Gauge.builder("order.journal.bytes", this, j -> j.totals()[1]).baseUnit("bytes").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(snapshotDirectory);
+        try (Stream<Path> existing = Files.list(directory)) {
+            long found = existing.filter(f -> f.getFileName().toString().matches("p\\d{3}")).count();
+            if (found != 0 && found != partitionCount) {
+                // customers are placed by hash, so a different count would scatter their history
+                throw new IllegalStateException("Journal at " + directory + " has " + found
+                        + " partitions but order.journal.partitions is " + partitionCount);
+            }
+        }
+        partitions = new JournalPartition[partitionCount];
+        snapshotSequences = new long[partitionCount];
+        long started = System.nanoTime();
+        long replayed = forEachPartition(id -> {
+            JournalPartition partition = JournalPartition.open(id, directory.resolve(String.format("p%03d", id)), segmentBytes);
+            partitions[id] = partition;
+            Object[] states = newStates();
+            long from = restoreSnapshot(partition, states);
+            snapshotSequences[id] = from;
+            long records = partition.read(from, partition.nextSequence(), record -> apply(states, record));
+            install(partition, states);
+            return records;
+        });
+        log.info("Opened order journal at {}: {} partitions, replayed {} records after snapshots in {} ms",
+                directory, partitionCount, replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        running = true;
+        syncThread = new Thread(this::syncLoop, "order-journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    /**
+     * Offsets are committed once this returns, so only after the whole batch is on disk; a new
+     * instance starts from the earliest event the topic still retains.
+     */
+    @KafkaListener(topics = "${order.events.topic:order.events}",
+            groupId = "${spring.application.name}-journal-${order.journal.node-id:${HOSTNAME:local}}",
+            batch = "true", properties = "auto.offset.reset=earliest")
+    public void onOrderEvents(List<String> payloads) throws JsonProcessingException {
+        List<CompletableFuture<Long>> appended = new ArrayList<>(payloads.size());
+        for (String payload : payloads) {
+            appended.add(append(toRecord(objectMapper.readValue(payload, OrderEventMessage.class))));
+        }
+        CompletableFuture.allOf(appended.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Appends a record, ignoring its sequence in favour of the partition's next one. The future
+     * completes with the assigned sequence once the record is on disk, or with null when the
+     * record repeats one the journal already holds.
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Long> append(OrderJournalRecord record) {
+        JournalPartition partition = partitions[partitionOf(record.getCustomerId())];
+        CompletableFuture<Long> durable;
+        partition.lock.lock();
+        try {
+            if (statusProjection >= 0 && !OrderStatusProjection.isNext(
+                    (Map<UUID, String>) partition.getStates()[statusProjection], record)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            OrderJournalRecord stamped = record.withSequence(partition.nextSequence());
+            durable = partition.append(stamped);
+            apply(partition.getStates(), stamped);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to journal {} for order {}", record.getType(), record.getOrderId(), e);
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            partition.lock.unlock();
+        }
+        return durable;
+    }
+
+    /**
+     * Rebuilds every projection from the first record, one task per partition. Appends to a
+     * partition only wait while its final catch-up runs, not for the whole scan.
+     */
+    public JournalReplayReport rebuild() {
+        long started = System.nanoTime();
+        long records = forEachPartition(id -> {
+            JournalPartition partition = partitions[id];
+            Object[] states = newStates();
+            long scannedTo;
+            partition.lock.lock();
+            try {
+                scannedTo = partition.nextSequence();
+            } finally {
+                partition.lock.unlock();
+            }
+            long replayed = partition.read(0, scannedTo, record -> apply(states, record));
+            partition.lock.lock();
+            try {
+                replayed += partition.read(scannedTo, partition.nextSequence(), record -> apply(states, record));
+                install(partition, states);
+            } finally {
+                partition.lock.unlock();
+            }
+            return replayed;
+        });
+        long elapsedNanos = System.nanoTime() - started;
+        log.info("Rebuilt {} journal projections from {} records in {} ms", projections.size(), records,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return JournalReplayReport.builder()
+                .completedAt(clock.instant())
+                .partitions(partitionCount)
+                .projections(projections.stream().map(JournalProjection::name).toList())
+                .records(records)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .recordsPerSecond(elapsedNanos == 0 ? 0 : records * 1_000_000_000L / elapsedNanos)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${order.journal.snapshot-interval:5m}",
+            initialDelayString = "${order.journal.snapshot-interval:5m}")
+    public void snapshot() {
+        for (JournalPartition partition : partitions) {
+            try {
+                writeSnapshot(partition);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to snapshot journal partition {}", partition.getId(), e);
+            }
+        }
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        long[] totals = totals();
+        status.put("directory", directory.toAbsolutePath().toString());
+        status.put("partitions", partitionCount);
+        status.put("segments", Arrays.stream(partitions).mapToInt(JournalPartition::segmentCount).sum());
+        status.put("records", totals[0]);
+        status.put("bytes", totals[1]);
+        status.put("recordsSinceSnapshot", totals[0] - Arrays.stream(snapshotSequences).sum());
+        status.put("projections", projections.stream().map(JournalProjection::name).toList());
+        return status;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (syncThread != null) {
+            syncThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        for (JournalPartition partition : partitions) {
+            partition.sync();
+        }
+    }
+
+    int partitionOf(UUID customerId) {
+        long hash = customerId.getMostSignificantBits() ^ customerId.getLeastSignificantBits();
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) partitionCount);
+    }
+
+    private void syncLoop() {
+        long intervalNanos = syncInterval.toNanos();
+        while (running) {
+            long started = System.nanoTime();
+            long synced = 0;
+            for (JournalPartition partition : partitions) {
+                try {
+                    synced += partition.sync();
+                } catch (RuntimeException e) {
+                    log.error("Failed to sync journal partition {}", partition.getId(), e);
+                }
+            }
+            if (synced > 0) {
+                syncTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                syncBatch.record(synced);
+            }
+            LockSupport.parkNanos(intervalNanos);
+        }
+    }
+
+    private void writeSnapshot(JournalPartition partition) throws IOException {
+        long sequence;
+        byte[][] encoded = new byte[projections.size()][];
+        partition.lock.lock();
+        try {
+            sequence = partition.nextSequence();
+            if (sequence == snapshotSequences[partition.getId()]) {
+                return;
+            }
+            // serialized under the lock so the states match the sequence exactly
+            Object[] states = partition.getStates();
+            for (int i = 0; i < projections.size(); i++) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                projections.get(i).writeSnapshot(states[i], out);
+                out.flush();
+                encoded[i] = bytes.toByteArray();
+            }
+        } finally {
+            partition.lock.unlock();
+        }
+        // a snapshot must never cover records that a crash could still take back
+        partition.sync();
+
+        Path target = snapshotDirectory.resolve(String.format("p%03d-%020d%s", partition.getId(), sequence, SNAPSHOT_SUFFIX));
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(SNAPSHOT_MAGIC);
+        out.writeInt(partition.getId());
+        out.writeLong(sequence);
+        out.writeInt(projections.size());
+        for (int i = 0; i < projections.size(); i++) {
+            out.writeUTF(projections.get(i).name());
+            out.writeInt(encoded[i].length);
+            out.write(encoded[i]);
+        }
+        out.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            bytes.writeTo(file);
+            file.getChannel().force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        snapshotSequences[partition.getId()] = sequence;
+
+        List<Path> snapshots = snapshotsOf(partition.getId());
+        for (Path old : snapshots.subList(Math.min(SNAPSHOTS_KEPT, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    /**
+     * Loads the newest readable snapshot into {@code states} and returns the sequence it covers,
+     * or 0 when every projection has to start from scratch.
+     */
+    private long restoreSnapshot(JournalPartition partition, Object[] states) throws IOException {
+        for (Path file : snapshotsOf(partition.getId())) {
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                CRC32 crc = new CRC32();
+                crc.update(bytes, 0, bytes.length - Long.BYTES);
+                if (ByteBuffer.wrap(bytes).getLong(bytes.length - Long.BYTES) != crc.getValue()) {
+                    throw new IOException("checksum mismatch");
+                }
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - Long.BYTES));
+                if (in.readLong() != SNAPSHOT_MAGIC || in.readInt() != partition.getId()) {
+                    throw new IOException("not a snapshot of this partition");
+                }
+                long sequence = in.readLong();
+                if (sequence > partition.nextSequence()) {
+                    throw new IOException("snapshot is ahead of the journal");
+                }
+                Map<String, byte[]> sections = new LinkedHashMap<>();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String name = in.readUTF();
+                    byte[] section = new byte[in.readInt()];
+                    in.readFully(section);
+                    sections.put(name, section);
+                }
+                Object[] restored = new Object[projections.size()];
+                for (int i = 0; i < projections.size(); i++) {
+                    byte[] section = sections.get(projections.get(i).name());
+                    if (section == null) {
+                        // a projection added since the snapshot was taken needs the full history
+                        return 0;
+                    }
+                    restored[i] = projections.get(i).readSnapshot(new DataInputStream(new ByteArrayInputStream(section)));
+                }
+                System.arraycopy(restored, 0, states, 0, restored.length);
+                return sequence;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable journal snapshot {}", file, e);
+            }
+        }
+        return 0;
+    }
+
+    private List<Path> snapshotsOf(int partitionId) throws IOException {
+        String prefix = String.format("p%03d-", partitionId);
+        try (Stream<Path> files = Files.list(snapshotDirectory)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(prefix)
+                            && f.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        }
+    }
+
+    private Object[] newStates() {
+        Object[] states = new Object[projections.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = projections.get(i).newState();
+        }
+        return states;
+    }
+
+    private void install(JournalPartition partition, Object[] states) {
+        partition.setStates(states);
+        for (int i = 0; i < projections.size(); i++) {
+            projections.get(i).install(partition.getId(), states[i]);
+        }
+    }
+
+    private void apply(Object[] states, OrderJournalRecord record) {
+        for (int i = 0; i < projections.size(); i++) {
+            try {
+                projections.get(i).apply(states[i], record);
+            } catch (RuntimeException e) {
+                log.warn("Projection {} failed on journal record {}", projections.get(i).name(), record.getSequence(), e);
+            }
+        }
+    }
+
+    private long forEachPartition(PartitionTask task) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(replayParallelism, partitionCount)));
+        try {
+            List<Future<Long>> results = new ArrayList<>(partitionCount);
+            for (int id = 0; id < partitionCount; id++) {
+                int partitionId = id;
+                results.add(executor.submit(() -> task.run(partitionId)));
+            }
+            long total = 0;
+            for (Future<Long> result : results) {
+                total += result.get();
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying the order journal", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to replay the order journal", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long[] totals() {
+        if (partitions == null) {
+            return new long[2];
+        }
+        long records = 0;
+        long bytes = 0;
+        for (JournalPartition partition : partitions) {
+            if (partition != null) {
+                records += partition.recordCount();
+                bytes += partition.sizeBytes();
+            }
+        }
+        return new long[]{records, bytes};
+    }
+
+    private OrderJournalRecord toRecord(OrderEventMessage event) {
+        return switch (event.getType()) {
+            case CREATED -> {
+                Instant createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : clock.instant();
+                yield new OrderJournalRecord(0, OrderJournalRecord.Type.ORDER_CREATED, event.getOrderId(),
+                        event.getCustomerId(), createdAt.toEpochMilli(), minorUnits(event.getTotalAmount()),
+                        null, event.getStatus());
+            }
+            case STATUS_CHANGED -> new OrderJournalRecord(0, OrderJournalRecord.Type.STATUS_CHANGED, event.getOrderId(),
+                    event.getCustomerId(), clock.millis(), minorUnits(event.getTotalAmount()),
+                    event.getPreviousStatus(), event.getStatus());
+        };
+    }
+
+    private static long minorUnits(BigDecimal amount) {
+        return amount == null ? 0L : Money.toMinorUnits(amount, Money.DEFAULT_SCALE);
+    }
+
+    @FunctionalInterface
+    private interface PartitionTask {
+        long run(int partitionId) throws IOException;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.event.OrderCreatedEvent;
+import com.ecommerce.orderservice.event.OrderEventMessage;
+import com.ecommerce.orderservice.event.OrderStatusChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Forwards committed order events to the shared order events topic, so read models on every
+ * instance see every order and not just the ones this instance wrote.
+ */
+@Component
+@Slf4j
+public class OrderEventPublisher {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final MetricsCollector metricsCollector;
+    private final String topic;
+
+    public OrderEventPublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+                               MetricsCollector metricsCollector,
+                               @Value("${order.events.topic:order.events}") String topic) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.metricsCollector = metricsCollector;
+        this.topic = topic;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        publish(OrderEventMessage.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publish(OrderEventMessage.of(event));
+    }
+
+    private void publish(OrderEventMessage message) {
+        try {
+            kafkaTemplate.send(topic, message.getOrderId().toString(), objectMapper.writeValueAsString(message))
+                    .whenComplete((result, failure) -> {
+                        if (failure != null) {
+                            onPublishFailed(message, failure);
+                        }
+                    });
+        } catch (JsonProcessingException | RuntimeException e) {
+            onPublishFailed(message, e);
+        }
+    }
+
+    // read models miss this change until their next rebuild from the database
+    private void onPublishFailed(OrderEventMessage message, Throwable failure) {
+        log.error("Failed to publish {} event for order {}", message.getType(), message.getOrderId(), failure);
+        metricsCollector.incrementCounter("order.events.publish_failed");
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.orderservice.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the range-partitioned {@code orders} table supplied with monthly partitions ahead of
+ * time and detaches partitions past the retention window, the migration's catch-all
+ * {@code orders_legacy} included. Requires the one-off migration in
+ * {@code db/partitioning/orders_partitioned.sql}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.partitioning", name = "enabled", havingValue = "true")
+@Slf4j
+public class OrderPartitionManager {
+
+    private static final String PARENT_TABLE = "orders";
+    private static final String PARTITION_PREFIX = "orders_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // upper bound of each partition; null for one that ends at MAXVALUE
+    private static final String LIST_PARTITIONS = """
+            SELECT c.relname,
+                   substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \\(''([^'']+)''\\)')::timestamptz AS upper_bound
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String archiveSchema;
+
+    public OrderPartitionManager(JdbcTemplate jdbcTemplate, Clock clock,
+                                 @Value("${order.partitioning.months-ahead:3}") int monthsAhead,
+                                 @Value("${order.partitioning.retention-months:24}") int retentionMonths,
+                                 @Value("${order.partitioning.archive-schema:}") String archiveSchema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveSchema = archiveSchema;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${order.partitioning.cron:0 15 2 * * *}", zone = "UTC")
+    public void maintainPartitions() {
+        YearMonth current = YearMonth.now(clock.withZone(ZoneOffset.UTC));
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+        detachPartitionsBefore(current.minusMonths(retentionMonths));
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+        String sql = String.format(
+                "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                name, PARENT_TABLE,
+                month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC),
+                month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            // Overlaps with the legacy catch-all partition for the month of the migration.
+            log.warn("Could not create order partition {}: {}", name, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Detaches every partition whose rows all lie before the cutoff, judged by its upper bound,
+     * so the migration's catch-all orders_legacy partition goes once its newest month has.
+     */
+    private void detachPartitionsBefore(YearMonth cutoff) {
+        Instant cutoffStart = cutoff.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        List<String> expired = new ArrayList<>();
+        // collected first: DETACH CONCURRENTLY waits for open queries on the parent, this one included
+        jdbcTemplate.query(LIST_PARTITIONS, rs -> {
+            Timestamp upperBound = rs.getTimestamp("upper_bound");
+            if (upperBound != null && !upperBound.toInstant().isAfter(cutoffStart)) {
+                expired.add(rs.getString("relname"));
+            }
+        }, PARENT_TABLE);
+        expired.forEach(this::detach);
+    }
+
+    private void detach(String partition) {
+        try {
+            // CONCURRENTLY cannot run inside a transaction block; JdbcTemplate runs in autocommit here.
+            jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s CONCURRENTLY",
+                    PARENT_TABLE, partition));
+            if (StringUtils.hasText(archiveSchema)) {
+                jdbcTemplate.execute(String.format("CREATE SCHEMA IF NOT EXISTS %s", archiveSchema));
+                jdbcTemplate.execute(String.format("ALTER TABLE %s SET SCHEMA %s", partition, archiveSchema));
+            }
+            log.info("Detached order partition {}", partition);
+        } catch (DataAccessException e) {
+            log.error("Failed to detach order partition {}", partition, e);
+        }
+    }
+}
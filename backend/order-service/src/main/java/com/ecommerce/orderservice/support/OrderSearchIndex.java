@@ -0,0 +1,286 @@
+package com.ecommerce.orderservice.support;
+
+import lombok.Value;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Secondary index over recent orders. Each order gets a dense int ordinal; per-status,
+ * per-product and per-day Roaring bitmaps over those ordinals answer conjunctive filters by
+ * bitmap intersection. Not thread-safe: writers need exclusive access, readers may share.
+ */
+public class OrderSearchIndex {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final Instant coverageStart;
+    private final int maxOrders;
+    private final OrdinalTable ordinals;
+    private long[] idHi = new long[1024];
+    private long[] idLo = new long[1024];
+    private long[] createdAt = new long[1024];
+    private byte[] statusOf = new byte[1024];
+    private int size;
+    private boolean overflowed;
+
+    private final List<String> statusNames = new ArrayList<>();
+    private final Map<String, Byte> statusCodes = new HashMap<>();
+    private final List<RoaringBitmap> statusBitmaps = new ArrayList<>();
+    private final Map<UUID, RoaringBitmap> productBitmaps = new HashMap<>();
+    private final NavigableMap<Long, RoaringBitmap> dayBitmaps = new TreeMap<>();
+
+    public OrderSearchIndex(Instant coverageStart, int maxOrders) {
+        this.coverageStart = coverageStart;
+        this.maxOrders = maxOrders;
+        this.ordinals = new OrdinalTable();
+    }
+
+    public Instant getCoverageStart() {
+        return coverageStart;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * True once an order could not be indexed for lack of capacity; results would be incomplete.
+     */
+    public boolean isOverflowed() {
+        return overflowed;
+    }
+
+    public boolean add(UUID orderId, String status, Instant created, Collection<UUID> productIds) {
+        if (created.isBefore(coverageStart) || ordinals.get(orderId) >= 0) {
+            return false;
+        }
+        if (size == maxOrders || statusNames.size() == Byte.MAX_VALUE && !statusCodes.containsKey(status)) {
+            overflowed = true;
+            return false;
+        }
+        ensureCapacity(size + 1);
+        int ordinal = size++;
+        idHi[ordinal] = orderId.getMostSignificantBits();
+        idLo[ordinal] = orderId.getLeastSignificantBits();
+        createdAt[ordinal] = created.toEpochMilli();
+        byte code = statusCode(status);
+        statusOf[ordinal] = code;
+        statusBitmaps.get(code).add(ordinal);
+        dayBitmaps.computeIfAbsent(Math.floorDiv(createdAt[ordinal], MILLIS_PER_DAY), d -> new RoaringBitmap())
+                .add(ordinal);
+        if (productIds != null) {
+            for (UUID productId : productIds) {
+                productBitmaps.computeIfAbsent(productId, p -> new RoaringBitmap()).add(ordinal);
+            }
+        }
+        ordinals.put(orderId, ordinal);
+        return true;
+    }
+
+    public boolean updateStatus(UUID orderId, String status) {
+        int ordinal = ordinals.get(orderId);
+        if (ordinal < 0) {
+            return false;
+        }
+        byte code = statusCode(status);
+        statusBitmaps.get(statusOf[ordinal]).remove(ordinal);
+        statusBitmaps.get(code).add(ordinal);
+        statusOf[ordinal] = code;
+        return true;
+    }
+
+    /**
+     * Conjunction of the given filters; statuses are OR-ed among themselves. {@code to} is
+     * exclusive. Hits are returned most recently indexed first.
+     */
+    public Result search(Collection<String> statuses, UUID productId, Instant from, Instant to, int limit) {
+        RoaringBitmap candidates = null;
+        if (statuses != null && !statuses.isEmpty()) {
+            List<RoaringBitmap> matching = new ArrayList<>(statuses.size());
+            for (String status : statuses) {
+                Byte code = statusCodes.get(status);
+                if (code != null) {
+                    matching.add(statusBitmaps.get(code));
+                }
+            }
+            candidates = FastAggregation.or(matching.iterator());
+        }
+        if (productId != null) {
+            RoaringBitmap products = productBitmaps.getOrDefault(productId, new RoaringBitmap());
+            candidates = candidates == null ? products.clone() : RoaringBitmap.and(candidates, products);
+        }
+        if (from != null || to != null) {
+            RoaringBitmap range = dateRange(from, to);
+            candidates = candidates == null ? range : RoaringBitmap.and(candidates, range);
+        }
+        if (candidates == null) {
+            candidates = RoaringBitmap.bitmapOfRange(0, size);
+        }
+
+        List<Hit> hits = new ArrayList<>(Math.min(limit, candidates.getCardinality()));
+        IntIterator iterator = candidates.getReverseIntIterator();
+        while (iterator.hasNext() && hits.size() < limit) {
+            int ordinal = iterator.next();
+            hits.add(new Hit(new UUID(idHi[ordinal], idLo[ordinal]), statusNames.get(statusOf[ordinal]),
+                    Instant.ofEpochMilli(createdAt[ordinal])));
+        }
+        return new Result(candidates.getLongCardinality(), hits);
+    }
+
+    private RoaringBitmap dateRange(Instant from, Instant to) {
+        if (dayBitmaps.isEmpty() || from != null && to != null && !to.isAfter(from)) {
+            return new RoaringBitmap();
+        }
+        long fromMilli = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMilli = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        long firstDay = from != null ? Math.floorDiv(fromMilli, MILLIS_PER_DAY) : dayBitmaps.firstKey();
+        long lastDay = to != null ? Math.floorDiv(toMilli - 1, MILLIS_PER_DAY) : dayBitmaps.lastKey();
+        if (firstDay > lastDay) {
+            return new RoaringBitmap();
+        }
+        RoaringBitmap range = new RoaringBitmap();
+        for (RoaringBitmap day : dayBitmaps.subMap(firstDay, true, lastDay, true).values()) {
+            range.or(day);
+        }
+        // only the boundary days can hold orders outside [from, to)
+        trimBoundaryDay(range, firstDay, fromMilli, toMilli);
+        if (lastDay != firstDay) {
+            trimBoundaryDay(range, lastDay, fromMilli, toMilli);
+        }
+        return range;
+    }
+
+    private void trimBoundaryDay(RoaringBitmap range, long day, long fromMilli, long toMilli) {
+        RoaringBitmap dayOrders = dayBitmaps.get(day);
+        if (dayOrders == null) {
+            return;
+        }
+        IntIterator iterator = dayOrders.getIntIterator();
+        while (iterator.hasNext()) {
+            int ordinal = iterator.next();
+            if (createdAt[ordinal] < fromMilli || createdAt[ordinal] >= toMilli) {
+                range.remove(ordinal);
+            }
+        }
+    }
+
+    private byte statusCode(String status) {
+        Byte code = statusCodes.get(status);
+        if (code != null) {
+            return code;
+        }
+        byte next = (byte) statusNames.size();
+        statusNames.add(status);
+        statusCodes.put(status, next);
+        statusBitmaps.add(new RoaringBitmap());
+        return next;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= idHi.length) {
+            return;
+        }
+        int capacity = (int) Math.min(Math.max((long) idHi.length * 2, required), Integer.MAX_VALUE - 8);
+        idHi = Arrays.copyOf(idHi, capacity);
+        idLo = Arrays.copyOf(idLo, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        statusOf = Arrays.copyOf(statusOf, capacity);
+    }
+
+    @Value
+    public static class Hit {
+        UUID orderId;
+        String status;
+        Instant createdAt;
+    }
+
+    @Value
+    public static class Result {
+        long total;
+        List<Hit> hits;
+    }
+
+    /**
+     * Open-addressing UUID to ordinal map; avoids a boxed HashMap entry per indexed order.
+     */
+    private static final class OrdinalTable {
+
+        private long[] keyHi = new long[2048];
+        private long[] keyLo = new long[2048];
+        private int[] values = filled(2048);
+        private int count;
+
+        int get(UUID key) {
+            long hi = key.getMostSignificantBits();
+            long lo = key.getLeastSignificantBits();
+            int mask = values.length - 1;
+            for (int slot = hash(hi, lo) & mask; ; slot = (slot + 1) & mask) {
+                if (values[slot] < 0) {
+                    return -1;
+                }
+                if (keyHi[slot] == hi && keyLo[slot] == lo) {
+                    return values[slot];
+                }
+            }
+        }
+
+        void put(UUID key, int value) {
+            if ((count + 1) * 2 > values.length) {
+                resize();
+            }
+            insert(key.getMostSignificantBits(), key.getLeastSignificantBits(), value);
+            count++;
+        }
+
+        private void insert(long hi, long lo, int value) {
+            int mask = values.length - 1;
+            int slot = hash(hi, lo) & mask;
+            while (values[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            keyHi[slot] = hi;
+            keyLo[slot] = lo;
+            values[slot] = value;
+        }
+
+        private void resize() {
+            long[] oldHi = keyHi;
+            long[] oldLo = keyLo;
+            int[] oldValues = values;
+            keyHi = new long[oldValues.length * 2];
+            keyLo = new long[oldValues.length * 2];
+            values = filled(oldValues.length * 2);
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] >= 0) {
+                    insert(oldHi[i], oldLo[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long hi, long lo) {
+            long h = hi ^ lo;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+
+        private static int[] filled(int length) {
+            int[] array = new int[length];
+            Arrays.fill(array, -1);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.model.Money;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.support.OrderSegmentFormat.Section;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only, memory-mapped view of a segment written by {@link OrderSegmentWriter}. All reads
+ * use absolute offsets, so one instance can serve concurrent lookups.
+ */
+public final class OrderSegment {
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int orderCount;
+    private final int itemCount;
+    private final long minCreatedAt;
+    private final long maxCreatedAt;
+    private final long minIdHi;
+    private final long minIdLo;
+    private final long maxIdHi;
+    private final long maxIdLo;
+    private final int[] sectionOffsets = new int[Section.values().length];
+    private final String[] statuses;
+    private final long bloomBits;
+
+    private OrderSegment(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.getLong(0) != OrderSegmentFormat.MAGIC) {
+            throw new IllegalStateException("Not an order segment: " + path);
+        }
+        if (buffer.getInt(8) != OrderSegmentFormat.FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported order segment version " + buffer.getInt(8) + ": " + path);
+        }
+        this.orderCount = buffer.getInt(12);
+        this.itemCount = buffer.getInt(16);
+        this.minCreatedAt = buffer.getLong(20);
+        this.maxCreatedAt = buffer.getLong(28);
+        this.minIdHi = buffer.getLong(36);
+        this.minIdLo = buffer.getLong(44);
+        this.maxIdHi = buffer.getLong(52);
+        this.maxIdLo = buffer.getLong(60);
+        for (int i = 0; i < sectionOffsets.length; i++) {
+            sectionOffsets[i] = Math.toIntExact(buffer.getLong(68 + i * Long.BYTES));
+        }
+
+        int dictionary = offset(Section.STATUS_DICTIONARY);
+        ByteBuffer reader = buffer.duplicate().position(dictionary);
+        this.statuses = new String[reader.getShort()];
+        for (int i = 0; i < statuses.length; i++) {
+            byte[] utf = new byte[reader.getShort()];
+            reader.get(utf);
+            statuses[i] = new String(utf, StandardCharsets.UTF_8);
+        }
+        this.bloomBits = (long) buffer.getInt(offset(Section.CUSTOMER_BLOOM)) * 64;
+    }
+
+    public static OrderSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int dataLength = Math.toIntExact(channel.size() - Long.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(mapped.duplicate().limit(dataLength));
+            if (crc.getValue() != mapped.getLong(dataLength)) {
+                throw new IOException("Checksum mismatch in order segment " + path);
+            }
+            return new OrderSegment(path, mapped);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public Instant getMinCreatedAt() {
+        return Instant.ofEpochMilli(minCreatedAt);
+    }
+
+    public Instant getMaxCreatedAt() {
+        return Instant.ofEpochMilli(maxCreatedAt);
+    }
+
+    public long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    public boolean overlaps(long fromMilli, long toMilli) {
+        return maxCreatedAt >= fromMilli && minCreatedAt < toMilli;
+    }
+
+    public boolean mayContainCustomer(UUID customerId) {
+        int words = offset(Section.CUSTOMER_BLOOM) + Integer.BYTES;
+        for (int hash = 0; hash < OrderSegmentFormat.BLOOM_HASHES; hash++) {
+            long bit = OrderSegmentFormat.bloomBit(customerId, hash, bloomBits);
+            if ((buffer.getLong(words + (int) (bit >>> 6) * Long.BYTES) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Optional<Order> findById(UUID orderId) {
+        int row = rowOf(orderId);
+        return row < 0 ? Optional.empty() : Optional.of(materialize(row));
+    }
+
+    public boolean contains(UUID orderId) {
+        return rowOf(orderId) >= 0;
+    }
+
+    private int rowOf(UUID orderId) {
+        long hi = orderId.getMostSignificantBits();
+        long lo = orderId.getLeastSignificantBits();
+        if (OrderSegmentFormat.compareIds(hi, lo, minIdHi, minIdLo) < 0
+                || OrderSegmentFormat.compareIds(hi, lo, maxIdHi, maxIdLo) > 0) {
+            return -1;
+        }
+        int ids = offset(Section.ORDER_ID);
+        int low = 0;
+        int high = orderCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = ids + mid * 2 * Long.BYTES;
+            int cmp = OrderSegmentFormat.compareIds(buffer.getLong(position), buffer.getLong(position + Long.BYTES), hi, lo);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Orders for one customer created in [from, to); callers should check
+     * {@link #mayContainCustomer} and {@link #overlaps} first.
+     */
+    public List<Order> findByCustomer(UUID customerId, long fromMilli, long toMilli) {
+        List<Order> orders = new ArrayList<>();
+        forEachCustomerRow(customerId, fromMilli, toMilli, row -> orders.add(materialize(row)));
+        return orders;
+    }
+
+    /**
+     * Number of orders {@link #findByCustomer} would return, without materializing them.
+     */
+    public int countByCustomer(UUID customerId, long fromMilli, long toMilli) {
+        int[] count = new int[1];
+        forEachCustomerRow(customerId, fromMilli, toMilli, row -> count[0]++);
+        return count[0];
+    }
+
+    private void forEachCustomerRow(UUID customerId, long fromMilli, long toMilli, IntConsumer action) {
+        long hi = customerId.getMostSignificantBits();
+        long lo = customerId.getLeastSignificantBits();
+        int customers = offset(Section.CUSTOMER_ID);
+        for (int row = 0; row < orderCount; row++) {
+            int position = customers + row * 2 * Long.BYTES;
+            if (buffer.getLong(position) == hi && buffer.getLong(position + Long.BYTES) == lo) {
+                long created = createdAt(row);
+                if (created >= fromMilli && created < toMilli) {
+                    action.accept(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams customer, status and amount of every order without materializing entities.
+     */
+    public void forEachTotal(TotalsVisitor visitor) {
+        int customers = offset(Section.CUSTOMER_ID);
+        int statusCodes = offset(Section.STATUS);
+        for (int row = 0; row < orderCount; row++) {
+            int position = customers + row * 2 * Long.BYTES;
+            UUID customerId = new UUID(buffer.getLong(position), buffer.getLong(position + Long.BYTES));
+            visitor.visit(customerId, statuses[buffer.get(statusCodes + row)],
+                    OrderSegmentFormat.readBlockedVarint(buffer, offset(Section.TOTAL_AMOUNT), row, false));
+        }
+    }
+
+    @FunctionalInterface
+    public interface TotalsVisitor {
+        void visit(UUID customerId, String status, long amountMinorUnits);
+    }
+
+    /**
+     * Streams the item rows of every order created in [from, to) whose status is in
+     * {@code statuses}, without materializing entities.
+     */
+    public void forEachItem(long fromMilli, long toMilli, Collection<String> statuses, ItemVisitor visitor) {
+        boolean[] wanted = new boolean[this.statuses.length];
+        for (int code = 0; code < wanted.length; code++) {
+            wanted[code] = statuses.contains(this.statuses[code]);
+        }
+        long[] createdAt = OrderSegmentFormat.readBlockedVarints(buffer, offset(Section.CREATED_AT), orderCount, true);
+        int statusCodes = offset(Section.STATUS);
+        int itemStarts = offset(Section.ITEM_START);
+        int items = offset(Section.ITEMS);
+        for (int row = 0; row < orderCount; row++) {
+            if (createdAt[row] < fromMilli || createdAt[row] >= toMilli || !wanted[buffer.get(statusCodes + row)]) {
+                continue;
+            }
+            int lastItem = buffer.getInt(itemStarts + (row + 1) * Integer.BYTES);
+            for (int item = buffer.getInt(itemStarts + row * Integer.BYTES); item < lastItem; item++) {
+                int position = items + item * OrderSegmentFormat.ITEM_RECORD_BYTES;
+                visitor.visit(buffer.getLong(position + 16), buffer.getLong(position + 24), buffer.getLong(position + 44),
+                        buffer.getInt(position + 32), createdAt[row]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface ItemVisitor {
+        void visit(long productIdHi, long productIdLo, long totalPriceMinorUnits, int quantity, long createdAtMilli);
+    }
+
+    private Order materialize(int row) {
+        int ids = offset(Section.ORDER_ID) + row * 2 * Long.BYTES;
+        int customers = offset(Section.CUSTOMER_ID) + row * 2 * Long.BYTES;
+        long priceVersion = OrderSegmentFormat.readBlockedVarint(buffer, offset(Section.PRICE_VERSION), row, false);
+
+        int itemStarts = offset(Section.ITEM_START);
+        int firstItem = buffer.getInt(itemStarts + row * Integer.BYTES);
+        int lastItem = buffer.getInt(itemStarts + (row + 1) * Integer.BYTES);
+        List<OrderItem> items = new ArrayList<>(lastItem - firstItem);
+        for (int item = firstItem; item < lastItem; item++) {
+            int position = offset(Section.ITEMS) + item * OrderSegmentFormat.ITEM_RECORD_BYTES;
+            items.add(OrderItem.builder()
+                    .id(new UUID(buffer.getLong(position), buffer.getLong(position + 8)))
+                    .productId(new UUID(buffer.getLong(position + 16), buffer.getLong(position + 24)))
+                    .quantity(buffer.getInt(position + 32))
+                    .unitPrice(Money.toBigDecimal(buffer.getLong(position + 36), Money.DEFAULT_SCALE))
+                    .totalPrice(Money.toBigDecimal(buffer.getLong(position + 44), Money.DEFAULT_SCALE))
+                    .build());
+        }
+
+        return Order.builder()
+                .id(new UUID(buffer.getLong(ids), buffer.getLong(ids + Long.BYTES)))
+                .customerId(new UUID(buffer.getLong(customers), buffer.getLong(customers + Long.BYTES)))
+                .items(items)
+                .status(statuses[buffer.get(offset(Section.STATUS) + row)])
+                .totalAmount(Money.toBigDecimal(
+                        OrderSegmentFormat.readBlockedVarint(buffer, offset(Section.TOTAL_AMOUNT), row, false),
+                        Money.DEFAULT_SCALE))
+                .priceVersion(priceVersion == 0 ? null : priceVersion - 1)
+                .shippingAddress(shippingAddress(row))
+                .createdAt(Instant.ofEpochMilli(createdAt(row)))
+                .version(OrderSegmentFormat.readBlockedVarint(buffer, offset(Section.VERSION), row, false))
+                .build();
+    }
+
+    private long createdAt(int row) {
+        return OrderSegmentFormat.readBlockedVarint(buffer, offset(Section.CREATED_AT), row, true);
+    }
+
+    private String shippingAddress(int row) {
+        int section = offset(Section.SHIPPING_ADDRESS);
+        if (buffer.get(section + row) == 0) {
+            return null;
+        }
+        int offsets = section + orderCount;
+        int start = buffer.getInt(offsets + row * Integer.BYTES);
+        int end = buffer.getInt(offsets + (row + 1) * Integer.BYTES);
+        byte[] utf = new byte[end - start];
+        buffer.get(offsets + (orderCount + 1) * Integer.BYTES + start, utf);
+        return new String(utf, StandardCharsets.UTF_8);
+    }
+
+    private int offset(Section section) {
+        return sectionOffsets[section.ordinal()];
+    }
+}
@@ -0,0 +1,150 @@
+package com.ecommerce.orderservice.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * On-disk layout shared by {@link OrderSegmentWriter} and {@link OrderSegment}.
+ *
+ * <pre>
+ * header   magic, format version, order count, item count, min/max created_at, min/max order id,
+ *          one absolute offset per {@link Section}
+ * sections order-level columns (rows sorted by order id), item rows, customer bloom filter
+ * trailer  CRC32 of everything before it
+ * </pre>
+ *
+ * Varint columns are split into blocks of {@link #BLOCK_ROWS} rows with a restart offset per
+ * block, so reading a single row decodes at most one block.
+ */
+final class OrderSegmentFormat {
+
+    static final long MAGIC = 0x4F52445345473031L; // "ORDSEG01"
+    static final int FORMAT_VERSION = 1;
+    static final int BLOCK_ROWS = 128;
+    static final int ITEM_RECORD_BYTES = 4 * Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+    static final int BLOOM_HASHES = 7;
+    static final int BLOOM_BITS_PER_KEY = 10;
+
+    enum Section {
+        ORDER_ID,
+        CUSTOMER_ID,
+        STATUS_DICTIONARY,
+        STATUS,
+        CREATED_AT,
+        TOTAL_AMOUNT,
+        PRICE_VERSION,
+        VERSION,
+        SHIPPING_ADDRESS,
+        ITEM_START,
+        ITEMS,
+        CUSTOMER_BLOOM
+    }
+
+    static final int HEADER_BYTES = Long.BYTES + 3 * Integer.BYTES + 6 * Long.BYTES
+            + Section.values().length * Long.BYTES;
+
+    private OrderSegmentFormat() {
+    }
+
+    static int compareIds(long hiA, long loA, long hiB, long loB) {
+        int byHi = Long.compare(hiA, hiB);
+        return byHi != 0 ? byHi : Long.compare(loA, loB);
+    }
+
+    static void writeBlockedVarints(DataOutputStream out, long[] values, boolean delta) throws IOException {
+        int blocks = (values.length + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        ByteArrayOutputStream data = new ByteArrayOutputStream(values.length * 2);
+        int[] blockOffsets = new int[blocks];
+        for (int block = 0; block < blocks; block++) {
+            blockOffsets[block] = data.size();
+            long previous = 0;
+            int end = Math.min(values.length, (block + 1) * BLOCK_ROWS);
+            for (int row = block * BLOCK_ROWS; row < end; row++) {
+                long value = delta ? values[row] - previous : values[row];
+                writeVarint(data, (value << 1) ^ (value >> 63));
+                previous = values[row];
+            }
+        }
+        out.writeInt(blocks);
+        for (int offset : blockOffsets) {
+            out.writeInt(offset);
+        }
+        data.writeTo(out);
+    }
+
+    static long readBlockedVarint(ByteBuffer buffer, int sectionOffset, int row, boolean delta) {
+        int block = row / BLOCK_ROWS;
+        int blocks = buffer.getInt(sectionOffset);
+        int dataStart = sectionOffset + Integer.BYTES + blocks * Integer.BYTES;
+        int position = dataStart + buffer.getInt(sectionOffset + Integer.BYTES + block * Integer.BYTES);
+        long value = 0;
+        for (int i = block * BLOCK_ROWS; i <= row; i++) {
+            long raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                raw |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            long decoded = (raw >>> 1) ^ -(raw & 1);
+            value = delta ? value + decoded : decoded;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a whole blocked varint column front to back, one pass instead of one block per row.
+     */
+    static long[] readBlockedVarints(ByteBuffer buffer, int sectionOffset, int rows, boolean delta) {
+        int blocks = buffer.getInt(sectionOffset);
+        int position = sectionOffset + Integer.BYTES + blocks * Integer.BYTES;
+        long[] values = new long[rows];
+        long value = 0;
+        for (int row = 0; row < rows; row++) {
+            if (row % BLOCK_ROWS == 0) {
+                value = 0;
+            }
+            long raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                raw |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            long decoded = (raw >>> 1) ^ -(raw & 1);
+            value = delta ? value + decoded : decoded;
+            values[row] = value;
+        }
+        return values;
+    }
+
+    static long bloomBit(UUID customerId, int hash, long bits) {
+        long hi = customerId.getMostSignificantBits();
+        long lo = customerId.getLeastSignificantBits();
+        long h1 = mix(hi ^ (lo * 0x9E3779B97F4A7C15L));
+        long h2 = mix(lo ^ (hi * 0xC2B2AE3D27D4EB4FL)) | 1L;
+        return Math.floorMod(h1 + hash * h2, bits);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
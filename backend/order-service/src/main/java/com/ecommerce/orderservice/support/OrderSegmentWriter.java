@@ -0,0 +1,212 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.model.Money;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.support.OrderSegmentFormat.Section;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes an immutable order segment. The file is written under a temporary name, fsynced and
+ * atomically renamed, so a segment is either complete on disk or absent.
+ */
+public final class OrderSegmentWriter {
+
+    private OrderSegmentWriter() {
+    }
+
+    public static void write(Path target, List<Order> orders) throws IOException {
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException("Cannot write an empty order segment");
+        }
+        List<Order> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing((Order o) -> o.getId().getMostSignificantBits())
+                .thenComparing(o -> o.getId().getLeastSignificantBits()));
+        int n = sorted.size();
+
+        byte[][] sections = new byte[Section.values().length][];
+        sections[Section.ORDER_ID.ordinal()] = uuidColumn(sorted, true);
+        sections[Section.CUSTOMER_ID.ordinal()] = uuidColumn(sorted, false);
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        byte[] statusCodes = new byte[n];
+        long[] createdAt = new long[n];
+        long[] amounts = new long[n];
+        long[] priceVersions = new long[n];
+        long[] versions = new long[n];
+        long minCreated = Long.MAX_VALUE;
+        long maxCreated = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            Order order = sorted.get(i);
+            Integer code = dictionary.computeIfAbsent(order.getStatus(), s -> dictionary.size());
+            if (code > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many distinct statuses for one segment");
+            }
+            statusCodes[i] = code.byteValue();
+            createdAt[i] = order.getCreatedAt().toEpochMilli();
+            minCreated = Math.min(minCreated, createdAt[i]);
+            maxCreated = Math.max(maxCreated, createdAt[i]);
+            amounts[i] = Money.toMinorUnits(order.getTotalAmount(), Money.DEFAULT_SCALE);
+            priceVersions[i] = order.getPriceVersion() == null ? 0 : order.getPriceVersion() + 1;
+            versions[i] = order.getVersion();
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeShort(dictionary.size());
+        for (String status : dictionary.keySet()) {
+            out.writeUTF(status);
+        }
+        sections[Section.STATUS_DICTIONARY.ordinal()] = drain(buffer, out);
+        sections[Section.STATUS.ordinal()] = statusCodes;
+
+        OrderSegmentFormat.writeBlockedVarints(out, createdAt, true);
+        sections[Section.CREATED_AT.ordinal()] = drain(buffer, out);
+        OrderSegmentFormat.writeBlockedVarints(out, amounts, false);
+        sections[Section.TOTAL_AMOUNT.ordinal()] = drain(buffer, out);
+        OrderSegmentFormat.writeBlockedVarints(out, priceVersions, false);
+        sections[Section.PRICE_VERSION.ordinal()] = drain(buffer, out);
+        OrderSegmentFormat.writeBlockedVarints(out, versions, false);
+        sections[Section.VERSION.ordinal()] = drain(buffer, out);
+
+        sections[Section.SHIPPING_ADDRESS.ordinal()] = addressColumn(sorted);
+
+        int itemCount = 0;
+        out.writeInt(0);
+        for (Order order : sorted) {
+            itemCount += order.getItems() == null ? 0 : order.getItems().size();
+            out.writeInt(itemCount);
+        }
+        sections[Section.ITEM_START.ordinal()] = drain(buffer, out);
+
+        for (Order order : sorted) {
+            if (order.getItems() == null) {
+                continue;
+            }
+            for (OrderItem item : order.getItems()) {
+                out.writeLong(item.getId().getMostSignificantBits());
+                out.writeLong(item.getId().getLeastSignificantBits());
+                out.writeLong(item.getProductId().getMostSignificantBits());
+                out.writeLong(item.getProductId().getLeastSignificantBits());
+                out.writeInt(item.getQuantity());
+                out.writeLong(Money.toMinorUnits(item.getUnitPrice(), Money.DEFAULT_SCALE));
+                out.writeLong(Money.toMinorUnits(item.getTotalPrice(), Money.DEFAULT_SCALE));
+            }
+        }
+        sections[Section.ITEMS.ordinal()] = drain(buffer, out);
+        sections[Section.CUSTOMER_BLOOM.ordinal()] = customerBloom(sorted);
+
+        UUID minId = sorted.get(0).getId();
+        UUID maxId = sorted.get(n - 1).getId();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream segment = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc));
+            segment.writeLong(OrderSegmentFormat.MAGIC);
+            segment.writeInt(OrderSegmentFormat.FORMAT_VERSION);
+            segment.writeInt(n);
+            segment.writeInt(itemCount);
+            segment.writeLong(minCreated);
+            segment.writeLong(maxCreated);
+            segment.writeLong(minId.getMostSignificantBits());
+            segment.writeLong(minId.getLeastSignificantBits());
+            segment.writeLong(maxId.getMostSignificantBits());
+            segment.writeLong(maxId.getLeastSignificantBits());
+            long offset = OrderSegmentFormat.HEADER_BYTES;
+            for (byte[] section : sections) {
+                segment.writeLong(offset);
+                offset += section.length;
+            }
+            for (byte[] section : sections) {
+                segment.write(section);
+            }
+            segment.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+            file.getChannel().force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] uuidColumn(List<Order> orders, boolean orderId) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(orders.size() * 16);
+        DataOutputStream out = new DataOutputStream(buffer);
+        for (Order order : orders) {
+            UUID id = orderId ? order.getId() : order.getCustomerId();
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] addressColumn(List<Order> orders) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        List<byte[]> encoded = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            out.writeBoolean(order.getShippingAddress() != null);
+            encoded.add(order.getShippingAddress() == null
+                    ? new byte[0]
+                    : order.getShippingAddress().getBytes(StandardCharsets.UTF_8));
+        }
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] bytes : encoded) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] customerBloom(List<Order> orders) throws IOException {
+        Set<UUID> customers = new HashSet<>();
+        for (Order order : orders) {
+            customers.add(order.getCustomerId());
+        }
+        int words = Math.max(1, (customers.size() * OrderSegmentFormat.BLOOM_BITS_PER_KEY + 63) / 64);
+        long[] bits = new long[words];
+        long bitCount = (long) words * 64;
+        for (UUID customerId : customers) {
+            for (int hash = 0; hash < OrderSegmentFormat.BLOOM_HASHES; hash++) {
+                long bit = OrderSegmentFormat.bloomBit(customerId, hash, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Integer.BYTES + words * Long.BYTES);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(words);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] drain(ByteArrayOutputStream buffer, DataOutputStream out) throws IOException {
+        out.flush();
+        byte[] bytes = buffer.toByteArray();
+        buffer.reset();
+        return bytes;
+    }
+}
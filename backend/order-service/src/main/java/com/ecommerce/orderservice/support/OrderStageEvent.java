@@ -0,0 +1,60 @@
+package com.ecommerce.orderservice.support;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * JFR event covering one stage of order creation. Costs a field write and a timestamp when no
+ * recording has it enabled; recordings only keep stages slower than the configured threshold.
+ */
+@Name("com.ecommerce.order.Stage")
+@Label("Order Pipeline Stage")
+@Category({"Ecommerce", "Orders"})
+@Description("Duration of a single stage of order creation")
+@Threshold("20 ms")
+@StackTrace(false)
+public class OrderStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Customer Id")
+    String customerId;
+
+    @Label("Failed")
+    boolean failed;
+
+    public static <T> T record(String stage, UUID customerId, Supplier<T> body) {
+        OrderStageEvent event = new OrderStageEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            T result = body.get();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = stage;
+                event.customerId = customerId != null ? customerId.toString() : null;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    public static void record(String stage, UUID customerId, Runnable body) {
+        record(stage, customerId, () -> {
+            body.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.event.OrderJournalRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current status of every journaled order. The journal consults it before appending, so an
+ * event the order events topic delivers a second time is not journaled twice.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.journal", name = "enabled", havingValue = "true")
+public class OrderStatusProjection implements JournalProjection<Map<UUID, String>> {
+
+    @Override
+    public String name() {
+        return "order-status";
+    }
+
+    @Override
+    public Map<UUID, String> newState() {
+        return new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void apply(Map<UUID, String> state, OrderJournalRecord record) {
+        state.put(record.getOrderId(), record.getStatus());
+    }
+
+    @Override
+    public void install(int partition, Map<UUID, String> state) {
+        // only read through the partition's live state, see isNext
+    }
+
+    @Override
+    public void writeSnapshot(Map<UUID, String> state, DataOutput out) throws IOException {
+        out.writeInt(state.size());
+        for (Map.Entry<UUID, String> entry : state.entrySet()) {
+            out.writeLong(entry.getKey().getMostSignificantBits());
+            out.writeLong(entry.getKey().getLeastSignificantBits());
+            out.writeUTF(entry.getValue());
+        }
+    }
+
+    @Override
+    public Map<UUID, String> readSnapshot(DataInput in) throws IOException {
+        int size = in.readInt();
+        Map<UUID, String> state = new ConcurrentHashMap<>(size * 4 / 3 + 1);
+        Map<String, String> statuses = new ConcurrentHashMap<>();
+        for (int i = 0; i < size; i++) {
+            UUID orderId = new UUID(in.readLong(), in.readLong());
+            state.put(orderId, statuses.computeIfAbsent(in.readUTF(), s -> s));
+        }
+        return state;
+    }
+
+    /**
+     * Whether the record moves its order on from the status journaled so far. Redeliveries
+     * replay the topic from an earlier offset in order, so a creation of a known order or a
+     * change whose previous status is no longer current has already been journaled.
+     */
+    static boolean isNext(Map<UUID, String> state, OrderJournalRecord record) {
+        String current = state.get(record.getOrderId());
+        if (record.getType() == OrderJournalRecord.Type.ORDER_CREATED) {
+            return current == null;
+        }
+        // an order created before the journal was enabled is first seen at a status change
+        return current == null || record.getPreviousStatus() == null || current.equals(record.getPreviousStatus());
+    }
+}
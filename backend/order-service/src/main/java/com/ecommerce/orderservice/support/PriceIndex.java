@@ -0,0 +1,318 @@
+package com.ecommerce.orderservice.support;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory product price index keyed by the two halves of the product UUID, stored in
+ * parallel primitive arrays with linear probing (about 32 bytes per slot, kept at most half
+ * full). Prices are minor units at {@link com.ecommerce.orderservice.model.Money#DEFAULT_SCALE}.
+ * Cart pricing runs under an optimistic read stamp and only falls back to a read lock if a
+ * catalog update raced with it.
+ */
+@Component
+public class PriceIndex {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int MIN_SNAPSHOT_CAPACITY = 1 << 10;
+
+    private final StampedLock lock = new StampedLock();
+    private Table table = new Table(INITIAL_CAPACITY);
+    private long catalogVersion;
+
+    public void put(UUID productId, long priceMinorUnits, long version) {
+        long stamp = lock.writeLock();
+        try {
+            if (table.needsResize()) {
+                table = table.resize();
+            }
+            table.put(productId.getMostSignificantBits(), productId.getLeastSignificantBits(),
+                    priceMinorUnits, version);
+            catalogVersion = Math.max(catalogVersion, version);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically swaps in a fully built snapshot. Entries updated by change events while the
+     * snapshot was loading are carried over when they are newer than the snapshot's; products
+     * the snapshot no longer contains are dropped unless a change event newer than the
+     * snapshot's catalog version re-added them.
+     */
+    public void replaceAll(Builder snapshot) {
+        long stamp = lock.writeLock();
+        try {
+            long carriedVersion = table.copyInto(snapshot);
+            table = snapshot.table;
+            catalogVersion = Math.max(snapshot.catalogVersion, carriedVersion);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return table.size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Heap held by the table arrays.
+     */
+    public long estimatedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return table.estimatedBytes();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Some product the index currently prices, or empty while it is empty.
+     */
+    public Optional<UUID> anyProductId() {
+        long stamp = lock.readLock();
+        try {
+            return table.anyKey();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long catalogVersion() {
+        long stamp = lock.readLock();
+        try {
+            return catalogVersion;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Prices every line of a cart against one consistent view of the index.
+     *
+     * @param unitPrices receives the unit price in minor units for each product id
+     * @return the catalog version the prices were read at
+     * @throws UnknownProductException if a product is not in the index
+     */
+    public long priceAll(UUID[] productIds, long[] unitPrices) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                Table current = table;
+                long version = catalogVersion;
+                int missing = current.fill(productIds, unitPrices);
+                if (lock.validate(stamp)) {
+                    if (missing >= 0) {
+                        throw new UnknownProductException(missing, productIds[missing]);
+                    }
+                    return version;
+                }
+            } catch (ArrayIndexOutOfBoundsException | NullPointerException e) {
+                // Torn read during a concurrent resize; retry under the read lock.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            int missing = table.fill(productIds, unitPrices);
+            if (missing >= 0) {
+                throw new UnknownProductException(missing, productIds[missing]);
+            }
+            return catalogVersion;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public static final class Builder {
+        private Table table;
+        private long catalogVersion;
+
+        private Builder(int expectedSize) {
+            this.table = new Table(capacityFor(expectedSize));
+        }
+
+        public Builder put(UUID productId, long priceMinorUnits, long version) {
+            if (table.needsResize()) {
+                table = table.resize();
+            }
+            table.put(productId.getMostSignificantBits(), productId.getLeastSignificantBits(),
+                    priceMinorUnits, version);
+            return this;
+        }
+
+        public Builder catalogVersion(long catalogVersion) {
+            this.catalogVersion = catalogVersion;
+            return this;
+        }
+
+        Optional<UUID> anyKey() {
+            for (int i = 0; i < keyHi.length; i++) {
+                if (keyHi[i] != 0L || keyLo[i] != 0L) {
+                    return Optional.of(new UUID(keyHi[i], keyLo[i]));
+                }
+            }
+            return Optional.empty();
+        }
+
+        long estimatedBytes() {
+            return table.estimatedBytes();
+        }
+    }
+
+    /**
+     * Smallest power-of-two table that holds {@code expectedSize} entries at most half full.
+     */
+    static int capacityFor(int expectedSize) {
+        int needed = Math.max(1, expectedSize) * 2 - 1;
+        return Math.max(MIN_SNAPSHOT_CAPACITY, Integer.highestOneBit(needed) << 1);
+    }
+
+    public static class UnknownProductException extends RuntimeException {
+        private final int index;
+
+        UnknownProductException(int index, UUID productId) {
+            super("No price for product " + productId);
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+    }
+
+    private static final class Table {
+        private final long[] keyHi;
+        private final long[] keyLo;
+        private final long[] prices;
+        private final long[] versions;
+        private final int mask;
+        private int size;
+
+        Table(int capacity) {
+            keyHi = new long[capacity];
+            keyLo = new long[capacity];
+            prices = new long[capacity];
+            versions = new long[capacity];
+            mask = capacity - 1;
+        }
+
+        boolean needsResize() {
+            return (size + 1) * 2 > keyHi.length;
+        }
+
+        /**
+         * @return the highest version carried over, or 0 if none was
+         */
+        long copyInto(Builder builder) {
+            long carriedVersion = 0;
+            for (int i = 0; i < keyHi.length; i++) {
+                if ((keyHi[i] != 0L || keyLo[i] != 0L)
+                        && (versions[i] > builder.catalogVersion || builder.table.contains(keyHi[i], keyLo[i]))) {
+                    if (builder.table.needsResize()) {
+                        builder.table = builder.table.resize();
+                    }
+                    builder.table.put(keyHi[i], keyLo[i], prices[i], versions[i]);
+                    carriedVersion = Math.max(carriedVersion, versions[i]);
+                }
+            }
+            return carriedVersion;
+        }
+
+        Optional<UUID> anyKey() {
+            for (int i = 0; i < keyHi.length; i++) {
+                if (keyHi[i] != 0L || keyLo[i] != 0L) {
+                    return Optional.of(new UUID(keyHi[i], keyLo[i]));
+                }
+            }
+            return Optional.empty();
+        }
+
+        long estimatedBytes() {
+            return (long) keyHi.length * 4 * Long.BYTES;
+        }
+
+        boolean contains(long hi, long lo) {
+            int slot = slot(hi, lo);
+            while (keyHi[slot] != 0L || keyLo[slot] != 0L) {
+                if (keyHi[slot] == hi && keyLo[slot] == lo) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        Table resize() {
+            Table bigger = new Table(keyHi.length << 1);
+            for (int i = 0; i < keyHi.length; i++) {
+                if (keyHi[i] != 0L || keyLo[i] != 0L) {
+                    bigger.put(keyHi[i], keyLo[i], prices[i], versions[i]);
+                }
+            }
+            return bigger;
+        }
+
+        void put(long hi, long lo, long price, long version) {
+            int slot = slot(hi, lo);
+            while (keyHi[slot] != 0L || keyLo[slot] != 0L) {
+                if (keyHi[slot] == hi && keyLo[slot] == lo) {
+                    if (version >= versions[slot]) {
+                        prices[slot] = price;
+                        versions[slot] = version;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keyHi[slot] = hi;
+            keyLo[slot] = lo;
+            prices[slot] = price;
+            versions[slot] = version;
+            size++;
+        }
+
+        /**
+         * @return index of the first unknown product, or -1 if all were found
+         */
+        int fill(UUID[] productIds, long[] unitPrices) {
+            for (int i = 0; i < productIds.length; i++) {
+                long hi = productIds[i].getMostSignificantBits();
+                long lo = productIds[i].getLeastSignificantBits();
+                int slot = slot(hi, lo);
+                int probes = 0;
+                while (true) {
+                    if (keyHi[slot] == hi && keyLo[slot] == lo) {
+                        unitPrices[i] = prices[slot];
+                        break;
+                    }
+                    if ((keyHi[slot] == 0L && keyLo[slot] == 0L) || ++probes > mask) {
+                        return i;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+            }
+            return -1;
+        }
+
+        private int slot(long hi, long lo) {
+            long h = hi ^ (lo * 0x9e3779b97f4a7c15L);
+            h ^= h >>> 32;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 29;
+            return (int) h & mask;
+        }
+    }
+}
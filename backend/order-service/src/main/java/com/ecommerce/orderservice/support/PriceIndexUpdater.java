@@ -0,0 +1,73 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.client.CatalogServiceClient;
+import com.ecommerce.orderservice.dto.CatalogPriceChange;
+import com.ecommerce.orderservice.model.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(prefix = "order.pricing", name = "enabled", havingValue = "true")
+// loads before StartupWarmup, which prices a product from the index
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class PriceIndexUpdater implements ApplicationRunner, ConsumerSeekAware {
+
+    private final PriceIndex priceIndex;
+    private final CatalogServiceClient catalogClient;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    /**
+     * Reloads the full snapshot. Change events only carry updates, so this is also what removes
+     * products that were deleted from the catalog.
+     */
+    @Scheduled(cron = "${order.pricing.refresh-cron:0 30 3 * * *}")
+    public void refresh() {
+        long start = System.nanoTime();
+        // sized from the catalog: the old and new tables are both live until the swap
+        PriceIndex.Builder snapshot = PriceIndex.builder(catalogClient.productCount());
+        long version = catalogClient.streamPriceSnapshot((productId, price, productVersion) ->
+                snapshot.put(productId, Money.toMinorUnits(price, Money.DEFAULT_SCALE), productVersion));
+        priceIndex.replaceAll(snapshot.catalogVersion(version));
+        log.info("Loaded price index with {} products at catalog version {} in {}ms ({} MiB)",
+                priceIndex.size(), version, (System.nanoTime() - start) / 1_000_000,
+                priceIndex.estimatedBytes() >> 20);
+    }
+
+    // one group per instance, named after order.node-id so a restart rejoins it instead of leaving one behind
+    @KafkaListener(topics = "${order.pricing.catalog-topic:catalog.price-changed}",
+            groupId = "${spring.application.name}-pricing-${order.node-id:${HOSTNAME:local}}")
+    public void onPriceChanged(String payload) throws JsonProcessingException {
+        CatalogPriceChange change = objectMapper.readValue(payload, CatalogPriceChange.class);
+        priceIndex.put(change.getProductId(),
+                Money.toMinorUnits(change.getPrice(), Money.DEFAULT_SCALE), change.getVersion());
+    }
+
+    /**
+     * Startup loads a full snapshot, so changes from before this instance stopped are already in
+     * it; replaying them could only bring back products deleted since.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+}
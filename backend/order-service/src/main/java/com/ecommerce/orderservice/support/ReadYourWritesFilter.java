@@ -0,0 +1,39 @@
+package com.ecommerce.orderservice.support;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * Pins the request to the primary while the client presents an unexpired write marker, so
+ * read-your-writes holds even when the read lands on a different node from the write.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.datasource.routing", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Cookie marker = WebUtils.getCookie(request, ReadYourWritesTracker.MARKER_COOKIE);
+        if (marker == null || !readYourWritesTracker.isMarkerActive(marker.getValue())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (ReplicaRoutingContext.Pin ignored = ReplicaRoutingContext.pinPrimary()) {
+            chain.doFilter(request, response);
+        }
+    }
+}
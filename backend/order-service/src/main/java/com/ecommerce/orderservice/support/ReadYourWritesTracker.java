@@ -0,0 +1,83 @@
+package com.ecommerce.orderservice.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a customer's reads on the primary for a short while after they write. The in-memory
+ * marks only cover requests that land on the node that took the write; the marker cookie
+ * issued with the write carries the same window to every other node, where
+ * {@link ReadYourWritesFilter} honours it. Clients that drop cookies get node-local
+ * stickiness only.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    public static final String MARKER_COOKIE = "order-primary-until";
+
+    private final ConcurrentHashMap<UUID, Long> primaryUntil = new ConcurrentHashMap<>();
+    private final long stickinessMillis;
+
+    public ReadYourWritesTracker(@Value("${order.datasource.routing.stickiness:PT5S}") Duration stickiness) {
+        this.stickinessMillis = stickiness.toMillis();
+    }
+
+    public void recordWrite(UUID customerId) {
+        if (customerId != null) {
+            primaryUntil.put(customerId, System.currentTimeMillis() + stickinessMillis);
+        }
+    }
+
+    public boolean requiresPrimary(UUID customerId) {
+        if (customerId == null) {
+            return false;
+        }
+        Long until = primaryUntil.get(customerId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public <T> T read(UUID customerId, Supplier<T> query) {
+        return requiresPrimary(customerId) ? ReplicaRoutingContext.onPrimary(query) : query.get();
+    }
+
+    /**
+     * Cookie a write response carries so the client's next reads stay on the primary on any node.
+     */
+    public ResponseCookie writeMarker() {
+        long now = System.currentTimeMillis();
+        return ResponseCookie.from(MARKER_COOKIE, Long.toString(now + stickinessMillis))
+                .path("/api/orders")
+                .maxAge(Duration.ofMillis(stickinessMillis).plusSeconds(1).toSeconds())
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+    }
+
+    /**
+     * Whether a marker cookie value is still inside its window. A value further out than one
+     * stickiness window is ignored, so a hand-made cookie cannot pin a client to the primary.
+     */
+    public boolean isMarkerActive(String value) {
+        long until;
+        try {
+            until = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        return until > now && until <= now + stickinessMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${order.datasource.routing.stickiness:PT5S}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        primaryUntil.values().removeIf(until -> until <= now);
+    }
+}
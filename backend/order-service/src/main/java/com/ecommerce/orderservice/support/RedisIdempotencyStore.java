@@ -0,0 +1,96 @@
+package com.ecommerce.orderservice.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(prefix = "order.idempotency", name = "store", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final RedisScript<List> PUT_IF_ABSENT = new DefaultRedisScript<>(
+            "local existing = redis.call('HMGET', KEYS[1], 's', 'o', 'h', 't') "
+                    + "if existing[1] then return existing end "
+                    + "redis.call('HSET', KEYS[1], 's', ARGV[1], 'o', ARGV[2], 'h', ARGV[3], 't', ARGV[4]) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[5]) "
+                    + "return nil",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate,
+                                 @Value("${order.idempotency.ttl:PT10M}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public IdempotencyRecord putIfAbsent(String key, IdempotencyRecord record) {
+        List<Object> existing = CacheOperationEvent.record("idempotency.putIfAbsent", key,
+                () -> redisTemplate.execute(PUT_IF_ABSENT, List.of(key),
+                        String.valueOf(record.getStatus().ordinal()),
+                        record.getOrderId() == null ? "" : record.getOrderId().toString(),
+                        String.valueOf(record.getRequestHash()),
+                        String.valueOf(record.getCreatedAtEpochMilli()),
+                        String.valueOf(ttl.toMillis())),
+                result -> result != null && !result.isEmpty() && result.get(0) != null);
+        if (existing == null || existing.isEmpty() || existing.get(0) == null) {
+            return null;
+        }
+        return decode((String) existing.get(0), (String) existing.get(1),
+                (String) existing.get(2), (String) existing.get(3));
+    }
+
+    @Override
+    public IdempotencyRecord get(String key) {
+        List<Object> fields = CacheOperationEvent.record("idempotency.get", key,
+                () -> redisTemplate.opsForHash().multiGet(key, List.<Object>of("s", "o", "h", "t")),
+                result -> result != null && !result.isEmpty() && result.get(0) != null);
+        if (fields == null || fields.isEmpty() || fields.get(0) == null) {
+            return null;
+        }
+        return decode((String) fields.get(0), (String) fields.get(1),
+                (String) fields.get(2), (String) fields.get(3));
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        CacheOperationEvent.record("idempotency.complete", key, () -> {
+            redisTemplate.opsForHash().putAll(key, Map.of(
+                    "s", String.valueOf(record.getStatus().ordinal()),
+                    "o", record.getOrderId() == null ? "" : record.getOrderId().toString(),
+                    "h", String.valueOf(record.getRequestHash()),
+                    "t", String.valueOf(record.getCreatedAtEpochMilli())));
+            redisTemplate.expire(key, ttl);
+        });
+    }
+
+    @Override
+    public void release(String key) {
+        try {
+            CacheOperationEvent.record("idempotency.release", key, () -> redisTemplate.delete(key), deleted -> false);
+        } catch (Exception e) {
+            log.warn("Idempotency release failed for key: {}", key, e);
+        }
+    }
+
+    private IdempotencyRecord decode(String status, String orderId, String requestHash, String createdAt) {
+        return new IdempotencyRecord(
+                IdempotencyRecord.Status.values()[Integer.parseInt(status)],
+                orderId == null || orderId.isEmpty() ? null : UUID.fromString(orderId),
+                Long.parseLong(requestHash),
+                Long.parseLong(createdAt));
+    }
+}
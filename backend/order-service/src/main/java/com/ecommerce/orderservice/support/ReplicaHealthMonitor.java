@@ -0,0 +1,91 @@
+package com.ecommerce.orderservice.support;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaHealthMonitor(Map<String, DataSource> replicas, String lagQuery, Duration maxLag) {
+        this.replicas = replicas;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    }
+
+    public Map<String, DataSource> replicas() {
+        return replicas;
+    }
+
+    public String nextHealthyReplica() {
+        List<String> current = healthy;
+        if (current.isEmpty()) {
+            return null;
+        }
+        return current.get(Math.floorMod(cursor.getAndIncrement(), current.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${order.datasource.routing.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        List<String> usable = replicas.entrySet().stream()
+                .filter(entry -> isUsable(entry.getKey(), entry.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!usable.equals(healthy)) {
+            log.info("Healthy read replicas changed: {} -> {}", healthy, usable);
+        }
+        healthy = usable;
+    }
+
+    @PreDestroy
+    public void close() {
+        replicas.values().forEach(dataSource -> {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica pool", e);
+                }
+            }
+        });
+    }
+
+    private boolean isUsable(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(2)) {
+                return false;
+            }
+            if (!StringUtils.hasText(lagQuery)) {
+                return true;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                double lagSeconds = rs.next() ? rs.getDouble(1) : Double.MAX_VALUE;
+                if (lagSeconds > maxLagSeconds) {
+                    log.warn("Replica {} lagging {}s behind primary, routing reads to primary", name, lagSeconds);
+                    return false;
+                }
+                return true;
+            }
+        } catch (Exception e) {
+            log.warn("Replica {} health check failed", name, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.orderservice.support;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound override that forces read-only work onto the primary, used for
+ * read-your-writes after a customer has just placed an order.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static boolean isPrimaryPinned() {
+        return Boolean.TRUE.equals(PRIMARY_PINNED.get());
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        try (Pin ignored = pinPrimary()) {
+            return work.get();
+        }
+    }
+
+    /**
+     * Pins the current thread to the primary until the returned handle is closed, for work
+     * that cannot be wrapped in a supplier, such as a servlet filter chain.
+     */
+    public static Pin pinPrimary() {
+        Boolean previous = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                PRIMARY_PINNED.remove();
+            } else {
+                PRIMARY_PINNED.set(previous);
+            }
+        };
+    }
+
+    public interface Pin extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
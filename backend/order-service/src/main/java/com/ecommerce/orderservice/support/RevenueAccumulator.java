@@ -0,0 +1,155 @@
+package com.ecommerce.orderservice.support;
+
+/**
+ * Revenue totals by product and by hour held in primitive arrays: an open-addressing table keyed
+ * by the two halves of the product UUID, and one slot per hour of the report range. Not
+ * thread-safe; each worker owns one and they are merged at the end.
+ */
+public final class RevenueAccumulator {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private long[] productHi;
+    private long[] productLo;
+    private long[] productRevenue;
+    private long[] productUnits;
+    private boolean[] occupied;
+    private int mask;
+    private int size;
+    private final long[] hourRevenue;
+    private final long[] hourItems;
+    private long rows;
+
+    public RevenueAccumulator(int hours) {
+        allocate(INITIAL_CAPACITY);
+        this.hourRevenue = new long[hours];
+        this.hourItems = new long[hours];
+    }
+
+    public void add(long productIdHi, long productIdLo, long amountMinorUnits, int quantity, int hour) {
+        int slot = slot(productIdHi, productIdLo);
+        productRevenue[slot] += amountMinorUnits;
+        productUnits[slot] += quantity;
+        hourRevenue[hour] += amountMinorUnits;
+        hourItems[hour]++;
+        rows++;
+    }
+
+    public void merge(RevenueAccumulator other) {
+        for (int i = 0; i < other.occupied.length; i++) {
+            if (other.occupied[i]) {
+                int slot = slot(other.productHi[i], other.productLo[i]);
+                productRevenue[slot] += other.productRevenue[i];
+                productUnits[slot] += other.productUnits[i];
+            }
+        }
+        for (int hour = 0; hour < hourRevenue.length; hour++) {
+            hourRevenue[hour] += other.hourRevenue[hour];
+            hourItems[hour] += other.hourItems[hour];
+        }
+        rows += other.rows;
+    }
+
+    /**
+     * Heap held by the arrays, the figure the report memory cap is checked against.
+     */
+    public long estimatedBytes() {
+        return (long) occupied.length * (4 * Long.BYTES + 1) + (long) hourRevenue.length * 2 * Long.BYTES;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public int productCount() {
+        return size;
+    }
+
+    public int slots() {
+        return occupied.length;
+    }
+
+    public boolean isOccupied(int slot) {
+        return occupied[slot];
+    }
+
+    public long productIdHi(int slot) {
+        return productHi[slot];
+    }
+
+    public long productIdLo(int slot) {
+        return productLo[slot];
+    }
+
+    public long productRevenue(int slot) {
+        return productRevenue[slot];
+    }
+
+    public long productUnits(int slot) {
+        return productUnits[slot];
+    }
+
+    public int hours() {
+        return hourRevenue.length;
+    }
+
+    public long hourRevenue(int hour) {
+        return hourRevenue[hour];
+    }
+
+    public long hourItems(int hour) {
+        return hourItems[hour];
+    }
+
+    private int slot(long hi, long lo) {
+        int slot = (int) mix(hi ^ (lo * 0x9E3779B97F4A7C15L)) & mask;
+        while (occupied[slot]) {
+            if (productHi[slot] == hi && productLo[slot] == lo) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size + 1 > occupied.length >> 1) {
+            grow();
+            return slot(hi, lo);
+        }
+        occupied[slot] = true;
+        productHi[slot] = hi;
+        productLo[slot] = lo;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldHi = productHi;
+        long[] oldLo = productLo;
+        long[] oldRevenue = productRevenue;
+        long[] oldUnits = productUnits;
+        boolean[] oldOccupied = occupied;
+        allocate(oldOccupied.length << 1);
+        for (int i = 0; i < oldOccupied.length; i++) {
+            if (oldOccupied[i]) {
+                int slot = slot(oldHi[i], oldLo[i]);
+                productRevenue[slot] = oldRevenue[i];
+                productUnits[slot] = oldUnits[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        productHi = new long[capacity];
+        productLo = new long[capacity];
+        productRevenue = new long[capacity];
+        productUnits = new long[capacity];
+        occupied = new boolean[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,188 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.dto.SlowQuerySnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * datasource-proxy listener that times every statement per repository method and keeps the
+ * slowest recent statements, with bind-parameter types and an EXPLAIN plan, in a ring buffer.
+ */
+@Component
+@Slf4j
+public class SlowQueryProfiler implements QueryExecutionListener {
+
+    private static final ThreadLocal<Boolean> EXPLAINING = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<DataSource> dataSource;
+    private final long thresholdMillis;
+    private final long explainIntervalMillis;
+    private final AtomicReferenceArray<SlowQuerySnapshot> ring;
+    private final AtomicLong cursor = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final ExecutorService explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(16), r -> {
+                Thread thread = new Thread(r, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public SlowQueryProfiler(MeterRegistry meterRegistry, ObjectProvider<DataSource> dataSource,
+                             @Value("${order.jdbc.slow-query-threshold:200ms}") Duration threshold,
+                             @Value("${order.jdbc.slow-query-capacity:256}") int capacity,
+                             @Value("${order.jdbc.explain-interval:1m}") Duration explainInterval) {
+        this.meterRegistry = meterRegistry;
+        this.dataSource = dataSource;
+        this.thresholdMillis = threshold.toMillis();
+        this.explainIntervalMillis = explainInterval.toMillis();
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (Boolean.TRUE.equals(EXPLAINING.get())) {
+            return;
+        }
+        String method = RepositoryMethodContext.current();
+        Timer.builder("order.jdbc.query")
+                .tag("repository_method", method)
+                .tag("success", String.valueOf(execInfo.isSuccess()))
+                .register(meterRegistry)
+                .record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+
+        if (execInfo.getElapsedTime() < thresholdMillis || queryInfoList.isEmpty()) {
+            return;
+        }
+        QueryInfo query = queryInfoList.get(0);
+        SlowQuerySnapshot snapshot = SlowQuerySnapshot.builder()
+                .capturedAt(Instant.now())
+                .repositoryMethod(method)
+                .sql(query.getQuery())
+                .parameterShapes(parameterShapes(query))
+                .elapsedMillis(execInfo.getElapsedTime())
+                .success(execInfo.isSuccess())
+                .build();
+        int slot = (int) (cursor.getAndIncrement() % ring.length());
+        ring.set(slot, snapshot);
+        maybeExplain(slot, snapshot, firstParameterValues(query));
+    }
+
+    public List<SlowQuerySnapshot> snapshots() {
+        List<SlowQuerySnapshot> result = new ArrayList<>(ring.length());
+        for (int i = 0; i < ring.length(); i++) {
+            SlowQuerySnapshot snapshot = ring.get(i);
+            if (snapshot != null) {
+                result.add(snapshot);
+            }
+        }
+        result.sort(Comparator.comparing(SlowQuerySnapshot::getCapturedAt).reversed());
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < ring.length(); i++) {
+            ring.set(i, null);
+        }
+    }
+
+    private void maybeExplain(int slot, SlowQuerySnapshot snapshot, List<Object> parameters) {
+        String sql = snapshot.getSql();
+        if (!sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long previous = lastExplained.get(sql);
+        if (previous != null && now - previous < explainIntervalMillis) {
+            return;
+        }
+        if (previous == null && lastExplained.size() >= ring.length()) {
+            // statements with inlined literals are all distinct: keep at most one entry per ring slot
+            lastExplained.values().removeIf(at -> now - at >= explainIntervalMillis);
+            if (lastExplained.size() >= ring.length()) {
+                return;
+            }
+        }
+        lastExplained.put(sql, now);
+        explainExecutor.execute(() -> {
+            String plan = explain(sql, parameters);
+            ring.compareAndSet(slot, snapshot, snapshot.toBuilder().explainPlan(plan).build());
+        });
+    }
+
+    private String explain(String sql, List<Object> parameters) {
+        EXPLAINING.set(Boolean.TRUE);
+        try (Connection connection = dataSource.getObject().getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        } catch (Exception e) {
+            log.debug("EXPLAIN failed for slow query", e);
+            return "EXPLAIN failed: " + e.getMessage();
+        } finally {
+            EXPLAINING.remove();
+        }
+    }
+
+    private static List<String> parameterShapes(QueryInfo query) {
+        List<String> shapes = new ArrayList<>();
+        for (Object value : firstParameterValues(query)) {
+            shapes.add(value == null ? "null" : value.getClass().getSimpleName());
+        }
+        return shapes;
+    }
+
+    private static List<Object> firstParameterValues(QueryInfo query) {
+        List<List<ParameterSetOperation>> parametersList = query.getParametersList();
+        if (parametersList.isEmpty()) {
+            return List.of();
+        }
+        List<ParameterSetOperation> operations = new ArrayList<>(parametersList.get(0));
+        operations.sort(Comparator.comparingInt(op -> op.getArgs()[0] instanceof Integer index ? index : 0));
+        List<Object> values = new ArrayList<>(operations.size());
+        for (ParameterSetOperation operation : operations) {
+            Object[] args = operation.getArgs();
+            boolean isNull = "setNull".equals(operation.getMethod().getName());
+            values.add(!isNull && args.length > 1 ? args[1] : null);
+        }
+        return values;
+    }
+}
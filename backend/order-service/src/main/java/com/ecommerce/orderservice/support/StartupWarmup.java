@@ -0,0 +1,195 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.command.CreateOrderCommand;
+import com.ecommerce.orderservice.mapper.OrderMapper;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.request.CreateOrderRequest;
+import com.ecommerce.orderservice.request.OrderItemRequest;
+import com.ecommerce.orderservice.service.OrderFactory;
+import com.ecommerce.orderservice.service.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs before readiness flips to ACCEPTING_TRAFFIC: fills the primary and replica connection
+ * pools and drives the order creation and serialization paths until they are JIT-compiled.
+ * The load-test module's {@code startup} command measures time to ready and to a steady p99
+ * with and without it.
+ */
+@Component
+@ConditionalOnProperty(name = "order.warmup.enabled", havingValue = "true")
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class StartupWarmup implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final OrderRepository orderRepository;
+    private final OrderFactory orderFactory;
+    private final PriceIndex priceIndex;
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.warmup.iterations:2000}")
+    private int iterations;
+
+    @Value("${order.warmup.connections:10}")
+    private int connections;
+
+    @Value("${order.warmup.connection-timeout:PT10S}")
+    private Duration connectionTimeout;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        openDatabaseConnections();
+        pingRedis();
+        exerciseOrderPath();
+        log.info("Warm-up finished in {} ms, JVM uptime at readiness {} ms",
+                (System.nanoTime() - started) / 1_000_000,
+                ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    private void openDatabaseConnections() {
+        for (DataSource pool : pools(jdbcTemplate.getDataSource())) {
+            fillPool(pool);
+        }
+        try {
+            UUID probe = TimeOrderedUuid.next(Instant.now().toEpochMilli());
+            orderRepository.findByOrderId(probe);
+            orderRepository.findByCustomerIdOrderByCreatedAtDesc(probe, PageRequest.of(0, 20));
+        } catch (Exception e) {
+            log.warn("Database warm-up failed", e);
+        }
+    }
+
+    /**
+     * The physical pools behind the template: a lazy proxy never opens a connection nothing runs
+     * on, and a routing data source would hand out only the primary.
+     */
+    static List<DataSource> pools(DataSource dataSource) {
+        if (dataSource instanceof DelegatingDataSource delegating) {
+            return pools(delegating.getTargetDataSource());
+        }
+        if (dataSource instanceof AbstractRoutingDataSource routing) {
+            return routing.getResolvedDataSources().values().stream()
+                    .distinct()
+                    .flatMap(target -> pools(target).stream())
+                    .toList();
+        }
+        return dataSource == null ? List.of() : List.of(dataSource);
+    }
+
+    private void fillPool(DataSource pool) {
+        // hold the connections concurrently so the pool actually opens that many sockets; each holder
+        // needs its own thread and its own pooled connection, otherwise the latch can never reach zero
+        int holderCount = Math.min(connections, maximumPoolSize(pool));
+        if (holderCount <= 0) {
+            return;
+        }
+        int validationSeconds = (int) Math.max(1, connectionTimeout.toSeconds());
+        ExecutorService holders = Executors.newFixedThreadPool(holderCount);
+        try {
+            CountDownLatch allOpen = new CountDownLatch(holderCount);
+            List<Future<?>> held = new ArrayList<>(holderCount);
+            for (int i = 0; i < holderCount; i++) {
+                held.add(holders.submit(() -> {
+                    try (Connection connection = pool.getConnection()) {
+                        // a proxied connection only reaches the server once it is used
+                        connection.isValid(validationSeconds);
+                        allOpen.countDown();
+                        allOpen.await(connectionTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                    }
+                    return null;
+                }));
+            }
+            if (!allOpen.await(connectionTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Only {} of {} connections to {} opened within {}",
+                        holderCount - allOpen.getCount(), holderCount, pool, connectionTimeout);
+            }
+            for (Future<?> holder : held) {
+                holder.get(connectionTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Connection warm-up of {} failed", pool, e);
+        } finally {
+            holders.shutdownNow();
+        }
+    }
+
+    private int maximumPoolSize(DataSource pool) {
+        try {
+            if (pool.isWrapperFor(HikariDataSource.class)) {
+                return pool.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not determine the connection pool size", e);
+        }
+        return connections;
+    }
+
+    private void pingRedis() {
+        try {
+            redisTemplate.hasKey("order:warmup");
+        } catch (Exception e) {
+            log.warn("Redis warm-up failed", e);
+        }
+    }
+
+    private void exerciseOrderPath() {
+        OrderItemRequest item = new OrderItemRequest();
+        // with server-side pricing only a product the index holds gets past the price lookup
+        item.setProductId(priceIndex.anyProductId().orElseGet(UUID::randomUUID).toString());
+        item.setQuantity(2);
+        item.setUnitPrice(new BigDecimal("19.99"));
+        CreateOrderCommand command = CreateOrderCommand.builder()
+                .customerId(UUID.randomUUID())
+                .items(List.of(item, item))
+                .shippingAddress("warm-up")
+                .paymentMethodId("warm-up")
+                .build();
+        try {
+            byte[] requestJson = objectMapper.writeValueAsBytes(command);
+            for (int i = 0; i < iterations; i++) {
+                objectMapper.readValue(requestJson, CreateOrderRequest.class);
+                Order order = orderFactory.createOptimizedOrder(command);
+                objectMapper.writeValueAsBytes(OrderMapper.toDto(order));
+            }
+        } catch (Exception e) {
+            // an empty price index rejects the synthetic product; the request and mapping paths are still warm
+            log.info("Order path warm-up stopped early: {}", e.getMessage());
+        }
+    }
+}
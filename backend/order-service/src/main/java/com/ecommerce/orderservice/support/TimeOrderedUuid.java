@@ -0,0 +1,31 @@
+package com.ecommerce.orderservice.support;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * UUIDv7 (RFC 9562): 48-bit Unix millisecond timestamp followed by random bits, so ids
+ * generated close together land on neighbouring B-tree pages instead of random ones.
+ */
+public final class TimeOrderedUuid {
+
+    private TimeOrderedUuid() {
+    }
+
+    public static UUID next(long epochMilli) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (epochMilli << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * @return the embedded creation timestamp, or {@code -1} if the id is not a UUIDv7
+     */
+    public static long epochMilli(UUID uuid) {
+        if (uuid.version() != 7) {
+            return -1L;
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.orderservice.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for large numbers of coarse timeouts: scheduling is O(1) and a single
+ * thread expires one bucket per tick. Entries cannot be cancelled; the expiry callback is
+ * expected to re-check whether the timeout still applies.
+ */
+@Slf4j
+public class TimingWheel implements AutoCloseable {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Queue<Entry>[] buckets;
+    private final Consumer<UUID> onExpiry;
+    private final long startMillis;
+    private final Thread worker;
+    private volatile long currentTick;
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(String name, long tickMillis, int wheelSize, Consumer<UUID> onExpiry) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1) << 1);
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.onExpiry = onExpiry;
+        this.startMillis = System.currentTimeMillis();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public void schedule(UUID id, long deadlineEpochMilli) {
+        long tick = Math.max(currentTick + 1, (deadlineEpochMilli - startMillis + tickMillis - 1) / tickMillis);
+        buckets[(int) (tick & mask)].add(new Entry(id, tick));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long nextTick = currentTick + 1;
+            long sleepMillis = startMillis + nextTick * tickMillis - System.currentTimeMillis();
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            currentTick = nextTick;
+            Iterator<Entry> entries = buckets[(int) (nextTick & mask)].iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (entry.tick <= nextTick) {
+                    entries.remove();
+                    try {
+                        onExpiry.accept(entry.id);
+                    } catch (Exception e) {
+                        log.error("Timeout callback failed for {}", entry.id, e);
+                    }
+                }
+            }
+        }
+    }
+
+    private record Entry(UUID id, long tick) {
+    }
+}
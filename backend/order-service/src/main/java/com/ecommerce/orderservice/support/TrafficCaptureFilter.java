@@ -0,0 +1,196 @@
+package com.ecommerce.orderservice.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Samples API requests into a JSON-lines file that the load-test module replays. Only the shape
+ * of a request is kept:
+ *
+ * <pre>
+ * {"t":1234,"method":"POST","route":"/api/orders","query":{},"items":[2,1],"status":201,"millis":38}
+ * </pre>
+ *
+ * {@code t} is milliseconds since capture started, path UUIDs become {@code {id}}, query values
+ * are kept only for paging and filter parameters, and of an order body only the item quantities
+ * survive. Lines are written by a background thread; when it falls behind, samples are dropped.
+ */
+@Component
+@ConditionalOnProperty(prefix = "order.capture", name = "enabled", havingValue = "true")
+@Slf4j
+public class TrafficCaptureFilter extends OncePerRequestFilter implements DisposableBean {
+
+    private static final Pattern UUID_SEGMENT = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Set<String> KEPT_QUERY_VALUES = Set.of(
+            "page", "size", "sortBy", "sortDirection", "status", "limit", "productLimit", "parallel");
+    private static final int MAX_CAPTURED_BODY = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final double sampleRate;
+    private final long maxBytes;
+    private final Counter dropped;
+    private final BlockingQueue<String> lines;
+    private final long startedNanos = System.nanoTime();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public TrafficCaptureFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${order.capture.file:data/capture/requests.jsonl}") Path file,
+                                @Value("${order.capture.sample-rate:0.01}") double sampleRate,
+                                @Value("${order.capture.max-size:512MB}") DataSize maxSize,
+                                @Value("${order.capture.queue-capacity:10000}") int queueCapacity) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.sampleRate = sampleRate;
+        this.maxBytes = maxSize.toBytes();
+        this.dropped = meterRegistry.counter("order.capture.dropped");
+        this.lines = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::writeLines, "traffic-capture-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!running || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long started = System.nanoTime();
+        ContentCachingRequestWrapper wrapped = new ContentCachingRequestWrapper(request, MAX_CAPTURED_BODY);
+        try {
+            chain.doFilter(wrapped, response);
+        } finally {
+            if (wrapped.isAsyncStarted()) {
+                // CompletableFuture and SSE responses only have their final status once the async cycle ends
+                wrapped.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        capture(wrapped, response, started);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                capture(wrapped, response, started);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void capture(ContentCachingRequestWrapper request, HttpServletResponse response, long startedNanos) {
+        try {
+            ObjectNode line = objectMapper.createObjectNode();
+            line.put("t", TimeUnit.NANOSECONDS.toMillis(startedNanos - this.startedNanos));
+            line.put("method", request.getMethod());
+            line.put("route", UUID_SEGMENT.matcher(request.getRequestURI()).replaceAll("{id}"));
+            ObjectNode query = line.putObject("query");
+            for (Map.Entry<String, String[]> parameter : request.getParameterMap().entrySet()) {
+                query.put(parameter.getKey(), KEPT_QUERY_VALUES.contains(parameter.getKey())
+                        ? String.join(",", parameter.getValue())
+                        : "*");
+            }
+            byte[] body = request.getContentAsByteArray();
+            if (body.length > 0) {
+                JsonNode items = objectMapper.readTree(body).path("items");
+                if (items.isArray()) {
+                    ArrayNode quantities = line.putArray("items");
+                    items.forEach(item -> quantities.add(item.path("quantity").asInt(1)));
+                }
+            }
+            line.put("status", response.getStatus());
+            line.put("millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+            if (!lines.offer(objectMapper.writeValueAsString(line))) {
+                dropped.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to capture request shape for {}", request.getRequestURI(), e);
+            dropped.increment();
+        }
+    }
+
+    private void writeLines() {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            long written = Files.exists(file) ? Files.size(file) : 0;
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                while (running || !lines.isEmpty()) {
+                    String line = lines.poll(1, TimeUnit.SECONDS);
+                    if (line == null) {
+                        out.flush();
+                        continue;
+                    }
+                    if (written + line.length() + 1 > maxBytes) {
+                        log.warn("Traffic capture {} reached {} bytes; no further requests are captured", file, maxBytes);
+                        return;
+                    }
+                    out.write(line);
+                    out.newLine();
+                    written += line.length() + 1;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Traffic capture to {} stopped", file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+        }
+    }
+}
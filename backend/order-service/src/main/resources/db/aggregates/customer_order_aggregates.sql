@@ -0,0 +1,19 @@
+-- Tables maintained by CustomerOrderAggregator. Apply before deploying a version that writes them;
+-- the service itself does no DDL, so startup (and the CDS training run) never needs the database.
+
+CREATE TABLE IF NOT EXISTS customer_order_aggregates (
+    customer_id UUID NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    order_count BIGINT NOT NULL,
+    total_amount NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (customer_id, status)
+);
+
+-- outbox of signed deltas, written in the order's transaction and drained by the flush
+CREATE TABLE IF NOT EXISTS customer_order_aggregate_deltas (
+    id BIGSERIAL PRIMARY KEY,
+    customer_id UUID NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    order_count BIGINT NOT NULL,
+    total_amount NUMERIC(19, 2) NOT NULL
+);
@@ -0,0 +1,12 @@
+-- One-off seed of customer_order_aggregates from existing orders.
+-- Run before the first deployment that maintains the aggregates (or with order creation paused):
+-- the running service only adds deltas, so orders created during the backfill would be counted twice.
+-- Create the tables with customer_order_aggregates.sql first.
+
+BEGIN;
+TRUNCATE customer_order_aggregates;
+INSERT INTO customer_order_aggregates (customer_id, status, order_count, total_amount)
+SELECT customer_id, status, COUNT(*), COALESCE(SUM(total_amount), 0)
+FROM orders
+GROUP BY customer_id, status;
+COMMIT;
@@ -0,0 +1,39 @@
+-- One-off migration of the orders table to monthly range partitions on created_at.
+-- Run in a maintenance window with order-service stopped, then enable order.partitioning.
+-- Postgres requires the partition key in every unique constraint, so the primary key
+-- becomes (id, created_at); the order_items foreign key to orders(id) cannot be kept.
+
+BEGIN;
+
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN
+        SELECT conname FROM pg_constraint
+        WHERE conrelid = 'order_items'::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE order_items DROP CONSTRAINT %I', fk.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE orders RENAME TO orders_legacy;
+
+CREATE TABLE orders (LIKE orders_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+
+ALTER TABLE orders ADD PRIMARY KEY (id, created_at);
+CREATE INDEX idx_orders_customer_created_at ON orders (customer_id, created_at DESC);
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at);
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
+
+-- Existing rows become a single catch-all partition ending at the next month boundary;
+-- OrderPartitionManager creates monthly partitions from there on, and detaches this one with
+-- the rest once its upper bound is older than order.partitioning.retention-months.
+DO $$
+BEGIN
+    EXECUTE format('ALTER TABLE orders ATTACH PARTITION orders_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                   date_trunc('month', now() AT TIME ZONE 'UTC') + interval '1 month');
+END $$;
+
+COMMIT;
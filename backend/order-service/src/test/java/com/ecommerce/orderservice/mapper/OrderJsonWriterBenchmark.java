@@ -0,0 +1,102 @@
+package com.ecommerce.orderservice.mapper;
+
+import com.ecommerce.orderservice.dto.OrderDto;
+import com.ecommerce.orderservice.dto.OrderItemDto;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes one order response through {@link OrderJsonWriter} and through a Boot-configured
+ * ObjectMapper (the path it replaced), into a reused buffer as the servlet response would be.
+ * Setup prints the response size of both; run with {@code -Djmh.args="-prof gc"} for the bytes
+ * allocated per response ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderJsonWriterBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int lines;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final JsonFactory jsonFactory = objectMapper.getFactory();
+    private final ByteArrayOutputStream response = new ByteArrayOutputStream(16 * 1024);
+    private OrderDto order;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<OrderItemDto> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(OrderItemDto.builder()
+                    .productId(UUID.randomUUID())
+                    .quantity(1 + i % 3)
+                    .unitPrice(new BigDecimal("19.99"))
+                    .totalPrice(new BigDecimal("19.99").multiply(BigDecimal.valueOf(1 + i % 3)))
+                    .build());
+        }
+        order = OrderDto.builder()
+                .id(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .items(items)
+                .status("CONFIRMED")
+                .totalAmount(new BigDecimal("199.90"))
+                .createdAt(Instant.parse("2026-10-18T10:15:30.123Z"))
+                .version(3)
+                .build();
+        int writerBytes = orderJsonWriter();
+        byte[] writerJson = response.toByteArray();
+        int jacksonBytes = objectMapper();
+        if (!objectMapper.readTree(writerJson).equals(objectMapper.readTree(response.toByteArray()))) {
+            throw new IllegalStateException("OrderJsonWriter and ObjectMapper disagree");
+        }
+        System.out.printf("%n%d lines: %d bytes per response (OrderJsonWriter), %d bytes (ObjectMapper)%n",
+                lines, writerBytes, jacksonBytes);
+    }
+
+    @Benchmark
+    public int orderJsonWriter() throws IOException {
+        response.reset();
+        try (JsonGenerator json = jsonFactory.createGenerator(response, JsonEncoding.UTF8)) {
+            OrderJsonWriter.writeOrder(json, order);
+        }
+        return response.size();
+    }
+
+    @Benchmark
+    public int objectMapper() throws IOException {
+        response.reset();
+        objectMapper.writeValue(response, order);
+        return response.size();
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.OrderSearchCriteria;
+import com.ecommerce.orderservice.dto.OrderSearchResultDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Searches with no lower bound over orders inside and outside the 30 day index window: the
+ * totals must cover all history, with hits backfilled from the database once the window runs out.
+ */
+class AdminOrderSearchServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T00:00:00Z");
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private AdminOrderSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("""
+                CREATE TABLE orders (id UUID PRIMARY KEY, status VARCHAR(32) NOT NULL,
+                    created_at TIMESTAMP WITH TIME ZONE NOT NULL)""");
+        jdbcTemplate.execute("CREATE TABLE order_items (id UUID PRIMARY KEY, order_id UUID NOT NULL, product_id UUID NOT NULL)");
+        searchService = new AdminOrderSearchService(jdbcTemplate, new DataSourceTransactionManager(database),
+                new ObjectMapper(), Clock.fixed(NOW, ZoneOffset.UTC), new SimpleMeterRegistry(),
+                Duration.ofDays(30), 1_000, 100, Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void unboundedSearchCountsOrdersOlderThanTheIndexWindow() {
+        for (int day = 1; day <= 5; day++) {
+            insert(NOW.minus(Duration.ofDays(day)), "CONFIRMED");
+        }
+        UUID oldest = null;
+        for (int day = 40; day <= 42; day++) {
+            oldest = insert(NOW.minus(Duration.ofDays(day)), "CONFIRMED");
+        }
+        insert(NOW.minus(Duration.ofDays(50)), "CANCELLED");
+        searchService.rebuild();
+
+        OrderSearchResultDto page = searchService.search(OrderSearchCriteria.builder()
+                .statuses(Set.of("CONFIRMED"))
+                .limit(10)
+                .build());
+        OrderSearchResultDto firstHits = searchService.search(OrderSearchCriteria.builder()
+                .statuses(Set.of("CONFIRMED"))
+                .limit(3)
+                .build());
+        OrderSearchResultDto windowOnly = searchService.search(OrderSearchCriteria.builder()
+                .from(NOW.minus(Duration.ofDays(10)))
+                .limit(10)
+                .build());
+
+        assertThat(page.getTotal()).isEqualTo(8);
+        assertThat(page.getSource()).isEqualTo("index+database");
+        assertThat(page.getHits()).hasSize(8);
+        assertThat(page.getHits().get(7).getOrderId()).isEqualTo(oldest);
+        assertThat(firstHits.getTotal()).isEqualTo(8);
+        assertThat(firstHits.getHits()).hasSize(3)
+                .allSatisfy(hit -> assertThat(hit.getCreatedAt()).isAfter(NOW.minus(Duration.ofDays(30))));
+        assertThat(windowOnly.getSource()).isEqualTo("index");
+        assertThat(windowOnly.getTotal()).isEqualTo(5);
+    }
+
+    private UUID insert(Instant createdAt, String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO orders (id, status, created_at) VALUES (?, ?, ?)",
+                id, status, Timestamp.from(createdAt));
+        return id;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.AdmissionPriority;
+import com.ecommerce.orderservice.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a steady HIGH stream (one order every 5ms, each taking 5ms, against 4 slots) first on
+ * its own and then alongside a LOW flood well above capacity, and compares HIGH p99.
+ */
+class OrderAdmissionSchedulerTest {
+
+    private static final long SERVICE_MILLIS = 5;
+    private static final int HIGH_ORDERS = 400;
+
+    private final Executor serviceDelay = CompletableFuture.delayedExecutor(SERVICE_MILLIS, TimeUnit.MILLISECONDS);
+
+    @Test
+    void highPriorityP99StaysFlatWhileLowPriorityIsShed() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OrderAdmissionScheduler scheduler = new OrderAdmissionScheduler(registry, 4, 6, 200, 3, 100, 1, 25);
+
+        long baselineP99 = highP99Millis(scheduler);
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        List<CompletableFuture<Void>> lowResults = Collections.synchronizedList(new ArrayList<>());
+        Thread flood = new Thread(() -> {
+            while (flooding.get()) {
+                lowResults.add(scheduler.submit(AdmissionPriority.LOW, null, this::work));
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        });
+        flood.start();
+        long floodedP99;
+        try {
+            floodedP99 = highP99Millis(scheduler);
+        } finally {
+            flooding.set(false);
+            flood.join();
+        }
+
+        long lowShed = lowResults.stream()
+                .filter(result -> rejected(result.handle((value, error) -> error).join()))
+                .count();
+        assertThat(lowShed).isGreaterThan(lowResults.size() / 2);
+        assertThat(registry.counter("order.admission.shed", "priority", "LOW", "reason", "queue_full").count())
+                .isEqualTo(lowShed);
+        assertThat(floodedP99).isLessThanOrEqualTo(baselineP99 + 15);
+    }
+
+    @Test
+    void retryHeaderAloneDoesNotRaisePriority() {
+        TestingAuthenticationToken customer = new TestingAuthenticationToken("c", null, "ROLE_CUSTOMER");
+        TestingAuthenticationToken integrator = new TestingAuthenticationToken("i", null, "ROLE_INTEGRATOR");
+
+        assertThat(AdmissionPriority.of(customer, false)).isEqualTo(AdmissionPriority.NORMAL);
+        assertThat(AdmissionPriority.of(integrator, false)).isEqualTo(AdmissionPriority.LOW);
+        assertThat(AdmissionPriority.of(integrator, true)).isEqualTo(AdmissionPriority.HIGH);
+    }
+
+    /**
+     * Submits HIGH orders at a fixed pace and returns the p99 of their end-to-end latency;
+     * every one of them must be admitted.
+     */
+    private long highP99Millis(OrderAdmissionScheduler scheduler) {
+        List<CompletableFuture<Long>> latencies = new ArrayList<>();
+        long next = System.nanoTime();
+        for (int i = 0; i < HIGH_ORDERS; i++) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            next += TimeUnit.MILLISECONDS.toNanos(SERVICE_MILLIS);
+            long submitted = System.nanoTime();
+            latencies.add(scheduler.submit(AdmissionPriority.HIGH, Instant.now().plusSeconds(5), this::work)
+                    .thenApply(ignored -> System.nanoTime() - submitted));
+        }
+        long[] sorted = latencies.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        return TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.ceil(sorted.length * 0.99) - 1]);
+    }
+
+    private CompletableFuture<Void> work() {
+        return CompletableFuture.runAsync(() -> { }, serviceDelay);
+    }
+
+    private static boolean rejected(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof AdmissionRejectedException;
+    }
+}
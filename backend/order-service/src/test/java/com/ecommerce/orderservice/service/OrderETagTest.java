@@ -0,0 +1,91 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.mapper.OrderMapper;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.support.TimeOrderedUuid;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The order ETag is its version, so every status change (including the bulk JPQL updates the
+ * saga uses) must bump it or revalidating clients keep getting 304 with the old status.
+ */
+@DataJpaTest
+class OrderETagTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void statusChangeInvalidatesETag() {
+        Order order = saveOrder();
+        String pending = etag(order.getId());
+
+        assertThat(orderRepository.updateOrderStatusById(order.getId(), "CONFIRMED")).isEqualTo(1);
+        String confirmed = etag(order.getId());
+
+        assertThat(confirmed).isNotEqualTo(pending);
+        assertThat(reload(order.getId()).getStatus()).isEqualTo("CONFIRMED");
+    }
+
+    @Test
+    void everyStatusUpdateQueryBumpsVersion() {
+        Order order = saveOrder();
+        long initial = reload(order.getId()).getVersion();
+
+        orderRepository.updateOrderStatus(order.getId(), "CONFIRMED");
+        orderRepository.updateOrderStatusInCreatedAtRange(order.getId(), "CANCELLED",
+                order.getCreatedAt().minus(1, ChronoUnit.DAYS), order.getCreatedAt().plus(1, ChronoUnit.DAYS));
+
+        Order reloaded = reload(order.getId());
+        assertThat(reloaded.getVersion()).isEqualTo(initial + 2);
+        assertThat(reloaded.getStatus()).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void unchangedOrderKeepsETag() {
+        Order order = saveOrder();
+
+        assertThat(etag(order.getId())).isEqualTo(etag(order.getId()));
+    }
+
+    private Order saveOrder() {
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Order order = Order.builder()
+                .id(TimeOrderedUuid.next(createdAt.toEpochMilli()))
+                .customerId(UUID.randomUUID())
+                .items(new ArrayList<>())
+                .status("PENDING")
+                .totalAmount(new BigDecimal("39.98"))
+                .createdAt(createdAt)
+                .build();
+        orderRepository.saveAndFlush(order);
+        entityManager.clear();
+        return order;
+    }
+
+    /**
+     * The value OrderController#getOrder puts in the ETag header.
+     */
+    private String etag(UUID orderId) {
+        return Long.toString(OrderMapper.toDto(reload(orderId)).getVersion());
+    }
+
+    private Order reload(UUID orderId) {
+        entityManager.clear();
+        return orderRepository.findById(orderId).orElseThrow();
+    }
+}
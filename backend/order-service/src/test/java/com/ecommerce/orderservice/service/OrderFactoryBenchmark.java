@@ -0,0 +1,99 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.CreateOrderCommand;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.request.OrderItemRequest;
+import com.ecommerce.orderservice.support.PriceIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Builds an order from carts of 500 and 2,000 lines with client-supplied prices, through the
+ * factory's long minor-unit loop and through the stream pipeline with a BigDecimal multiply and
+ * add per line that it replaced (copied below as {@code streamPipeline}). Run with
+ * {@code -Djmh.args="-prof gc"} to compare bytes allocated per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class OrderFactoryBenchmark {
+
+    @Param({"500", "2000"})
+    private int cartLines;
+
+    private final Clock clock = Clock.systemUTC();
+    private OrderFactory factory;
+    private CreateOrderCommand command;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<OrderItemRequest> items = new ArrayList<>(cartLines);
+        for (int i = 0; i < cartLines; i++) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(new UUID(random.nextLong(), random.nextLong()).toString());
+            item.setQuantity(1 + random.nextInt(5));
+            item.setUnitPrice(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            items.add(item);
+        }
+        command = CreateOrderCommand.builder()
+                .customerId(UUID.randomUUID())
+                .items(items)
+                .shippingAddress("1 Benchmark Way")
+                .paymentMethodId("pm-bench")
+                .build();
+        factory = new OrderFactory(clock, new PriceIndex(), false);
+    }
+
+    @Benchmark
+    public Order minorUnitLoop() {
+        return factory.createOptimizedOrder(command);
+    }
+
+    @Benchmark
+    public Order streamPipeline() {
+        List<OrderItem> orderItems = command.getItems().stream()
+                .map(item -> OrderItem.builder()
+                        .productId(UUID.fromString(item.getProductId()))
+                        .quantity(item.getQuantity())
+                        .unitPrice(item.getUnitPrice())
+                        .totalPrice(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                        .build())
+                .collect(Collectors.toList());
+        BigDecimal totalAmount = orderItems.stream()
+                .map(OrderItem::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Order.builder()
+                .id(UUID.randomUUID())
+                .customerId(command.getCustomerId())
+                .items(orderItems)
+                .status("PENDING")
+                .totalAmount(totalAmount)
+                .shippingAddress(command.getShippingAddress())
+                .createdAt(clock.instant())
+                .version(0L)
+                .build();
+    }
+}
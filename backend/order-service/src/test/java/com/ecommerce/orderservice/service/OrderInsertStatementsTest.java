@@ -0,0 +1,160 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.support.TimeOrderedUuid;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saves new orders on H2 with the application's Hibernate batching settings and records every
+ * JDBC execution through datasource-proxy: a new order must be persisted without a SELECT
+ * first, its items written in batches of {@code hibernate.jdbc.batch_size} with the order id
+ * in the INSERT itself (no follow-up UPDATE), and the insert rate is printed.
+ */
+@DataJpaTest
+@Import(OrderInsertStatementsTest.StatementCapture.class)
+class OrderInsertStatementsTest {
+
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        StatementCapture.EXECUTIONS.clear();
+    }
+
+    @Test
+    void newOrderIsInsertedWithBatchedItemsAndNoSelect() {
+        orderRepository.save(order(120));
+        entityManager.flush();
+
+        List<Execution> executions = List.copyOf(StatementCapture.EXECUTIONS);
+        assertThat(executions).noneMatch(execution -> execution.sql().startsWith("select"));
+        assertThat(executions).noneMatch(execution -> execution.sql().startsWith("update"));
+        assertThat(executions).filteredOn(execution -> execution.sql().startsWith("insert into orders"))
+                .singleElement()
+                .satisfies(execution -> assertThat(execution.rows()).isEqualTo(1));
+        List<Execution> itemInserts = executions.stream()
+                .filter(execution -> execution.sql().startsWith("insert into order_items"))
+                .toList();
+        assertThat(itemInserts).hasSize((120 + BATCH_SIZE - 1) / BATCH_SIZE)
+                .allMatch(Execution::batch);
+        assertThat(itemInserts.stream().mapToInt(Execution::rows).sum()).isEqualTo(120);
+    }
+
+    @Test
+    void reportsInsertThroughput() {
+        int orders = 2_000;
+        int items = 20;
+        // first orders warm up Hibernate's statement and entity metadata caches
+        for (int i = 0; i < 200; i++) {
+            orderRepository.save(order(items));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        StatementCapture.EXECUTIONS.clear();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            orderRepository.save(order(items));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        System.out.printf("%nInserted %d orders of %d items in %d ms (%d orders/s) with %d JDBC executions%n",
+                orders, items, elapsedNanos / 1_000_000, orders * 1_000_000_000L / elapsedNanos,
+                StatementCapture.EXECUTIONS.size());
+        // one order INSERT and one item batch per order
+        assertThat(StatementCapture.EXECUTIONS).hasSize(orders * 2);
+    }
+
+    private static Order order(int itemCount) {
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(OrderItem.builder()
+                    .id(TimeOrderedUuid.next(createdAt.toEpochMilli()))
+                    .productId(UUID.randomUUID())
+                    .quantity(1)
+                    .unitPrice(new BigDecimal("9.99"))
+                    .totalPrice(new BigDecimal("9.99"))
+                    .build());
+        }
+        return Order.builder()
+                .id(TimeOrderedUuid.next(createdAt.toEpochMilli()))
+                .customerId(UUID.randomUUID())
+                .items(items)
+                .status("PENDING")
+                .totalAmount(new BigDecimal("9.99").multiply(BigDecimal.valueOf(itemCount)))
+                .createdAt(createdAt)
+                .build();
+    }
+
+    record Execution(String sql, boolean batch, int rows) {
+    }
+
+    @TestConfiguration
+    static class StatementCapture {
+
+        static final List<Execution> EXECUTIONS = new CopyOnWriteArrayList<>();
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource).listener(new Listener()).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static final class Listener implements QueryExecutionListener {
+
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                for (QueryInfo query : queryInfoList) {
+                    int rows = execInfo.isBatch() ? query.getParametersList().size() : 1;
+                    EXECUTIONS.add(new Execution(query.getQuery().trim().toLowerCase(Locale.ROOT),
+                            execInfo.isBatch(), rows));
+                }
+            }
+        }
+    }
+}
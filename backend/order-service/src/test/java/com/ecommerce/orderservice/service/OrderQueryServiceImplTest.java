@@ -0,0 +1,176 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderDto;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.support.OrderArchive;
+import com.ecommerce.orderservice.support.ReadYourWritesTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A customer with recent orders in the database and older ones in the archive: pages must run
+ * across both, newest first, count each order once, and read no further into either side than
+ * the page reaches.
+ */
+class OrderQueryServiceImplTest {
+
+    private static final Instant HORIZON = Instant.parse("2026-07-01T00:00:00Z");
+
+    private final UUID customerId = UUID.randomUUID();
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderArchive orderArchive = mock(OrderArchive.class);
+    private final List<Order> databaseOrders = new ArrayList<>();
+    private OrderQueryServiceImpl queryService;
+
+    @BeforeEach
+    void setUp() {
+        queryService = new OrderQueryServiceImpl(orderRepository, new ReadYourWritesTracker(Duration.ofSeconds(5)),
+                mock(PlatformTransactionManager.class), orderArchive);
+        when(orderRepository.findByCustomerIdAndCreatedAtRange(eq(customerId), any(), any(), any()))
+                .thenAnswer(invocation -> databasePage(invocation.getArgument(1), invocation.getArgument(2),
+                        invocation.getArgument(3)));
+        when(orderRepository.findIdsByCustomerIdAndCreatedAtRange(eq(customerId), any(), any()))
+                .thenAnswer(invocation -> inRange(databaseOrders.stream(), invocation.getArgument(1),
+                        invocation.getArgument(2)).map(Order::getId).toList());
+    }
+
+    @Test
+    void pagesRunFromTheDatabaseIntoTheArchive() {
+        Order recent1 = order(HORIZON.plus(Duration.ofDays(30)));
+        Order recent2 = order(HORIZON.plus(Duration.ofDays(20)));
+        Order recent3 = order(HORIZON.plus(Duration.ofDays(10)));
+        // still PENDING, so never archived although it is older than the horizon
+        Order pending = order(HORIZON.minus(Duration.ofDays(5)));
+        // left in the database by an archival run that crashed before deleting it
+        Order leftover = order(HORIZON.minus(Duration.ofDays(40)));
+        databaseOrders.addAll(List.of(recent1, recent2, recent3, pending, leftover));
+        Order archived1 = order(HORIZON);
+        Order archived2 = order(HORIZON.minus(Duration.ofDays(60)));
+        archive(archived1, leftover, archived2);
+
+        Page<OrderDto> first = queryService.getOrdersByCustomerId(customerId, Instant.EPOCH,
+                HORIZON.plus(Duration.ofDays(60)), PageRequest.of(0, 4));
+        Page<OrderDto> second = queryService.getOrdersByCustomerId(customerId, Instant.EPOCH,
+                HORIZON.plus(Duration.ofDays(60)), PageRequest.of(1, 4));
+
+        assertThat(first.getTotalElements()).isEqualTo(7);
+        assertThat(first.getContent()).extracting(OrderDto::getId)
+                .containsExactly(recent1.getId(), recent2.getId(), recent3.getId(), archived1.getId());
+        assertThat(second.getContent()).extracting(OrderDto::getId)
+                .containsExactly(pending.getId(), leftover.getId(), archived2.getId());
+    }
+
+    @Test
+    void unboundedListingIncludesArchivedOrders() {
+        Order recent = order(HORIZON.plus(Duration.ofDays(1)));
+        databaseOrders.add(recent);
+        Order archived = order(HORIZON.minus(Duration.ofDays(1)));
+        archive(archived);
+
+        Page<OrderDto> page = queryService.getOrdersByCustomerId(customerId, PageRequest.of(0, 20));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(OrderDto::getId).containsExactly(recent.getId(), archived.getId());
+    }
+
+    @Test
+    void aPageReadsOnlyAsManyArchivedOrdersAsItReaches() {
+        databaseOrders.add(order(HORIZON.plus(Duration.ofDays(1))));
+        List<Order> archived = new ArrayList<>();
+        for (int day = 0; day < 50; day++) {
+            archived.add(order(HORIZON.minus(Duration.ofDays(day))));
+        }
+        archive(archived.toArray(Order[]::new));
+
+        Page<OrderDto> page = queryService.getOrdersByCustomerId(customerId, Instant.EPOCH,
+                HORIZON.plus(Duration.ofDays(60)), PageRequest.of(1, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(51);
+        assertThat(page.getContent()).extracting(OrderDto::getId)
+                .containsExactlyElementsOf(archived.subList(9, 19).stream().map(Order::getId).toList());
+        verify(orderArchive).findByCustomerId(eq(customerId), any(), any(), eq(19), any());
+        verify(orderArchive, never()).findByCustomerId(any(), any(), any());
+    }
+
+    @Test
+    void otherSortsAreRejectedOnceTheRangeReachesTheArchive() {
+        archive(order(HORIZON.minus(Duration.ofDays(1))));
+
+        assertThatThrownBy(() -> queryService.getOrdersByCustomerId(customerId, Instant.EPOCH,
+                HORIZON.plus(Duration.ofDays(1)), PageRequest.of(0, 20, Sort.by("totalAmount"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> queryService.getOrdersByCustomerId(customerId, Instant.EPOCH,
+                HORIZON.plus(Duration.ofDays(1)), PageRequest.of(0, 20, Sort.by(Sort.Direction.ASC, "createdAt"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(queryService.getOrdersByCustomerId(customerId, Instant.EPOCH, HORIZON.plus(Duration.ofDays(1)),
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"))).getTotalElements()).isEqualTo(1);
+    }
+
+    private void archive(Order... orders) {
+        Instant archivedThrough = Stream.of(orders).map(Order::getCreatedAt).max(Comparator.naturalOrder()).orElseThrow();
+        when(orderArchive.isEmpty()).thenReturn(false);
+        when(orderArchive.archivedThrough()).thenReturn(archivedThrough);
+        Set<UUID> ids = Stream.of(orders).map(Order::getId).collect(Collectors.toSet());
+        when(orderArchive.contains(any())).thenAnswer(invocation -> ids.contains(invocation.<UUID>getArgument(0)));
+        when(orderArchive.countByCustomerId(eq(customerId), any(), any())).thenAnswer(invocation ->
+                inRange(Stream.of(orders), invocation.getArgument(1), invocation.getArgument(2)).count());
+        when(orderArchive.findByCustomerId(eq(customerId), any(), any(), anyInt(), any())).thenAnswer(invocation -> {
+            Set<UUID> excluded = invocation.getArgument(4);
+            return inRange(Stream.of(orders), invocation.getArgument(1), invocation.getArgument(2))
+                    .filter(order -> !excluded.contains(order.getId()))
+                    .limit(invocation.<Integer>getArgument(3))
+                    .toList();
+        });
+    }
+
+    private Page<Order> databasePage(Instant from, Instant to, Pageable pageable) {
+        assertThat(pageable.isPaged()).as("database reads must be bounded").isTrue();
+        List<Order> matching = inRange(databaseOrders.stream(), from, to).toList();
+        int start = (int) Math.min(pageable.getOffset(), matching.size());
+        int end = Math.min(start + pageable.getPageSize(), matching.size());
+        return new PageImpl<>(matching.subList(start, end), pageable, matching.size());
+    }
+
+    private static Stream<Order> inRange(Stream<Order> orders, Instant from, Instant to) {
+        return orders.filter(order -> !order.getCreatedAt().isBefore(from) && order.getCreatedAt().isBefore(to))
+                .sorted(Comparator.comparing(Order::getCreatedAt).reversed());
+    }
+
+    private Order order(Instant createdAt) {
+        return Order.builder()
+                .id(UUID.randomUUID())
+                .customerId(customerId)
+                .items(new ArrayList<>())
+                .status("CONFIRMED")
+                .totalAmount(new BigDecimal("10.00"))
+                .createdAt(createdAt)
+                .build();
+    }
+}
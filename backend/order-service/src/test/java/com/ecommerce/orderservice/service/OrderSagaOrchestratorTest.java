@@ -0,0 +1,334 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.SagaCommandMessage;
+import com.ecommerce.orderservice.event.OrderStatusChangedEvent;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderSagaState;
+import com.ecommerce.orderservice.model.OrderSagaStep;
+import com.ecommerce.orderservice.result.SagaReplyMessage;
+import com.ecommerce.orderservice.support.MetricsCollector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs order sagas end to end over an embedded Kafka broker, with stub inventory and payment
+ * participants answering the command topics and in-memory stand-ins for the repositories.
+ */
+@SpringJUnitConfig(OrderSagaOrchestratorTest.Config.class)
+@EmbeddedKafka(partitions = 1, topics = {
+        OrderSagaOrchestratorTest.INVENTORY_TOPIC,
+        OrderSagaOrchestratorTest.PAYMENT_TOPIC,
+        OrderSagaOrchestratorTest.REPLY_TOPIC})
+@TestPropertySource(properties = {
+        "spring.application.name=order-service",
+        "order.saga.enabled=true",
+        "order.saga.step-timeout=2s",
+        "order.saga.inventory-command-topic=" + OrderSagaOrchestratorTest.INVENTORY_TOPIC,
+        "order.saga.payment-command-topic=" + OrderSagaOrchestratorTest.PAYMENT_TOPIC,
+        "order.saga.reply-topic=" + OrderSagaOrchestratorTest.REPLY_TOPIC})
+class OrderSagaOrchestratorTest {
+
+    static final String INVENTORY_TOPIC = "test.inventory-commands";
+    static final String PAYMENT_TOPIC = "test.payment-commands";
+    static final String REPLY_TOPIC = "test.saga-replies";
+    static final BigDecimal PAYMENT_LIMIT = new BigDecimal("1000");
+
+    @Autowired
+    private OrderSagaOrchestrator orchestrator;
+
+    @Autowired
+    private Participants participants;
+
+    @Autowired
+    private InMemoryStore store;
+
+    @Test
+    void confirmsOrderWhenEveryStepSucceeds() {
+        Order order = store.newOrder(UUID.randomUUID(), "50.00");
+
+        orchestrator.start(order);
+
+        await().atMost(Duration.ofSeconds(15)).untilAsserted(() ->
+                assertThat(store.statuses.get(order.getId())).isEqualTo("CONFIRMED"));
+        assertThat(store.sagas.get(order.getId()).getStep()).isEqualTo(OrderSagaStep.CONFIRMED);
+        assertThat(participants.received(order.getId()))
+                .containsExactly(SagaCommandMessage.Type.RESERVE_INVENTORY, SagaCommandMessage.Type.AUTHORIZE_PAYMENT);
+    }
+
+    @Test
+    void declinedPaymentReleasesInventoryAndCancels() {
+        Order order = store.newOrder(UUID.randomUUID(), "5000.00");
+
+        orchestrator.start(order);
+
+        await().atMost(Duration.ofSeconds(15)).untilAsserted(() -> {
+            assertThat(store.statuses.get(order.getId())).isEqualTo("CANCELLED");
+            assertThat(participants.received(order.getId())).containsExactly(
+                    SagaCommandMessage.Type.RESERVE_INVENTORY,
+                    SagaCommandMessage.Type.AUTHORIZE_PAYMENT,
+                    SagaCommandMessage.Type.RELEASE_INVENTORY);
+        });
+    }
+
+    @Test
+    void unansweredStepTimesOutAndCompensates() {
+        UUID customerId = UUID.randomUUID();
+        participants.silentCustomers.add(customerId);
+        Order order = store.newOrder(customerId, "20.00");
+
+        orchestrator.start(order);
+
+        await().atMost(Duration.ofSeconds(15)).untilAsserted(() -> {
+            assertThat(store.statuses.get(order.getId())).isEqualTo("CANCELLED");
+            assertThat(participants.received(order.getId())).containsExactly(
+                    SagaCommandMessage.Type.RESERVE_INVENTORY,
+                    SagaCommandMessage.Type.RELEASE_INVENTORY);
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedCommandPublishCancelsWithoutWaitingForTimeout() {
+        KafkaTemplate<String, String> brokenTemplate = mock(KafkaTemplate.class);
+        when(brokenTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker unavailable")));
+        MetricsCollector metrics = mock(MetricsCollector.class);
+        OrderSagaOrchestrator isolated = new OrderSagaOrchestrator(store.sagaRepository, store.orderRepository,
+                brokenTemplate, new ObjectMapper(), event -> { }, store.transactionTemplate, metrics,
+                new SyncTaskExecutor(), Duration.ofMinutes(5), INVENTORY_TOPIC, PAYMENT_TOPIC);
+        Order order = store.newOrder(UUID.randomUUID(), "10.00");
+        try {
+            isolated.start(order);
+
+            assertThat(store.sagas.get(order.getId()).getStep()).isEqualTo(OrderSagaStep.CANCELLED);
+            assertThat(store.statuses.get(order.getId())).isEqualTo("CANCELLED");
+            verify(metrics).incrementCounter("order.saga.send_failed");
+        } finally {
+            isolated.close();
+        }
+    }
+
+    @Configuration
+    @EnableKafka
+    @Import(OrderSagaOrchestrator.class)
+    static class Config {
+
+        @Bean
+        InMemoryStore store() {
+            return new InMemoryStore();
+        }
+
+        @Bean
+        OrderSagaStateRepository sagaRepository(InMemoryStore store) {
+            return store.sagaRepository;
+        }
+
+        @Bean
+        OrderRepository orderRepository(InMemoryStore store) {
+            return store.orderRepository;
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(InMemoryStore store) {
+            return store.transactionTemplate;
+        }
+
+        @Bean
+        MetricsCollector metricsCollector() {
+            return mock(MetricsCollector.class);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        TaskExecutor eventProcessingExecutor() {
+            return new SimpleAsyncTaskExecutor("saga-test-");
+        }
+
+        @Bean
+        KafkaTemplate<String, String> kafkaTemplate(@Value("${spring.embedded.kafka.brokers}") String brokers) {
+            return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of(
+                    ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                    ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                    ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class)));
+        }
+
+        @Bean
+        ConsumerFactory<String, String> consumerFactory(@Value("${spring.embedded.kafka.brokers}") String brokers) {
+            return new DefaultKafkaConsumerFactory<>(Map.of(
+                    ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                    ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                    ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                    ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class));
+        }
+
+        @Bean
+        ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
+                ConsumerFactory<String, String> consumerFactory) {
+            ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+            factory.setConsumerFactory(consumerFactory);
+            return factory;
+        }
+
+        @Bean
+        Participants participants(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
+            return new Participants(kafkaTemplate, objectMapper);
+        }
+    }
+
+    /**
+     * Stub inventory and payment services: reservations always succeed, payments above
+     * {@link #PAYMENT_LIMIT} are declined, and commands for silent customers are never answered.
+     */
+    static class Participants {
+
+        final Set<UUID> silentCustomers = ConcurrentHashMap.newKeySet();
+        private final Map<UUID, List<SagaCommandMessage.Type>> received = new ConcurrentHashMap<>();
+        private final KafkaTemplate<String, String> kafkaTemplate;
+        private final ObjectMapper objectMapper;
+
+        Participants(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
+            this.kafkaTemplate = kafkaTemplate;
+            this.objectMapper = objectMapper;
+        }
+
+        List<SagaCommandMessage.Type> received(UUID orderId) {
+            return received.getOrDefault(orderId, List.of());
+        }
+
+        @KafkaListener(topics = INVENTORY_TOPIC, groupId = "stub-inventory")
+        public void onInventoryCommand(String payload) throws Exception {
+            SagaCommandMessage command = record(payload);
+            if (command.getType() == SagaCommandMessage.Type.RESERVE_INVENTORY
+                    && !silentCustomers.contains(command.getCustomerId())) {
+                reply(command, true, null);
+            }
+        }
+
+        @KafkaListener(topics = PAYMENT_TOPIC, groupId = "stub-payment")
+        public void onPaymentCommand(String payload) throws Exception {
+            SagaCommandMessage command = record(payload);
+            if (command.getType() == SagaCommandMessage.Type.AUTHORIZE_PAYMENT) {
+                boolean approved = command.getAmount().compareTo(PAYMENT_LIMIT) <= 0;
+                reply(command, approved, approved ? null : "limit exceeded");
+            }
+        }
+
+        private SagaCommandMessage record(String payload) throws Exception {
+            SagaCommandMessage command = objectMapper.readValue(payload, SagaCommandMessage.class);
+            received.computeIfAbsent(command.getOrderId(), id -> new CopyOnWriteArrayList<>()).add(command.getType());
+            return command;
+        }
+
+        private void reply(SagaCommandMessage command, boolean success, String reason) throws Exception {
+            kafkaTemplate.send(REPLY_TOPIC, command.getOrderId().toString(), objectMapper.writeValueAsString(
+                    new SagaReplyMessage(command.getOrderId(), command.getType(), success, reason)));
+        }
+    }
+
+    /**
+     * Map-backed stand-ins for the order and saga repositories; status changes are observed
+     * through the OrderStatusChangedEvents the orchestrator publishes.
+     */
+    static class InMemoryStore {
+
+        final Map<UUID, Order> orders = new ConcurrentHashMap<>();
+        final Map<UUID, OrderSagaState> sagas = new ConcurrentHashMap<>();
+        final Map<UUID, String> statuses = new ConcurrentHashMap<>();
+        final OrderRepository orderRepository = mock(OrderRepository.class);
+        final OrderSagaStateRepository sagaRepository = mock(OrderSagaStateRepository.class);
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+        InMemoryStore() {
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+                Order order = invocation.getArgument(0);
+                orders.put(order.getId(), order);
+                return order;
+            });
+            when(orderRepository.findByOrderId(any())).thenAnswer(invocation ->
+                    Optional.ofNullable(orders.get(invocation.<UUID>getArgument(0))));
+            when(orderRepository.updateOrderStatusById(any(), anyString())).thenAnswer(invocation -> {
+                Order order = orders.get(invocation.<UUID>getArgument(0));
+                if (order == null) {
+                    return 0;
+                }
+                order.setStatus(invocation.getArgument(1));
+                statuses.put(order.getId(), order.getStatus());
+                return 1;
+            });
+            when(sagaRepository.save(any(OrderSagaState.class))).thenAnswer(invocation -> {
+                OrderSagaState state = invocation.getArgument(0);
+                sagas.put(state.getOrderId(), state);
+                return state;
+            });
+            when(sagaRepository.findById(any())).thenAnswer(invocation ->
+                    Optional.ofNullable(sagas.get(invocation.<UUID>getArgument(0))));
+            when(sagaRepository.findByStepIn(any())).thenReturn(List.of());
+        }
+
+        Order newOrder(UUID customerId, String amount) {
+            return Order.builder()
+                    .id(UUID.randomUUID())
+                    .customerId(customerId)
+                    .items(List.of())
+                    .status("PENDING")
+                    .totalAmount(new BigDecimal(amount))
+                    .createdAt(Instant.now())
+                    .build();
+        }
+
+        @EventListener
+        public void onStatusChanged(OrderStatusChangedEvent event) {
+            statuses.put(event.getOrderId(), event.getNewStatus());
+        }
+    }
+}
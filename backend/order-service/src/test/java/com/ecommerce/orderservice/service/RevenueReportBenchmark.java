@@ -0,0 +1,149 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.RevenueReportCriteria;
+import com.ecommerce.orderservice.dto.RevenueReportDto;
+import com.ecommerce.orderservice.support.OrderArchive;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A year's revenue report over 10M item rows (2.5M confirmed orders of four items each, spread
+ * over 10,000 products and the last 365 days), folded on the cursor thread ({@code parallel=false})
+ * and by {@code workers} pool workers ({@code parallel=true}). JMH reports the runtime of both;
+ * each run also prints the rows and elapsed time the service itself measured. Setup generates the
+ * rows with generate_series in a Postgres 16 container, which needs about 2GB of Docker disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RevenueReportBenchmark {
+
+    private static final String LOAD_ORDERS = """
+            INSERT INTO orders (id, customer_id, status, total_amount, created_at)
+            SELECT gen_random_uuid(), gen_random_uuid(), 'CONFIRMED', 0, ?::timestamptz - random() * interval '365 days'
+            FROM generate_series(1, ?)""";
+
+    private static final String LOAD_ITEMS = """
+            INSERT INTO order_items (id, order_id, product_id, quantity, unit_price, total_price)
+            SELECT gen_random_uuid(), order_id, md5(product::text)::uuid, quantity, unit_price, quantity * unit_price
+            FROM (SELECT o.id AS order_id, floor(random() * ?)::int AS product, 1 + floor(random() * 5)::int AS quantity,
+                      round((1 + random() * 99)::numeric, 2) AS unit_price
+                  FROM orders o CROSS JOIN generate_series(1, ?)) t""";
+
+    @Param("10000000")
+    private int itemRows;
+
+    @Param("4")
+    private int itemsPerOrder;
+
+    @Param("10000")
+    private int products;
+
+    @Param("4")
+    private int workers;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private GenericContainer<?> postgres;
+    private HikariDataSource dataSource;
+    private Path archiveDirectory;
+    private RevenueReportService reportService;
+    private RevenueReportCriteria criteria;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                .withEnv("POSTGRES_PASSWORD", "test")
+                .withCommand("postgres", "-c", "shared_buffers=1GB", "-c", "max_wal_size=8GB")
+                .withSharedMemorySize(2L * 1024 * 1024 * 1024)
+                .withExposedPorts(5432)
+                .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+        postgres.start();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getMappedPort(5432) + "/postgres");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("test");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE orders (id UUID PRIMARY KEY, customer_id UUID NOT NULL, status VARCHAR(32) NOT NULL,
+                    total_amount NUMERIC(19, 2) NOT NULL, created_at TIMESTAMPTZ NOT NULL)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE order_items (id UUID PRIMARY KEY, order_id UUID NOT NULL, product_id UUID NOT NULL,
+                    quantity INT NOT NULL, unit_price NUMERIC(19, 2) NOT NULL, total_price NUMERIC(19, 2) NOT NULL)""");
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        long began = System.nanoTime();
+        jdbcTemplate.update(LOAD_ORDERS, Timestamp.from(now), itemRows / itemsPerOrder);
+        jdbcTemplate.update(LOAD_ITEMS, products, itemsPerOrder);
+        jdbcTemplate.execute("CREATE INDEX idx_orders_created_at ON orders (created_at)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_items_order_id ON order_items (order_id)");
+        jdbcTemplate.execute("VACUUM ANALYZE");
+        System.out.printf("%nLoaded %d orders with %d items in %d s%n",
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class),
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Long.class),
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - began));
+
+        archiveDirectory = Files.createTempDirectory("revenue-report-bench");
+        OrderArchive archive = new OrderArchive(archiveDirectory, true, jdbcTemplate, new SimpleMeterRegistry());
+        archive.openSegments();
+        reportService = new RevenueReportService(jdbcTemplate, new DataSourceTransactionManager(dataSource), archive,
+                workers, 8192, 10_000, Duration.ofDays(366), Duration.ofMinutes(30), DataSize.ofMegabytes(512), 1,
+                List.of("CONFIRMED"));
+        criteria = RevenueReportCriteria.builder()
+                .from(now.minus(Duration.ofDays(365)))
+                .to(now.plusSeconds(1))
+                .productLimit(100)
+                .parallel(parallel)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reportService.close();
+        dataSource.close();
+        postgres.stop();
+        Files.deleteIfExists(archiveDirectory);
+    }
+
+    @Benchmark
+    public RevenueReportDto report() {
+        RevenueReportDto report = reportService.run(criteria);
+        System.out.printf("%n%s: %d rows with %d workers in %d ms (%d rows/s)%n",
+                parallel ? "parallel" : "single-threaded", report.getRowsScanned(), report.getWorkers(),
+                report.getElapsedMillis(), report.getRowsScanned() * 1000 / Math.max(1, report.getElapsedMillis()));
+        return report;
+    }
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.command.RevenueReportCriteria;
+import com.ecommerce.orderservice.dto.RevenueReportDto;
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.ecommerce.orderservice.support.OrderArchive;
+import com.ecommerce.orderservice.support.OrderSegmentWriter;
+import com.ecommerce.orderservice.support.TimeOrderedUuid;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a revenue report over a range that is partly archived: orders still in Postgres, orders
+ * only in archive segments, and one left in both by an interrupted archival run must each be
+ * counted exactly once, with and without parallel workers.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RevenueReportServiceTest {
+
+    @Container
+    static final GenericContainer<?> POSTGRES = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+            .withEnv("POSTGRES_PASSWORD", "test")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static final Instant NOW = Instant.parse("2026-10-18T00:00:00Z");
+
+    @TempDir
+    Path archiveDirectory;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final UUID productId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://" + POSTGRES.getHost() + ":" + POSTGRES.getMappedPort(5432) + "/postgres");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("test");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS order_items, orders");
+        jdbcTemplate.execute("""
+                CREATE TABLE orders (id UUID PRIMARY KEY, customer_id UUID NOT NULL, status VARCHAR(32) NOT NULL,
+                    total_amount NUMERIC(19, 2) NOT NULL, created_at TIMESTAMPTZ NOT NULL)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE order_items (id UUID PRIMARY KEY, order_id UUID NOT NULL, product_id UUID NOT NULL,
+                    quantity INT NOT NULL, unit_price NUMERIC(19, 2) NOT NULL, total_price NUMERIC(19, 2) NOT NULL)""");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void archivedOrdersAreCountedOnce() throws Exception {
+        List<Order> archived = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            archived.add(order(NOW.minus(Duration.ofDays(200)).plus(Duration.ofMinutes(i)), "10.00"));
+        }
+        // written to a segment, but the run crashed before deleting it from Postgres
+        Order leftover = archived.get(0);
+        insert(leftover);
+        for (int i = 0; i < 500; i++) {
+            insert(order(NOW.minus(Duration.ofDays(10)).plus(Duration.ofMinutes(i)), "2.50"));
+        }
+        OrderSegmentWriter.write(archiveDirectory.resolve("orders-0.seg"), archived);
+        OrderArchive archive = new OrderArchive(archiveDirectory, true, jdbcTemplate, new SimpleMeterRegistry());
+        archive.openSegments();
+        RevenueReportService service = new RevenueReportService(jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), archive, 4, 64, 100, Duration.ofDays(366),
+                Duration.ofMinutes(1), DataSize.ofMegabytes(64), 2, List.of("CONFIRMED"));
+
+        try {
+            for (boolean parallel : new boolean[]{false, true}) {
+                RevenueReportDto report = service.run(RevenueReportCriteria.builder()
+                        .from(NOW.minus(Duration.ofDays(365)))
+                        .to(NOW)
+                        .productLimit(10)
+                        .parallel(parallel)
+                        .build());
+
+                assertThat(report.getRowsScanned()).isEqualTo(800);
+                assertThat(report.getTotalRevenue()).isEqualByComparingTo("4250.00");
+                assertThat(report.getByProduct()).singleElement()
+                        .satisfies(product -> assertThat(product.getUnits()).isEqualTo(800));
+            }
+
+            RevenueReportDto recentOnly = service.run(RevenueReportCriteria.builder()
+                    .from(NOW.minus(Duration.ofDays(30)))
+                    .to(NOW)
+                    .productLimit(10)
+                    .parallel(true)
+                    .build());
+            assertThat(recentOnly.getTotalRevenue()).isEqualByComparingTo("1250.00");
+        } finally {
+            service.close();
+        }
+    }
+
+    private Order order(Instant createdAt, String amount) {
+        BigDecimal price = new BigDecimal(amount);
+        return Order.builder()
+                .id(TimeOrderedUuid.next(createdAt.toEpochMilli()))
+                .customerId(UUID.randomUUID())
+                .items(new ArrayList<>(List.of(OrderItem.builder()
+                        .id(UUID.randomUUID())
+                        .productId(productId)
+                        .quantity(1)
+                        .unitPrice(price)
+                        .totalPrice(price)
+                        .build())))
+                .status("CONFIRMED")
+                .totalAmount(price)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private void insert(Order order) {
+        jdbcTemplate.update("INSERT INTO orders (id, customer_id, status, total_amount, created_at) VALUES (?, ?, ?, ?, ?)",
+                order.getId(), order.getCustomerId(), order.getStatus(), order.getTotalAmount(),
+                Timestamp.from(order.getCreatedAt()));
+        OrderItem item = order.getItems().get(0);
+        jdbcTemplate.update("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price, total_price) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)", item.getId(), order.getId(), item.getProductId(),
+                item.getQuantity(), item.getUnitPrice(), item.getTotalPrice());
+    }
+}
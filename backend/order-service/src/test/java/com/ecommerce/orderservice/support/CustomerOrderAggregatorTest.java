@@ -0,0 +1,143 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.dto.CustomerOrderSummaryDto;
+import com.ecommerce.orderservice.event.OrderCreatedEvent;
+import com.ecommerce.orderservice.event.OrderStatusChangedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the aggregate outbox against a real Postgres: deltas must follow the fate of the
+ * transaction that wrote them, survive a restart, and be applied exactly once when several
+ * instances drain the outbox at the same time.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CustomerOrderAggregatorTest {
+
+    @Container
+    static final GenericContainer<?> POSTGRES = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+            .withEnv("POSTGRES_PASSWORD", "test")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://" + POSTGRES.getHost() + ":" + POSTGRES.getMappedPort(5432) + "/postgres");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("test");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS customer_order_aggregates, customer_order_aggregate_deltas");
+        new ResourceDatabasePopulator(new ClassPathResource("db/aggregates/customer_order_aggregates.sql"))
+                .execute(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void deltaOnlyExistsWhenItsTransactionCommits() {
+        CustomerOrderAggregator aggregator = aggregator(100);
+        UUID customerId = UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            aggregator.onOrderCreated(created(customerId, "10.00"));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> aggregator.onOrderCreated(created(customerId, "25.50")));
+        aggregator.flush();
+
+        CustomerOrderSummaryDto summary = aggregator.summary(customerId);
+        assertThat(summary.getTotalOrders()).isEqualTo(1);
+        assertThat(summary.getLifetimeSpend()).isEqualByComparingTo("25.50");
+    }
+
+    @Test
+    void queuedDeltasSurviveRestartAndApplyOnce() {
+        UUID customerId = UUID.randomUUID();
+        CustomerOrderAggregator crashed = aggregator(100);
+        crashed.onOrderCreated(created(customerId, "40.00"));
+        crashed.onOrderStatusChanged(new OrderStatusChangedEvent(UUID.randomUUID(), customerId,
+                "PENDING", "CANCELLED", new BigDecimal("40.00")));
+
+        CustomerOrderAggregator restarted = aggregator(100);
+        restarted.flush();
+        restarted.flush();
+
+        CustomerOrderSummaryDto summary = restarted.summary(customerId);
+        assertThat(summary.getByStatus().get("PENDING").getCount()).isZero();
+        assertThat(summary.getByStatus().get("CANCELLED").getCount()).isEqualTo(1);
+        assertThat(summary.getLifetimeSpend()).isEqualByComparingTo("0");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_order_aggregate_deltas", Long.class))
+                .isZero();
+    }
+
+    @Test
+    void concurrentInstancesApplyEachDeltaExactlyOnce() throws Exception {
+        List<CustomerOrderAggregator> instances = List.of(aggregator(50), aggregator(50), aggregator(50));
+        List<UUID> customers = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        int ordersPerCustomer = 400;
+        for (int i = 0; i < ordersPerCustomer; i++) {
+            for (UUID customerId : customers) {
+                instances.get(i % instances.size()).onOrderCreated(created(customerId, "1.25"));
+            }
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> flushes = instances.stream()
+                .map(instance -> CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    instance.flush();
+                }))
+                .toList();
+        start.countDown();
+        CompletableFuture.allOf(flushes.toArray(CompletableFuture[]::new)).join();
+
+        for (UUID customerId : customers) {
+            CustomerOrderSummaryDto summary = instances.get(0).summary(customerId);
+            assertThat(summary.getTotalOrders()).isEqualTo(ordersPerCustomer);
+            assertThat(summary.getLifetimeSpend()).isEqualByComparingTo("500.00");
+        }
+    }
+
+    private CustomerOrderAggregator aggregator(int batchSize) {
+        return new CustomerOrderAggregator(jdbcTemplate, transactionTemplate, batchSize);
+    }
+
+    private static OrderCreatedEvent created(UUID customerId, String amount) {
+        return new OrderCreatedEvent(UUID.randomUUID(), customerId, "PENDING", new BigDecimal(amount),
+                Instant.now(), List.of());
+    }
+}
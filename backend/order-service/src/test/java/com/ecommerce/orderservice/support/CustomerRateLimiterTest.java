@@ -0,0 +1,128 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.config.RateLimitProperties;
+import com.ecommerce.orderservice.result.RateLimitDecision;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Three limiter instances, each with its own Redis connection as separate nodes would have,
+ * hammer one customer's bucket well above its rate. Admissions must never exceed what the
+ * bucket can hand out, and may fall short of it only by a few percent (leased tokens left
+ * unspent when the run ends, and retry-after pauses).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CustomerRateLimiterTest {
+
+    private static final int NODES = 3;
+    private static final long CAPACITY = 50;
+    private static final double REFILL_PER_SECOND = 100;
+    private static final long LEASE_SIZE = 10;
+    private static final Duration RUN = Duration.ofSeconds(10);
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private final List<LettuceConnectionFactory> connections = new ArrayList<>();
+    private final List<CustomerRateLimiter> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Tier tier = new RateLimitProperties.Tier();
+        tier.setCapacity(CAPACITY);
+        tier.setRefillPerSecond(REFILL_PER_SECOND);
+        tier.setLeaseSize(LEASE_SIZE);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(true);
+        properties.setTiers(Map.of("standard", tier));
+
+        for (int i = 0; i < NODES; i++) {
+            LettuceConnectionFactory connection = new LettuceConnectionFactory(
+                    new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+            connection.afterPropertiesSet();
+            connection.start();
+            connections.add(connection);
+            nodes.add(new CustomerRateLimiter(new StringRedisTemplate(connection), properties));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        connections.forEach(LettuceConnectionFactory::destroy);
+    }
+
+    @Test
+    void admissionsAcrossThreeNodesStayWithinBucketLimit() throws Exception {
+        Authentication customer = new UsernamePasswordAuthenticationToken(UUID.randomUUID().toString(), null, List.of());
+        AtomicLong admitted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong missingRetryAfter = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (CustomerRateLimiter node : nodes) {
+            // two request threads per node so local lease spending is contended too
+            for (int t = 0; t < 2; t++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long end = System.nanoTime() + RUN.toNanos();
+                    while (System.nanoTime() < end) {
+                        RateLimitDecision decision = node.tryAcquire(customer);
+                        if (decision.isAllowed()) {
+                            admitted.incrementAndGet();
+                        } else {
+                            rejected.incrementAndGet();
+                            if (decision.getRetryAfterMillis() <= 0) {
+                                missingRetryAfter.incrementAndGet();
+                            }
+                        }
+                        try {
+                            Thread.sleep(1);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsedSeconds = (System.nanoTime() - began) / 1e9;
+
+        double allowance = CAPACITY + REFILL_PER_SECOND * elapsedSeconds;
+        assertThat(rejected.get()).as("offered load must exceed the limit").isGreaterThan(admitted.get());
+        assertThat((double) admitted.get()).isLessThanOrEqualTo(allowance + 1);
+        assertThat((double) admitted.get()).isGreaterThanOrEqualTo(allowance * 0.95);
+        assertThat(missingRetryAfter.get()).isZero();
+    }
+}
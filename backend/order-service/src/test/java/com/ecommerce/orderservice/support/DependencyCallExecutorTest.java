@@ -0,0 +1,124 @@
+package com.ecommerce.orderservice.support;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the three validation dependencies with stub clients that answer in 2ms except for
+ * every 33rd call, which takes 200ms, and compares the p99 of the combined "order" latency
+ * (all three calls in parallel, as in validateOrderAsync) with hedging off and on.
+ */
+class DependencyCallExecutorTest {
+
+    private static final int WARMUP_ORDERS = 100;
+    private static final int MEASURED_ORDERS = 400;
+
+    private final ScheduledExecutorService hedgeScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<ExecutorService> pools = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        hedgeScheduler.shutdownNow();
+        pools.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Test
+    void hedgingCutsOrderP99UnderLongTailDependencies() throws Exception {
+        long unhedgedP99 = orderP99Millis(false);
+        long hedgedP99 = orderP99Millis(true);
+
+        assertThat(unhedgedP99).isGreaterThanOrEqualTo(150);
+        assertThat(hedgedP99).isLessThan(80);
+    }
+
+    @Test
+    void callIsBoundedByRemainingBudget() {
+        DependencyCallExecutor executor = executor("slow", true);
+        long start = System.nanoTime();
+
+        CompletableFuture<Boolean> result = executor.call(() -> sleepThen(500), Duration.ofMillis(50));
+
+        assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(400);
+    }
+
+    @Test
+    void exhaustedBudgetFailsWithoutCallingDependency() {
+        DependencyCallExecutor executor = executor("none", true);
+        AtomicLong calls = new AtomicLong();
+
+        CompletableFuture<Boolean> result = executor.call(() -> {
+            calls.incrementAndGet();
+            return true;
+        }, Duration.ZERO);
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(calls).hasValue(0);
+    }
+
+    private long orderP99Millis(boolean hedging) throws Exception {
+        List<DependencyCallExecutor> dependencies = List.of(
+                executor("inventory-" + hedging, hedging),
+                executor("customer-" + hedging, hedging),
+                executor("payment-" + hedging, hedging));
+        List<Supplier<Boolean>> stubs = List.of(longTailStub(), longTailStub(), longTailStub());
+
+        long[] latencies = new long[MEASURED_ORDERS];
+        for (int i = 0; i < WARMUP_ORDERS + MEASURED_ORDERS; i++) {
+            long start = System.nanoTime();
+            CompletableFuture<?>[] calls = new CompletableFuture<?>[dependencies.size()];
+            for (int d = 0; d < calls.length; d++) {
+                calls[d] = dependencies.get(d).call(stubs.get(d), Duration.ofSeconds(2));
+            }
+            CompletableFuture.allOf(calls).get(5, TimeUnit.SECONDS);
+            if (i >= WARMUP_ORDERS) {
+                latencies[i - WARMUP_ORDERS] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        return TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(0.99 * latencies.length) - 1]);
+    }
+
+    private DependencyCallExecutor executor(String name, boolean hedging) {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        pools.add(pool);
+        Bulkhead bulkhead = Bulkhead.of(name, BulkheadConfig.custom().maxConcurrentCalls(16).build());
+        LatencyTracker latencyTracker = new LatencyTracker(256, 0.95, TimeUnit.MILLISECONDS.toNanos(10));
+        return new DependencyCallExecutor(name, CircuitBreaker.ofDefaults(name), bulkhead, pool,
+                hedgeScheduler, latencyTracker, Duration.ofSeconds(3), Duration.ofMillis(10), hedging);
+    }
+
+    private static Supplier<Boolean> longTailStub() {
+        AtomicLong calls = new AtomicLong();
+        return () -> sleepThen(calls.incrementAndGet() % 33 == 0 ? 200 : 2);
+    }
+
+    private static boolean sleepThen(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+}
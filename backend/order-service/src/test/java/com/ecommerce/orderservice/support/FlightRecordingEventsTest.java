@@ -0,0 +1,110 @@
+package com.ecommerce.orderservice.support;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Records the custom events with the thresholds FlightRecordingManager uses, dumps the
+ * recording to disk and reads it back with the JFR consumer API.
+ */
+class FlightRecordingEventsTest {
+
+    private static final String STAGE_EVENT = "com.ecommerce.order.Stage";
+    private static final String STORE_EVENT = "com.ecommerce.order.CacheOperation";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordingContainsSlowStagesAndStoreRoundTrips() throws Exception {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet(eq("order:create:slow"), any())).thenAnswer(invocation -> {
+            Thread.sleep(30);
+            return Arrays.asList("1", UUID.randomUUID().toString(), "42", "0");
+        });
+        when(hashOperations.multiGet(eq("order:create:fast"), any())).thenReturn(Arrays.asList(null, null, null, null));
+        when(hashOperations.multiGet(eq("order:create:down"), any())).thenAnswer(invocation -> {
+            Thread.sleep(15);
+            throw new IllegalStateException("redis down");
+        });
+        RedisIdempotencyStore store = new RedisIdempotencyStore(redisTemplate, Duration.ofMinutes(10));
+        UUID customerId = UUID.randomUUID();
+        Path dump = tempDir.resolve("events.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(OrderStageEvent.class).withThreshold(Duration.ofMillis(20));
+            recording.enable(CacheOperationEvent.class).withThreshold(Duration.ofMillis(10));
+            recording.start();
+
+            assertThat(store.get("order:create:slow")).isNotNull();
+            assertThat(store.get("order:create:fast")).isNull();
+            assertThatThrownBy(() -> store.get("order:create:down")).isInstanceOf(IllegalStateException.class);
+            OrderStageEvent.record("validation.inventory", customerId, () -> sleep(40));
+            OrderStageEvent.record("factory", customerId, () -> { });
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+        List<RecordedEvent> storeEvents = events.stream()
+                .filter(event -> event.getEventType().getName().equals(STORE_EVENT))
+                .toList();
+        assertThat(storeEvents).extracting(event -> event.getString("key"))
+                .containsExactlyInAnyOrder("order:create:slow", "order:create:down");
+        RecordedEvent slowGet = find(storeEvents, "key", "order:create:slow");
+        assertThat(slowGet.getString("operation")).isEqualTo("idempotency.get");
+        assertThat(slowGet.getBoolean("hit")).isTrue();
+        assertThat(slowGet.getBoolean("failed")).isFalse();
+        assertThat(slowGet.getDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(30));
+        RecordedEvent failedGet = find(storeEvents, "key", "order:create:down");
+        assertThat(failedGet.getBoolean("failed")).isTrue();
+        assertThat(failedGet.getBoolean("hit")).isFalse();
+
+        List<RecordedEvent> stageEvents = events.stream()
+                .filter(event -> event.getEventType().getName().equals(STAGE_EVENT))
+                .toList();
+        assertThat(stageEvents).hasSize(1);
+        RecordedEvent stage = stageEvents.get(0);
+        assertThat(stage.getString("stage")).isEqualTo("validation.inventory");
+        assertThat(stage.getString("customerId")).isEqualTo(customerId.toString());
+        assertThat(stage.getDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(40));
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String field, String value) {
+        return events.stream()
+                .filter(event -> value.equals(event.getString(field)))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.orderservice.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Memory taken by 1M completed idempotency records in each store, and the latency of looking
+ * one up. Keys have the production shape, {@code order:create:<customer>:<client key>}. Setup
+ * fills the store and prints what the backend itself reports: for Redis the growth of
+ * {@code used_memory} (which includes the expiry entries) next to {@code MEMORY USAGE} sampled
+ * over 1,000 keys; for the file store the size of the mapped table; for Postgres
+ * {@code pg_total_relation_size} of the table with its primary key index. Redis 7 and Postgres
+ * 16 run in containers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IdempotencyStoreBenchmark {
+
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final int MEMORY_USAGE_SAMPLES = 1_000;
+
+    @Param({"redis", "file", "postgres"})
+    private String store;
+
+    @Param("1000000")
+    private int keys;
+
+    private GenericContainer<?> container;
+    private LettuceConnectionFactory redisConnectionFactory;
+    private HikariDataSource dataSource;
+    private Path file;
+    private IdempotencyStore idempotencyStore;
+    private String[] storedKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storedKeys = new String[keys];
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < keys; i++) {
+            storedKeys[i] = "order:create:" + new UUID(random.nextLong(), random.nextLong())
+                    + ":" + new UUID(random.nextLong(), random.nextLong());
+        }
+        switch (store) {
+            case "redis" -> measureRedis();
+            case "file" -> measureFile();
+            case "postgres" -> measurePostgres();
+            default -> throw new IllegalArgumentException("Unknown store " + store);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (idempotencyStore instanceof FileIdempotencyStore fileStore) {
+            fileStore.close();
+            Files.deleteIfExists(file);
+        }
+        if (redisConnectionFactory != null) {
+            redisConnectionFactory.destroy();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Benchmark
+    public IdempotencyRecord lookup() {
+        return idempotencyStore.get(storedKeys[ThreadLocalRandom.current().nextInt(storedKeys.length)]);
+    }
+
+    private void measureRedis() {
+        container = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+                .withExposedPorts(6379)
+                .waitingFor(Wait.forLogMessage(".*Ready to accept connections.*", 1));
+        container.start();
+        redisConnectionFactory = new LettuceConnectionFactory(container.getHost(), container.getMappedPort(6379));
+        redisConnectionFactory.afterPropertiesSet();
+        redisConnectionFactory.start();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        idempotencyStore = new RedisIdempotencyStore(redisTemplate, TTL);
+
+        long before = redisUsedMemory(redisTemplate);
+        long fillMillis = fill();
+        long grown = redisUsedMemory(redisTemplate) - before;
+        long sampled = 0;
+        for (int i = 0; i < MEMORY_USAGE_SAMPLES; i++) {
+            byte[] key = storedKeys[i * (keys / MEMORY_USAGE_SAMPLES)].getBytes(StandardCharsets.UTF_8);
+            sampled += redisTemplate.execute((RedisCallback<Long>) connection ->
+                    (Long) connection.execute("MEMORY", "USAGE".getBytes(StandardCharsets.UTF_8), key));
+        }
+        report(fillMillis, grown, "used_memory growth");
+        System.out.printf("MEMORY USAGE averages %d B per key, %d MiB per 1M keys (no expiry entry)%n",
+                sampled / MEMORY_USAGE_SAMPLES, sampled / MEMORY_USAGE_SAMPLES * 1_000_000 >> 20);
+    }
+
+    private void measureFile() throws IOException {
+        file = Files.createTempFile("idempotency-bench", ".tbl");
+        // the default capacity is 2M slots for 1M keys; keep the same load factor
+        idempotencyStore = new FileIdempotencyStore(file, keys * 2, TTL);
+        long fillMillis = fill();
+        report(fillMillis, Files.size(file), "mapped table size");
+    }
+
+    private void measurePostgres() {
+        container = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                .withEnv("POSTGRES_PASSWORD", "test")
+                .withExposedPorts(5432)
+                .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+        container.start();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://" + container.getHost() + ":" + container.getMappedPort(5432) + "/postgres");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("test");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        idempotencyStore = new JdbcIdempotencyStore(jdbcTemplate, TTL);
+
+        long fillMillis = fill();
+        jdbcTemplate.execute("VACUUM ANALYZE order_idempotency");
+        report(fillMillis, jdbcTemplate.queryForObject("SELECT pg_total_relation_size('order_idempotency')", Long.class),
+                "pg_total_relation_size");
+        System.out.printf("of which heap %d MiB, primary key index %d MiB%n",
+                jdbcTemplate.queryForObject("SELECT pg_relation_size('order_idempotency')", Long.class) >> 20,
+                jdbcTemplate.queryForObject("SELECT pg_indexes_size('order_idempotency')", Long.class) >> 20);
+    }
+
+    private long fill() {
+        long began = System.nanoTime();
+        IntStream.range(0, keys).parallel().forEach(i -> {
+            SplittableRandom random = new SplittableRandom(i);
+            idempotencyStore.putIfAbsent(storedKeys[i],
+                    IdempotencyRecord.completed(new UUID(random.nextLong(), random.nextLong()), random.nextLong()));
+        });
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+    }
+
+    private void report(long fillMillis, long bytes, String measure) {
+        System.out.printf("%n%s: stored %d keys in %d ms; %s %d MiB, %d B per key, %d MiB per 1M keys%n",
+                store, keys, fillMillis, measure, bytes >> 20, bytes / keys, bytes * 1_000_000 / keys >> 20);
+    }
+
+    private static long redisUsedMemory(StringRedisTemplate redisTemplate) {
+        Properties memory = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("memory"));
+        return Long.parseLong(memory.getProperty("used_memory"));
+    }
+}
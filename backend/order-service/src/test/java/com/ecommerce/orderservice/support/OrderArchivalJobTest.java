@@ -0,0 +1,214 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.model.Order;
+import com.ecommerce.orderservice.model.OrderItem;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the archival job against a real Postgres: a run that crashed after registering its
+ * segment must not archive the same orders twice, a second instance on local disk must refuse
+ * to start, only one instance may archive at a time, and a replica sharing the directory must
+ * pick up segments archived after it started.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OrderArchivalJobTest {
+
+    @Container
+    static final GenericContainer<?> POSTGRES = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+            .withEnv("POSTGRES_PASSWORD", "test")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static final Instant NOW = Instant.parse("2026-10-18T00:00:00Z");
+
+    @TempDir
+    Path archiveDirectory;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final List<OrderArchivalJob> jobs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://" + POSTGRES.getHost() + ":" + POSTGRES.getMappedPort(5432) + "/postgres");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("test");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS order_items, orders");
+        jdbcTemplate.execute("""
+                CREATE TABLE orders (id UUID PRIMARY KEY, customer_id UUID NOT NULL, status VARCHAR(32) NOT NULL,
+                    total_amount NUMERIC(19, 2) NOT NULL, price_version BIGINT, shipping_address VARCHAR(255),
+                    created_at TIMESTAMPTZ NOT NULL, version BIGINT NOT NULL)""");
+        jdbcTemplate.execute("""
+                CREATE TABLE order_items (id UUID PRIMARY KEY, order_id UUID NOT NULL, product_id UUID NOT NULL,
+                    quantity INT NOT NULL, unit_price NUMERIC(19, 2) NOT NULL, total_price NUMERIC(19, 2) NOT NULL)""");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobs.forEach(OrderArchivalJob::releaseLocalArchive);
+        dataSource.close();
+    }
+
+    @Test
+    void ordersLeftBehindByACrashAreDeletedWithoutBeingArchivedTwice() throws Exception {
+        List<Order> orders = insertOrders(5);
+        OrderArchive archive = archive(false);
+        // a crashed run: the segment was written and registered, the rows were never deleted
+        Path segment = archive.newSegmentPath();
+        OrderSegmentWriter.write(segment, orders.subList(0, 3));
+        archive.register(segment);
+
+        job(archive).archive();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class)).isZero();
+        assertThat(segmentFiles()).hasSize(2);
+        // the job still holds the local-owner lock, so reopen the directory as a shared reader
+        OrderArchive reopened = archive(true);
+        long[] archivedOrders = {0};
+        reopened.forEachTotal((customerId, status, amount) -> archivedOrders[0]++);
+        assertThat(archivedOrders[0]).isEqualTo(5);
+        orders.forEach(order -> assertThat(reopened.findById(order.getId())).isPresent());
+    }
+
+    @Test
+    void secondInstanceWithLocalStorageRefusesToStart() throws Exception {
+        job(archive(false));
+
+        assertThatThrownBy(() -> archive(false)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> job(new OrderArchive(archiveDirectory, false, jdbcTemplate, new SimpleMeterRegistry())))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void onlyOneInstanceArchivesAtATime() throws Exception {
+        insertOrders(4);
+        OrderArchivalJob first = job(archive(true));
+        OrderArchivalJob second = job(archive(true));
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            // hold the run lock as if another instance were mid-run
+            connection.createStatement().execute("SELECT pg_advisory_lock(" + OrderArchivalJob.RUN_LOCK + ")");
+            try {
+                second.archive();
+                assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class)).isEqualTo(4);
+            } finally {
+                connection.createStatement().execute("SELECT pg_advisory_unlock(" + OrderArchivalJob.RUN_LOCK + ")");
+            }
+            return null;
+        });
+        first.archive();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class)).isZero();
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    @Test
+    void sharedReplicaSeesSegmentsArchivedAfterItStarted() throws Exception {
+        List<Order> orders = insertOrders(3);
+        OrderArchive replica = archive(true);
+        job(archive(true)).archive();
+        Order order = orders.get(0);
+        Instant from = order.getCreatedAt().minusSeconds(1);
+        Instant to = order.getCreatedAt().plusSeconds(1);
+
+        assertThat(replica.findByCustomerId(order.getCustomerId(), from, to)).isEmpty();
+        // lookups by id rescan on a miss at most once a second
+        Thread.sleep(1_100);
+        assertThat(replica.findById(order.getId())).isPresent();
+        assertThat(replica.findByCustomerId(order.getCustomerId(), from, to)).singleElement()
+                .satisfies(found -> assertThat(found.getId()).isEqualTo(order.getId()));
+        assertThat(replica.refresh()).isZero();
+
+        OrderArchive other = archive(true);
+        Path segment = other.newSegmentPath();
+        OrderSegmentWriter.write(segment, orders.subList(1, 2));
+        other.register(segment);
+        assertThat(replica.refresh()).isEqualTo(1);
+    }
+
+    private OrderArchive archive(boolean sharedStorage) throws Exception {
+        OrderArchive archive = new OrderArchive(archiveDirectory, sharedStorage, jdbcTemplate, new SimpleMeterRegistry());
+        archive.openSegments();
+        return archive;
+    }
+
+    private OrderArchivalJob job(OrderArchive archive) throws Exception {
+        OrderArchivalJob job = new OrderArchivalJob(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), archive,
+                Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofDays(90), List.of("CONFIRMED", "CANCELLED"), 100,
+                Duration.ZERO);
+        job.claimLocalArchive();
+        jobs.add(job);
+        return job;
+    }
+
+    private List<Order> insertOrders(int count) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Instant createdAt = NOW.minus(Duration.ofDays(200 + i));
+            UUID orderId = TimeOrderedUuid.next(createdAt.toEpochMilli());
+            OrderItem item = OrderItem.builder()
+                    .id(UUID.randomUUID())
+                    .productId(UUID.randomUUID())
+                    .quantity(1)
+                    .unitPrice(new BigDecimal("9.99"))
+                    .totalPrice(new BigDecimal("9.99"))
+                    .build();
+            Order order = Order.builder()
+                    .id(orderId)
+                    .customerId(UUID.randomUUID())
+                    .items(new ArrayList<>(List.of(item)))
+                    .status("CONFIRMED")
+                    .totalAmount(new BigDecimal("9.99"))
+                    .createdAt(createdAt)
+                    .version(0)
+                    .build();
+            jdbcTemplate.update("INSERT INTO orders (id, customer_id, status, total_amount, created_at, version) "
+                            + "VALUES (?, ?, ?, ?, ?, 0)", orderId, order.getCustomerId(), order.getStatus(),
+                    order.getTotalAmount(), Timestamp.from(createdAt));
+            jdbcTemplate.update("INSERT INTO order_items (id, order_id, product_id, quantity, unit_price, total_price) "
+                            + "VALUES (?, ?, ?, 1, ?, ?)", item.getId(), orderId, item.getProductId(),
+                    item.getUnitPrice(), item.getTotalPrice());
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).toList();
+        }
+    }
+}
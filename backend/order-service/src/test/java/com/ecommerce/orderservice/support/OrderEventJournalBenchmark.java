@@ -0,0 +1,172 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.dto.JournalReplayReport;
+import com.ecommerce.orderservice.event.OrderJournalRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append throughput and full replay of the order journal with both production projections.
+ * {@code append} journals new orders from four threads, each over 1M customers, with the usual
+ * 2ms group sync. {@code rebuild} replays a journal of 50M events (25M orders, each created and
+ * then confirmed, shipped or cancelled) across 16 partitions. That journal takes about 4.5GB
+ * in the temp directory (point it elsewhere with {@code -jvmArgsAppend -Djava.io.tmpdir=...})
+ * and the projections need the heap below.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx24g", "-XX:+UseParallelGC"})
+public class OrderEventJournalBenchmark {
+
+    private static final String[] NEXT_STATUSES = {"CONFIRMED", "SHIPPED", "CANCELLED"};
+
+    @State(Scope.Benchmark)
+    public static class AppendState {
+
+        @Param("1000000")
+        private int customers;
+
+        private Path directory;
+        private OrderEventJournal journal;
+        private UUID[] customerIds;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = newDirectory();
+            journal = openJournal(directory);
+            customerIds = customerIds(customers);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            journal.destroy();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReplayState {
+
+        @Param("50000000")
+        private long events;
+
+        @Param("2000000")
+        private int customers;
+
+        private Path directory;
+        private OrderEventJournal journal;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = newDirectory();
+            journal = openJournal(directory);
+            UUID[] customerIds = customerIds(customers);
+            SplittableRandom random = new SplittableRandom(11);
+            long began = System.nanoTime();
+            CompletableFuture<Long> last = CompletableFuture.completedFuture(0L);
+            for (long i = 0; i < events / 2; i++) {
+                UUID customerId = customerIds[random.nextInt(customerIds.length)];
+                OrderJournalRecord created = created(random, customerId);
+                journal.append(created);
+                last = journal.append(new OrderJournalRecord(0, OrderJournalRecord.Type.STATUS_CHANGED,
+                        created.getOrderId(), customerId, created.getTimestampMillis() + 60_000,
+                        created.getAmountMinorUnits(), "PENDING", NEXT_STATUSES[random.nextInt(NEXT_STATUSES.length)]));
+            }
+            last.join();
+            long elapsedNanos = System.nanoTime() - began;
+            System.out.printf("%nJournaled %d events from one thread in %d ms (%d events/s), %d MB on disk%n",
+                    events, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), events * 1_000_000_000L / elapsedNanos,
+                    (Long) journal.status().get("bytes") / (1024 * 1024));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            journal.destroy();
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CompletableFuture<Long> append(AppendState state) {
+        SplittableRandom random = new SplittableRandom(System.nanoTime());
+        return state.journal.append(created(random, state.customerIds[random.nextInt(state.customerIds.length)]));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public JournalReplayReport rebuild(ReplayState state) {
+        JournalReplayReport report = state.journal.rebuild();
+        System.out.printf("%nReplayed %d records in %d ms (%d records/s)%n",
+                report.getRecords(), report.getElapsedMillis(), report.getRecordsPerSecond());
+        return report;
+    }
+
+    private static OrderJournalRecord created(SplittableRandom random, UUID customerId) {
+        long createdAt = 1_780_000_000_000L + random.nextLong(30L * 24 * 3_600_000);
+        return new OrderJournalRecord(0, OrderJournalRecord.Type.ORDER_CREATED,
+                TimeOrderedUuid.next(createdAt), customerId, createdAt, 1_000 + random.nextLong(50_000),
+                null, "PENDING");
+    }
+
+    private static OrderEventJournal openJournal(Path directory) throws IOException {
+        OrderEventJournal journal = new OrderEventJournal(directory, 16, 64 * 1024 * 1024, 4, Duration.ofMillis(2),
+                Clock.systemUTC(), List.of(new OrderStatusProjection(), new CustomerTotalsProjection(false)),
+                new ObjectMapper(), new SimpleMeterRegistry());
+        journal.open();
+        return journal;
+    }
+
+    private static UUID[] customerIds(int count) {
+        SplittableRandom random = new SplittableRandom(3);
+        UUID[] ids = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+        return ids;
+    }
+
+    private static Path newDirectory() throws IOException {
+        return Files.createTempDirectory("order-journal-bench");
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
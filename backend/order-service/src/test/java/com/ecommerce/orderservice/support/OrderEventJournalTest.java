@@ -0,0 +1,88 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.dto.CustomerOrderSummaryDto;
+import com.ecommerce.orderservice.event.OrderEventMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feeds the journal from order events topic payloads, including the redelivery that follows a
+ * crash before the consumer committed its offsets, and reads the customer summary back from the
+ * journal's projection after a restart.
+ */
+class OrderEventJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<OrderEventJournal> opened = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (OrderEventJournal journal : opened) {
+            journal.destroy();
+        }
+    }
+
+    @Test
+    void redeliveredEventsAreNotJournaledTwice() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        UUID orderId = UUID.randomUUID();
+        List<String> batch = List.of(
+                payload(new OrderEventMessage(OrderEventMessage.Type.CREATED, orderId, customerId, "PENDING", null,
+                        new BigDecimal("30.00"), Instant.now(), List.of())),
+                payload(new OrderEventMessage(OrderEventMessage.Type.STATUS_CHANGED, orderId, customerId, "CONFIRMED",
+                        "PENDING", new BigDecimal("30.00"), null, null)),
+                payload(new OrderEventMessage(OrderEventMessage.Type.STATUS_CHANGED, orderId, customerId, "CANCELLED",
+                        "CONFIRMED", new BigDecimal("30.00"), null, null)));
+        CustomerTotalsProjection totals = new CustomerTotalsProjection(true);
+        OrderEventJournal journal = open(totals);
+
+        journal.onOrderEvents(batch);
+        journal.onOrderEvents(batch.subList(1, 3));
+        journal.onOrderEvents(batch);
+
+        assertThat(journal.status().get("records")).isEqualTo(3L);
+        CustomerOrderSummaryDto summary = totals.summary(customerId).orElseThrow();
+        assertThat(summary.getTotalOrders()).isEqualTo(1);
+        assertThat(summary.getByStatus()).containsOnlyKeys("CANCELLED");
+        assertThat(summary.getLifetimeSpend()).isEqualByComparingTo("0");
+
+        journal.destroy();
+        opened.remove(journal);
+        CustomerTotalsProjection restored = new CustomerTotalsProjection(true);
+        OrderEventJournal restarted = open(restored);
+        restarted.onOrderEvents(batch);
+
+        assertThat(restarted.status().get("records")).isEqualTo(3L);
+        assertThat(restored.summary(customerId).orElseThrow().getByStatus()).containsOnlyKeys("CANCELLED");
+    }
+
+    private OrderEventJournal open(CustomerTotalsProjection totals) throws Exception {
+        OrderEventJournal journal = new OrderEventJournal(directory, 4, 1024 * 1024, 2, Duration.ofMillis(1),
+                Clock.systemUTC(), List.of(new OrderStatusProjection(), totals), objectMapper, new SimpleMeterRegistry());
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private String payload(OrderEventMessage message) throws Exception {
+        return objectMapper.writeValueAsString(message);
+    }
+}
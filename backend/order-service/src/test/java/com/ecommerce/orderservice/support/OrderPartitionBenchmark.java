@@ -0,0 +1,165 @@
+package com.ecommerce.orderservice.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order lookups by id and single-order inserts against Postgres holding 10M and 100M orders,
+ * as one plain table and as monthly partitions maintained by {@link OrderPartitionManager}.
+ * Orders are spread over the last 36 months with UUIDv7 ids; a lookup passes the id's
+ * millisecond as {@code OrderRepository.findByOrderId} does, so the partitioned layout prunes
+ * to one month. Setup loads the rows with generate_series in a Postgres 16 container: the 100M
+ * trials need about 30GB of Docker disk and take a while to load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OrderPartitionBenchmark {
+
+    private static final int MONTHS = 36;
+    private static final int LOAD_CHUNK = 5_000_000;
+    private static final int SAMPLE_IDS = 100_000;
+
+    private static final String UUID_V7 = """
+            CREATE OR REPLACE FUNCTION uuid_v7(ts timestamptz) RETURNS uuid AS $$
+                SELECT encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid())
+                    PLACING substring(int8send(floor(extract(epoch FROM ts) * 1000)::bigint) FROM 3) FROM 1 FOR 6),
+                    52, 1), 53, 1), 'hex')::uuid
+            $$ LANGUAGE sql VOLATILE""";
+
+    private static final String LOAD = """
+            INSERT INTO orders (id, customer_id, status, total_amount, created_at, version)
+            SELECT uuid_v7(ts), gen_random_uuid(), 'CONFIRMED', 19.99, ts, 0
+            FROM (SELECT ?::timestamptz - random() * (? * interval '1 month') AS ts FROM generate_series(1, ?)) t""";
+
+    private static final String LOOKUP = """
+            SELECT id, customer_id, status, total_amount, created_at FROM orders
+            WHERE id = ? AND created_at >= ? AND created_at < ?""";
+
+    private static final String INSERT = """
+            INSERT INTO orders (id, customer_id, status, total_amount, created_at, version) VALUES (?, ?, 'PENDING', ?, ?, 0)""";
+
+    @Param({"10000000", "100000000"})
+    private long rows;
+
+    @Param({"plain", "partitioned"})
+    private String layout;
+
+    private GenericContainer<?> postgres;
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private UUID[] sampleIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                .withEnv("POSTGRES_PASSWORD", "test")
+                .withCommand("postgres", "-c", "shared_buffers=1GB", "-c", "max_wal_size=16GB")
+                .withSharedMemorySize(2L * 1024 * 1024 * 1024)
+                .withExposedPorts(5432)
+                .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+        postgres.start();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getMappedPort(5432) + "/postgres");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("test");
+        dataSource.setMaximumPoolSize(8);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Instant now = Instant.now();
+        createTable(now);
+        jdbcTemplate.execute(UUID_V7);
+        long began = System.nanoTime();
+        for (long loaded = 0; loaded < rows; loaded += LOAD_CHUNK) {
+            jdbcTemplate.update(LOAD, Timestamp.from(now), MONTHS, (int) Math.min(LOAD_CHUNK, rows - loaded));
+        }
+        jdbcTemplate.execute("CREATE INDEX idx_orders_customer_created_at ON orders (customer_id, created_at DESC)");
+        jdbcTemplate.execute("VACUUM ANALYZE orders");
+        System.out.printf("%nLoaded %d %s orders in %d s, %d MiB with indexes%n", rows, layout,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - began),
+                jdbcTemplate.queryForObject(
+                        "SELECT SUM(pg_total_relation_size(relid)) FROM pg_partition_tree('orders')", Long.class) >> 20);
+
+        List<UUID> sample = jdbcTemplate.queryForList(
+                "SELECT id FROM orders TABLESAMPLE SYSTEM (1) LIMIT " + SAMPLE_IDS, UUID.class);
+        sampleIds = sample.toArray(new UUID[0]);
+    }
+
+    private void createTable(Instant now) {
+        String columns = """
+                id UUID NOT NULL, customer_id UUID NOT NULL, status VARCHAR(32) NOT NULL,
+                total_amount NUMERIC(19, 2) NOT NULL, price_version BIGINT, shipping_address VARCHAR(255),
+                created_at TIMESTAMPTZ NOT NULL, version BIGINT NOT NULL""";
+        if ("plain".equals(layout)) {
+            jdbcTemplate.execute("CREATE TABLE orders (" + columns + ", PRIMARY KEY (id))");
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE orders (" + columns + ", PRIMARY KEY (id, created_at)) "
+                + "PARTITION BY RANGE (created_at)");
+        YearMonth current = YearMonth.from(now.atZone(ZoneOffset.UTC));
+        for (int i = 1; i <= MONTHS; i++) {
+            YearMonth month = current.minusMonths(i);
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE orders_p%s PARTITION OF orders FOR VALUES FROM ('%s') TO ('%s')",
+                    month.toString().replace('-', '_'),
+                    month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC),
+                    month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC)));
+        }
+        // the current and upcoming months, as the service creates them
+        new OrderPartitionManager(jdbcTemplate, Clock.systemUTC(), 3, MONTHS + 1, "").maintainPartitions();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public boolean lookupById() {
+        UUID id = sampleIds[ThreadLocalRandom.current().nextInt(sampleIds.length)];
+        Instant from = Instant.ofEpochMilli(TimeOrderedUuid.epochMilli(id));
+        Boolean found = jdbcTemplate.query(LOOKUP, rs -> rs.next(), id, Timestamp.from(from),
+                Timestamp.from(from.plusMillis(1)));
+        return Boolean.TRUE.equals(found);
+    }
+
+    @Benchmark
+    public int insert() {
+        Instant now = Instant.now();
+        return jdbcTemplate.update(INSERT, TimeOrderedUuid.next(now.toEpochMilli()), UUID.randomUUID(),
+                new BigDecimal("19.99"), Timestamp.from(now));
+    }
+}
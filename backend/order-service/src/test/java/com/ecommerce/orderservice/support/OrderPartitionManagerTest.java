@@ -0,0 +1,83 @@
+package com.ecommerce.orderservice.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs partition maintenance against a table laid out as the migration leaves it: the
+ * catch-all orders_legacy partition from MINVALUE must be detached and moved to the archive
+ * schema once its upper bound passes the retention window, like any monthly partition.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OrderPartitionManagerTest {
+
+    @Container
+    static final GenericContainer<?> POSTGRES = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+            .withEnv("POSTGRES_PASSWORD", "test")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://" + POSTGRES.getHost() + ":" + POSTGRES.getMappedPort(5432) + "/postgres");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("test");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS orders_archive CASCADE");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS orders, orders_legacy");
+        jdbcTemplate.execute("""
+                CREATE TABLE orders (id UUID NOT NULL, created_at TIMESTAMPTZ NOT NULL, PRIMARY KEY (id, created_at))
+                    PARTITION BY RANGE (created_at)""");
+        // migrated in November 2023, so the legacy partition ends at December 2023
+        jdbcTemplate.execute("""
+                CREATE TABLE orders_legacy PARTITION OF orders FOR VALUES FROM (MINVALUE) TO ('2023-12-01 00:00:00+00')""");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void legacyPartitionIsDetachedOnceItsNewestMonthIsPastRetention() {
+        manager("2025-11-15T00:00:00Z").maintainPartitions();
+        assertThat(partitions()).contains("orders_legacy");
+
+        manager("2025-12-15T00:00:00Z").maintainPartitions();
+        assertThat(partitions()).doesNotContain("orders_legacy")
+                .contains("orders_p2025_12", "orders_p2026_03");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT table_schema FROM information_schema.tables WHERE table_name = 'orders_legacy'", String.class))
+                .isEqualTo("orders_archive");
+    }
+
+    private OrderPartitionManager manager(String now) {
+        return new OrderPartitionManager(jdbcTemplate, Clock.fixed(Instant.parse(now), ZoneOffset.UTC), 3, 24,
+                "orders_archive");
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'orders'::regclass""", String.class);
+    }
+}
@@ -0,0 +1,155 @@
+package com.ecommerce.orderservice.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-filter admin searches over 10M indexed orders spread over 30 days, 8,000 products
+ * with a skewed popularity and six statuses. Each query picks a random product and window.
+ * {@code fullScan} filters the same data held in flat arrays, the cheapest possible
+ * alternative without an index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g", "-XX:+UseParallelGC"})
+public class OrderSearchIndexBenchmark {
+
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "SHIPPED", "DELIVERED", "CANCELLED", "REFUNDED"};
+    private static final double[] STATUS_SHARE = {0.05, 0.15, 0.20, 0.50, 0.08, 0.02};
+    private static final Duration SPAN = Duration.ofDays(30);
+
+    @Param("10000000")
+    private int orders;
+
+    @Param("8000")
+    private int products;
+
+    private Instant start;
+    private UUID[] catalog;
+    private OrderSearchIndex index;
+    private long[] createdAt;
+    private byte[] statusOf;
+    private int[][] productsOf;
+
+    private UUID productId;
+    private Instant from;
+    private Instant to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        start = Instant.parse("2026-09-01T00:00:00Z");
+        catalog = new UUID[products];
+        for (int i = 0; i < products; i++) {
+            catalog[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+        index = new OrderSearchIndex(start, orders);
+        createdAt = new long[orders];
+        statusOf = new byte[orders];
+        productsOf = new int[orders][];
+        long step = SPAN.toMillis() / orders;
+        long began = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            createdAt[i] = start.toEpochMilli() + i * step;
+            statusOf[i] = status(random.nextDouble());
+            int lines = 1 + random.nextInt(4);
+            productsOf[i] = new int[lines];
+            UUID[] lineProducts = new UUID[lines];
+            for (int j = 0; j < lines; j++) {
+                productsOf[i][j] = skewedProduct(random);
+                lineProducts[j] = catalog[productsOf[i][j]];
+            }
+            index.add(new UUID(random.nextLong(), random.nextLong()), STATUSES[statusOf[i]],
+                    Instant.ofEpochMilli(createdAt[i]), List.of(lineProducts));
+        }
+        System.out.printf("%nIndexed %d orders in %d ms%n", index.size(), (System.nanoTime() - began) / 1_000_000);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextQuery() {
+        SplittableRandom random = new SplittableRandom(System.nanoTime());
+        productId = catalog[skewedProduct(random)];
+        from = start.plus(Duration.ofDays(random.nextInt(23)));
+        to = from.plus(Duration.ofDays(7));
+    }
+
+    @Benchmark
+    public long statusAndProductInWeek() {
+        return index.search(List.of("CONFIRMED", "SHIPPED"), productId, from, to, 50).getTotal();
+    }
+
+    @Benchmark
+    public long statusInWeek() {
+        return index.search(List.of("PENDING"), null, from, to, 50).getTotal();
+    }
+
+    @Benchmark
+    public long productAcrossWindow() {
+        return index.search(null, productId, null, null, 50).getTotal();
+    }
+
+    @Benchmark
+    public long fullScan() {
+        int product = indexOf(productId);
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        long total = 0;
+        for (int i = 0; i < orders; i++) {
+            if (createdAt[i] < fromMillis || createdAt[i] >= toMillis || (statusOf[i] != 1 && statusOf[i] != 2)) {
+                continue;
+            }
+            for (int p : productsOf[i]) {
+                if (p == product) {
+                    total++;
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    private int indexOf(UUID product) {
+        for (int i = 0; i < catalog.length; i++) {
+            if (catalog[i].equals(product)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // roughly Zipf: a few best sellers appear in a large share of orders
+    private int skewedProduct(SplittableRandom random) {
+        return (int) Math.min(products - 1, Math.floor(Math.pow(products, random.nextDouble())) - 1);
+    }
+
+    private static byte status(double draw) {
+        double cumulative = 0;
+        for (byte i = 0; i < STATUS_SHARE.length; i++) {
+            cumulative += STATUS_SHARE[i];
+            if (draw < cumulative) {
+                return i;
+            }
+        }
+        return (byte) (STATUS_SHARE.length - 1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.orderservice.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices a 1,000-line cart against an index of 1M products, next to the boxed
+ * {@code HashMap<UUID, Long>} lookup it replaces. Setup prints the table's footprint;
+ * run with {@code -Djmh.args="-prof gc"} to see that pricing allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PriceIndexBenchmark {
+
+    @Param("1000000")
+    private int products;
+
+    @Param("1000")
+    private int cartLines;
+
+    private PriceIndex index;
+    private Map<UUID, Long> boxed;
+    private UUID[] cart;
+    private long[] unitPrices;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        UUID[] catalog = new UUID[products];
+        PriceIndex.Builder builder = PriceIndex.builder(products);
+        boxed = new HashMap<>(products * 2);
+        for (int i = 0; i < products; i++) {
+            catalog[i] = new UUID(random.nextLong(), random.nextLong());
+            long price = 100 + random.nextInt(100_000);
+            builder.put(catalog[i], price, 1);
+            boxed.put(catalog[i], price);
+        }
+        index = new PriceIndex();
+        index.replaceAll(builder.catalogVersion(1));
+        System.out.printf("%n%d products: %d MiB in the price index%n", products, index.estimatedBytes() >> 20);
+
+        cart = new UUID[cartLines];
+        for (int i = 0; i < cartLines; i++) {
+            cart[i] = catalog[random.nextInt(products)];
+        }
+        unitPrices = new long[cartLines];
+    }
+
+    @Benchmark
+    public long priceIndex() {
+        index.priceAll(cart, unitPrices);
+        return unitPrices[cartLines - 1];
+    }
+
+    @Benchmark
+    public long boxedHashMap() {
+        long total = 0;
+        for (UUID productId : cart) {
+            total += boxed.get(productId);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.orderservice.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceIndexTest {
+
+    @Test
+    void snapshotIsSizedFromExpectedCount() {
+        assertThat(PriceIndex.capacityFor(1_000_000)).isEqualTo(1 << 21);
+        assertThat(PriceIndex.builder(1_000_000).estimatedBytes()).isEqualTo(64L << 20);
+        assertThat(PriceIndex.capacityFor(0)).isEqualTo(1 << 10);
+    }
+
+    @Test
+    void replaceAllDropsProductsMissingFromSnapshot() {
+        PriceIndex index = new PriceIndex();
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        index.put(kept, 1_000, 1);
+        index.put(deleted, 2_000, 2);
+
+        index.replaceAll(PriceIndex.builder(1).put(kept, 1_500, 3).catalogVersion(3));
+
+        long[] prices = new long[1];
+        index.priceAll(new UUID[]{kept}, prices);
+        assertThat(prices[0]).isEqualTo(1_500);
+        assertThatThrownBy(() -> index.priceAll(new UUID[]{deleted}, new long[1]))
+                .isInstanceOf(PriceIndex.UnknownProductException.class);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void replaceAllKeepsChangesNewerThanSnapshot() {
+        PriceIndex index = new PriceIndex();
+        UUID updated = UUID.randomUUID();
+        UUID added = UUID.randomUUID();
+        PriceIndex.Builder snapshot = PriceIndex.builder(1).put(updated, 1_000, 5).catalogVersion(5);
+        // change events that arrive while the snapshot is still loading
+        index.put(updated, 1_200, 6);
+        index.put(added, 900, 7);
+
+        index.replaceAll(snapshot);
+
+        long[] prices = new long[2];
+        long version = index.priceAll(new UUID[]{updated, added}, prices);
+        assertThat(prices).containsExactly(1_200, 900);
+        assertThat(version).isEqualTo(7);
+    }
+}
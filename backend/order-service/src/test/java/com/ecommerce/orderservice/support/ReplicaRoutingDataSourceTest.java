@@ -0,0 +1,157 @@
+package com.ecommerce.orderservice.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes against two embedded H2 databases that each answer with their own name, standing in
+ * for a primary and a replica.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaHealthMonitor healthMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = embedded("primary");
+        replica = embedded("replica");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica", replica);
+        healthMonitor = new ReplicaHealthMonitor(replicas, "", Duration.ofSeconds(5));
+        healthMonitor.checkReplicas();
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(healthMonitor);
+        routing.setTargetDataSources(Map.of(ReplicaRoutingDataSource.PRIMARY, primary, "replica", replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        dataSource.setDefaultAutoCommit(true);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+
+    @Test
+    void writeTransactionsGoToPrimary() {
+        assertThat(readWrite.execute(status -> node())).isEqualTo("primary");
+    }
+
+    @Test
+    void pinnedReadsGoToPrimary() {
+        assertThat(ReplicaRoutingContext.onPrimary(() -> readOnly.execute(status -> node()))).isEqualTo("primary");
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenReplicaIsDown() {
+        replica.close();
+        healthMonitor.checkReplicas();
+
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+    }
+
+    @Test
+    void customerReadsStayOnPrimaryAfterWrite() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        UUID writer = UUID.randomUUID();
+        tracker.recordWrite(writer);
+
+        assertThat(tracker.read(writer, () -> readOnly.execute(status -> node()))).isEqualTo("primary");
+        assertThat(tracker.read(UUID.randomUUID(), () -> readOnly.execute(status -> node()))).isEqualTo("replica");
+    }
+
+    @Test
+    void writeMarkerPinsReadsOnAnotherNode() throws Exception {
+        ReadYourWritesTracker writingNode = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        ReadYourWritesTracker readingNode = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        String marker = writingNode.writeMarker().getValue();
+
+        assertThat(readThroughFilter(readingNode, new Cookie(ReadYourWritesTracker.MARKER_COOKIE, marker)))
+                .isEqualTo("primary");
+        assertThat(readThroughFilter(readingNode, null)).isEqualTo("replica");
+    }
+
+    @Test
+    void expiredOrForgedMarkersAreIgnored() throws Exception {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        long now = System.currentTimeMillis();
+
+        assertThat(readThroughFilter(tracker,
+                new Cookie(ReadYourWritesTracker.MARKER_COOKIE, Long.toString(now - 1)))).isEqualTo("replica");
+        assertThat(readThroughFilter(tracker,
+                new Cookie(ReadYourWritesTracker.MARKER_COOKIE, Long.toString(now + 3_600_000)))).isEqualTo("replica");
+        assertThat(readThroughFilter(tracker,
+                new Cookie(ReadYourWritesTracker.MARKER_COOKIE, "not-a-number"))).isEqualTo("replica");
+    }
+
+    private String readThroughFilter(ReadYourWritesTracker tracker, Cookie marker) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        if (marker != null) {
+            request.setCookies(marker);
+        }
+        AtomicReference<String> node = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                node.set(readOnly.execute(status -> node()));
+            }
+        });
+        new ReadYourWritesFilter(tracker).doFilter(request, new MockHttpServletResponse(), chain);
+        return node.get();
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static HikariDataSource embedded(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.config.JdbcInstrumentationConfiguration;
+import com.ecommerce.orderservice.service.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a repository query on H2 through a datasource-proxy DataSource with the profiler as its
+ * listener and a zero slow-query threshold: the statement must be timed under the repository
+ * method that issued it and captured, with its EXPLAIN plan, as a slow-query snapshot.
+ */
+@DataJpaTest
+@Import({JdbcInstrumentationConfiguration.class, SlowQueryProfilerTest.ProfiledDataSource.class})
+class SlowQueryProfilerTest {
+
+    private static final String METHOD = "OrderRepository.findByCustomerIdAndStatus";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SlowQueryProfiler slowQueryProfiler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repositoryStatementIsTimedAndCapturedUnderItsMethod() throws InterruptedException {
+        slowQueryProfiler.clear();
+
+        orderRepository.findByCustomerIdAndStatus(UUID.randomUUID(), "PENDING");
+
+        Timer timer = meterRegistry.find("order.jdbc.query")
+                .tags("repository_method", METHOD, "success", "true")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(slowQueryProfiler.snapshots()).singleElement().satisfies(snapshot -> {
+            assertThat(snapshot.getRepositoryMethod()).isEqualTo(METHOD);
+            assertThat(snapshot.getSql()).containsIgnoringCase("from orders");
+            assertThat(snapshot.getParameterShapes()).hasSize(2);
+            assertThat(snapshot.isSuccess()).isTrue();
+        });
+
+        // the plan is filled in by the explain thread
+        String plan = null;
+        for (int attempt = 0; attempt < 50 && plan == null; attempt++) {
+            Thread.sleep(100);
+            plan = slowQueryProfiler.snapshots().get(0).getExplainPlan();
+        }
+        assertThat(plan).isNotNull().doesNotStartWith("EXPLAIN failed").containsIgnoringCase("orders");
+    }
+
+    @TestConfiguration
+    static class ProfiledDataSource {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        SlowQueryProfiler slowQueryProfiler(MeterRegistry meterRegistry, ObjectProvider<DataSource> dataSource) {
+            return new SlowQueryProfiler(meterRegistry, dataSource, Duration.ZERO, 16, Duration.ofMinutes(1));
+        }
+
+        @Bean
+        static BeanPostProcessor profiledDataSource(ObjectProvider<SlowQueryProfiler> slowQueryProfiler) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource).listener(slowQueryProfiler.getObject()).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.orderservice.support;
+
+import com.ecommerce.orderservice.command.CreateOrderCommand;
+import com.ecommerce.orderservice.service.OrderFactory;
+import com.ecommerce.orderservice.service.OrderRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Asks the warm-up for more connections than the pools hold, which used to park every holder
+ * on a latch that could never reach zero, through the same lazy proxy and routing data source
+ * the replica routing configuration builds; and checks that with server-side pricing the order
+ * path runs every iteration instead of stopping at the first unknown product.
+ */
+class StartupWarmupTest {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void warmupFillsThePrimaryAndReplicaPoolsAndFinishes() {
+        HikariDataSource primary = pool("primary");
+        HikariDataSource replica = pool("replica");
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return "primary";
+            }
+        };
+        routing.setTargetDataSources(Map.of("primary", primary, "replica", replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        StartupWarmup warmup = warmup(new LazyConnectionDataSourceProxy(routing), mock(OrderFactory.class),
+                new PriceIndex());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> warmup.run(null));
+
+        assertThat(primary.getHikariPoolMXBean().getTotalConnections()).isEqualTo(3);
+        assertThat(replica.getHikariPoolMXBean().getTotalConnections()).isEqualTo(3);
+    }
+
+    @Test
+    void serverPricedOrderPathRunsEveryIteration() {
+        PriceIndex priceIndex = new PriceIndex();
+        priceIndex.put(UUID.randomUUID(), 1_999, 1);
+        OrderFactory orderFactory = spy(new OrderFactory(Clock.systemUTC(), priceIndex, true));
+        StartupWarmup warmup = warmup(new LazyConnectionDataSourceProxy(pool("pricing")), orderFactory, priceIndex);
+        ReflectionTestUtils.setField(warmup, "iterations", 50);
+
+        warmup.run(null);
+
+        verify(orderFactory, times(50)).createOptimizedOrder(any(CreateOrderCommand.class));
+    }
+
+    private StartupWarmup warmup(DataSource dataSource, OrderFactory orderFactory, PriceIndex priceIndex) {
+        StartupWarmup warmup = new StartupWarmup(
+                new JdbcTemplate(dataSource),
+                mock(StringRedisTemplate.class),
+                mock(OrderRepository.class),
+                orderFactory,
+                priceIndex,
+                // as Spring Boot configures it
+                new ObjectMapper().registerModule(new JavaTimeModule())
+                        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        ReflectionTestUtils.setField(warmup, "iterations", 1);
+        ReflectionTestUtils.setField(warmup, "connections", 10);
+        ReflectionTestUtils.setField(warmup, "connectionTimeout", Duration.ofSeconds(2));
+        return warmup;
+    }
+
+    private HikariDataSource pool(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:warmup-" + name + ";DB_CLOSE_DELAY=-1");
+        pool.setMaximumPoolSize(3);
+        pool.setMinimumIdle(0);
+        pools.add(pool);
+        return pool;
+    }
+}